@@ -1,6 +1,9 @@
 package io.github.kurenairyu.cache;
 
 import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.namespace.DefaultNamespaceCache;
+import io.github.kurenairyu.cache.namespace.NamespaceCache;
 import org.apache.commons.lang3.RandomUtils;
 
 import java.util.Collection;
@@ -10,6 +13,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 缓存接口类
@@ -165,6 +169,7 @@ public interface Cache {
                                     Function<Collection<K>, Map<K, V>> func) {
         Map<K, V> cacheKeys = getAll(namespace, keys);
         var       missKeys  = keys.stream().filter(k -> !cacheKeys.containsKey(k)).collect(Collectors.toList());
+        if (missKeys.isEmpty()) return cacheKeys;
         Optional.ofNullable(func.apply(missKeys)).filter(l -> !l.isEmpty()).ifPresent(map -> {
             putAll(namespace, map);
             cacheKeys.putAll(map);
@@ -188,6 +193,7 @@ public interface Cache {
         CompletableFuture<Map<K, V>> future = getAllAsync(namespace, keys);
         return future.thenApply(cacheKeys -> {
             var missKeys = keys.stream().filter(k -> !cacheKeys.containsKey(k)).collect(Collectors.toList());
+            if (missKeys.isEmpty()) return cacheKeys;
             Optional.ofNullable(func.apply(missKeys)).filter(l -> !l.isEmpty()).ifPresent(map -> {
                 putAll(namespace, map);
                 cacheKeys.putAll(map);
@@ -536,23 +542,73 @@ public interface Cache {
 
     // endregion
 
+    // region scan
+
+    /**
+     * 惰性遍历命名空间下的key
+     *
+     * @see #keys(String, ScanOptions)
+     */
+    default Stream<String> keys(String namespace) {
+        return keys(namespace, ScanOptions.defaults());
+    }
+
+    /**
+     * 惰性遍历命名空间下的key，消费完一页才拉取下一页，内存占用与命名空间大小无关。
+     * 短路操作（如 {@code limit}、{@code findFirst}）或关闭流即停止遍历；遍历期间新增或删除的key可能遍历不到，也可能重复出现。
+     * 本地缓存中只有 {@code MemoryCache} 支持，{@code OffHeapCache}、{@code DiskCache}、{@code SharedMemoryCache} 抛出异常；
+     * {@code TieredCache} 遍历最后一层。
+     *
+     * @param namespace 命名空间
+     * @param options   遍历参数
+     * @return 去掉命名空间前缀的key，用完应关闭
+     * @throws NotSupportOperationException 不支持该操作时抛出异常
+     */
+    default Stream<String> keys(String namespace, ScanOptions options) {
+        throw new NotSupportOperationException(getClass().getSimpleName() + " does not support scan");
+    }
+
+    /**
+     * 惰性遍历命名空间下的缓存
+     *
+     * @see #entries(String, ScanOptions)
+     */
+    default <V> Stream<Map.Entry<String, V>> entries(String namespace) {
+        return entries(namespace, ScanOptions.defaults());
+    }
+
+    /**
+     * 惰性遍历命名空间下的缓存，每页的值批量读取，遍历期间被删除或过期的key不会出现
+     *
+     * @param namespace 命名空间
+     * @param options   遍历参数
+     * @return 去掉命名空间前缀的key与缓存对象，用完应关闭
+     * @throws NotSupportOperationException 不支持该操作时抛出异常
+     * @see #keys(String, ScanOptions)
+     */
+    default <V> Stream<Map.Entry<String, V>> entries(String namespace, ScanOptions options) {
+        throw new NotSupportOperationException(getClass().getSimpleName() + " does not support scan");
+    }
+
+    // endregion
+
     // region other
 
     /**
-     * 查看指定缓存是否存在
+     * 查看指定缓存是否存在，与redis的EXISTS一致
      *
      * @param namespace 命名空间
      * @param keys      键值
-     * @return
+     * @return 任一key存在则为 true，否则 false
      */
     <K> boolean existsAll(String namespace, Collection<K> keys);
 
     /**
-     * 查看指定缓存是否存在
+     * 查看指定缓存是否存在，与redis的EXISTS一致
      *
      * @param namespace 命名空间
      * @param keys      键值
-     * @return
+     * @return 任一key存在则为 true，否则 false
      */
     <K> CompletableFuture<Boolean> existsAllAsync(String namespace, Collection<K> keys);
 
@@ -592,6 +648,33 @@ public interface Cache {
      */
     <K> CompletableFuture<Boolean> expireAsync(String namespace, K key, long ttl, TimeUnit timeUnit);
 
+    /**
+     * 查询剩余存活时间，与redis的PTTL一致
+     *
+     * @param namespace 命名空间
+     * @param key       键值
+     * @return 剩余存活时间(ms)，永不过期返回-1，不存在返回-2
+     * @throws NotSupportOperationException 不支持该操作时抛出异常
+     */
+    default <K> long ttl(String namespace, K key) {
+        throw new NotSupportOperationException(getClass().getSimpleName() + " does not support ttl");
+    }
+
+    /**
+     * 查询剩余存活时间，与redis的PTTL一致
+     *
+     * @param namespace 命名空间
+     * @param key       键值
+     * @return 剩余存活时间(ms)，永不过期返回-1，不存在返回-2
+     */
+    default <K> CompletableFuture<Long> ttlAsync(String namespace, K key) {
+        try {
+            return CompletableFuture.completedFuture(ttl(namespace, key));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * 分布式锁
      *
@@ -604,6 +687,25 @@ public interface Cache {
         return null;
     }
 
+    /**
+     * 获取绑定到命名空间的类型化缓存句柄，每次调用返回新的句柄，应保存复用
+     *
+     * @param namespace 命名空间
+     * @param keyType   键类型
+     * @param valueType 值类型
+     * @return 缓存句柄
+     */
+    default <K, V> NamespaceCache<K, V> namespace(String namespace, Class<K> keyType, Class<V> valueType) {
+        return new DefaultNamespaceCache<>(this, namespace, keyType, valueType);
+    }
+
+    /**
+     * @return 指标记录器，不记录指标时为 {@link CacheMetrics#NOOP}
+     */
+    default CacheMetrics getMetrics() {
+        return CacheMetrics.NOOP;
+    }
+
     /**
      * 获取调用客户端实例（不进行包装的客户端）
      *
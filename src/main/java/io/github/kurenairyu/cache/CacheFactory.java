@@ -1,7 +1,12 @@
 package io.github.kurenairyu.cache;
 
 
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import io.github.kurenairyu.cache.offheap.OffHeapCache;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
 import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCacheAbstract;
+import io.lettuce.core.RedisURI;
 
 /**
  * @author Kurenai
@@ -10,16 +15,39 @@ import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
 
 public class CacheFactory {
 
+    /**
+     * 创建redis缓存，工厂创建的缓存共用 {@link LettuceCacheAbstract#sharedClientResources()}
+     */
     public static Cache create(String host, int port) {
-        return new LettuceCache(host, port);
+        return create(RedisURI.builder().withHost(host).withPort(port).build());
     }
 
     public static Cache create(String host, int port, String password) {
-        return new LettuceCache(host, port, password, 0);
+        return create(RedisURI.builder().withHost(host).withPort(port).withPassword(password).build());
+    }
+
+    private static Cache create(RedisURI redisURI) {
+        return new LettuceCache(redisURI, new KryoCodec<>(), null, LettuceCacheAbstract.sharedClientResources());
+    }
+
+    /**
+     * 创建不需要连接信息的缓存
+     *
+     * @param cacheType 缓存类型，目前支持 {@link CacheType#MEMORY} 与 {@link CacheType#OFF_HEAP}
+     * @return 缓存
+     */
+    public static Cache create(CacheType cacheType) {
+        switch (cacheType) {
+            case MEMORY: return new MemoryCache();
+            case OFF_HEAP: return new OffHeapCache();
+            default: throw new IllegalArgumentException(cacheType + " cache requires host and port");
+        }
     }
 
     public static Cache create(String host, int port, CacheType cacheType) {
         switch (cacheType) {
+            case MEMORY: return new MemoryCache();
+            case OFF_HEAP: return new OffHeapCache();
             case REDIS:
             default: return create(host, port);
         }
@@ -27,6 +55,8 @@ public class CacheFactory {
 
     public static Cache create(String host, int port, String password, CacheType cacheType) {
         switch (cacheType) {
+            case MEMORY: return new MemoryCache();
+            case OFF_HEAP: return new OffHeapCache();
             case REDIS:
             default: return create(host, port, password);
         }
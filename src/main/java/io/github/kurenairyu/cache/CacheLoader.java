@@ -0,0 +1,39 @@
+package io.github.kurenairyu.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓存回源加载器，按命名空间注册后未命中的读取由其加载并写回缓存
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Kurenai
+ * @since 2026-10-19 13:01
+ */
+public interface CacheLoader<K, V> {
+
+    /**
+     * 加载单个key
+     *
+     * @param key 缓存标识/id
+     * @return 值，不存在返回null
+     */
+    V load(K key);
+
+    /**
+     * 批量加载，默认逐个调用 {@link #load}，数据源支持批量查询时应覆盖此方法
+     *
+     * @param keys 缓存标识/id集合，不为空
+     * @return 存在的key与值，不存在的key不包含在结果中
+     */
+    default Map<K, V> loadAll(Collection<K> keys) {
+        var result = new HashMap<K, V>();
+        for (K key : keys) {
+            V value = load(key);
+            if (value != null) result.put(key, value);
+        }
+        return result;
+    }
+}
@@ -6,6 +6,16 @@ package io.github.kurenairyu.cache;
  */
 public enum CacheType {
 
-    REDIS
+    REDIS,
+
+    /**
+     * 进程内缓存，见 {@link io.github.kurenairyu.cache.memory.MemoryCache}
+     */
+    MEMORY,
+
+    /**
+     * 堆外缓存，见 {@link io.github.kurenairyu.cache.offheap.OffHeapCache}
+     */
+    OFF_HEAP
 
 }
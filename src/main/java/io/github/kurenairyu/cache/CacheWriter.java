@@ -0,0 +1,44 @@
+package io.github.kurenairyu.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存写穿写入器，按命名空间注册后缓存的写入与删除先同步到数据源，数据源失败则不修改缓存
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Kurenai
+ * @since 2026-10-19 13:01
+ */
+public interface CacheWriter<K, V> {
+
+    /**
+     * @param key   缓存标识/id
+     * @param value 缓存对象
+     */
+    void write(K key, V value);
+
+    /**
+     * 批量写入，默认逐个调用 {@link #write}
+     *
+     * @param keyValueMap 缓存key和对象的map
+     */
+    default void writeAll(Map<K, V> keyValueMap) {
+        keyValueMap.forEach(this::write);
+    }
+
+    /**
+     * @param key 缓存标识/id
+     */
+    void delete(K key);
+
+    /**
+     * 批量删除，默认逐个调用 {@link #delete}
+     *
+     * @param keys 缓存标识/id集合
+     */
+    default void deleteAll(Collection<K> keys) {
+        keys.forEach(this::delete);
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.kurenairyu.cache;
+
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.kurenairyu.cache.util.StringPool.COLON;
+
+/**
+ * 本地缓存的公共实现
+ * <p>
+ * 值允许为null，ttl小于等于0表示永不过期。本地缓存没有网络往返，异步方法直接在调用线程执行同步方法后返回已完成的future；
+ * 不带ttl的重载按永不过期处理，批量方法逐个调用单个key的方法。子类只需实现单个key的读写、删除、清空与过期。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 14:00
+ */
+public abstract class LocalCacheAbstract implements Cache {
+
+    protected static final String CONNECTOR = COLON;
+
+    //region get
+
+    @Override
+    public <K, V> CompletableFuture<V> getAsync(String namespace, K key) {
+        return CompletableFuture.completedFuture(get(namespace, key));
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Map<K, V>> getAllAsync(String namespace, Collection<K> keys) {
+        return CompletableFuture.completedFuture(getAll(namespace, keys));
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value) {
+        put(namespace, key, value, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value) {
+        put(namespace, key, value);
+        return CompletableFuture.completedFuture("OK");
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value, long ttl) {
+        put(namespace, key, value, ttl);
+        return CompletableFuture.completedFuture("OK");
+    }
+
+    @Override
+    public <K, V> void putAll(String namespace, Map<K, V> keyValueMap) {
+        keyValueMap.forEach((k, v) -> put(namespace, k, v));
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAllAsync(String namespace, Map<K, V> keyValueMap) {
+        putAll(namespace, keyValueMap);
+        return CompletableFuture.completedFuture("OK");
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value) {
+        return putIfAbsent(namespace, key, value, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value) {
+        return CompletableFuture.completedFuture(putIfAbsent(namespace, key, value));
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value, long ttl) {
+        return CompletableFuture.completedFuture(putIfAbsent(namespace, key, value, ttl));
+    }
+
+    @Override
+    public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap) {
+        return putAllIfAbsent(namespace, keyValueMap, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap) {
+        return CompletableFuture.completedFuture(putAllIfAbsent(namespace, keyValueMap));
+    }
+
+    /**
+     * 任一key已存在则不写入，与MSETNX不同的是检查与写入之间不是原子的
+     */
+    @Override
+    public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (existsAll(namespace, keyValueMap.keySet())) return false;
+        boolean all = true;
+        for (Map.Entry<K, V> entry : keyValueMap.entrySet()) {
+            all &= putIfAbsent(namespace, entry.getKey(), entry.getValue(), ttl);
+        }
+        return all;
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap, long ttl) {
+        return CompletableFuture.completedFuture(putAllIfAbsent(namespace, keyValueMap, ttl));
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> CompletableFuture<Boolean> removeAsync(String namespace, K key) {
+        return CompletableFuture.completedFuture(remove(namespace, key));
+    }
+
+    @Override
+    public <K> boolean removeAll(String namespace, Collection<K> keys) {
+        boolean removed = false;
+        for (K key : keys) {
+            removed |= remove(namespace, key);
+        }
+        return removed;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> removeAllAsync(String namespace, Collection<K> keys) {
+        return CompletableFuture.completedFuture(removeAll(namespace, keys));
+    }
+
+    //endregion
+
+    //region clear
+
+    @Override
+    public CompletableFuture<Boolean> clearAsync(String namespace) {
+        return CompletableFuture.completedFuture(clear(namespace));
+    }
+
+    @Override
+    public CompletableFuture<String> clearAllAsync() {
+        clearAll();
+        return CompletableFuture.completedFuture("OK");
+    }
+
+    //endregion
+
+    //region other
+
+    /**
+     * 与redis的EXISTS一致，任一key存在即返回true
+     */
+    @Override
+    public <K> boolean existsAll(String namespace, Collection<K> keys) {
+        for (K key : keys) {
+            if (exists(namespace, key)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> existsAllAsync(String namespace, Collection<K> keys) {
+        return CompletableFuture.completedFuture(existsAll(namespace, keys));
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> existsAsync(String namespace, K key) {
+        return CompletableFuture.completedFuture(exists(namespace, key));
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> expireAsync(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        return CompletableFuture.completedFuture(expire(namespace, key, ttl, timeUnit));
+    }
+
+    @Override
+    public <T> T getExec() {
+        throw new NotSupportOperationException(getClass().getSimpleName() + " has no underlying client");
+    }
+
+    @Override
+    public <T> T getExecAsync() {
+        throw new NotSupportOperationException(getClass().getSimpleName() + " has no underlying client");
+    }
+
+    //endregion
+
+    /**
+     * @param expiresAt 过期时间戳(ms)，{@link Long#MAX_VALUE} 表示永不过期
+     * @return 与 {@link #ttl} 一致的剩余存活时间
+     */
+    protected static long remainingTtl(long expiresAt, long now) {
+        if (expiresAt <= now) return -2;
+        return expiresAt == Long.MAX_VALUE ? -1 : expiresAt - now;
+    }
+
+    /**
+     * @return 命名空间与key拼接后的完整key
+     */
+    protected static <K> String joinKey(String namespace, K key) {
+        return String.join(CONNECTOR, namespace, String.valueOf(key));
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.kurenairyu.cache;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 响应式缓存接口，用于批量导出、大批量读取等需要流式处理的场景
+ * <p>
+ * 结果按批解码后逐条发出并遵循背压，内存占用只与批大小有关，与结果总量无关。不存在的key不会发出。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:24
+ */
+public interface ReactiveCache {
+
+    /**
+     * 查找缓存
+     *
+     * @param namespace 命名空间
+     * @param key       缓存标识/id
+     * @return 缓存对象，不存在时为空
+     */
+    <K, V> Mono<V> get(String namespace, K key);
+
+    /**
+     * 批量查找缓存，上游的key按批读取
+     *
+     * @param namespace 命名空间
+     * @param keys      缓存标识/id
+     * @return 存在的键值对
+     */
+    <K, V> Flux<Map.Entry<K, V>> getAll(String namespace, Publisher<K> keys);
+
+    /**
+     * 遍历命名空间下的key
+     *
+     * @param namespace 命名空间
+     * @return 去掉命名空间前缀的key
+     */
+    Flux<String> keys(String namespace);
+
+    /**
+     * 遍历命名空间下的缓存
+     *
+     * @param namespace 命名空间
+     * @return 去掉命名空间前缀的key与缓存对象
+     */
+    <V> Flux<Map.Entry<String, V>> entries(String namespace);
+
+    /**
+     * 添加缓存
+     *
+     * @param namespace 命名空间
+     * @param key       缓存标识/id
+     * @param value     缓存对象
+     * @param ttl       time to live (ms)，小于等于0表示不过期
+     * @return 完成信号
+     */
+    <K, V> Mono<Void> put(String namespace, K key, V value, long ttl);
+
+    /**
+     * 批量添加上游的缓存，按批写入
+     *
+     * @param namespace 命名空间
+     * @param entries   键值对
+     * @param ttl       time to live (ms)，小于等于0表示不过期
+     * @return 写入的数量
+     */
+    <K, V> Mono<Long> putAll(String namespace, Publisher<? extends Map.Entry<K, V>> entries, long ttl);
+
+    /**
+     * 移除缓存
+     *
+     * @param namespace 命名空间
+     * @param key       缓存标识/id
+     * @return 是否存在并被移除
+     */
+    <K> Mono<Boolean> remove(String namespace, K key);
+
+    /**
+     * 清除命名空间下所有缓存
+     *
+     * @param namespace 命名空间
+     * @return 移除的数量
+     */
+    Mono<Long> clear(String namespace);
+}
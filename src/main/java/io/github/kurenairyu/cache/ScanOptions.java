@@ -0,0 +1,46 @@
+package io.github.kurenairyu.cache;
+
+/**
+ * 遍历命名空间的参数
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:26
+ */
+public class ScanOptions {
+
+    public static final int DEFAULT_COUNT = 100;
+
+    private int    count = DEFAULT_COUNT;
+    private double pagesPerSecond;
+
+    public static ScanOptions defaults() {
+        return new ScanOptions();
+    }
+
+    /**
+     * @param count 每页扫描的key数量（SCAN的COUNT），也是每批读取值的数量上限
+     */
+    public ScanOptions count(int count) {
+        if (count <= 0) throw new IllegalArgumentException("count must be positive");
+        this.count = count;
+        return this;
+    }
+
+    /**
+     * 限制每秒拉取的页数，避免长时间遍历挤占服务端
+     *
+     * @param pagesPerSecond 每秒页数，小于等于0表示不限制
+     */
+    public ScanOptions rateLimit(double pagesPerSecond) {
+        this.pagesPerSecond = pagesPerSecond;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getPagesPerSecond() {
+        return pagesPerSecond;
+    }
+}
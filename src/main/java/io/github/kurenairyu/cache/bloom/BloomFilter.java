@@ -0,0 +1,489 @@
+package io.github.kurenairyu.cache.bloom;
+
+import io.github.kurenairyu.cache.util.HashUtil;
+import lombok.extern.log4j.Log4j2;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可扩展的布隆过滤器，用于拦截一定不存在的key
+ * <p>
+ * 位图以redis为准，本地缓存一份，判断只查本地副本，不产生网络请求。新增的key立即写入本地位图与redis，
+ * 写入redis失败的位由 {@link #refresh()} 重试；其他节点新增的key在刷新发现该层的BITCOUNT变大、拉取位图后可见，
+ * 在此之前可能被误拦截。不能接受这段时间的误拦截时可以开启 {@link #setConfirmRejects(boolean)}，
+ * 本地判断不存在的key再用GETBIT向redis确认，代价是每次拦截都有一次网络往返。
+ * </p>
+ * <p>
+ * 第i层的容量为 {@code expectedInsertions * 2^i}、误判率为 {@code fpp / 2^i}，当前层估算元素数量达到容量后
+ * 新增写入下一层，总误判率不超过 {@code 2 * fpp}。刷新时通过下一层位图是否存在发现其他节点扩展的新层，
+ * 并用BITCOUNT更新各层的估算元素数量，只有新发现的层与BITCOUNT比本地多的层才拉取整个位图。
+ * 每个实例在redis中维护一个带过期时间的标记key，刷新时标记不存在说明redis数据丢失过（如被 FLUSHDB），
+ * 此时用本地副本按位或合并回去，不会覆盖其他节点同时写入的位。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:05
+ */
+@Log4j2
+public class BloomFilter {
+
+    /**
+     * redis位图最大长度为2^32位
+     */
+    private static final long MAX_BITS = 1L << 32;
+
+    /**
+     * 标记key的存活时间(ms)，每次刷新续期
+     */
+    private static final long MARKER_TTL = TimeUnit.HOURS.toMillis(1);
+
+    private final String           name;
+    private final long             expectedInsertions;
+    private final double           fpp;
+    private final BloomFilterStore store;
+    private final String           marker;
+    private final Object           lock           = new Object();
+    private final LongAdder        passed         = new LongAdder();
+    private final LongAdder        rejected       = new LongAdder();
+    private final LongAdder        falsePositives = new LongAdder();
+    private volatile Layer[]       layers;
+    private volatile boolean       confirmRejects;
+
+    /**
+     * @param name               位图key前缀，第i层的key为 {@code name:i}
+     * @param expectedInsertions 第一层的预期元素数量
+     * @param fpp                第一层的误判率
+     * @param store              远端存储
+     */
+    public BloomFilter(String name, long expectedInsertions, double fpp, BloomFilterStore store) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be greater than 0 and fpp must be in (0, 1)");
+        }
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.store = store;
+        this.marker = String.join(":", name, "node", UUID.randomUUID().toString());
+        this.layers = new Layer[]{newLayer(0)};
+    }
+
+    /**
+     * 开启后本地副本判断不存在的key再向redis确认，其他节点新增的key不等刷新即可放行，但每次拦截都会访问redis
+     *
+     * @param confirmRejects 是否向redis确认，默认不确认
+     */
+    public void setConfirmRejects(boolean confirmRejects) {
+        this.confirmRejects = confirmRejects;
+    }
+
+    /**
+     * 只查询本地副本，开启 {@link #setConfirmRejects(boolean)} 时判断不存在再向redis确认
+     *
+     * @param key 缓存标识/id
+     * @return false表示key一定不存在
+     */
+    public boolean mightContain(String key) {
+        return mightContainAll(List.of(key))[0];
+    }
+
+    /**
+     * 开启 {@link #setConfirmRejects(boolean)} 时本地副本判断不存在的key合并为一次流水线GETBIT向redis确认
+     *
+     * @param keys 缓存标识/id
+     * @return 与keys一一对应，false表示key一定不存在
+     */
+    public boolean[] mightContainAll(List<String> keys) {
+        var result = new boolean[keys.size()];
+        var hashes = new long[keys.size()];
+        int misses = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            hashes[i] = HashUtil.hash64(keys.get(i).getBytes(StandardCharsets.UTF_8));
+            result[i] = contains(hashes[i]);
+            if (!result[i]) misses++;
+        }
+        if (misses > 0 && confirmRejects) confirm(hashes, result);
+        for (boolean contained : result) {
+            (contained ? passed : rejected).increment();
+        }
+        return result;
+    }
+
+    /**
+     * 添加key，立即写入本地位图与redis
+     *
+     * @param key 缓存标识/id
+     */
+    public void add(String key) {
+        addAll(List.of(key));
+    }
+
+    /**
+     * 批量添加key，各层新增的位合并为一次流水线SETBIT写入redis，写入失败的位保留到下次刷新重试
+     *
+     * @param keys 缓存标识/id
+     */
+    public void addAll(Collection<String> keys) {
+        Layer[]  current;
+        long[][] added;
+        int[]    counts;
+        synchronized (lock) {
+            for (String key : keys) {
+                long hash = HashUtil.hash64(key.getBytes(StandardCharsets.UTF_8));
+                if (!contains(hash)) activeLayer().add(hash);
+            }
+            current = layers;
+            added = new long[current.length][];
+            counts = new int[current.length];
+            for (int i = 0; i < current.length; i++) {
+                counts[i] = current[i].pendingSize;
+                added[i] = current[i].pending;
+                if (counts[i] > 0) {
+                    current[i].pending = new long[16];
+                    current[i].pendingSize = 0;
+                }
+            }
+        }
+        push(current, added, counts);
+    }
+
+    /**
+     * 拉取所有层的完整位图，注册时调用一次作为本地副本的初始值
+     */
+    public void load() {
+        store.renew(marker, MARKER_TTL);
+        discoverLayers();
+        for (Layer layer : layers) {
+            byte[] remote = store.getBitmap(layer.key);
+            if (remote == null) continue;
+            synchronized (lock) {
+                layer.merge(remote);
+            }
+        }
+    }
+
+    /**
+     * 重试写入redis失败的位，发现新层，拉取其他节点新增了位的层并更新各层的估算元素数量
+     */
+    public void refresh() {
+        Layer[] current = layers;
+        var     taken   = new ArrayList<long[]>(current.length);
+        var     counts  = new int[current.length];
+        synchronized (lock) {
+            for (int i = 0; i < current.length; i++) {
+                counts[i] = current[i].pendingSize;
+                taken.add(current[i].pending);
+                current[i].pending = new long[16];
+                current[i].pendingSize = 0;
+            }
+        }
+        push(current, taken.toArray(new long[0][]), counts);
+        for (Layer layer : discoverLayers()) {
+            byte[] remote = store.getBitmap(layer.key);
+            if (remote == null) continue;
+            synchronized (lock) {
+                layer.merge(remote);
+            }
+        }
+        //标记丢失说明redis数据丢失过，此时位图可能已被其他节点重新写入部分位，只看位图是否存在无法发现
+        boolean lost = !store.renew(marker, MARKER_TTL);
+        for (Layer layer : layers) {
+            long local  = layer.bitCount();
+            long remote = store.bitCount(layer.key);
+            if (local > 0 && (lost || remote < local)) {
+                //用本地副本恢复
+                store.mergeBitmap(layer.key, layer.bitmap);
+                remote = store.bitCount(layer.key);
+            }
+            if (remote > local) {
+                //本地的位都已写入redis，远端更多说明其他节点新增了key
+                byte[] bitmap = store.getBitmap(layer.key);
+                if (bitmap != null) {
+                    synchronized (lock) {
+                        layer.merge(bitmap);
+                    }
+                }
+            }
+            layer.count = layer.estimateCount(Math.max(local, remote));
+        }
+    }
+
+    /**
+     * 记录一次误判：过滤器放行但key实际不存在
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * @return 放行的次数
+     */
+    public long passedCount() {
+        return passed.sum();
+    }
+
+    /**
+     * @return 拦截的次数
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long falsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return 观测到的误判率：误判次数 / (误判次数 + 拦截次数)
+     */
+    public double falsePositiveRate() {
+        long fp    = falsePositives.sum();
+        long total = fp + rejected.sum();
+        return total == 0 ? 0 : (double) fp / total;
+    }
+
+    /**
+     * @return 按各层位图填充率估算的误判率
+     */
+    public double expectedFalsePositiveRate() {
+        double pass = 1;
+        for (Layer layer : layers) {
+            pass *= 1 - Math.pow((double) layer.bitCount() / layer.bits, layer.hashes);
+        }
+        return 1 - pass;
+    }
+
+    /**
+     * @return 估算的元素数量
+     */
+    public long estimatedSize() {
+        long size = 0;
+        for (Layer layer : layers) {
+            size += layer.count;
+        }
+        return size;
+    }
+
+    public int layerCount() {
+        return layers.length;
+    }
+
+    private boolean contains(long hash) {
+        for (Layer layer : layers) {
+            if (layer.contains(hash)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 调用方需持有锁
+     *
+     * @return 当前写入的层，已满时扩展新层
+     */
+    private Layer activeLayer() {
+        Layer[] current = layers;
+        Layer   active  = current[current.length - 1];
+        if (active.count < active.capacity) return active;
+        active = newLayer(current.length);
+        current = Arrays.copyOf(current, current.length + 1);
+        current[current.length - 1] = active;
+        layers = current;
+        log.debug("Bloom filter [{}] grows to {} layers", name, current.length);
+        return active;
+    }
+
+    /**
+     * 将各层新增的位写入redis，失败时放回待写入等待下次刷新
+     */
+    private void push(Layer[] current, long[][] offsets, int[] counts) {
+        try {
+            for (int i = 0; i < current.length; i++) {
+                if (counts[i] > 0) store.setBits(current[i].key, offsets[i], counts[i]);
+            }
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                for (int i = 0; i < current.length; i++) {
+                    current[i].addPending(offsets[i], counts[i]);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 向redis确认本地判断不存在的key，存在的位合并到本地；redis不可用时放行，不产生误拦截
+     */
+    private void confirm(long[] hashes, boolean[] result) {
+        Layer[] current = layers;
+        var     keys    = new ArrayList<String>();
+        var     offsets = new ArrayList<Long>();
+        for (int i = 0; i < hashes.length; i++) {
+            if (result[i]) continue;
+            for (Layer layer : current) {
+                for (int j = 0; j < layer.hashes; j++) {
+                    keys.add(layer.key);
+                    offsets.add(layer.offset(hashes[i], j));
+                }
+            }
+        }
+        boolean[] bits;
+        try {
+            bits = store.getBits(keys.toArray(new String[0]), offsets.stream().mapToLong(Long::longValue).toArray());
+        } catch (RuntimeException e) {
+            log.warn("Confirm bloom filter [{}] with redis error, pass {} keys", name, hashes.length, e);
+            Arrays.fill(result, true);
+            return;
+        }
+        int index = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (result[i]) continue;
+            for (Layer layer : current) {
+                boolean all = true;
+                for (int j = 0; j < layer.hashes; j++) {
+                    all &= bits[index++];
+                }
+                if (all && !result[i]) {
+                    result[i] = true;
+                    synchronized (lock) {
+                        layer.set(hashes[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 新发现的层
+     */
+    private List<Layer> discoverLayers() {
+        Layer[] current = layers;
+        var     found   = new ArrayList<Layer>();
+        while (store.exists(key(current.length + found.size()))) {
+            found.add(newLayer(current.length + found.size()));
+        }
+        if (found.isEmpty()) return found;
+        synchronized (lock) {
+            //加锁期间本地可能已经扩展出同样的层
+            List<Layer> merged = new ArrayList<>(Arrays.asList(layers));
+            found.removeIf(layer -> layer.index < merged.size());
+            merged.addAll(found);
+            layers = merged.toArray(new Layer[0]);
+        }
+        return found;
+    }
+
+    private Layer newLayer(int index) {
+        long   capacity = expectedInsertions << Math.min(index, 20);
+        double layerFpp = fpp / (1L << Math.min(index, 30));
+        long   bits     = (long) Math.ceil(-capacity * Math.log(layerFpp) / (Math.log(2) * Math.log(2)));
+        bits = Math.min(MAX_BITS, Math.max(64, (bits + 7) & ~7L));
+        int hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        return new Layer(index, key(index), capacity, bits, hashes);
+    }
+
+    private String key(int index) {
+        return name + ":" + index;
+    }
+
+    private static final class Layer {
+        private final int       index;
+        private final String    key;
+        private final long      capacity;
+        private final long      bits;
+        private final int       hashes;
+        private volatile byte[] bitmap;
+        private long[]          pending = new long[16];
+        private int             pendingSize;
+        private volatile long   count;
+
+        private Layer(int index, String key, long capacity, long bits, int hashes) {
+            this.index = index;
+            this.key = key;
+            this.capacity = capacity;
+            this.bits = bits;
+            this.hashes = hashes;
+            this.bitmap = new byte[(int) ((bits + 7) >>> 3)];
+        }
+
+        /**
+         * @return 第i个哈希函数对应的位偏移
+         */
+        private long offset(long hash, int i) {
+            return Math.floorMod(hash + i * ((hash >>> 32) | 1), bits);
+        }
+
+        private boolean contains(long hash) {
+            byte[] bitmap = this.bitmap;
+            for (int i = 0; i < hashes; i++) {
+                long offset = offset(hash, i);
+                if ((bitmap[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) == 0) return false;
+            }
+            return true;
+        }
+
+        /**
+         * 置位并记录待写入redis的偏移，调用方需持有锁
+         */
+        private void add(long hash) {
+            for (int i = 0; i < hashes; i++) {
+                long offset = offset(hash, i);
+                bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+                if (pendingSize == pending.length) pending = Arrays.copyOf(pending, pendingSize * 2);
+                pending[pendingSize++] = offset;
+            }
+            count++;
+        }
+
+        /**
+         * 置位已在redis中的key，调用方需持有锁
+         */
+        private void set(long hash) {
+            for (int i = 0; i < hashes; i++) {
+                long offset = offset(hash, i);
+                bitmap[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+            }
+        }
+
+        private void addPending(long[] offsets, int length) {
+            for (int i = 0; i < length; i++) {
+                if (pendingSize == pending.length) pending = Arrays.copyOf(pending, pendingSize * 2);
+                pending[pendingSize++] = offsets[i];
+            }
+        }
+
+        /**
+         * 按位或合并远端位图，调用方需持有锁
+         */
+        private void merge(byte[] remote) {
+            byte[] updated = Arrays.copyOf(bitmap, bitmap.length);
+            for (int i = 0; i < Math.min(remote.length, updated.length); i++) {
+                updated[i] |= remote[i];
+            }
+            bitmap = updated;
+            count = estimateCount(bitCount());
+        }
+
+        private long bitCount() {
+            long   count  = 0;
+            byte[] bitmap = this.bitmap;
+            for (byte b : bitmap) {
+                count += Integer.bitCount(b & 0xff);
+            }
+            return count;
+        }
+
+        /**
+         * n = -m / k * ln(1 - X / m)
+         */
+        private long estimateCount(long set) {
+            if (set >= bits) return capacity;
+            return Math.round(-(double) bits / hashes * Math.log(1 - (double) set / bits));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.kurenairyu.cache.bloom;
+
+/**
+ * 布隆过滤器位图的远端存储，位序与redis位图一致（偏移0为第一个字节的最高位）
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:05
+ */
+public interface BloomFilterStore {
+
+    /**
+     * 批量置位
+     *
+     * @param key     位图key
+     * @param offsets 位偏移
+     * @param length  有效偏移数量
+     */
+    void setBits(String key, long[] offsets, int length);
+
+    /**
+     * 批量读取位，keys与offsets一一对应
+     *
+     * @param keys    位图key
+     * @param offsets 位偏移
+     * @return 各位是否为1
+     */
+    boolean[] getBits(String[] keys, long[] offsets);
+
+    /**
+     * 将位图按位或合并到已有位图，不覆盖其他节点同时写入的位
+     *
+     * @param key    位图key
+     * @param bitmap 位图
+     */
+    void mergeBitmap(String key, byte[] bitmap);
+
+    /**
+     * @param key 位图key
+     * @return 为1的位数，位图不存在返回0
+     */
+    long bitCount(String key);
+
+    /**
+     * @param key 位图key
+     * @return 位图，不存在返回null
+     */
+    byte[] getBitmap(String key);
+
+    boolean exists(String key);
+
+    /**
+     * 写入或续期标记key
+     *
+     * @param key 标记key
+     * @param ttl 存活时间(ms)
+     * @return 续期前标记是否存在
+     */
+    boolean renew(String key, long ttl);
+}
@@ -0,0 +1,469 @@
+package io.github.kurenairyu.cache.disk;
+
+import io.github.kurenairyu.cache.LocalCacheAbstract;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import io.lettuce.core.codec.RedisCodec;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 磁盘缓存
+ * <p>
+ * 数据追加写入mmap映射的段文件（{@link SegmentFile}），内存中只保留 key 到记录位置的索引。
+ * 覆盖、删除只追加新记录（删除为删除标记），旧记录计为垃圾，后台线程定期把垃圾比例超过阈值的段中仍有效的记录
+ * 复制到当前段后删除该文件。
+ * </p>
+ * <p>
+ * 启动时按段文件顺序只读取记录头与key即可重建索引，不需要读取和反序列化值，进程重启后缓存立即可用。
+ * 写入由一把锁串行化，读取不加锁。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:48
+ */
+@Log4j2
+public class DiskCache extends LocalCacheAbstract implements Closeable {
+
+    public static final int    DEFAULT_SEGMENT_SIZE         = 64 * 1024 * 1024;
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5d;
+    public static final long   DEFAULT_COMPACTION_INTERVAL  = TimeUnit.MINUTES.toMillis(1);
+
+    private static final String SUFFIX = ".seg";
+    private static final byte[] EMPTY  = new byte[0];
+
+    private final    Path                                     directory;
+    private final    int                                      segmentSize;
+    private final    double                                   compactionThreshold;
+    private final    RedisCodec<String, Object>               codec;
+    private final    ConcurrentHashMap<String, Location>      index     = new ConcurrentHashMap<>();
+    private final    ConcurrentSkipListMap<Long, SegmentFile> segments  = new ConcurrentSkipListMap<>();
+    private final    ReentrantLock                            writeLock = new ReentrantLock();
+    private final    ScheduledExecutorService                 compactor;
+    private volatile SegmentFile                              active;
+
+    public DiskCache(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD, DEFAULT_COMPACTION_INTERVAL, new KryoCodec<>());
+    }
+
+    /**
+     * @param directory           段文件目录，不存在则创建
+     * @param segmentSize         单个段文件大小(byte)，也是单条记录的上限
+     * @param compactionThreshold 垃圾比例达到该值的段会被压缩 (0, 1]
+     * @param compactionInterval  后台压缩间隔(ms)，小于等于0不启动后台压缩
+     * @param codec               值的序列化方式
+     */
+    public DiskCache(Path directory, int segmentSize, double compactionThreshold, long compactionInterval,
+                     RedisCodec<String, Object> codec) {
+        if (segmentSize <= SegmentFile.FILE_HEADER_SIZE + SegmentFile.RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentSize is too small");
+        }
+        if (compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException("compactionThreshold must be between 0 and 1");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.codec = Objects.requireNonNull(codec, "codec can not be null");
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new RuntimeException("Open disk cache [" + directory + "] fail", e);
+        }
+        if (compactionInterval > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "disk-cache-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactQuietly, compactionInterval, compactionInterval, TimeUnit.MILLISECONDS);
+        } else {
+            compactor = null;
+        }
+    }
+
+    //region get
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(String namespace, K key) {
+        byte[] value = read(joinKey(namespace, key));
+        return value == null || value.length == 0 ? null : (V) codec.decodeValue(ByteBuffer.wrap(value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        var result = new HashMap<K, V>();
+        for (K key : keys) {
+            byte[] value = read(joinKey(namespace, key));
+            if (value != null && value.length > 0) result.put(key, (V) codec.decodeValue(ByteBuffer.wrap(value)));
+        }
+        return result;
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value, long ttl) {
+        write(joinKey(namespace, key), encode(value), ttl, false);
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        return write(joinKey(namespace, key), encode(value), ttl, true);
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> boolean remove(String namespace, K key) {
+        return delete(joinKey(namespace, key));
+    }
+
+    //endregion
+
+    //region clear
+
+    /**
+     * 遍历索引为命名空间下的每个key写入删除标记，为O(n)
+     */
+    @Override
+    public boolean clear(String namespace) {
+        String  prefix  = namespace + CONNECTOR;
+        boolean removed = false;
+        for (String key : index.keySet()) {
+            if (key.startsWith(prefix)) removed |= delete(key);
+        }
+        return removed;
+    }
+
+    /**
+     * 删除所有段文件
+     */
+    @Override
+    public boolean clearAll() {
+        writeLock.lock();
+        try {
+            index.clear();
+            for (SegmentFile segment : segments.values()) {
+                segment.delete();
+            }
+            long next = active.id + 1;
+            segments.clear();
+            active = null;
+            roll(next);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Clear disk cache [" + directory + "] fail", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    //endregion
+
+    //region other
+
+    @Override
+    public <K> boolean exists(String namespace, K key) {
+        return live(joinKey(namespace, key), System.currentTimeMillis()) != null;
+    }
+
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        long     now      = System.currentTimeMillis();
+        Location location = live(joinKey(namespace, key), now);
+        return location == null ? -2 : remainingTtl(location.expiresAt, now);
+    }
+
+    @Override
+    public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        String k = joinKey(namespace, key);
+        writeLock.lock();
+        try {
+            long     now      = System.currentTimeMillis();
+            Location location = live(k, now);
+            if (location == null) return false;
+            long expiresAt = expiresAt(now, timeUnit.toMillis(ttl));
+            location.segment.setExpiresAt(location.offset, expiresAt);
+            index.put(k, new Location(location.segment, location.offset, location.size, expiresAt));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return 索引中的缓存项数量（包含尚未回收的过期项）
+     */
+    public long estimatedSize() {
+        return index.size();
+    }
+
+    /**
+     * @return 段文件数量
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 立即执行一次压缩：垃圾比例达到阈值的非当前段会被重写并删除
+     *
+     * @return 被压缩的段数量
+     */
+    public int compact() {
+        int compacted = 0;
+        for (SegmentFile segment : segments.values()) {
+            if (segment == active) continue;
+            int used = segment.writePosition() - SegmentFile.FILE_HEADER_SIZE;
+            if (used > 0 && segment.garbageBytes.get() < used * compactionThreshold) continue;
+            try {
+                compact(segment);
+                compacted++;
+            } catch (IOException e) {
+                throw new RuntimeException("Compact segment [" + segment.path + "] fail", e);
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * 把映射的内容刷到磁盘
+     */
+    public void flush() {
+        for (SegmentFile segment : segments.values()) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (compactor != null) compactor.shutdownNow();
+        writeLock.lock();
+        try {
+            for (SegmentFile segment : segments.values()) {
+                segment.force();
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Close disk cache [" + directory + "] fail", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    //endregion
+
+    /**
+     * @return 值的字节，不存在或已过期返回null，值为null时返回空数组
+     */
+    private byte[] read(String key) {
+        Location location = live(key, System.currentTimeMillis());
+        if (location == null) return null;
+        byte[] value = location.segment.value(location.offset);
+        return value == null ? EMPTY : value;
+    }
+
+    /**
+     * 过期的记录直接从索引移除，重建索引时最新一条记录过期同样会移除该key，因此不需要写删除标记；
+     * 压缩丢弃该记录时再补写删除标记，避免更早的段中被覆盖的记录在重启后恢复
+     */
+    private Location live(String key, long now) {
+        Location location = index.get(key);
+        if (location == null) return null;
+        if (location.expiresAt > now) return location;
+        if (index.remove(key, location)) location.segment.garbageBytes.addAndGet(location.size);
+        return null;
+    }
+
+    private boolean write(String key, byte[] value, long ttl, boolean onlyIfAbsent) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        writeLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (onlyIfAbsent && live(key, now) != null) return false;
+            Location location = append(k, value, value == null ? SegmentFile.NULL_VALUE : value.length, expiresAt(now, ttl));
+            if (location == null) {
+                //超过单个段的大小，不缓存
+                delete(key);
+                return false;
+            }
+            release(index.put(key, location));
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Write disk cache [" + directory + "] fail", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private boolean delete(String key) {
+        writeLock.lock();
+        try {
+            Location location = index.remove(key);
+            if (location == null) return false;
+            release(location);
+            Location tombstone = append(key.getBytes(StandardCharsets.UTF_8), null, SegmentFile.TOMBSTONE, Long.MAX_VALUE);
+            if (tombstone != null) release(tombstone);
+            return location.expiresAt > System.currentTimeMillis();
+        } catch (IOException e) {
+            throw new RuntimeException("Write disk cache [" + directory + "] fail", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Location append(byte[] key, byte[] value, int valueLength, long expiresAt) throws IOException {
+        int size = SegmentFile.recordSize(key.length, value == null ? 0 : value.length);
+        if (size > segmentSize - SegmentFile.FILE_HEADER_SIZE) return null;
+        int offset = active.append(key, value, valueLength, expiresAt);
+        if (offset < 0) {
+            roll(active.id + 1);
+            offset = active.append(key, value, valueLength, expiresAt);
+        }
+        return new Location(active, offset, size, expiresAt);
+    }
+
+    private void release(Location location) {
+        if (location != null) location.segment.garbageBytes.addAndGet(location.size);
+    }
+
+    private void roll(long id) throws IOException {
+        SegmentFile segment = SegmentFile.create(id, directory.resolve(String.format("%019d%s", id, SUFFIX)), segmentSize);
+        segments.put(id, segment);
+        active = segment;
+    }
+
+    /**
+     * 按文件编号顺序回放记录头，后写入的记录覆盖先写入的
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().collect(Collectors.toList());
+        }
+        long now = System.currentTimeMillis();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long   id   = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            SegmentFile segment = SegmentFile.open(id, file);
+            segments.put(id, segment);
+            for (int offset = SegmentFile.FILE_HEADER_SIZE; offset < segment.writePosition(); ) {
+                int size = segment.recordSize(offset);
+                if (size < SegmentFile.RECORD_HEADER_SIZE) {
+                    log.warn("Corrupted record at {} of [{}], ignore the rest", offset, file);
+                    break;
+                }
+                String key       = new String(segment.key(offset), StandardCharsets.UTF_8);
+                long   expiresAt = segment.expiresAt(offset);
+                if (segment.valueLength(offset) == SegmentFile.TOMBSTONE || expiresAt <= now) {
+                    release(index.remove(key));
+                    segment.garbageBytes.addAndGet(size);
+                } else {
+                    release(index.put(key, new Location(segment, offset, size, expiresAt)));
+                }
+                offset += size;
+            }
+        }
+        if (segments.isEmpty()) {
+            roll(0);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        log.info("Recovered {} entries from {} segment(s) of [{}]", index.size(), segments.size(), directory);
+    }
+
+    /**
+     * 逐条记录加锁复制，避免长时间阻塞写入
+     */
+    private void compact(SegmentFile segment) throws IOException {
+        for (int offset = SegmentFile.FILE_HEADER_SIZE; offset < segment.writePosition(); ) {
+            int size = segment.recordSize(offset);
+            writeLock.lock();
+            try {
+                if (!segments.containsKey(segment.id)) return;
+                boolean oldest = segments.firstKey() == segment.id;
+                byte[]  k      = segment.key(offset);
+                String  key    = new String(k, StandardCharsets.UTF_8);
+                if (segment.valueLength(offset) == SegmentFile.TOMBSTONE) {
+                    //更早的段中可能还有该key的记录，删除标记需要保留
+                    if (!oldest && !index.containsKey(key)) {
+                        release(append(k, null, SegmentFile.TOMBSTONE, Long.MAX_VALUE));
+                    }
+                } else {
+                    Location location = index.get(key);
+                    if (location != null && location.segment == segment && location.offset == offset
+                            && location.expiresAt > System.currentTimeMillis()) {
+                        int valueLength = segment.valueLength(offset);
+                        index.put(key, append(k, segment.value(offset), valueLength, location.expiresAt));
+                    } else if (location == null || location.segment == segment && location.offset == offset) {
+                        //key已不在索引中（过期或删除），更早的段中可能还有被覆盖的记录，丢弃本记录时需要写删除标记
+                        index.remove(key, location);
+                        if (!oldest) release(append(k, null, SegmentFile.TOMBSTONE, Long.MAX_VALUE));
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            offset += size;
+        }
+        writeLock.lock();
+        try {
+            if (segments.remove(segment.id, segment)) segment.delete();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            int compacted = compact();
+            if (compacted > 0) log.debug("Compacted {} segment(s) of [{}]", compacted, directory);
+        } catch (Exception e) {
+            log.error("Compact disk cache [{}] fail", directory, e);
+        }
+    }
+
+    private byte[] encode(Object value) {
+        if (value == null) return null;
+        ByteBuffer buffer = codec.encodeValue(value);
+        byte[]     bytes  = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static long expiresAt(long now, long ttl) {
+        return ttl <= 0 ? Long.MAX_VALUE : now + ttl;
+    }
+
+    private static final class Location {
+        private final SegmentFile segment;
+        private final int         offset;
+        private final int         size;
+        private final long        expiresAt;
+
+        private Location(SegmentFile segment, int offset, int size, long expiresAt) {
+            this.segment = segment;
+            this.offset = offset;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
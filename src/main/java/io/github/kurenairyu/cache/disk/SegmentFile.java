@@ -0,0 +1,157 @@
+package io.github.kurenairyu.cache.disk;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 磁盘缓存的一个只追加段文件，整个文件通过mmap映射
+ * <p>
+ * 文件头：magic(int) version(int) writePosition(int) reserved(int)，writePosition 在记录写完后才更新，
+ * 重启时只扫描到该位置，未提交的半条记录被忽略。
+ * </p>
+ * <p>
+ * 记录：totalSize(int) keyLength(int) valueLength(int, -1表示null，-2表示删除标记) reserved(int) expiresAt(long) key value
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:48
+ */
+final class SegmentFile {
+
+    static final int FILE_HEADER_SIZE   = 16;
+    static final int RECORD_HEADER_SIZE = 24;
+    static final int NULL_VALUE         = -1;
+    static final int TOMBSTONE          = -2;
+
+    private static final int MAGIC               = 0x53434b44;
+    private static final int VERSION             = 1;
+    private static final int OFFSET_POSITION     = 8;
+    private static final int OFFSET_KEY_LEN      = 4;
+    private static final int OFFSET_VAL_LEN      = 8;
+    private static final int OFFSET_EXPIRES      = 16;
+
+    final long             id;
+    final Path             path;
+    final AtomicLong       garbageBytes = new AtomicLong();
+    private final FileChannel      channel;
+    private final MappedByteBuffer buffer;
+    private final int              capacity;
+    private volatile int           writePosition;
+
+    private SegmentFile(long id, Path path, FileChannel channel, MappedByteBuffer buffer, int writePosition) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.writePosition = writePosition;
+    }
+
+    static SegmentFile create(long id, Path path, int capacity) throws IOException {
+        FileChannel      channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer  = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(OFFSET_POSITION, FILE_HEADER_SIZE);
+        return new SegmentFile(id, path, channel, buffer, FILE_HEADER_SIZE);
+    }
+
+    static SegmentFile open(long id, Path path) throws IOException {
+        FileChannel      channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer  = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.capacity() < FILE_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a cache segment file: " + path);
+        }
+        int position = buffer.getInt(OFFSET_POSITION);
+        if (position < FILE_HEADER_SIZE || position > buffer.capacity()) {
+            channel.close();
+            throw new IOException("Corrupted cache segment file: " + path);
+        }
+        return new SegmentFile(id, path, channel, buffer, position);
+    }
+
+    /**
+     * 追加一条记录，调用方需保证单写
+     *
+     * @return 记录偏移，空间不足返回-1
+     */
+    int append(byte[] key, byte[] value, int valueLength, long expiresAt) {
+        int total  = recordSize(key.length, value == null ? 0 : value.length);
+        int offset = writePosition;
+        if (offset + total > capacity) return -1;
+        buffer.putInt(offset, total);
+        buffer.putInt(offset + OFFSET_KEY_LEN, key.length);
+        buffer.putInt(offset + OFFSET_VAL_LEN, valueLength);
+        buffer.putInt(offset + 12, 0);
+        buffer.putLong(offset + OFFSET_EXPIRES, expiresAt);
+        buffer.put(offset + RECORD_HEADER_SIZE, key);
+        if (value != null) buffer.put(offset + RECORD_HEADER_SIZE + key.length, value);
+        writePosition = offset + total;
+        buffer.putInt(OFFSET_POSITION, writePosition);
+        return offset;
+    }
+
+    static int recordSize(int keyLength, int valueLength) {
+        return RECORD_HEADER_SIZE + keyLength + valueLength;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int recordSize(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    int valueLength(int offset) {
+        return buffer.getInt(offset + OFFSET_VAL_LEN);
+    }
+
+    long expiresAt(int offset) {
+        return buffer.getLong(offset + OFFSET_EXPIRES);
+    }
+
+    void setExpiresAt(int offset, long expiresAt) {
+        buffer.putLong(offset + OFFSET_EXPIRES, expiresAt);
+    }
+
+    byte[] key(int offset) {
+        byte[] key = new byte[buffer.getInt(offset + OFFSET_KEY_LEN)];
+        buffer.get(offset + RECORD_HEADER_SIZE, key);
+        return key;
+    }
+
+    /**
+     * @return 值的字节，null值或删除标记返回null
+     */
+    byte[] value(int offset) {
+        int valueLength = valueLength(offset);
+        if (valueLength < 0) return null;
+        byte[] value = new byte[valueLength];
+        buffer.get(offset + RECORD_HEADER_SIZE + buffer.getInt(offset + OFFSET_KEY_LEN), value);
+        return value;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.kurenairyu.cache.exception;
+
+/**
+ * 在途命令超过限制时抛出，调用方可据此降级或重试
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:37
+ */
+public class CacheOverloadException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CacheOverloadException(String message) {
+        super(message);
+    }
+
+    public CacheOverloadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
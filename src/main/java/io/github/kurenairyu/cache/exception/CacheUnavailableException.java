@@ -0,0 +1,16 @@
+package io.github.kurenairyu.cache.exception;
+
+/**
+ * 熔断器打开时直接抛出，不再等待redis超时
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:44
+ */
+public class CacheUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CacheUnavailableException(String message) {
+        super(message);
+    }
+}
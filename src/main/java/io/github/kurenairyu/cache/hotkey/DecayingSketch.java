@@ -0,0 +1,63 @@
+package io.github.kurenairyu.cache.hotkey;
+
+/**
+ * 可衰减的 Count-Min Sketch
+ * <p>
+ * 4行int计数器，每次衰减所有计数器减半。为降低开销不加锁，并发自增可能丢失少量计数，对热点判断没有影响。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:55
+ */
+final class DecayingSketch {
+
+    private static final int[] SEED = {0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f};
+
+    private final int[] table;
+    private final int   rowMask;
+    private final int   rowShift;
+
+    /**
+     * @param width 每行计数器数量，会向上取整为2的幂
+     */
+    DecayingSketch(int width) {
+        int rowWidth = Integer.highestOneBit(Math.max(width, 16) - 1) << 1;
+        this.table = new int[rowWidth * SEED.length];
+        this.rowMask = rowWidth - 1;
+        this.rowShift = Integer.numberOfTrailingZeros(rowWidth);
+    }
+
+    /**
+     * 自增并返回估算值
+     */
+    int increment(int hash) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < SEED.length; i++) {
+            int index = indexOf(hash, i);
+            int count = table[index];
+            if (count != Integer.MAX_VALUE) table[index] = ++count;
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    int estimate(int hash) {
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < SEED.length; i++) {
+            min = Math.min(min, table[indexOf(hash, i)]);
+        }
+        return min;
+    }
+
+    void decay() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEED[row]) * SEED[row];
+        h ^= h >>> 16;
+        return (row << rowShift) | (h & rowMask);
+    }
+}
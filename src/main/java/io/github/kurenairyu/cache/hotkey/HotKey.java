@@ -0,0 +1,14 @@
+package io.github.kurenairyu.cache.hotkey;
+
+/**
+ * 热点key快照
+ *
+ * @param namespace 命名空间
+ * @param key       redis key
+ * @param estimate  当前衰减窗口内的估算访问次数（已按采样率换算）
+ * @param local     是否已有本地副本
+ * @author Kurenai
+ * @since 2026-10-19 12:55
+ */
+public record HotKey(String namespace, String key, long estimate, boolean local) {
+}
@@ -0,0 +1,275 @@
+package io.github.kurenairyu.cache.hotkey;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点key探测
+ * <p>
+ * 读取按 1/{@code sampleRate} 采样计入每个命名空间的 {@link DecayingSketch}，计数每个衰减周期减半。
+ * 估算值达到阈值的key进入该命名空间最多 {@code topK} 个的热点集合（满时替换估算值最小的），
+ * 之后从redis读到的值会在本地保存 {@code localTtl} 毫秒，期间读取直接返回本地副本；衰减后估算值低于阈值一半的key被移出。
+ * </p>
+ * <p>
+ * 未被采样且所在命名空间没有热点时，每次读取只有一次随机数和一次map查找的开销。
+ * 本地副本只会被经过同一实例的写入失效，其他节点的写入最多延迟 {@code localTtl} 可见。
+ * </p>
+ * <p>
+ * 每个热点有一个版本号，每次失效都会换成新的版本。读取方在访问redis前用 {@link #stamp} 取得版本，
+ * 读到的值只有在版本未变时才会成为本地副本，因此与写入并发、读到旧值的读取不会把旧值重新缓存。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:55
+ */
+@Log4j2
+public class HotKeyDetector {
+
+    public static final int  DEFAULT_SAMPLE_RATE  = 16;
+    public static final long DEFAULT_THRESHOLD    = 2048;
+    public static final int  DEFAULT_TOP_K        = 16;
+    public static final long DEFAULT_DECAY_MILLIS = 1000L;
+    public static final long DEFAULT_LOCAL_TTL    = 500L;
+
+    private static final int SKETCH_WIDTH = 4096;
+
+    private final ConcurrentHashMap<String, NamespaceState> namespaces = new ConcurrentHashMap<>();
+    private final AtomicLong                                versions   = new AtomicLong();
+    private final int                                       sampleRate;
+    private final int                                       sampleMask;
+    private final int                                       sampledThreshold;
+    private final int                                       topK;
+    private final long                                      decayNanos;
+    private final long                                      localTtlNanos;
+    private volatile long                                   nextDecay;
+
+    public HotKeyDetector() {
+        this(DEFAULT_SAMPLE_RATE, DEFAULT_THRESHOLD, DEFAULT_TOP_K, DEFAULT_DECAY_MILLIS, DEFAULT_LOCAL_TTL);
+    }
+
+    /**
+     * @param sampleRate  每多少次读取采样一次，会向上取整为2的幂
+     * @param threshold   成为热点的估算访问次数（衰减计数，稳定访问时约为每个衰减周期访问次数的2倍）
+     * @param topK        每个命名空间最多的热点数量
+     * @param decayMillis 衰减周期(ms)
+     * @param localTtl    本地副本的存活时间(ms)
+     */
+    public HotKeyDetector(int sampleRate, long threshold, int topK, long decayMillis, long localTtl) {
+        if (sampleRate <= 0 || threshold <= 0 || topK <= 0 || decayMillis <= 0 || localTtl <= 0) {
+            throw new IllegalArgumentException("sampleRate, threshold, topK, decayMillis and localTtl must be greater than 0");
+        }
+        this.sampleRate = sampleRate == 1 ? 1 : Integer.highestOneBit(sampleRate - 1) << 1;
+        this.sampleMask = this.sampleRate - 1;
+        this.sampledThreshold = (int) Math.max(1, Math.min(Integer.MAX_VALUE, threshold / this.sampleRate));
+        this.topK = topK;
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.localTtlNanos = TimeUnit.MILLISECONDS.toNanos(localTtl);
+        this.nextDecay = System.nanoTime() + decayNanos;
+    }
+
+    /**
+     * 获取热点key的本地副本
+     *
+     * @param namespace 命名空间
+     * @param key       redis key
+     * @return 本地副本，不是热点或副本已过期返回null
+     */
+    public Object getLocal(String namespace, String key) {
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null || state.hot.isEmpty()) return null;
+        Entry entry = state.hot.get(key);
+        if (entry == null) return null;
+        Local local = entry.local;
+        return local == null || local.version != entry.version || local.expiresAt - System.nanoTime() <= 0 ? null : local.value;
+    }
+
+    /**
+     * 读取redis前调用，结果传给 {@link #onRead(String, String, Object, long)}
+     *
+     * @param namespace 命名空间
+     * @param key       redis key
+     * @return 热点当前的版本，不是热点返回-1
+     */
+    public long stamp(String namespace, String key) {
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null || state.hot.isEmpty()) return -1;
+        Entry entry = state.hot.get(key);
+        return entry == null ? -1 : entry.version;
+    }
+
+    /**
+     * 记录一次读取，以热点当前的版本保存本地副本
+     *
+     * @see #onRead(String, String, Object, long)
+     */
+    public void onRead(String namespace, String key, Object value) {
+        onRead(namespace, key, value, stamp(namespace, key));
+    }
+
+    /**
+     * 记录一次读取
+     *
+     * @param namespace 命名空间
+     * @param key       redis key
+     * @param value     从redis读到的值，key为热点时保存为本地副本；命中本地副本时传null
+     * @param stamp     读取redis前 {@link #stamp} 返回的版本，期间热点被失效过则不保存本地副本
+     */
+    public void onRead(String namespace, String key, Object value, long stamp) {
+        if ((ThreadLocalRandom.current().nextInt() & sampleMask) == 0) sample(namespace, key);
+        if (value == null || stamp < 0) return;
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null || state.hot.isEmpty()) return;
+        Entry entry = state.hot.get(key);
+        if (entry != null && entry.version == stamp) entry.local = new Local(value, System.nanoTime() + localTtlNanos, stamp);
+    }
+
+    /**
+     * 丢弃本地副本，key仍保持热点状态
+     *
+     * @param namespace 命名空间
+     * @param key       redis key
+     */
+    public void invalidate(String namespace, String key) {
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null || state.hot.isEmpty()) return;
+        Entry entry = state.hot.get(key);
+        if (entry != null) entry.invalidate(versions.incrementAndGet());
+    }
+
+    /**
+     * 丢弃命名空间下所有本地副本
+     *
+     * @param namespace 命名空间
+     */
+    public void invalidate(String namespace) {
+        NamespaceState state = namespaces.get(namespace);
+        if (state != null) state.hot.values().forEach(entry -> entry.invalidate(versions.incrementAndGet()));
+    }
+
+    public void invalidateAll() {
+        namespaces.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * @param namespace 命名空间
+     * @return 当前热点，按估算值从大到小
+     */
+    public List<HotKey> hotKeys(String namespace) {
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null) return Collections.emptyList();
+        var  result = new ArrayList<HotKey>(state.hot.size());
+        long now    = System.nanoTime();
+        for (Entry entry : state.hot.values()) {
+            Local local = entry.local;
+            result.add(new HotKey(namespace, entry.key, (long) entry.estimate * sampleRate, local != null && local.expiresAt - now > 0));
+        }
+        result.sort(Comparator.comparingLong(HotKey::estimate).reversed());
+        return result;
+    }
+
+    /**
+     * @return 所有命名空间的当前热点
+     */
+    public Map<String, List<HotKey>> hotKeys() {
+        var result = new HashMap<String, List<HotKey>>();
+        for (String namespace : namespaces.keySet()) {
+            List<HotKey> hotKeys = hotKeys(namespace);
+            if (!hotKeys.isEmpty()) result.put(namespace, hotKeys);
+        }
+        return result;
+    }
+
+    private void sample(String namespace, String key) {
+        long now = System.nanoTime();
+        if (now - nextDecay >= 0) decay(now);
+        NamespaceState state = namespaces.get(namespace);
+        if (state == null) state = namespaces.computeIfAbsent(namespace, n -> new NamespaceState());
+        int   hash     = key.hashCode();
+        int   estimate = state.sketch.increment(hash);
+        Entry entry    = state.hot.get(key);
+        if (entry != null) {
+            entry.estimate = estimate;
+        } else if (estimate >= sampledThreshold) {
+            promote(namespace, state, key, hash, estimate);
+        }
+    }
+
+    private void promote(String namespace, NamespaceState state, String key, int hash, int estimate) {
+        synchronized (state) {
+            if (state.hot.containsKey(key)) return;
+            if (state.hot.size() >= topK) {
+                Entry min = null;
+                for (Entry entry : state.hot.values()) {
+                    if (min == null || entry.estimate < min.estimate) min = entry;
+                }
+                if (min == null || min.estimate >= estimate) return;
+                state.hot.remove(min.key);
+            }
+            state.hot.put(key, new Entry(key, hash, estimate, versions.incrementAndGet()));
+        }
+        log.debug("Key [{}] of namespace [{}] becomes hot, estimate {}", key, namespace, (long) estimate * sampleRate);
+    }
+
+    private synchronized void decay(long now) {
+        if (now - nextDecay < 0) return;
+        nextDecay = now + decayNanos;
+        namespaces.forEach((namespace, state) -> {
+            synchronized (state) {
+                state.sketch.decay();
+                for (Iterator<Entry> iterator = state.hot.values().iterator(); iterator.hasNext(); ) {
+                    Entry entry = iterator.next();
+                    entry.estimate = state.sketch.estimate(entry.hash);
+                    if (entry.estimate < sampledThreshold / 2) {
+                        iterator.remove();
+                        log.debug("Key [{}] of namespace [{}] cooled down", entry.key, namespace);
+                    }
+                }
+            }
+        });
+    }
+
+    private static final class NamespaceState {
+        private final DecayingSketch                   sketch = new DecayingSketch(SKETCH_WIDTH);
+        private final ConcurrentHashMap<String, Entry> hot    = new ConcurrentHashMap<>();
+    }
+
+    private static final class Entry {
+        private final String   key;
+        private final int      hash;
+        private volatile int   estimate;
+        private volatile long  version;
+        private volatile Local local;
+
+        private Entry(String key, int hash, int estimate, long version) {
+            this.key = key;
+            this.hash = hash;
+            this.estimate = estimate;
+            this.version = version;
+        }
+
+        /**
+         * 先换版本再丢弃副本，与之并发保存的副本带着旧版本，读取时会被忽略
+         */
+        private void invalidate(long newVersion) {
+            version = newVersion;
+            local = null;
+        }
+    }
+
+    private static final class Local {
+        private final Object value;
+        private final long   expiresAt;
+        private final long   version;
+
+        private Local(Object value, long expiresAt, long version) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.version = version;
+        }
+    }
+}
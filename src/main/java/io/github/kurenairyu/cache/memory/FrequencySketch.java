@@ -0,0 +1,85 @@
+package io.github.kurenairyu.cache.memory;
+
+/**
+ * 4bit的Count-Min Sketch，用于TinyLFU估算访问频率
+ * <p>
+ * 每个long存放16个计数器，每个元素在4行中各占一个计数器。总增量达到容量10倍时所有计数器减半（老化）。
+ * 非线程安全，只在淘汰锁下访问。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+final class FrequencySketch {
+
+    private static final long[] SEED       = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long   RESET_MASK = 0x7777777777777777L;
+    private static final long   ONE_MASK   = 0x1111111111111111L;
+    private static final int    MAX_TABLE  = 1 << 26;
+
+    private long[] table = new long[0];
+    private int    tableMask;
+    private int    sampleSize;
+    private int    size;
+
+    /**
+     * 按预计的元素数量扩容，扩容会丢弃已有的计数
+     *
+     * @param maximumSize 预计的元素数量
+     */
+    void ensureCapacity(long maximumSize) {
+        int capacity = (int) Math.min(Math.max(maximumSize, 16), MAX_TABLE);
+        if (table.length >= capacity) return;
+        table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        tableMask = table.length - 1;
+        sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+        size = 0;
+    }
+
+    int frequency(int hash) {
+        if (table.length == 0) return 0;
+        int start     = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        if (table.length == 0) return;
+        int     start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) reset();
+    }
+
+    private boolean incrementAt(int i, int j) {
+        int  offset = j << 2;
+        long mask   = 0xfL << offset;
+        if ((table[i] & mask) != mask) {
+            table[i] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private int indexOf(int item, int i) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+
+    private void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+}
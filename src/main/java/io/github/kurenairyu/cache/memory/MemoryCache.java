@@ -0,0 +1,540 @@
+package io.github.kurenairyu.cache.memory;
+
+import io.github.kurenairyu.cache.LocalCacheAbstract;
+import io.github.kurenairyu.cache.ScanOptions;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 进程内缓存
+ * <p>
+ * 每个命名空间一个 {@link ConcurrentHashMap}，按权重限制总容量，淘汰策略为 W-TinyLFU：
+ * 新数据先进入1%的窗口LRU，被挤出后与试用区最久未访问的数据比较 {@link FrequencySketch} 估算的频率，低者淘汰；
+ * 主区为试用区(20%)+保护区(80%)的分段LRU。过期使用分层时间轮 {@link TimerWheel}，不为每个缓存项创建定时任务。
+ * </p>
+ * <p>
+ * 读写只操作map并把事件放入缓冲区，缓冲积累到一定数量后由获得淘汰锁（tryLock）的线程批量维护，调用方不会等待该锁，
+ * 只有写缓冲积压过多时写入方才会阻塞协助维护。因此总权重可能短暂超过上限一个批次，{@link #cleanUp()} 可立即维护。清空命名空间只需摘掉对应的map，为O(1)，旧数据在维护时回收。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+public class MemoryCache extends LocalCacheAbstract {
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 10_000L;
+
+    static final Object NULL_VALUE = new Object();
+
+    private static final double WINDOW_PERCENT    = 0.01d;
+    private static final double PROTECTED_PERCENT = 0.80d;
+    private static final int    WRITE_BUFFER_MAX  = 1024;
+    private static final int    WRITE_DRAIN_BATCH = 16;
+    private static final int    ADMIT_HASHDOS     = 6;
+
+    private final ConcurrentHashMap<String, Namespace> namespaces    = new ConcurrentHashMap<>();
+    private final ReadBuffer                           readBuffer    = new ReadBuffer();
+    private final ConcurrentLinkedQueue<Runnable>      writeBuffer   = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger                        pendingWrites = new AtomicInteger();
+    private final ReentrantLock                        evictionLock  = new ReentrantLock();
+    private final long                                 origin        = System.nanoTime();
+    private final long                                 maximumWeight;
+    private final Weigher                              weigher;
+
+    // 以下由淘汰锁保护
+    private final NodeDeque       window         = new NodeDeque();
+    private final NodeDeque       probation      = new NodeDeque();
+    private final NodeDeque       protectedQueue = new NodeDeque();
+    private final FrequencySketch sketch         = new FrequencySketch();
+    private final TimerWheel      timerWheel;
+    private final long            windowMaximum;
+    private final long            protectedMaximum;
+    private       long            weightedSize;
+    private       long            windowWeight;
+    private       long            protectedWeight;
+    private       long            entryCount;
+
+    public MemoryCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    public MemoryCache(long maximumWeight) {
+        this(maximumWeight, Weigher.SINGLETON);
+    }
+
+    /**
+     * @param maximumWeight 最大总权重
+     * @param weigher       权重计算
+     */
+    public MemoryCache(long maximumWeight, Weigher weigher) {
+        if (maximumWeight < 0) throw new IllegalArgumentException("maximumWeight can't be less than 0");
+        this.maximumWeight = maximumWeight;
+        this.weigher = Objects.requireNonNull(weigher, "weigher can not be null");
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENT);
+        this.timerWheel = new TimerWheel(now());
+        if (weigher == Weigher.SINGLETON) sketch.ensureCapacity(maximumWeight);
+    }
+
+    //region get
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(String namespace, K key) {
+        Node node = getNode(namespace, key);
+        return node == null ? null : (V) unwrap(node.value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        var       result = new HashMap<K, V>();
+        Namespace ns     = namespaces.get(namespace);
+        if (ns == null) return result;
+        long now = now();
+        for (K key : keys) {
+            Node node = ns.map.get(key);
+            if (node == null || node.isExpired(now)) continue;
+            afterRead(node);
+            Object value = unwrap(node.value);
+            if (value != null) result.put(key, (V) value);
+        }
+        return result;
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value, long ttl) {
+        doPut(namespace, key, value, ttl, false);
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        return doPut(namespace, key, value, ttl, true);
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> boolean remove(String namespace, K key) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return false;
+        Node node = ns.map.remove(key);
+        if (node == null) return false;
+        node.retired = true;
+        afterWrite(() -> onRemove(node));
+        return !node.isExpired(now());
+    }
+
+    //endregion
+
+    //region clear
+
+    @Override
+    public boolean clear(String namespace) {
+        Namespace ns = namespaces.remove(namespace);
+        if (ns == null) return false;
+        ns.cleared = true;
+        boolean hasEntries = !ns.map.isEmpty();
+        afterWrite(() -> onClear(ns));
+        return hasEntries;
+    }
+
+    @Override
+    public boolean clearAll() {
+        for (String namespace : namespaces.keySet()) {
+            clear(namespace);
+        }
+        return true;
+    }
+
+    //endregion
+
+    //region other
+
+    @Override
+    public <K> boolean exists(String namespace, K key) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return false;
+        Node node = ns.map.get(key);
+        return node != null && !node.isExpired(now());
+    }
+
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return -2;
+        Node node = ns.map.get(key);
+        long now  = now();
+        if (node == null || node.isExpired(now)) return -2;
+        return node.expiresAt == Long.MAX_VALUE ? -1 : TimeUnit.NANOSECONDS.toMillis(node.expiresAt - now);
+    }
+
+    @Override
+    public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return false;
+        long   now     = now();
+        long   millis  = timeUnit.toMillis(ttl);
+        Node[] updated = new Node[1];
+        ns.map.computeIfPresent(key, (k, node) -> {
+            if (node.isExpired(now)) return node;
+            node.expiresAt = expiresAt(now, millis);
+            updated[0] = node;
+            return node;
+        });
+        if (updated[0] == null) return false;
+        afterWrite(() -> onUpdate(updated[0]));
+        return true;
+    }
+
+    /**
+     * @return 当前缓存项数量（包含尚未回收的过期项）
+     */
+    public long estimatedSize() {
+        long size = 0;
+        for (Namespace ns : namespaces.values()) {
+            size += ns.map.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return 淘汰策略当前统计的总权重
+     */
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 立即执行一次维护：回放读写缓冲、回收过期项并按容量淘汰
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 直接遍历命名空间的map（弱一致），不分页也不限速，遍历不算作访问
+     */
+    @Override
+    public Stream<String> keys(String namespace, ScanOptions options) {
+        return liveNodes(namespace).map(node -> String.valueOf(node.key));
+    }
+
+    /**
+     * @see #keys(String, ScanOptions)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> Stream<Map.Entry<String, V>> entries(String namespace, ScanOptions options) {
+        return liveNodes(namespace)
+                .<Map.Entry<String, V>>map(node -> new AbstractMap.SimpleImmutableEntry<>(String.valueOf(node.key), (V) unwrap(node.value)))
+                .filter(entry -> entry.getValue() != null);
+    }
+
+    //endregion
+
+    private Stream<Node> liveNodes(String namespace) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return Stream.empty();
+        long now = now();
+        return ns.map.values().stream().filter(node -> !node.isExpired(now));
+    }
+
+    private Node getNode(String namespace, Object key) {
+        Namespace ns = namespaces.get(namespace);
+        if (ns == null) return null;
+        Node node = ns.map.get(key);
+        if (node == null || node.isExpired(now())) return null;
+        afterRead(node);
+        return node;
+    }
+
+    private boolean doPut(String namespace, Object key, Object value, long ttl, boolean onlyIfAbsent) {
+        Namespace ns       = namespaces.computeIfAbsent(namespace, Namespace::new);
+        long      now      = now();
+        Object    stored   = value == null ? NULL_VALUE : value;
+        int       weight   = weigher.weigh(namespace, key, value);
+        long      expireAt = expiresAt(now, ttl);
+        if (weight < 0) throw new IllegalArgumentException("weight can't be less than 0");
+
+        Node[]    added   = new Node[1];
+        Node[]    updated = new Node[1];
+        ns.map.compute(key, (k, node) -> {
+            if (node == null) {
+                return added[0] = new Node(ns, k, stored, weight, expireAt);
+            }
+            if (onlyIfAbsent && !node.isExpired(now)) return node;
+            node.value = stored;
+            node.weight = weight;
+            node.expiresAt = expireAt;
+            return updated[0] = node;
+        });
+        if (added[0] != null) {
+            afterWrite(() -> onAdd(added[0]));
+        } else if (updated[0] != null) {
+            afterWrite(() -> onUpdate(updated[0]));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private static long expiresAt(long now, long ttl) {
+        return ttl <= 0 ? Long.MAX_VALUE : now + TimeUnit.MILLISECONDS.toNanos(ttl);
+    }
+
+    private static Object unwrap(Object value) {
+        return value == NULL_VALUE ? null : value;
+    }
+
+    //region maintenance
+
+    private void afterRead(Node node) {
+        if (readBuffer.offer(node) == ReadBuffer.FULL) tryMaintenance();
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        int pending = pendingWrites.incrementAndGet();
+        if (pending > WRITE_BUFFER_MAX) {
+            //写入过快，阻塞协助维护以形成背压
+            cleanUp();
+        } else if (pending >= WRITE_DRAIN_BATCH) {
+            tryMaintenance();
+        }
+    }
+
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance() {
+        readBuffer.drain(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        timerWheel.advance(now(), this::expireNode);
+        evict();
+    }
+
+    private void onAdd(Node node) {
+        if (node.dead || node.retired || node.namespace.cleared) {
+            node.dead = true;
+            return;
+        }
+        node.policyWeight = node.weight;
+        node.queue = Node.WINDOW;
+        window.addLast(node);
+        weightedSize += node.policyWeight;
+        windowWeight += node.policyWeight;
+        entryCount++;
+        if (weigher != Weigher.SINGLETON) sketch.ensureCapacity(entryCount);
+        sketch.increment(node.hash);
+        if (node.expiresAt != Long.MAX_VALUE) timerWheel.schedule(node);
+    }
+
+    private void onUpdate(Node node) {
+        if (node.queue == Node.NONE) return;
+        int delta = node.weight - node.policyWeight;
+        node.policyWeight += delta;
+        weightedSize += delta;
+        if (node.queue == Node.WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == Node.PROTECTED) {
+            protectedWeight += delta;
+        }
+        onAccess(node);
+        timerWheel.reschedule(node);
+    }
+
+    private void onRemove(Node node) {
+        unlink(node);
+    }
+
+    private void onClear(Namespace ns) {
+        for (Node node : ns.map.values()) {
+            unlink(node);
+        }
+        ns.map.clear();
+    }
+
+    private void onAccess(Node node) {
+        if (node.queue == Node.NONE) return;
+        sketch.increment(node.hash);
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.moveToBack(node);
+                break;
+            case Node.PROBATION:
+                probation.unlink(node);
+                protectedQueue.addLast(node);
+                node.queue = Node.PROTECTED;
+                protectedWeight += node.policyWeight;
+                demoteFromProtected();
+                break;
+            case Node.PROTECTED:
+                protectedQueue.moveToBack(node);
+                break;
+            default:
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaximum) {
+            Node demoted = protectedQueue.first;
+            if (demoted == null) break;
+            protectedQueue.unlink(demoted);
+            probation.addLast(demoted);
+            demoted.queue = Node.PROBATION;
+            protectedWeight -= demoted.policyWeight;
+        }
+    }
+
+    /**
+     * 先把窗口溢出的数据移入试用区作为候选，再在总权重超限时让候选与试用区头部的牺牲者按频率竞争
+     */
+    private void evict() {
+        Node candidate = evictFromWindow();
+        while (weightedSize > maximumWeight) {
+            Node victim = probation.first;
+            if (victim == null || victim == candidate) {
+                if (victim == null) victim = protectedQueue.first != null ? protectedQueue.first : window.first;
+                if (victim == null) break;
+                if (victim == candidate) candidate = candidate.next;
+                evictNode(victim);
+                continue;
+            }
+            if (candidate == null) {
+                evictNode(victim);
+                continue;
+            }
+            Node next = candidate.next;
+            if (admit(candidate.hash, victim.hash)) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+            }
+            candidate = next;
+        }
+    }
+
+    /**
+     * @return 第一个被移入试用区的候选，没有则为null
+     */
+    private Node evictFromWindow() {
+        Node first = null;
+        while (windowWeight > windowMaximum) {
+            Node node = window.first;
+            if (node == null) break;
+            window.unlink(node);
+            probation.addLast(node);
+            node.queue = Node.PROBATION;
+            windowWeight -= node.policyWeight;
+            if (first == null) first = node;
+        }
+        return first;
+    }
+
+    private boolean admit(int candidateHash, int victimHash) {
+        int candidateFreq = sketch.frequency(candidateHash);
+        int victimFreq    = sketch.frequency(victimHash);
+        if (candidateFreq > victimFreq) return true;
+        if (candidateFreq < ADMIT_HASHDOS) return false;
+        //防止利用hash碰撞抬高牺牲者频率，少量随机准入
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    private void evictNode(Node node) {
+        if (node.namespace.map.remove(node.key, node)) node.retired = true;
+        unlink(node);
+    }
+
+    private void expireNode(Node node) {
+        long      now     = now();
+        boolean[] removed = new boolean[1];
+        node.namespace.map.computeIfPresent(node.key, (k, n) -> {
+            if (n != node || !n.isExpired(now)) return n;
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0] || node.namespace.map.get(node.key) != node) {
+            node.retired = true;
+            unlink(node);
+        } else {
+            timerWheel.reschedule(node);
+        }
+    }
+
+    private void unlink(Node node) {
+        timerWheel.deschedule(node);
+        switch (node.queue) {
+            case Node.WINDOW:
+                window.unlink(node);
+                windowWeight -= node.policyWeight;
+                break;
+            case Node.PROBATION:
+                probation.unlink(node);
+                break;
+            case Node.PROTECTED:
+                protectedQueue.unlink(node);
+                protectedWeight -= node.policyWeight;
+                break;
+            default:
+                node.dead = true;
+                return;
+        }
+        weightedSize -= node.policyWeight;
+        entryCount--;
+        node.queue = Node.NONE;
+        node.dead = true;
+    }
+
+    //endregion
+
+    static final class Namespace {
+        final String                          name;
+        final int                             hash;
+        final ConcurrentHashMap<Object, Node> map = new ConcurrentHashMap<>();
+        volatile boolean                      cleared;
+
+        Namespace(String name) {
+            this.name = name;
+            this.hash = name.hashCode();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.kurenairyu.cache.memory;
+
+/**
+ * 缓存项节点
+ * <p>
+ * value/weight/expiresAt 在 ConcurrentHashMap 的 compute 中按key串行修改；
+ * 其余字段只在淘汰锁下由维护线程读写。节点同时挂在一个淘汰队列（prev/next）和时间轮（prevTimer/nextTimer）上。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+final class Node {
+
+    static final byte NONE      = 0;
+    static final byte WINDOW    = 1;
+    static final byte PROBATION = 2;
+    static final byte PROTECTED = 3;
+
+    final MemoryCache.Namespace namespace;
+    final Object                key;
+    final int                   hash;
+
+    volatile Object  value;
+    volatile int     weight;
+    volatile long    expiresAt;
+    /**
+     * 已从map中移除
+     */
+    volatile boolean retired;
+
+    // 以下由淘汰锁保护
+    int     policyWeight;
+    byte    queue = NONE;
+    boolean dead;
+    Node    prev;
+    Node    next;
+    Node    prevTimer;
+    Node    nextTimer;
+
+    Node(MemoryCache.Namespace namespace, Object key, Object value, int weight, long expiresAt) {
+        this.namespace = namespace;
+        this.key = key;
+        this.hash = spread(namespace.hash * 31 + key.hashCode());
+        this.value = value;
+        this.weight = weight;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 时间轮桶的哨兵节点
+     */
+    Node() {
+        this.namespace = null;
+        this.key = null;
+        this.hash = 0;
+        this.prevTimer = this;
+        this.nextTimer = this;
+    }
+
+    boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        h *= 0xac4c1b51;
+        h ^= h >>> 15;
+        return h;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.kurenairyu.cache.memory;
+
+/**
+ * 基于节点 prev/next 字段的侵入式双向队列，头部为最久未访问
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+final class NodeDeque {
+
+    Node first;
+    Node last;
+
+    void addLast(Node node) {
+        node.prev = last;
+        node.next = null;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        last = node;
+    }
+
+    void unlink(Node node) {
+        Node prev = node.prev;
+        Node next = node.next;
+        if (prev == null) {
+            first = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            last = prev;
+        } else {
+            next.prev = prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    void moveToBack(Node node) {
+        if (node != last) {
+            unlink(node);
+            addLast(node);
+        }
+    }
+}
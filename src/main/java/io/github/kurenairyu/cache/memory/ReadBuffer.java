@@ -0,0 +1,68 @@
+package io.github.kurenairyu.cache.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 分条带的有损读缓冲
+ * <p>
+ * 读操作只把节点放入所在条带的环形数组，满了或CAS失败直接丢弃（只影响访问顺序的精确度），
+ * 由维护线程在淘汰锁下批量回放。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+final class ReadBuffer {
+
+    static final int SUCCESS = 0;
+    static final int FAILED  = 1;
+    static final int FULL    = 2;
+
+    private static final int BUFFER_SIZE = 16;
+    private static final int MASK        = BUFFER_SIZE - 1;
+    private static final int STRIPES     = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    ReadBuffer() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    int offer(Node node) {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        long   head   = stripe.readCounter;
+        long   tail   = stripe.writeCounter.get();
+        long   size   = tail - head;
+        if (size >= BUFFER_SIZE) return FULL;
+        if (stripe.writeCounter.compareAndSet(tail, tail + 1)) {
+            stripe.buffer.lazySet((int) (tail & MASK), node);
+            return size + 1 >= BUFFER_SIZE ? FULL : SUCCESS;
+        }
+        return FAILED;
+    }
+
+    void drain(Consumer<Node> consumer) {
+        for (Stripe stripe : stripes) {
+            long head = stripe.readCounter;
+            long tail = stripe.writeCounter.get();
+            for (; head < tail; head++) {
+                int  index = (int) (head & MASK);
+                Node node  = stripe.buffer.get(index);
+                if (node == null) break;
+                stripe.buffer.lazySet(index, null);
+                consumer.accept(node);
+            }
+            stripe.readCounter = head;
+        }
+    }
+
+    private static final class Stripe {
+        private final AtomicReferenceArray<Node> buffer       = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong                 writeCounter = new AtomicLong();
+        private volatile long                    readCounter;
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.kurenairyu.cache.memory;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮，O(1) 调度与取消过期
+ * <p>
+ * 各层的桶跨度约为 1.07s、1.14m、1.22h、1.63d、6.5d，超出范围的放在最后一层。
+ * 推进时间时只处理经过的桶，未到期的节点重新调度到更精细的层。非线程安全，只在淘汰锁下访问。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+final class TimerWheel {
+
+    private static final int[]  BUCKETS = {64, 64, 32, 4, 1};
+    private static final long[] SPANS   = {1L << 30, 1L << 36, 1L << 42, 1L << 47, 1L << 49, 1L << 49};
+    private static final int[]  SHIFT   = {30, 36, 42, 47, 49};
+
+    private final Node[][] wheel = new Node[BUCKETS.length][];
+    private long           nanos;
+
+    TimerWheel(long nanos) {
+        this.nanos = nanos;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new Node[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = new Node();
+            }
+        }
+    }
+
+    /**
+     * 推进到当前时间，对到期的节点调用 expire，expire 可以再次调度节点
+     *
+     * @param currentNanos 当前时间
+     * @param expire       到期回调
+     */
+    void advance(long currentNanos, Consumer<Node> expire) {
+        long previousNanos = nanos;
+        nanos = currentNanos;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousNanos >>> SHIFT[i];
+            long currentTicks  = currentNanos >>> SHIFT[i];
+            if (currentTicks - previousTicks <= 0L) break;
+            expire(i, previousTicks, currentTicks - previousTicks, expire);
+        }
+    }
+
+    void schedule(Node node) {
+        Node sentinel = findBucket(node.expiresAt);
+        node.prevTimer = sentinel.prevTimer;
+        node.nextTimer = sentinel;
+        sentinel.prevTimer.nextTimer = node;
+        sentinel.prevTimer = node;
+    }
+
+    void reschedule(Node node) {
+        deschedule(node);
+        if (node.expiresAt != Long.MAX_VALUE) schedule(node);
+    }
+
+    void deschedule(Node node) {
+        if (node.nextTimer == null) return;
+        node.nextTimer.prevTimer = node.prevTimer;
+        node.prevTimer.nextTimer = node.nextTimer;
+        node.nextTimer = null;
+        node.prevTimer = null;
+    }
+
+    private void expire(int index, long previousTicks, long delta, Consumer<Node> expire) {
+        Node[] buckets = wheel[index];
+        int    mask    = buckets.length - 1;
+        int    steps   = (int) Math.min(1 + delta, buckets.length);
+        int    start   = (int) (previousTicks & mask);
+        for (int i = start; i < start + steps; i++) {
+            Node sentinel = buckets[i & mask];
+            Node node     = sentinel.nextTimer;
+            sentinel.prevTimer = sentinel;
+            sentinel.nextTimer = sentinel;
+            while (node != sentinel) {
+                Node next = node.nextTimer;
+                node.prevTimer = null;
+                node.nextTimer = null;
+                if (node.isExpired(nanos)) {
+                    expire.accept(node);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private Node findBucket(long time) {
+        long duration = time - nanos;
+        int  length   = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                return wheel[i][(int) (ticks & (BUCKETS[i] - 1))];
+            }
+        }
+        return wheel[length][0];
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.kurenairyu.cache.memory;
+
+/**
+ * 缓存项权重计算
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:41
+ */
+@FunctionalInterface
+public interface Weigher {
+
+    /**
+     * 每个缓存项权重均为1，即按数量限制
+     */
+    Weigher SINGLETON = (namespace, key, value) -> 1;
+
+    /**
+     * 计算缓存项权重
+     *
+     * @param namespace 命名空间
+     * @param key       缓存标识/id
+     * @param value     缓存对象（可能为null）
+     * @return 非负权重
+     */
+    int weigh(String namespace, Object key, Object value);
+
+}
@@ -0,0 +1,107 @@
+package io.github.kurenairyu.cache.metrics;
+
+import java.util.Map;
+
+/**
+ * 缓存指标记录SPI
+ * <p>
+ * 所有方法都会在请求路径上被调用，实现必须是线程安全且足够轻量的（无锁、不做IO）。
+ * 默认实现均为空操作，按需覆盖即可。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public interface CacheMetrics {
+
+    /**
+     * 无法确定命名空间时使用（如解码返回值时）
+     */
+    String ANY_NAMESPACE = "*";
+
+    CacheMetrics NOOP = new CacheMetrics() {
+    };
+
+    /**
+     * 记录命中次数
+     *
+     * @param namespace 命名空间
+     * @param count     次数
+     */
+    default void recordHits(String namespace, int count) {
+    }
+
+    /**
+     * 记录未命中次数
+     *
+     * @param namespace 命名空间
+     * @param count     次数
+     */
+    default void recordMisses(String namespace, int count) {
+    }
+
+    /**
+     * 记录一次回源加载
+     *
+     * @param namespace 命名空间
+     * @param nanos     耗时(ns)
+     * @param success   是否成功
+     */
+    default void recordLoad(String namespace, long nanos, boolean success) {
+    }
+
+    /**
+     * 记录命令耗时
+     *
+     * @param namespace 命名空间
+     * @param operation 操作类型
+     * @param nanos     耗时(ns)
+     */
+    default void recordLatency(String namespace, CacheOperation operation, long nanos) {
+    }
+
+    /**
+     * 记录序列化后的值大小
+     *
+     * @param namespace 命名空间
+     * @param bytes     字节数
+     */
+    default void recordPayload(String namespace, int bytes) {
+    }
+
+    /**
+     * 记录从连接池获取连接的等待时间
+     *
+     * @param nanos 耗时(ns)
+     */
+    default void recordPoolWait(long nanos) {
+    }
+
+    /**
+     * 记录一次因在途命令限制而排队或被拒绝的命令
+     *
+     * @param namespace 命名空间
+     * @param nanos     排队耗时(ns)
+     * @param rejected  是否因排队已满或超时被拒绝
+     */
+    default void recordThrottle(String namespace, long nanos, boolean rejected) {
+    }
+
+    /**
+     * 记录一次熔断器状态变化
+     *
+     * @param from 变化前的状态
+     * @param to   变化后的状态
+     */
+    default void recordCircuitTransition(String from, String to) {
+    }
+
+    /**
+     * 为命名空间的指标附加标签
+     *
+     * @param namespace 命名空间
+     * @param tags      标签
+     */
+    default void tag(String namespace, Map<String, String> tags) {
+    }
+}
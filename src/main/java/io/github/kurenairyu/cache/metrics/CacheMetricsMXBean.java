@@ -0,0 +1,34 @@
+package io.github.kurenairyu.cache.metrics;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 缓存整体统计的JMX视图，耗时单位为纳秒
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public interface CacheMetricsMXBean {
+
+    Set<String> getNamespaces();
+
+    long getPoolWaitCount();
+
+    double getPoolWaitMean();
+
+    long getPoolWaitP99();
+
+    long getPoolWaitMax();
+
+    /**
+     * @return 最近一次变化后的熔断器状态，没有变化过为null
+     */
+    String getCircuitState();
+
+    /**
+     * @return 各熔断器状态变化（{@code 变化前->变化后}）的次数
+     */
+    Map<String, Long> getCircuitTransitionCount();
+
+}
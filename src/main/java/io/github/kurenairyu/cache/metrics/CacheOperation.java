@@ -0,0 +1,28 @@
+package io.github.kurenairyu.cache.metrics;
+
+/**
+ * 缓存操作类型，用于按操作统计命令耗时
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public enum CacheOperation {
+
+    GET,
+    GET_ALL,
+    PUT,
+    PUT_ALL,
+    PUT_IF_ABSENT,
+    PUT_ALL_IF_ABSENT,
+    REMOVE,
+    REMOVE_ALL,
+    EXISTS,
+    EXISTS_ALL,
+    EXPIRE,
+    TTL,
+    CLEAR,
+    CLEAR_ALL,
+    SCAN,
+    INCR
+
+}
@@ -0,0 +1,20 @@
+package io.github.kurenairyu.cache.metrics;
+
+/**
+ * 直方图快照
+ *
+ * @param count 记录次数
+ * @param mean  平均值
+ * @param max   最大值
+ * @param p50   50分位
+ * @param p90   90分位
+ * @param p99   99分位
+ * @param p999  99.9分位
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public record HistogramSnapshot(long count, double mean, long max, long p50, long p90, long p99, long p999) {
+
+    public static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+
+}
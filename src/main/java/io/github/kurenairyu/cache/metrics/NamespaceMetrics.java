@@ -0,0 +1,51 @@
+package io.github.kurenairyu.cache.metrics;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个命名空间的计数器，命令耗时直方图按操作延迟创建
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+class NamespaceMetrics {
+
+    private static final CacheOperation[] OPERATIONS = CacheOperation.values();
+
+    final String           namespace;
+    final LongAdder        hits             = new LongAdder();
+    final LongAdder        misses           = new LongAdder();
+    final LongAdder        loadSuccesses    = new LongAdder();
+    final LongAdder        loadFailures     = new LongAdder();
+    final StripedHistogram loadLatency      = new StripedHistogram();
+    final StripedHistogram payload          = new StripedHistogram();
+    final StripedHistogram throttleDelayed  = new StripedHistogram();
+    final StripedHistogram throttleRejected = new StripedHistogram();
+
+    private final AtomicReferenceArray<StripedHistogram> latencies = new AtomicReferenceArray<>(OPERATIONS.length);
+
+    NamespaceMetrics(String namespace) {
+        this.namespace = namespace;
+    }
+
+    StripedHistogram latency(CacheOperation operation) {
+        StripedHistogram histogram = latencies.get(operation.ordinal());
+        if (histogram == null) {
+            latencies.compareAndSet(operation.ordinal(), null, new StripedHistogram());
+            histogram = latencies.get(operation.ordinal());
+        }
+        return histogram;
+    }
+
+    NamespaceStats snapshot() {
+        var commandLatencies = new EnumMap<CacheOperation, HistogramSnapshot>(CacheOperation.class);
+        for (CacheOperation operation : OPERATIONS) {
+            StripedHistogram histogram = latencies.get(operation.ordinal());
+            if (histogram != null) commandLatencies.put(operation, histogram.snapshot());
+        }
+        return new NamespaceStats(namespace, hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                loadLatency.snapshot(), payload.snapshot(), throttleDelayed.snapshot(), throttleRejected.snapshot(), commandLatencies);
+    }
+}
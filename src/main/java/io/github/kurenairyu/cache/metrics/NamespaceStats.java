@@ -0,0 +1,37 @@
+package io.github.kurenairyu.cache.metrics;
+
+import java.util.Map;
+
+/**
+ * 命名空间统计快照
+ *
+ * @param namespace        命名空间
+ * @param hits             命中次数
+ * @param misses           未命中次数
+ * @param loadSuccesses    回源成功次数
+ * @param loadFailures     回源失败次数
+ * @param loadLatency      回源耗时(ns)
+ * @param payload          序列化后的值大小(byte)
+ * @param throttleDelayed  因在途命令限制排队后执行的命令的排队耗时(ns)
+ * @param throttleRejected 因在途命令限制被拒绝的命令的排队耗时(ns)
+ * @param commandLatencies 各操作命令耗时(ns)
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public record NamespaceStats(String namespace,
+                             long hits,
+                             long misses,
+                             long loadSuccesses,
+                             long loadFailures,
+                             HistogramSnapshot loadLatency,
+                             HistogramSnapshot payload,
+                             HistogramSnapshot throttleDelayed,
+                             HistogramSnapshot throttleRejected,
+                             Map<CacheOperation, HistogramSnapshot> commandLatencies) {
+
+    public double hitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+}
@@ -0,0 +1,45 @@
+package io.github.kurenairyu.cache.metrics;
+
+import java.util.Map;
+
+/**
+ * 命名空间统计的JMX视图，耗时单位为纳秒
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public interface NamespaceStatsMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRatio();
+
+    long getLoadSuccessCount();
+
+    long getLoadFailureCount();
+
+    double getLoadLatencyMean();
+
+    long getLoadLatencyP99();
+
+    double getPayloadBytesMean();
+
+    long getPayloadBytesP99();
+
+    long getThrottleDelayedCount();
+
+    long getThrottleRejectedCount();
+
+    long getThrottleWaitP99();
+
+    Map<String, Long> getCommandCount();
+
+    Map<String, Long> getCommandLatencyP50();
+
+    Map<String, Long> getCommandLatencyP99();
+
+    Map<String, Long> getCommandLatencyP999();
+
+}
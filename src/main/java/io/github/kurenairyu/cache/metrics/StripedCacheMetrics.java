@@ -0,0 +1,323 @@
+package io.github.kurenairyu.cache.metrics;
+
+import lombok.extern.log4j.Log4j2;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * 默认的指标实现
+ * <p>
+ * 计数使用 {@link java.util.concurrent.atomic.LongAdder}，耗时与大小使用 {@link StripedHistogram}，记录路径全程无锁。
+ * 通过 {@link #snapshot()} 获取快照；指定 {@code jmxName} 时会为缓存及每个命名空间注册MXBean：
+ * {@code io.github.kurenairyu.cache:type=CacheMetrics,name=<jmxName>} 及
+ * {@code io.github.kurenairyu.cache:type=NamespaceStats,name=<jmxName>,namespace=<namespace>}。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+@Log4j2
+public class StripedCacheMetrics implements CacheMetrics, AutoCloseable {
+
+    private static final String DOMAIN = "io.github.kurenairyu.cache";
+
+    private final String                                     jmxName;
+    private final ConcurrentHashMap<String, NamespaceMetrics> namespaces  = new ConcurrentHashMap<>();
+    private final StripedHistogram                           poolWait    = new StripedHistogram();
+    private final ConcurrentHashMap<String, LongAdder>        transitions = new ConcurrentHashMap<>();
+    private final Set<ObjectName>                            registered  = ConcurrentHashMap.newKeySet();
+    private volatile String                                  circuitState;
+
+    public StripedCacheMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param jmxName JMX中的缓存名称，为空则不注册MXBean
+     */
+    public StripedCacheMetrics(String jmxName) {
+        this.jmxName = jmxName;
+        if (jmxName != null) {
+            register(objectName("type=CacheMetrics,name=" + ObjectName.quote(jmxName)), new CacheMetricsView(), CacheMetricsMXBean.class);
+        }
+    }
+
+    @Override
+    public void recordHits(String namespace, int count) {
+        of(namespace).hits.add(count);
+    }
+
+    @Override
+    public void recordMisses(String namespace, int count) {
+        of(namespace).misses.add(count);
+    }
+
+    @Override
+    public void recordLoad(String namespace, long nanos, boolean success) {
+        NamespaceMetrics metrics = of(namespace);
+        (success ? metrics.loadSuccesses : metrics.loadFailures).increment();
+        metrics.loadLatency.record(nanos);
+    }
+
+    @Override
+    public void recordLatency(String namespace, CacheOperation operation, long nanos) {
+        of(namespace).latency(operation).record(nanos);
+    }
+
+    @Override
+    public void recordPayload(String namespace, int bytes) {
+        of(namespace).payload.record(bytes);
+    }
+
+    @Override
+    public void recordPoolWait(long nanos) {
+        poolWait.record(nanos);
+    }
+
+    @Override
+    public void recordThrottle(String namespace, long nanos, boolean rejected) {
+        NamespaceMetrics metrics = of(namespace);
+        (rejected ? metrics.throttleRejected : metrics.throttleDelayed).record(nanos);
+    }
+
+    @Override
+    public void recordCircuitTransition(String from, String to) {
+        circuitState = to;
+        String transition = from + "->" + to;
+        LongAdder counter = transitions.get(transition);
+        if (counter == null) counter = transitions.computeIfAbsent(transition, t -> new LongAdder());
+        counter.increment();
+    }
+
+    /**
+     * @return 所有命名空间的统计快照
+     */
+    public Map<String, NamespaceStats> snapshot() {
+        var result = new TreeMap<String, NamespaceStats>();
+        namespaces.forEach((namespace, metrics) -> result.put(namespace, metrics.snapshot()));
+        return result;
+    }
+
+    /**
+     * @param namespace 命名空间
+     * @return 指定命名空间的统计快照，不存在则为null
+     */
+    public NamespaceStats snapshot(String namespace) {
+        NamespaceMetrics metrics = namespaces.get(namespace);
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    /**
+     * @return 连接池等待时间快照
+     */
+    public HistogramSnapshot poolWaitSnapshot() {
+        return poolWait.snapshot();
+    }
+
+    /**
+     * @return 最近一次变化后的熔断器状态，没有变化过为null
+     */
+    public String circuitState() {
+        return circuitState;
+    }
+
+    /**
+     * @return 各熔断器状态变化（{@code 变化前->变化后}）的次数
+     */
+    public Map<String, Long> circuitTransitions() {
+        var result = new TreeMap<String, Long>();
+        transitions.forEach((transition, counter) -> result.put(transition, counter.sum()));
+        return result;
+    }
+
+    /**
+     * 注销已注册的MXBean
+     */
+    @Override
+    public void close() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                log.warn("Unregister MBean [{}] fail", name, e);
+            }
+        }
+        registered.clear();
+    }
+
+    private NamespaceMetrics of(String namespace) {
+        NamespaceMetrics metrics = namespaces.get(namespace);
+        return metrics != null ? metrics : namespaces.computeIfAbsent(namespace, this::create);
+    }
+
+    private NamespaceMetrics create(String namespace) {
+        NamespaceMetrics metrics = new NamespaceMetrics(namespace);
+        if (jmxName != null) {
+            register(objectName("type=NamespaceStats,name=" + ObjectName.quote(jmxName) + ",namespace=" + ObjectName.quote(namespace)),
+                    new NamespaceStatsView(metrics), NamespaceStatsMXBean.class);
+        }
+        return metrics;
+    }
+
+    private ObjectName objectName(String properties) {
+        try {
+            return new ObjectName(DOMAIN + ":" + properties);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Illegal MBean name: " + properties, e);
+        }
+    }
+
+    private <T> void register(ObjectName name, T view, Class<T> type) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(view, type, true), name);
+            registered.add(name);
+        } catch (JMException e) {
+            log.warn("Register MBean [{}] fail", name, e);
+        }
+    }
+
+    private class CacheMetricsView implements CacheMetricsMXBean {
+
+        @Override
+        public Set<String> getNamespaces() {
+            return new TreeSet<>(namespaces.keySet());
+        }
+
+        @Override
+        public long getPoolWaitCount() {
+            return poolWait.snapshot().count();
+        }
+
+        @Override
+        public double getPoolWaitMean() {
+            return poolWait.snapshot().mean();
+        }
+
+        @Override
+        public long getPoolWaitP99() {
+            return poolWait.snapshot().p99();
+        }
+
+        @Override
+        public long getPoolWaitMax() {
+            return poolWait.snapshot().max();
+        }
+
+        @Override
+        public String getCircuitState() {
+            return circuitState;
+        }
+
+        @Override
+        public Map<String, Long> getCircuitTransitionCount() {
+            return circuitTransitions();
+        }
+    }
+
+    private static class NamespaceStatsView implements NamespaceStatsMXBean {
+
+        private final NamespaceMetrics metrics;
+
+        private NamespaceStatsView(NamespaceMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public long getHitCount() {
+            return metrics.hits.sum();
+        }
+
+        @Override
+        public long getMissCount() {
+            return metrics.misses.sum();
+        }
+
+        @Override
+        public double getHitRatio() {
+            return metrics.snapshot().hitRatio();
+        }
+
+        @Override
+        public long getLoadSuccessCount() {
+            return metrics.loadSuccesses.sum();
+        }
+
+        @Override
+        public long getLoadFailureCount() {
+            return metrics.loadFailures.sum();
+        }
+
+        @Override
+        public double getLoadLatencyMean() {
+            return metrics.loadLatency.snapshot().mean();
+        }
+
+        @Override
+        public long getLoadLatencyP99() {
+            return metrics.loadLatency.snapshot().p99();
+        }
+
+        @Override
+        public double getPayloadBytesMean() {
+            return metrics.payload.snapshot().mean();
+        }
+
+        @Override
+        public long getPayloadBytesP99() {
+            return metrics.payload.snapshot().p99();
+        }
+
+        @Override
+        public long getThrottleDelayedCount() {
+            return metrics.throttleDelayed.snapshot().count();
+        }
+
+        @Override
+        public long getThrottleRejectedCount() {
+            return metrics.throttleRejected.snapshot().count();
+        }
+
+        /**
+         * @return 排队后执行的命令的排队耗时P99
+         */
+        @Override
+        public long getThrottleWaitP99() {
+            return metrics.throttleDelayed.snapshot().p99();
+        }
+
+        @Override
+        public Map<String, Long> getCommandCount() {
+            return commandStats(HistogramSnapshot::count);
+        }
+
+        @Override
+        public Map<String, Long> getCommandLatencyP50() {
+            return commandStats(HistogramSnapshot::p50);
+        }
+
+        @Override
+        public Map<String, Long> getCommandLatencyP99() {
+            return commandStats(HistogramSnapshot::p99);
+        }
+
+        @Override
+        public Map<String, Long> getCommandLatencyP999() {
+            return commandStats(HistogramSnapshot::p999);
+        }
+
+        private Map<String, Long> commandStats(ToLongFunction<HistogramSnapshot> getter) {
+            var result = new TreeMap<String, Long>();
+            metrics.snapshot().commandLatencies().forEach((op, snapshot) -> result.put(op.name(), getter.applyAsLong(snapshot)));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.kurenairyu.cache.metrics.micrometer;
+
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.metrics.CacheOperation;
+import io.micrometer.core.instrument.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer适配，需要自行引入 micrometer-core
+ * <p>
+ * 指标名参照 Micrometer 的 CacheMeterBinder：cache.gets(result=hit|miss)、cache.loads(result=success|failure)、
+ * cache.commands(operation)、cache.payload.size、cache.pool.wait、cache.throttle(result=delayed|rejected)、
+ * cache.circuit.transitions(from, to)，均带有 cache 标签，除 cache.pool.wait 与 cache.circuit.transitions 外还带有 namespace 标签，
+ * 命名空间的指标还带有 {@link #tag} 设置的标签。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public class MicrometerCacheMetrics implements CacheMetrics {
+
+    private static final CacheOperation[] OPERATIONS = CacheOperation.values();
+
+    private final MeterRegistry                              registry;
+    private final Tags                                       tags;
+    private final Timer                                      poolWait;
+    private final ConcurrentHashMap<String, NamespaceMeters> namespaces = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Tags>            extraTags  = new ConcurrentHashMap<>();
+
+    public MicrometerCacheMetrics(MeterRegistry registry, String cacheName) {
+        this(registry, cacheName, Tags.empty());
+    }
+
+    public MicrometerCacheMetrics(MeterRegistry registry, String cacheName, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.concat(tags, "cache", cacheName);
+        this.poolWait = Timer.builder("cache.pool.wait")
+                .description("Time spent waiting for a pooled connection")
+                .tags(this.tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void recordHits(String namespace, int count) {
+        of(namespace).hits.increment(count);
+    }
+
+    @Override
+    public void recordMisses(String namespace, int count) {
+        of(namespace).misses.increment(count);
+    }
+
+    @Override
+    public void recordLoad(String namespace, long nanos, boolean success) {
+        NamespaceMeters meters = of(namespace);
+        (success ? meters.loadSuccesses : meters.loadFailures).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordLatency(String namespace, CacheOperation operation, long nanos) {
+        of(namespace).commands[operation.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPayload(String namespace, int bytes) {
+        of(namespace).payload.record(bytes);
+    }
+
+    @Override
+    public void recordPoolWait(long nanos) {
+        poolWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordThrottle(String namespace, long nanos, boolean rejected) {
+        NamespaceMeters meters = of(namespace);
+        (rejected ? meters.throttleRejected : meters.throttleDelayed).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordCircuitTransition(String from, String to) {
+        Counter.builder("cache.circuit.transitions")
+                .description("Circuit breaker state transitions")
+                .tags(tags)
+                .tag("from", from.toLowerCase())
+                .tag("to", to.toLowerCase())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * 标签只作用于之后创建的指标，需在该命名空间第一次记录前设置
+     */
+    @Override
+    public void tag(String namespace, Map<String, String> tags) {
+        Tags result = Tags.empty();
+        for (Map.Entry<String, String> entry : tags.entrySet()) {
+            result = result.and(entry.getKey(), entry.getValue());
+        }
+        extraTags.put(namespace, result);
+    }
+
+    private NamespaceMeters of(String namespace) {
+        NamespaceMeters meters = namespaces.get(namespace);
+        return meters != null ? meters : namespaces.computeIfAbsent(namespace, NamespaceMeters::new);
+    }
+
+    private class NamespaceMeters {
+
+        private final Counter             hits;
+        private final Counter             misses;
+        private final Timer               loadSuccesses;
+        private final Timer               loadFailures;
+        private final Timer               throttleDelayed;
+        private final Timer               throttleRejected;
+        private final DistributionSummary payload;
+        private final Timer[]             commands = new Timer[OPERATIONS.length];
+
+        private NamespaceMeters(String namespace) {
+            Tags nsTags = tags.and(extraTags.getOrDefault(namespace, Tags.empty())).and("namespace", namespace);
+            hits = Counter.builder("cache.gets").tags(nsTags).tag("result", "hit").register(registry);
+            misses = Counter.builder("cache.gets").tags(nsTags).tag("result", "miss").register(registry);
+            loadSuccesses = Timer.builder("cache.loads").tags(nsTags).tag("result", "success").register(registry);
+            loadFailures = Timer.builder("cache.loads").tags(nsTags).tag("result", "failure").register(registry);
+            throttleDelayed = Timer.builder("cache.throttle").tags(nsTags).tag("result", "delayed").register(registry);
+            throttleRejected = Timer.builder("cache.throttle").tags(nsTags).tag("result", "rejected").register(registry);
+            payload = DistributionSummary.builder("cache.payload.size").baseUnit("bytes").tags(nsTags).register(registry);
+            for (CacheOperation operation : OPERATIONS) {
+                commands[operation.ordinal()] = Timer.builder("cache.commands")
+                        .tags(nsTags)
+                        .tag("operation", operation.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .register(registry);
+            }
+        }
+    }
+}
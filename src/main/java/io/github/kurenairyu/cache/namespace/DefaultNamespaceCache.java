@@ -0,0 +1,502 @@
+package io.github.kurenairyu.cache.namespace;
+
+import io.github.kurenairyu.cache.Cache;
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import org.apache.commons.lang3.RandomUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * {@link NamespaceCache} 的默认实现，委托给底层 {@link Cache}
+ * <p>
+ * 设置了编解码器时写入底层缓存的是字节数组，以 {@link #HEADER_LENGTH} 字节的格式头开始：2字节魔数、1字节版本 {@link #VERSION}、1字节格式。
+ * 格式为 {@link #RAW} 时其余为编码结果，为 {@link #DEFLATED} 时接着是编码结果的长度(int)与压缩后的数据。
+ * 读取到的值不是字节数组时（如其他方式写入的值）直接返回。
+ * </p>
+ * <p>
+ * 底层缓存实现了 {@link RawBytesCache} 且该命名空间可以原样读写时，字节数组不再经过底层缓存的编解码器，key也使用预先拼好的前缀；
+ * 原样读到的值没有魔数时改用底层缓存的普通方法读取，有魔数但版本或格式未知、或无法解码时抛出异常。此时回源得到的null不会写入缓存。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:15
+ */
+public class DefaultNamespaceCache<K, V> implements NamespaceCache<K, V> {
+
+    static final int  HEADER_LENGTH = 4;
+    static final byte VERSION       = 1;
+    static final byte RAW           = 0;
+    static final byte DEFLATED      = 1;
+
+    private static final byte MAGIC_0 = (byte) 0xCA;
+    private static final byte MAGIC_1 = (byte) 0xCE;
+
+    /**
+     * 原样读取到的值不是本类写入的格式
+     */
+    private static final Object FOREIGN = new Object();
+
+    private final Cache                  cache;
+    private final String                 namespace;
+    private final String                 prefix;
+    private final Class<K>               keyType;
+    private final Class<V>               valueType;
+    private volatile ValueCodec<V>       codec;
+    private volatile long                defaultTtl;
+    private volatile long                ttlJitter;
+    private volatile int                 compressThreshold;
+    private volatile MemoryCache         nearCache;
+    private volatile long                nearCacheTtl;
+
+    public DefaultNamespaceCache(Cache cache, String namespace, Class<K> keyType, Class<V> valueType) {
+        this.cache = Objects.requireNonNull(cache, "cache can not be null");
+        this.namespace = Objects.requireNonNull(namespace, "namespace can not be null");
+        this.prefix = cache instanceof RawBytesCache raw ? raw.keyPrefix(namespace) : null;
+        this.keyType = keyType;
+        this.valueType = valueType;
+    }
+
+    @Override
+    public String getNamespace() {
+        return namespace;
+    }
+
+    @Override
+    public Class<K> getKeyType() {
+        return keyType;
+    }
+
+    @Override
+    public Class<V> getValueType() {
+        return valueType;
+    }
+
+    //region config
+
+    @Override
+    public NamespaceCache<K, V> codec(ValueCodec<V> codec) {
+        this.codec = codec;
+        return this;
+    }
+
+    @Override
+    public NamespaceCache<K, V> defaultTtl(long ttl, long jitter) {
+        this.defaultTtl = ttl;
+        this.ttlJitter = jitter;
+        return this;
+    }
+
+    @Override
+    public NamespaceCache<K, V> compressThreshold(int bytes) {
+        this.compressThreshold = bytes;
+        return this;
+    }
+
+    @Override
+    public NamespaceCache<K, V> nearCache(long maximumSize, long ttl) {
+        this.nearCacheTtl = ttl;
+        this.nearCache = maximumSize > 0 ? new MemoryCache(maximumSize) : null;
+        return this;
+    }
+
+    @Override
+    public NamespaceCache<K, V> metricsTags(Map<String, String> tags) {
+        cache.getMetrics().tag(namespace, tags);
+        return this;
+    }
+
+    //endregion
+
+    @Override
+    public V get(K key) {
+        MemoryCache near  = nearCache;
+        V           local = near == null ? null : near.get(namespace, key);
+        if (local != null) return local;
+        RawBytesCache raw = raw();
+        if (raw != null) return putNear(near, key, fromRaw(key, raw.getRaw(namespace, prefix + key)));
+        return putNear(near, key, decode(cache.get(namespace, key)));
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key) {
+        MemoryCache near  = nearCache;
+        V           local = near == null ? null : near.get(namespace, key);
+        if (local != null) return CompletableFuture.completedFuture(local);
+        RawBytesCache raw = raw();
+        if (raw != null) {
+            return raw.getRawAsync(namespace, prefix + key).thenCompose(bytes -> {
+                Object value = decodeRaw(bytes);
+                if (value == FOREIGN) return cache.getAsync(namespace, key).thenApply(this::decode);
+                return CompletableFuture.completedFuture(this.<V>cast(value));
+            }).thenApply(value -> putNear(near, key, value));
+        }
+        return cache.getAsync(namespace, key).thenApply(value -> putNear(near, key, decode(value)));
+    }
+
+    @Override
+    public V get(K key, Function<K, V> func) {
+        MemoryCache near  = nearCache;
+        V           local = near == null ? null : near.get(namespace, key);
+        if (local != null) return local;
+        RawBytesCache raw = raw();
+        if (raw == null) return putNear(near, key, decode(cache.get(namespace, key, Math.max(ttl(), 0), k -> encode(func.apply(k)))));
+        V value = fromRaw(key, raw.getRaw(namespace, prefix + key));
+        if (value == null) {
+            value = func.apply(key);
+            if (value != null) raw.putRaw(namespace, prefix + key, (byte[]) encode(value), ttl());
+        }
+        return putNear(near, key, value);
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        return getAll(keys, (Function<Collection<K>, Map<K, V>>) null);
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Collection<K> keys) {
+        MemoryCache near   = nearCache;
+        Map<K, V>   result = new HashMap<>();
+        List<K>     remote = nearHits(near, keys, result);
+        if (remote.isEmpty()) return CompletableFuture.completedFuture(result);
+        RawBytesCache raw = raw();
+        if (raw != null) {
+            return raw.getAllRawAsync(namespace, fullKeys(remote)).thenCompose(values -> {
+                List<K> foreign = putDecoded(near, remote, values, result);
+                if (foreign.isEmpty()) return CompletableFuture.completedFuture(result);
+                return cache.<K, Object>getAllAsync(namespace, foreign).thenApply(found -> putAllDecoded(near, found, result));
+            });
+        }
+        return cache.<K, Object>getAllAsync(namespace, remote).thenApply(values -> putAllDecoded(near, values, result));
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> func) {
+        MemoryCache near   = nearCache;
+        Map<K, V>   result = new HashMap<>();
+        List<K>     remote = nearHits(near, keys, result);
+        if (remote.isEmpty()) return result;
+        RawBytesCache raw = raw();
+        if (raw != null) {
+            List<K> foreign = putDecoded(near, remote, raw.getAllRaw(namespace, fullKeys(remote)), result);
+            if (!foreign.isEmpty()) putAllDecoded(near, cache.getAll(namespace, foreign), result);
+        } else if (func != null && ttl() <= 0) {
+            return putAllDecoded(near, cache.getAll(namespace, remote, missKeys -> encodeAll(func.apply(missKeys))), result);
+        } else {
+            putAllDecoded(near, cache.getAll(namespace, remote), result);
+        }
+        if (func == null) return result;
+        //底层批量回源不支持指定过期时间，回源后按默认过期时间写入
+        List<K> missKeys = new ArrayList<>(remote);
+        missKeys.removeAll(result.keySet());
+        if (!missKeys.isEmpty()) {
+            Map<K, V> loaded = func.apply(missKeys);
+            if (loaded != null && !loaded.isEmpty()) {
+                putAll(loaded);
+                loaded.forEach(result::put);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        put(key, value, ttl());
+    }
+
+    @Override
+    public CompletableFuture<String> putAsync(K key, V value) {
+        invalidateNear(key);
+        long          ttl = ttl();
+        RawBytesCache raw = value != null ? raw() : null;
+        if (raw != null) return raw.putRawAsync(namespace, prefix + key, (byte[]) encode(value), ttl);
+        return ttl > 0 ? cache.putAsync(namespace, key, encode(value), ttl) : cache.putAsync(namespace, key, encode(value));
+    }
+
+    @Override
+    public void put(K key, V value, long ttl) {
+        invalidateNear(key);
+        RawBytesCache raw = value != null ? raw() : null;
+        if (raw != null) {
+            raw.putRaw(namespace, prefix + key, (byte[]) encode(value), ttl);
+        } else if (ttl > 0) {
+            cache.put(namespace, key, encode(value), ttl);
+        } else {
+            cache.put(namespace, key, encode(value));
+        }
+    }
+
+    @Override
+    public void putAll(Map<K, V> keyValueMap) {
+        if (keyValueMap.isEmpty()) return;
+        keyValueMap.keySet().forEach(this::invalidateNear);
+        RawBytesCache       raw     = raw();
+        Map<String, byte[]> encoded = raw != null ? encodeRaw(keyValueMap) : null;
+        if (defaultTtl <= 0) {
+            if (encoded != null) {
+                raw.putAllRaw(namespace, encoded);
+            } else {
+                cache.putAll(namespace, encodeAll(keyValueMap));
+            }
+            return;
+        }
+        //每个key的过期时间带有随机抖动，只能逐个写入
+        var futures = new ArrayList<CompletableFuture<String>>(keyValueMap.size());
+        if (encoded != null) {
+            encoded.forEach((fullKey, bytes) -> futures.add(raw.putRawAsync(namespace, fullKey, bytes, ttl())));
+        } else {
+            keyValueMap.forEach((key, value) -> futures.add(cache.putAsync(namespace, key, encode(value), ttl())));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    @Override
+    public boolean putIfAbsent(K key, V value) {
+        invalidateNear(key);
+        long          ttl = ttl();
+        RawBytesCache raw = value != null ? raw() : null;
+        if (raw != null) return raw.putRawIfAbsent(namespace, prefix + key, (byte[]) encode(value), ttl);
+        return ttl > 0 ? cache.putIfAbsent(namespace, key, encode(value), ttl) : cache.putIfAbsent(namespace, key, encode(value));
+    }
+
+    @Override
+    public boolean remove(K key) {
+        invalidateNear(key);
+        return cache.remove(namespace, key);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> removeAsync(K key) {
+        invalidateNear(key);
+        return cache.removeAsync(namespace, key);
+    }
+
+    @Override
+    public boolean removeAll(Collection<K> keys) {
+        keys.forEach(this::invalidateNear);
+        return cache.removeAll(namespace, keys);
+    }
+
+    @Override
+    public boolean exists(K key) {
+        MemoryCache near = nearCache;
+        if (near != null && near.get(namespace, key) != null) return true;
+        return cache.exists(namespace, key);
+    }
+
+    @Override
+    public Boolean expire(K key, long ttl, TimeUnit timeUnit) {
+        invalidateNear(key);
+        return cache.expire(namespace, key, ttl, timeUnit);
+    }
+
+    @Override
+    public boolean clear() {
+        MemoryCache near = nearCache;
+        if (near != null) near.clear(namespace);
+        return cache.clear(namespace);
+    }
+
+    /**
+     * @return 带随机抖动的默认过期时间
+     */
+    private long ttl() {
+        long ttl    = defaultTtl;
+        long jitter = ttlJitter;
+        return ttl > 0 && jitter > 0 ? ttl + RandomUtils.nextLong(0, jitter) : ttl;
+    }
+
+    /**
+     * @return 设置了编解码器且底层缓存当前可以原样读写时返回底层缓存，否则返回null
+     */
+    private RawBytesCache raw() {
+        return prefix != null && codec != null && ((RawBytesCache) cache).supportsRaw(namespace) ? (RawBytesCache) cache : null;
+    }
+
+    private String[] fullKeys(List<K> keys) {
+        var fullKeys = new String[keys.size()];
+        for (int i = 0; i < fullKeys.length; i++) {
+            fullKeys[i] = prefix + keys.get(i);
+        }
+        return fullKeys;
+    }
+
+    /**
+     * @return 完整key与编码结果，含有null值时返回null
+     */
+    private Map<String, byte[]> encodeRaw(Map<K, V> keyValueMap) {
+        var result = new HashMap<String, byte[]>(keyValueMap.size() * 2);
+        for (Map.Entry<K, V> entry : keyValueMap.entrySet()) {
+            if (entry.getValue() == null) return null;
+            result.put(prefix + entry.getKey(), (byte[]) encode(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * 原样读到的值不是本类写入的格式时改用底层缓存的普通方法读取
+     */
+    private V fromRaw(K key, byte[] bytes) {
+        Object value = decodeRaw(bytes);
+        return value == FOREIGN ? decode(cache.get(namespace, key)) : cast(value);
+    }
+
+    /**
+     * 解码原样批量读取的结果放入result
+     *
+     * @return 值不是本类写入格式的key
+     */
+    private List<K> putDecoded(MemoryCache near, List<K> keys, List<byte[]> values, Map<K, V> result) {
+        var foreign = new ArrayList<K>(0);
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = decodeRaw(values.get(i));
+            if (value == FOREIGN) {
+                foreign.add(keys.get(i));
+            } else if (value != null) {
+                result.put(keys.get(i), putNear(near, keys.get(i), cast(value)));
+            }
+        }
+        return foreign;
+    }
+
+    private Map<K, V> putAllDecoded(MemoryCache near, Map<K, Object> values, Map<K, V> result) {
+        values.forEach((key, value) -> result.put(key, putNear(near, key, decode(value))));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * 近端缓存命中的放入结果
+     *
+     * @return 需要从底层缓存读取的key
+     */
+    private List<K> nearHits(MemoryCache near, Collection<K> keys, Map<K, V> result) {
+        if (near == null) return new ArrayList<>(keys);
+        var remote = new ArrayList<K>();
+        for (K key : keys) {
+            V value = near.get(namespace, key);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                remote.add(key);
+            }
+        }
+        return remote;
+    }
+
+    private V putNear(MemoryCache near, K key, V value) {
+        if (near != null && value != null) near.put(namespace, key, value, nearCacheTtl);
+        return value;
+    }
+
+    private void invalidateNear(K key) {
+        MemoryCache near = nearCache;
+        if (near != null) near.remove(namespace, key);
+    }
+
+    private Map<K, Object> encodeAll(Map<K, V> keyValueMap) {
+        if (keyValueMap == null) return null;
+        var result = new HashMap<K, Object>(keyValueMap.size());
+        keyValueMap.forEach((key, value) -> result.put(key, encode(value)));
+        return result;
+    }
+
+    Object encode(V value) {
+        ValueCodec<V> codec = this.codec;
+        if (codec == null || value == null) return value;
+        byte[] bytes     = codec.encode(value);
+        int    threshold = compressThreshold;
+        if (threshold <= 0 || bytes.length < threshold) {
+            byte[] result = new byte[HEADER_LENGTH + bytes.length];
+            writeHeader(result, RAW);
+            System.arraycopy(bytes, 0, result, HEADER_LENGTH, bytes.length);
+            return result;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            var out    = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            var buffer = new byte[Math.min(bytes.length, 8192)];
+            var header = new byte[HEADER_LENGTH];
+            writeHeader(header, DEFLATED);
+            out.writeBytes(header);
+            out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    V decode(Object stored) {
+        ValueCodec<V> codec = this.codec;
+        if (codec == null || !(stored instanceof byte[])) return cast(stored);
+        return decode(codec, (byte[]) stored);
+    }
+
+    /**
+     * @return 解码结果，没有魔数（不是本类写入的）时返回 {@link #FOREIGN}
+     */
+    private Object decodeRaw(byte[] bytes) {
+        if (bytes == null) return null;
+        return hasMagic(bytes) ? decode(codec, bytes) : FOREIGN;
+    }
+
+    private V decode(ValueCodec<V> codec, byte[] bytes) {
+        if (!hasMagic(bytes)) throw new IllegalStateException("Value of namespace [" + namespace + "] has no format header");
+        if (bytes[2] != VERSION) throw new IllegalStateException("Unsupported value format version " + bytes[2] + " of namespace [" + namespace + "]");
+        byte format = bytes[3];
+        if (format == RAW) return codec.decode(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+        if (format != DEFLATED || bytes.length <= HEADER_LENGTH + Integer.BYTES) throw unknownFormat(format);
+        Inflater inflater = new Inflater();
+        try {
+            int offset = HEADER_LENGTH + Integer.BYTES;
+            int length = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+            //deflate的压缩比不超过1032:1，超出的长度不可能是本类写入的
+            if (length < 0 || length > (bytes.length - (long) offset) * 1032) throw unknownFormat(format);
+            byte[] result = new byte[length];
+            inflater.setInput(bytes, offset, bytes.length - offset);
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(result, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) throw unknownFormat(format);
+                read += n;
+            }
+            return codec.decode(result);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Broken compressed value of namespace [" + namespace + "]", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private IllegalStateException unknownFormat(byte format) {
+        return new IllegalStateException("Unknown value format " + format + " of namespace [" + namespace + "]");
+    }
+
+    private static void writeHeader(byte[] bytes, byte format) {
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = VERSION;
+        bytes[3] = format;
+    }
+
+    private static boolean hasMagic(byte[] bytes) {
+        return bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+}
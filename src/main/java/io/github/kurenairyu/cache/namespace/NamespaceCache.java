@@ -0,0 +1,122 @@
+package io.github.kurenairyu.cache.namespace;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 绑定到一个命名空间的类型化缓存句柄，通过 {@link io.github.kurenairyu.cache.Cache#namespace} 获取
+ * <p>
+ * 编解码器、默认过期时间、压缩和近端缓存等策略只作用于该命名空间，配置方法返回句柄本身，应在使用前设置。
+ * </p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author Kurenai
+ * @since 2026-10-19 13:15
+ */
+public interface NamespaceCache<K, V> {
+
+    String getNamespace();
+
+    Class<K> getKeyType();
+
+    Class<V> getValueType();
+
+    //region config
+
+    /**
+     * 设置值的编解码器，之前以其他方式写入的值仍可读取
+     *
+     * @param codec 编解码器，为空则直接交给底层缓存编码
+     * @return 句柄本身
+     */
+    NamespaceCache<K, V> codec(ValueCodec<V> codec);
+
+    /**
+     * 设置不指定过期时间的写入和回源使用的默认过期时间
+     *
+     * @param ttl    time to live (ms)，小于等于0表示不过期
+     * @param jitter 在ttl上随机增加 [0, jitter) 毫秒，避免同时写入的数据同时失效
+     * @return 句柄本身
+     */
+    NamespaceCache<K, V> defaultTtl(long ttl, long jitter);
+
+    /**
+     * 设置压缩阈值，只在设置了编解码器时生效
+     *
+     * @param bytes 编码后大于等于该字节数的值使用deflate压缩，小于等于0表示不压缩
+     * @return 句柄本身
+     */
+    NamespaceCache<K, V> compressThreshold(int bytes);
+
+    /**
+     * 开启进程内的近端缓存，只会被经过该句柄的写入失效，其他实例的写入最多延迟 {@code ttl} 可见
+     *
+     * @param maximumSize 最大数量，小于等于0表示关闭
+     * @param ttl         近端缓存的存活时间(ms)
+     * @return 句柄本身
+     */
+    NamespaceCache<K, V> nearCache(long maximumSize, long ttl);
+
+    /**
+     * 设置该命名空间的指标标签，需在该命名空间第一次记录指标前设置
+     *
+     * @param tags 标签
+     * @return 句柄本身
+     */
+    NamespaceCache<K, V> metricsTags(Map<String, String> tags);
+
+    //endregion
+
+    V get(K key);
+
+    CompletableFuture<V> getAsync(K key);
+
+    /**
+     * 查找缓存，不存在时由传入方法获取并以默认过期时间写入
+     */
+    V get(K key, Function<K, V> func);
+
+    Map<K, V> getAll(Collection<K> keys);
+
+    CompletableFuture<Map<K, V>> getAllAsync(Collection<K> keys);
+
+    /**
+     * 批量查找缓存，不存在的key由传入方法获取并以默认过期时间写入
+     */
+    Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> func);
+
+    /**
+     * 以默认过期时间写入
+     */
+    void put(K key, V value);
+
+    CompletableFuture<String> putAsync(K key, V value);
+
+    /**
+     * @param ttl time to live (ms)
+     */
+    void put(K key, V value, long ttl);
+
+    /**
+     * 以默认过期时间写入
+     */
+    void putAll(Map<K, V> keyValueMap);
+
+    boolean putIfAbsent(K key, V value);
+
+    boolean remove(K key);
+
+    CompletableFuture<Boolean> removeAsync(K key);
+
+    boolean removeAll(Collection<K> keys);
+
+    boolean exists(K key);
+
+    Boolean expire(K key, long ttl, TimeUnit timeUnit);
+
+    boolean clear();
+}
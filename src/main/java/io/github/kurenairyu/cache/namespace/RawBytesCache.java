@@ -0,0 +1,74 @@
+package io.github.kurenairyu.cache.namespace;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 可以原样读写字节数组的底层缓存
+ * <p>
+ * 供设置了编解码器的 {@link DefaultNamespaceCache} 使用：编码结果不再经过底层缓存自身的编解码器（不会再加一层类信息和拷贝），
+ * key由句柄用 {@link #keyPrefix(String)} 预先拼好前缀后直接传入。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 14:31
+ */
+public interface RawBytesCache {
+
+    /**
+     * @param namespace 命名空间
+     * @return 该命名空间下完整key的前缀，与key拼接即为底层缓存中的完整key
+     */
+    String keyPrefix(String namespace);
+
+    /**
+     * 命名空间启用了需要按对象处理值的功能（如回源、写回、布隆过滤器等）时不能原样读写，句柄应使用普通方法
+     *
+     * @param namespace 命名空间
+     * @return 当前是否可以原样读写
+     */
+    boolean supportsRaw(String namespace);
+
+    /**
+     * @param namespace 命名空间
+     * @param fullKey   完整key
+     * @return 原始字节，不存在返回null
+     */
+    byte[] getRaw(String namespace, String fullKey);
+
+    CompletableFuture<byte[]> getRawAsync(String namespace, String fullKey);
+
+    /**
+     * @param namespace 命名空间
+     * @param fullKeys  完整key
+     * @return 与key顺序一致的原始字节，不存在的为null
+     */
+    List<byte[]> getAllRaw(String namespace, String[] fullKeys);
+
+    CompletableFuture<List<byte[]>> getAllRawAsync(String namespace, String[] fullKeys);
+
+    /**
+     * @param namespace 命名空间
+     * @param fullKey   完整key
+     * @param value     原始字节
+     * @param ttl       time to live (ms)，小于等于0表示永不过期
+     */
+    void putRaw(String namespace, String fullKey, byte[] value, long ttl);
+
+    CompletableFuture<String> putRawAsync(String namespace, String fullKey, byte[] value, long ttl);
+
+    /**
+     * 批量写入，永不过期
+     *
+     * @param namespace 命名空间
+     * @param values    完整key与原始字节
+     */
+    void putAllRaw(String namespace, Map<String, byte[]> values);
+
+    /**
+     * @return 是否写入
+     * @see #putRaw(String, String, byte[], long)
+     */
+    boolean putRawIfAbsent(String namespace, String fullKey, byte[] value, long ttl);
+}
@@ -0,0 +1,36 @@
+package io.github.kurenairyu.cache.namespace;
+
+import io.github.kurenairyu.cache.util.KryoUtil;
+
+/**
+ * 命名空间的值编解码器，编码结果以字节数组写入底层缓存
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:15
+ */
+public interface ValueCodec<V> {
+
+    byte[] encode(V value);
+
+    V decode(byte[] bytes);
+
+    /**
+     * 已知类型的Kryo编解码器，不写入类信息，比底层缓存默认的 {@code writeClassAndObject} 更小更快
+     *
+     * @param type 值类型，只能用于该类型本身（不能是子类）的值
+     * @return 编解码器
+     */
+    static <V> ValueCodec<V> kryo(Class<V> type) {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(V value) {
+                return KryoUtil.writeObjectToByteArray(value);
+            }
+
+            @Override
+            public V decode(byte[] bytes) {
+                return KryoUtil.readObjectFromByteArray(bytes, type);
+            }
+        };
+    }
+}
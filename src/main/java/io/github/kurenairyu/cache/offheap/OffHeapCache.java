@@ -0,0 +1,323 @@
+package io.github.kurenairyu.cache.offheap;
+
+import io.github.kurenairyu.cache.LocalCacheAbstract;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import io.github.kurenairyu.cache.util.HashUtil;
+import io.lettuce.core.codec.RedisCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 堆外缓存
+ * <p>
+ * 值经codec（默认 {@link KryoCodec}）序列化后存放在直接内存中，堆上只保留每个分段的两个long数组索引，
+ * 缓存数百万条数据也不会增加GC压力。key按 {@code namespace:key} 的字符串形式保存，与redis中的key一致。
+ * </p>
+ * <p>
+ * 按key的hash分为多个 {@link Segment}，每个分段一把读写锁；序列化与反序列化都在锁外完成。
+ * 分段容量用尽时按写入顺序淘汰最旧的数据，过期数据在读取时视为不存在，随淘汰回收空间。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:44
+ */
+public class OffHeapCache extends LocalCacheAbstract {
+
+    public static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+    public static final int  DEFAULT_SEGMENTS = 16;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Segment[]                  segments;
+    private final ReentrantReadWriteLock[]   locks;
+    private final int                        segmentMask;
+    private final RedisCodec<String, Object> codec;
+
+    public OffHeapCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OffHeapCache(long capacity) {
+        this(capacity, DEFAULT_SEGMENTS, new KryoCodec<>());
+    }
+
+    /**
+     * @param capacity 直接内存总容量(byte)，平均分给各分段
+     * @param segments 分段数，会向上取整为2的幂
+     * @param codec    值的序列化方式
+     */
+    public OffHeapCache(long capacity, int segments, RedisCodec<String, Object> codec) {
+        if (segments <= 0) throw new IllegalArgumentException("segments must be greater than 0");
+        int  count           = segments == 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+        long segmentCapacity = capacity / count;
+        if (segmentCapacity < Segment.HEADER_SIZE || segmentCapacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity of each segment must be between " + Segment.HEADER_SIZE + " and " + Integer.MAX_VALUE);
+        }
+        this.codec = Objects.requireNonNull(codec, "codec can not be null");
+        this.segments = new Segment[count];
+        this.locks = new ReentrantReadWriteLock[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment((int) segmentCapacity);
+            this.locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    //region get
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(String namespace, K key) {
+        byte[] value = read(buildKey(namespace, key));
+        return value == null || value.length == 0 ? null : (V) codec.decodeValue(ByteBuffer.wrap(value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        var result = new HashMap<K, V>();
+        for (K key : keys) {
+            byte[] value = read(buildKey(namespace, key));
+            if (value != null && value.length > 0) result.put(key, (V) codec.decodeValue(ByteBuffer.wrap(value)));
+        }
+        return result;
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value, long ttl) {
+        write(buildKey(namespace, key), encode(value), ttl, false);
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        return write(buildKey(namespace, key), encode(value), ttl, true);
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> boolean remove(String namespace, K key) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        var    lock = locks[segmentIndex(hash)].writeLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            int     offset  = segment.find(hash, k);
+            boolean live    = offset >= 0 && !isExpired(segment, offset, System.currentTimeMillis());
+            segment.remove(hash, k);
+            return live;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //endregion
+
+    //region clear
+
+    /**
+     * 需要遍历所有分段的索引，为O(n)
+     */
+    @Override
+    public boolean clear(String namespace) {
+        byte[] prefix  = (namespace + CONNECTOR).getBytes(StandardCharsets.UTF_8);
+        int    removed = 0;
+        for (int i = 0; i < segments.length; i++) {
+            var lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                removed += segments[i].removeIf(key -> startsWith(key, prefix));
+            } finally {
+                lock.unlock();
+            }
+        }
+        return removed > 0;
+    }
+
+    @Override
+    public boolean clearAll() {
+        for (int i = 0; i < segments.length; i++) {
+            var lock = locks[i].writeLock();
+            lock.lock();
+            try {
+                segments[i].clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    //endregion
+
+    //region other
+
+    @Override
+    public <K> boolean exists(String namespace, K key) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        var    lock = locks[segmentIndex(hash)].readLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            int     offset  = segment.find(hash, k);
+            return offset >= 0 && !isExpired(segment, offset, System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        var    lock = locks[segmentIndex(hash)].readLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            int     offset  = segment.find(hash, k);
+            return offset < 0 ? -2 : remainingTtl(segment.expiresAt(offset), System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        var    lock = locks[segmentIndex(hash)].writeLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            int     offset  = segment.find(hash, k);
+            long    now     = System.currentTimeMillis();
+            if (offset < 0 || isExpired(segment, offset, now)) return false;
+            segment.setExpiresAt(offset, expiresAt(now, timeUnit.toMillis(ttl)));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return 当前缓存项数量（包含尚未回收的过期项）
+     */
+    public long estimatedSize() {
+        long size = 0;
+        for (int i = 0; i < segments.length; i++) {
+            var lock = locks[i].readLock();
+            lock.lock();
+            try {
+                size += segments[i].size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return 已占用的直接内存(byte)，包含已删除但尚未被淘汰覆盖的记录
+     */
+    public long usedBytes() {
+        long used = 0;
+        for (int i = 0; i < segments.length; i++) {
+            var lock = locks[i].readLock();
+            lock.lock();
+            try {
+                used += segments[i].usedBytes();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return used;
+    }
+
+    //endregion
+
+    /**
+     * @return 值的字节，不存在或已过期返回null，值为null时返回空数组
+     */
+    private byte[] read(byte[] key) {
+        long hash = HashUtil.hash64(key);
+        var  lock = locks[segmentIndex(hash)].readLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            int     offset  = segment.find(hash, key);
+            if (offset < 0 || isExpired(segment, offset, System.currentTimeMillis())) return null;
+            byte[] value = segment.value(offset);
+            return value == null ? EMPTY : value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean write(byte[] key, byte[] value, long ttl, boolean onlyIfAbsent) {
+        long hash = HashUtil.hash64(key);
+        var  lock = locks[segmentIndex(hash)].writeLock();
+        lock.lock();
+        try {
+            Segment segment = segments[segmentIndex(hash)];
+            long    now     = System.currentTimeMillis();
+            if (onlyIfAbsent) {
+                int offset = segment.find(hash, key);
+                if (offset >= 0 && !isExpired(segment, offset, now)) return false;
+            }
+            return segment.put(hash, key, value, expiresAt(now, ttl));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] encode(Object value) {
+        if (value == null) return null;
+        ByteBuffer buffer = codec.encodeValue(value);
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private int segmentIndex(long hash) {
+        return (int) (hash >>> 32) & segmentMask;
+    }
+
+    private static boolean isExpired(Segment segment, int offset, long now) {
+        return segment.expiresAt(offset) <= now;
+    }
+
+    private static long expiresAt(long now, long ttl) {
+        return ttl <= 0 ? Long.MAX_VALUE : now + ttl;
+    }
+
+    private static <K> byte[] buildKey(String namespace, K key) {
+        return joinKey(namespace, key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,251 @@
+package io.github.kurenairyu.cache.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * 堆外缓存的一个分段
+ * <p>
+ * 数据以环形日志的形式追加写入一块直接内存，空间不足时从最旧的一端淘汰（FIFO）。
+ * 索引为开放寻址（线性探测）的两个long数组：key的64位hash与记录在slab中的偏移，删除时后移补位，不产生墓碑。
+ * 非线程安全，由 {@link OffHeapCache} 按分段加锁访问。
+ * </p>
+ * <p>
+ * 记录格式：totalSize(int) keyLength(int) valueLength(int, -1表示null) reserved(int) hash(long) expiresAt(long) key value，
+ * totalSize 为 -1 表示此处到slab末尾为填充。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:44
+ */
+final class Segment {
+
+    static final int HEADER_SIZE = 32;
+
+    private static final int  PADDING         = -1;
+    private static final long EMPTY           = -1L;
+    private static final int  OFFSET_KEY_LEN  = 4;
+    private static final int  OFFSET_VAL_LEN  = 8;
+    private static final int  OFFSET_HASH     = 16;
+    private static final int  OFFSET_EXPIRES  = 24;
+    private static final int  INITIAL_INDEX   = 1024;
+
+    private final ByteBuffer slab;
+    private final int        capacity;
+
+    private long[] hashes  = new long[INITIAL_INDEX];
+    private long[] offsets = new long[INITIAL_INDEX];
+    private int    mask    = INITIAL_INDEX - 1;
+    private int    size;
+
+    private int head;
+    private int tail;
+    private int used;
+
+    Segment(int capacity) {
+        this.capacity = capacity;
+        this.slab = ByteBuffer.allocateDirect(capacity);
+        Arrays.fill(offsets, EMPTY);
+    }
+
+    /**
+     * 查找记录
+     *
+     * @return 记录偏移，不存在为-1
+     */
+    int find(long hash, byte[] key) {
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long offset = offsets[i];
+            if (offset == EMPTY) return -1;
+            if (hashes[i] == hash && keyEquals((int) offset, key)) return (int) offset;
+        }
+    }
+
+    long expiresAt(int offset) {
+        return slab.getLong(offset + OFFSET_EXPIRES);
+    }
+
+    void setExpiresAt(int offset, long expiresAt) {
+        slab.putLong(offset + OFFSET_EXPIRES, expiresAt);
+    }
+
+    /**
+     * @return 值的字节，null值返回null
+     */
+    byte[] value(int offset) {
+        int valueLength = slab.getInt(offset + OFFSET_VAL_LEN);
+        if (valueLength < 0) return null;
+        byte[] value = new byte[valueLength];
+        slab.get(offset + HEADER_SIZE + slab.getInt(offset + OFFSET_KEY_LEN), value);
+        return value;
+    }
+
+    /**
+     * 写入记录，已存在则覆盖
+     *
+     * @return 记录过大无法写入时返回false
+     */
+    boolean put(long hash, byte[] key, byte[] value, long expiresAt) {
+        int total = HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        if (total > capacity) {
+            remove(hash, key);
+            return false;
+        }
+        remove(hash, key);
+        int offset = reserve(total);
+        slab.putInt(offset, total);
+        slab.putInt(offset + OFFSET_KEY_LEN, key.length);
+        slab.putInt(offset + OFFSET_VAL_LEN, value == null ? -1 : value.length);
+        slab.putInt(offset + 12, 0);
+        slab.putLong(offset + OFFSET_HASH, hash);
+        slab.putLong(offset + OFFSET_EXPIRES, expiresAt);
+        slab.put(offset + HEADER_SIZE, key);
+        if (value != null) slab.put(offset + HEADER_SIZE + key.length, value);
+        head = offset + total;
+        used += total;
+        insert(hash, offset);
+        return true;
+    }
+
+    boolean remove(long hash, byte[] key) {
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long offset = offsets[i];
+            if (offset == EMPTY) return false;
+            if (hashes[i] == hash && keyEquals((int) offset, key)) {
+                deleteSlot(i);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 移除key满足条件的所有记录（slab空间随日志推进回收）
+     *
+     * @return 移除数量
+     */
+    int removeIf(Predicate<byte[]> keyPredicate) {
+        int removed = 0;
+        for (int i = 0; i <= mask; ) {
+            long offset = offsets[i];
+            if (offset != EMPTY && keyPredicate.test(key((int) offset))) {
+                //后移补位可能把后面的记录移到当前位置，需要重新检查当前位置
+                deleteSlot(i);
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(offsets, EMPTY);
+        size = 0;
+        head = tail = used = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int usedBytes() {
+        return used;
+    }
+
+    private byte[] key(int offset) {
+        byte[] key = new byte[slab.getInt(offset + OFFSET_KEY_LEN)];
+        slab.get(offset + HEADER_SIZE, key);
+        return key;
+    }
+
+    private boolean keyEquals(int offset, byte[] key) {
+        if (slab.getInt(offset + OFFSET_KEY_LEN) != key.length) return false;
+        int start = offset + HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (slab.get(start + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 在日志头部预留连续空间，不足时淘汰最旧的记录
+     */
+    private int reserve(int total) {
+        while (true) {
+            if (used == 0) head = tail = 0;
+            if (used < capacity && head >= tail) {
+                //空闲区域为 [head, capacity) 与 [0, tail)
+                if (capacity - head >= total) return head;
+                if (capacity - head >= 4) slab.putInt(head, PADDING);
+                used += capacity - head;
+                head = 0;
+                continue;
+            }
+            if (used < capacity && tail - head >= total) return head;
+            evictTail();
+        }
+    }
+
+    private void evictTail() {
+        int remaining = capacity - tail;
+        if (remaining < HEADER_SIZE || slab.getInt(tail) == PADDING) {
+            used -= remaining;
+            tail = 0;
+            return;
+        }
+        int  total  = slab.getInt(tail);
+        long hash   = slab.getLong(tail + OFFSET_HASH);
+        for (int i = (int) hash & mask; offsets[i] != EMPTY; i = (i + 1) & mask) {
+            if (offsets[i] == tail) {
+                deleteSlot(i);
+                break;
+            }
+        }
+        used -= total;
+        tail += total;
+        if (tail == capacity) tail = 0;
+    }
+
+    private void insert(long hash, int offset) {
+        if (size + 1 > (mask + 1) * 3 / 4) resize();
+        int i = (int) hash & mask;
+        while (offsets[i] != EMPTY) i = (i + 1) & mask;
+        hashes[i] = hash;
+        offsets[i] = offset;
+        size++;
+    }
+
+    /**
+     * 线性探测的删除：把后续同一探测链上的记录向前补位
+     */
+    private void deleteSlot(int i) {
+        size--;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (offsets[j] == EMPTY) break;
+            int ideal = (int) hashes[j] & mask;
+            //ideal 不在 (i, j] 区间内时可以移动到 i
+            if (i <= j ? (ideal <= i || ideal > j) : (ideal <= i && ideal > j)) {
+                hashes[i] = hashes[j];
+                offsets[i] = offsets[j];
+                i = j;
+            }
+        }
+        offsets[i] = EMPTY;
+    }
+
+    private void resize() {
+        long[] oldHashes  = hashes;
+        long[] oldOffsets = offsets;
+        hashes = new long[oldHashes.length << 1];
+        offsets = new long[oldOffsets.length << 1];
+        Arrays.fill(offsets, EMPTY);
+        mask = hashes.length - 1;
+        size = 0;
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] != EMPTY) insert(oldHashes[i], (int) oldOffsets[i]);
+        }
+    }
+}
@@ -2,8 +2,32 @@ package io.github.kurenairyu.cache.redis;
 
 import io.github.kurenairyu.cache.Cache;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface RedisCache extends Cache {
 
     boolean isCluster();
 
+    /**
+     * 原子自增（INCRBY）
+     *
+     * @param namespace 命名空间（类似组的概念）
+     * @param key       缓存标识/id
+     * @param delta     增量
+     * @param <K>       键类型
+     * @return 自增后的值
+     */
+    <K> long incrBy(String namespace, K key, long delta);
+
+    /**
+     * 原子自增（INCRBY）
+     *
+     * @param namespace 命名空间（类似组的概念）
+     * @param key       缓存标识/id
+     * @param delta     增量
+     * @param <K>       键类型
+     * @return 自增后的值
+     */
+    <K> CompletableFuture<Long> incrByAsync(String namespace, K key, long delta);
+
 }
@@ -0,0 +1,63 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+/**
+ * 根据观测到的单key耗时与大小调整批量命令的分块大小
+ * <p>
+ * 分块大小取 {@code targetNanos / 单key耗时} 与 {@code targetBytes / 单key大小} 中较小的一个，并限制在 [minSize, maxSize] 内。
+ * 单key耗时与大小为指数加权平均，只采样不少于 minSize 个key的命令，避免往返耗时主导的小命令把分块压得过小。
+ * minSize 与 maxSize 相同时为固定分块。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:35
+ */
+final class AdaptiveChunkSizer {
+
+    private static final double ALPHA = 0.2d;
+
+    private final int       minSize;
+    private final int       maxSize;
+    private final long      targetNanos;
+    private final long      targetBytes;
+    private volatile double nanosPerKey;
+    private volatile double bytesPerKey;
+    private volatile int    chunkSize;
+
+    /**
+     * @param minSize     最小分块
+     * @param maxSize     最大分块，也是未有观测时的初始分块
+     * @param targetNanos 每块的目标耗时(ns)
+     * @param targetBytes 每块的目标大小(byte)
+     */
+    AdaptiveChunkSizer(int minSize, int maxSize, long targetNanos, long targetBytes) {
+        if (minSize <= 0 || maxSize < minSize) throw new IllegalArgumentException("Require 0 < minSize <= maxSize");
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = targetNanos;
+        this.targetBytes = targetBytes;
+        this.chunkSize = maxSize;
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param keys  命令中的key数量
+     * @param nanos 命令耗时
+     * @param bytes 返回值的总大小，未知时小于0
+     */
+    void record(int keys, long nanos, long bytes) {
+        if (minSize == maxSize || keys < minSize) return;
+        nanosPerKey = ewma(nanosPerKey, (double) nanos / keys);
+        if (bytes >= 0) bytesPerKey = ewma(bytesPerKey, (double) bytes / keys);
+        double size = maxSize;
+        if (nanosPerKey > 0) size = Math.min(size, targetNanos / nanosPerKey);
+        if (bytesPerKey > 0) size = Math.min(size, targetBytes / bytesPerKey);
+        chunkSize = (int) Math.max(minSize, size);
+    }
+
+    private static double ewma(double average, double sample) {
+        return average == 0 ? sample : average + ALPHA * (sample - average);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.lettuce.core.support.BoundedAsyncPool;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步获取连接的连接池，不阻塞调用线程
+ * <p>
+ * {@link BoundedAsyncPool} 耗尽时直接失败，这里改为排队：获取失败的调用方以future的形式进入等待队列，
+ * 归还的连接优先交给最早的等待者，超过 {@code acquireTimeout} 仍未获得连接的以 {@link TimeoutException} 失败。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:20
+ */
+final class AsyncConnectionPool<T> {
+
+    private final BoundedAsyncPool<T>                         pool;
+    private final ConcurrentLinkedQueue<CompletableFuture<T>> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger                               waiting = new AtomicInteger();
+    private volatile long                                     acquireTimeout;
+
+    AsyncConnectionPool(BoundedAsyncPool<T> pool, long acquireTimeout) {
+        this.pool = pool;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    CompletableFuture<T> acquire() {
+        var result = new CompletableFuture<T>();
+        pool.acquire().whenComplete((connection, e) -> {
+            if (e == null) {
+                if (!result.complete(connection)) release(connection);
+            } else if (isExhausted(e)) {
+                enqueue(result);
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    void release(T connection) {
+        CompletableFuture<T> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiting.decrementAndGet();
+            if (waiter.complete(connection)) return;
+        }
+        pool.release(connection);
+    }
+
+    /**
+     * @return 排队等待连接的数量
+     */
+    int waiterCount() {
+        return waiting.get();
+    }
+
+    void setAcquireTimeout(long acquireTimeout) {
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    void close() {
+        CompletableFuture<T> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiting.decrementAndGet();
+            waiter.completeExceptionally(new IllegalStateException("Connection pool closed"));
+        }
+        pool.close();
+    }
+
+    private void enqueue(CompletableFuture<T> waiter) {
+        waiting.incrementAndGet();
+        waiters.add(waiter);
+        long timeout = acquireTimeout;
+        if (timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!waiters.remove(waiter)) return;
+                waiting.decrementAndGet();
+                waiter.completeExceptionally(new TimeoutException("Acquire connection timeout after " + timeout + "ms"));
+            });
+        }
+        //入队前可能已有连接归还到池中，再尝试一次，获得的连接交给队首的等待者
+        pool.acquire().whenComplete((connection, e) -> {
+            if (e == null) release(connection);
+        });
+    }
+
+    private static boolean isExhausted(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause instanceof NoSuchElementException;
+    }
+}
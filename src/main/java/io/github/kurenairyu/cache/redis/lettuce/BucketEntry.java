@@ -0,0 +1,37 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+/**
+ * hash分桶存储中带过期时间的值
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:13
+ */
+public class BucketEntry {
+
+    private Object value;
+    private long   expiresAt;
+
+    public BucketEntry() {
+    }
+
+    public BucketEntry(Object value, long expiresAt) {
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于最近N次调用的熔断器
+ * <p>
+ * 关闭时统计最近 {@code windowSize} 次调用，调用数不少于 {@code minimumCalls} 且失败率或慢调用率达到阈值时打开；
+ * 打开期间直接拒绝，{@code openMillis} 后进入半开，放行 {@code halfOpenCalls} 个探测调用，
+ * 全部成功且不慢时关闭，任一失败或慢调用则重新打开。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:44
+ */
+public class CircuitBreaker {
+
+    public static final int DEFAULT_WINDOW_SIZE     = 100;
+    public static final int DEFAULT_MINIMUM_CALLS   = 20;
+    public static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    private static final int FAILED = 1;
+    private static final int SLOW   = 2;
+
+    private final int                            windowSize;
+    private final int                            minimumCalls;
+    private final double                         failureRateThreshold;
+    private final long                           slowCallNanos;
+    private final double                         slowCallRateThreshold;
+    private final long                           openNanos;
+    private final int                            halfOpenCalls;
+    private final AtomicReference<Phase>         phase;
+    private final LongAdder                      rejected  = new LongAdder();
+    private final List<BiConsumer<State, State>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 使用默认的窗口大小、最小调用数与半开探测数
+     *
+     * @see #CircuitBreaker(int, int, double, long, double, long, int)
+     */
+    public CircuitBreaker(double failureRateThreshold, long slowCallMillis, double slowCallRateThreshold, long openMillis) {
+        this(DEFAULT_WINDOW_SIZE, DEFAULT_MINIMUM_CALLS, failureRateThreshold, slowCallMillis, slowCallRateThreshold, openMillis, DEFAULT_HALF_OPEN_CALLS);
+    }
+
+    /**
+     * @param windowSize            统计的最近调用数
+     * @param minimumCalls          开始判断前至少需要的调用数
+     * @param failureRateThreshold  失败率阈值 (0, 1]
+     * @param slowCallMillis        耗时不少于该值(ms)的调用为慢调用，小于等于0表示不判断慢调用
+     * @param slowCallRateThreshold 慢调用率阈值，小于等于0表示不按慢调用熔断
+     * @param openMillis            打开持续时间(ms)，之后进入半开
+     * @param halfOpenCalls         半开时放行的探测调用数
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long slowCallMillis,
+                          double slowCallRateThreshold, long openMillis, int halfOpenCalls) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) throw new IllegalArgumentException("Require 0 < minimumCalls <= windowSize");
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+        if (halfOpenCalls <= 0) throw new IllegalArgumentException("halfOpenCalls must be greater than 0");
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallMillis) : Long.MAX_VALUE;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = halfOpenCalls;
+        this.phase = new AtomicReference<>(new Phase(State.CLOSED));
+    }
+
+    /**
+     * 判断是否放行，放行的调用结束后必须以返回的阶段调用 {@link #onResult(Phase, long, boolean)} 或 {@link #onIgnored(Phase)}
+     *
+     * @return 放行时所处的阶段，拒绝时为null
+     */
+    public Phase tryAcquire() {
+        Phase current = phase.get();
+        if (current.state == State.OPEN) {
+            if (System.nanoTime() - current.since < openNanos) return reject();
+            transition(current, State.HALF_OPEN);
+            current = phase.get();
+        }
+        if (current.state == State.CLOSED) return current;
+        if (current.state == State.HALF_OPEN && current.probes.getAndUpdate(n -> n < halfOpenCalls ? n + 1 : n) < halfOpenCalls) return current;
+        return reject();
+    }
+
+    /**
+     * 记录一次放行调用的结果，放行后状态已经变化的调用不计入统计（如关闭时放行、半开时才结束的调用不算探测结果）
+     *
+     * @param admitted {@link #tryAcquire()} 返回的阶段
+     * @param nanos    耗时(ns)
+     * @param failed   是否失败
+     */
+    public void onResult(Phase admitted, long nanos, boolean failed) {
+        if (phase.get() != admitted) return;
+        boolean slow = nanos >= slowCallNanos;
+        if (admitted.state == State.HALF_OPEN) {
+            if (failed || slow) {
+                transition(admitted, State.OPEN);
+            } else if (admitted.passed.incrementAndGet() >= halfOpenCalls) {
+                transition(admitted, State.CLOSED);
+            }
+            return;
+        }
+        if (admitted.state == State.CLOSED && admitted.record(failed, slow)) transition(admitted, State.OPEN);
+    }
+
+    /**
+     * 放行的调用因本地原因（如在途命令限制）未执行，不计入统计，半开时归还探测名额
+     *
+     * @param admitted {@link #tryAcquire()} 返回的阶段
+     */
+    public void onIgnored(Phase admitted) {
+        if (admitted.state == State.HALF_OPEN) admitted.probes.decrementAndGet();
+    }
+
+    /**
+     * 添加状态变化监听，参数为变化前后的状态，在触发变化的调用线程上执行
+     */
+    public void addListener(BiConsumer<State, State> listener) {
+        listeners.add(listener);
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    /**
+     * @return 累计被拒绝的调用次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private Phase reject() {
+        rejected.increment();
+        return null;
+    }
+
+    /**
+     * 新阶段的计数随阶段对象创建，只有CAS成功后才对其他调用可见，失败的转换不会改动当前阶段
+     */
+    private void transition(Phase from, State to) {
+        if (!phase.compareAndSet(from, new Phase(to))) return;
+        for (BiConsumer<State, State> listener : listeners) {
+            listener.accept(from.state, to);
+        }
+    }
+
+    /**
+     * 结果没有变化时只读取，成功调用覆盖成功调用（最常见的情况）不写共享计数
+     */
+    private static int update(AtomicInteger counter, int removed, int added) {
+        return removed == added ? counter.get() : counter.addAndGet(added - removed);
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 一次进入某个状态到离开该状态之间的阶段，持有该阶段自己的计数
+     * <p>
+     * 关闭时的统计为无锁环形窗口：每次调用取得一个序号，用getAndSet写入对应槽位并取回被覆盖的旧结果，
+     * 失败数与慢调用数按新旧结果的差值原子增减，每个旧结果恰好被扣除一次，并发时计数可能短暂偏差一次调用。
+     * </p>
+     */
+    public final class Phase {
+
+        private final State              state;
+        private final long               since     = System.nanoTime();
+        private final AtomicInteger      probes    = new AtomicInteger();
+        private final AtomicInteger      passed    = new AtomicInteger();
+        private final AtomicLong         sequence  = new AtomicLong();
+        private final AtomicInteger      failures  = new AtomicInteger();
+        private final AtomicInteger      slowCalls = new AtomicInteger();
+        private final AtomicIntegerArray outcomes;
+
+        private Phase(State state) {
+            this.state = state;
+            this.outcomes = state == State.CLOSED ? new AtomicIntegerArray(windowSize) : null;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return 是否达到打开条件
+         */
+        private boolean record(boolean failed, boolean slow) {
+            int  outcome = (failed ? FAILED : 0) | (slow ? SLOW : 0);
+            long n       = sequence.getAndIncrement();
+            int  old     = outcomes.getAndSet((int) (n % windowSize), outcome);
+            int  failure = update(failures, old & FAILED, outcome & FAILED);
+            int  slowly  = update(slowCalls, (old & SLOW) >> 1, (outcome & SLOW) >> 1);
+            int  calls   = (int) Math.min(n + 1, windowSize);
+            return calls >= minimumCalls
+                    && (failure >= failureRateThreshold * calls || slowCallRateThreshold > 0 && slowly >= slowCallRateThreshold * calls);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.util.HashUtil;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 命名空间的hash分桶存储
+ * <p>
+ * key按hash分到 {@code buckets} 个redis hash {@code 命名空间:__bucket__:序号} 中，字段为key本身。
+ * 桶的大小应保持在 {@code hash-max-listpack-entries}（默认128）以内，redis才会使用紧凑编码。
+ * </p>
+ * <p>
+ * 带ttl的值总是包装为 {@link BucketEntry} 保存过期时间，读取时过滤已过期的值，较短的ttl（如空值占位）不会因为所在的桶存活更久而继续可见。
+ * 桶的过期时间只会延长不会缩短：带ttl的写入会将所在桶的过期时间延长到ttl，{@code bucketTtl} 大于0时每次写入都会将桶的过期时间延长到 {@code bucketTtl}，
+ * 已有的永不过期的桶不会被设置过期时间，{@link #expire} 也只改写字段自己的过期时间。
+ * </p>
+ * <p>
+ * 不开启 {@code entryTtl} 时已过期的字段只在被覆盖、删除或整个桶过期时才释放，永不过期的桶中会一直占用空间；
+ * 开启后过期字段同时记录到旁路有序集合 {@code 桶:ttl}（成员为字段原始字节，分数为过期时间戳），由 {@link #sweep} 定期删除。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:13
+ */
+final class HashBuckets {
+
+    private static final String BUCKET  = "__bucket__";
+    private static final String SIDECAR = "ttl";
+
+    /**
+     * 删除旁路有序集合中已过期的字段，查询与删除在同一个脚本中完成，期间重新写入的字段不会被误删
+     * <p>KEYS[1]: 桶，KEYS[2]: 旁路有序集合，ARGV[1]: 当前时间戳(ms)</p>
+     */
+    private static final String SWEEP_SCRIPT = """
+            local fields = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1])
+            if #fields == 0 then return 0 end
+            redis.call('ZREM', KEYS[2], unpack(fields))
+            return redis.call('HDEL', KEYS[1], unpack(fields))
+            """;
+
+    /**
+     * 将key的过期时间延长到ttl，剩余时间更长的不变
+     * <p>KEYS: 要续期的key，ARGV[1]: ttl(ms)，ARGV[2]: 为1时永不过期的key也设置过期时间</p>
+     */
+    private static final String EXTEND_SCRIPT = """
+            local ttl = tonumber(ARGV[1])
+            for _, key in ipairs(KEYS) do
+                local current = redis.call('PTTL', key)
+                if (current == -1 and ARGV[2] == '1') or (current >= 0 and current < ttl) then
+                    redis.call('PEXPIRE', key, ttl)
+                end
+            end
+            return 0
+            """;
+
+    /**
+     * 写入字段并将桶的过期时间延长到ttl，桶由本次写入创建时才设置永不过期的桶
+     * <p>KEYS[1]: 桶，ARGV[1]: 字段，ARGV[2]: 值，ARGV[3]: ttl(ms)，ARGV[4]: 为1时字段已存在则不写入</p>
+     */
+    private static final String PUT_SCRIPT = """
+            local created = redis.call('EXISTS', KEYS[1]) == 0
+            if ARGV[4] == '1' then
+                if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 0 then return 0 end
+            else
+                redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            end
+            local ttl = tonumber(ARGV[3])
+            local current = redis.call('PTTL', KEYS[1])
+            if (current == -1 and created) or (current >= 0 and current < ttl) then
+                redis.call('PEXPIRE', KEYS[1], ttl)
+            end
+            return 1
+            """;
+
+    private final String                     namespace;
+    private final int                        buckets;
+    private final long                       bucketTtl;
+    private final boolean                    entryTtl;
+    private final RedisCodec<String, Object> codec;
+
+    HashBuckets(String namespace, int buckets, long bucketTtl, boolean entryTtl, RedisCodec<String, Object> codec) {
+        if (buckets <= 0) throw new IllegalArgumentException("buckets must be greater than 0");
+        this.codec = codec;
+        this.namespace = namespace;
+        this.buckets = buckets;
+        this.bucketTtl = bucketTtl;
+        this.entryTtl = entryTtl;
+    }
+
+    boolean isEntryTtl() {
+        return entryTtl;
+    }
+
+    String field(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * @param redisKey {@code 命名空间:key} 格式的key
+     * @return 字段
+     */
+    String fieldOf(String redisKey) {
+        return redisKey.substring(namespace.length() + 1);
+    }
+
+    String bucketKey(String field) {
+        long index = Math.floorMod(HashUtil.hash64(field.getBytes(StandardCharsets.UTF_8)), (long) buckets);
+        return String.join(":", namespace, BUCKET, String.valueOf(index));
+    }
+
+    /**
+     * @return 所有桶及旁路有序集合的key
+     */
+    String[] allKeys() {
+        String[] keys = new String[entryTtl ? buckets * 2 : buckets];
+        for (int i = 0; i < buckets; i++) {
+            keys[i] = String.join(":", namespace, BUCKET, String.valueOf(i));
+            if (entryTtl) keys[buckets + i] = sidecarKey(keys[i]);
+        }
+        return keys;
+    }
+
+    /**
+     * @return 按桶分组的 字段 -> key
+     */
+    <K> Map<String, Map<String, K>> group(Collection<K> keys) {
+        var result = new HashMap<String, Map<String, K>>();
+        for (K key : keys) {
+            String field = field(key);
+            result.computeIfAbsent(bucketKey(field), b -> new HashMap<>()).put(field, key);
+        }
+        return result;
+    }
+
+    CompletableFuture<Object> get(RedisAsyncCommands<String, Object> cmd, String field) {
+        return cmd.hget(bucketKey(field), field).toCompletableFuture().thenApply(HashBuckets::unwrap);
+    }
+
+    @SuppressWarnings("unchecked")
+    <K, V> CompletableFuture<Map<K, V>> getAll(RedisAsyncCommands<String, Object> cmd, Collection<K> keys) {
+        var futures = new ArrayList<CompletableFuture<Map<K, V>>>();
+        group(keys).forEach((bucket, fields) -> futures.add(cmd.hmget(bucket, fields.keySet().toArray(new String[0]))
+                .toCompletableFuture().thenApply(kvList -> {
+                    var result = new HashMap<K, V>();
+                    for (KeyValue<String, Object> kv : kvList) {
+                        Object value = kv.hasValue() ? unwrap(kv.getValue()) : null;
+                        if (value != null) result.put(fields.get(kv.getKey()), (V) value);
+                    }
+                    return result;
+                })));
+        return allOf(futures).thenApply(maps -> {
+            var result = new HashMap<K, V>();
+            maps.forEach(result::putAll);
+            return result;
+        });
+    }
+
+    /**
+     * @param ttl time to live (ms)，小于等于0表示不过期
+     */
+    CompletableFuture<String> put(RedisAsyncCommands<String, Object> cmd, String field, Object value, long ttl) {
+        String bucket = bucketKey(field);
+        if (!entryTtl && ttl > 0) return putExtending(cmd, bucket, field, wrap(value, ttl), ttl, false).thenApply(r -> "OK");
+        var futures = new ArrayList<CompletableFuture<?>>(4);
+        futures.add(cmd.hset(bucket, field, wrap(value, ttl)).toCompletableFuture());
+        futures.addAll(afterWrite(cmd, bucket, field, ttl));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(r -> "OK");
+    }
+
+    CompletableFuture<String> putAll(RedisAsyncCommands<String, Object> cmd, Map<String, Object> fieldValues) {
+        var grouped = new HashMap<String, Map<String, Object>>();
+        fieldValues.forEach((field, value) -> grouped.computeIfAbsent(bucketKey(field), b -> new HashMap<>()).put(field, value));
+        var futures = new ArrayList<CompletableFuture<?>>();
+        grouped.forEach((bucket, values) -> {
+            futures.add(cmd.hmset(bucket, values).toCompletableFuture());
+            if (entryTtl) futures.add(zrem(cmd, sidecarKey(bucket), values.keySet()).toCompletableFuture());
+            futures.addAll(touch(cmd, bucket));
+        });
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(r -> "OK");
+    }
+
+    /**
+     * @param ttl time to live (ms)，小于等于0表示不过期
+     */
+    CompletableFuture<Boolean> putIfAbsent(RedisAsyncCommands<String, Object> cmd, String field, Object value, long ttl) {
+        String  bucket    = bucketKey(field);
+        Object  stored    = wrap(value, ttl);
+        boolean extending = !entryTtl && ttl > 0;
+        var     first     = extending ? putExtending(cmd, bucket, field, stored, ttl, true) : cmd.hsetnx(bucket, field, stored).toCompletableFuture();
+        return first.thenCompose(set -> {
+            if (Boolean.TRUE.equals(set)) return CompletableFuture.completedFuture(true);
+            //已过期但尚未清理的字段视为不存在
+            return cmd.hget(bucket, field).toCompletableFuture().thenCompose(current -> {
+                if (current == null || unwrap(current) != null) return CompletableFuture.completedFuture(false);
+                if (extending) return putExtending(cmd, bucket, field, stored, ttl, false);
+                return cmd.hset(bucket, field, stored).toCompletableFuture().thenApply(r -> true);
+            });
+        }).thenCompose(set -> {
+            if (!set || extending) return CompletableFuture.completedFuture(set);
+            return CompletableFuture.allOf(afterWrite(cmd, bucket, field, ttl).toArray(new CompletableFuture<?>[0])).thenApply(r -> true);
+        });
+    }
+
+    /**
+     * @return 删除的数量
+     */
+    <K> CompletableFuture<Long> remove(RedisAsyncCommands<String, Object> cmd, Collection<K> keys) {
+        var futures  = new ArrayList<CompletableFuture<Long>>();
+        var sidecars = new ArrayList<CompletableFuture<Long>>();
+        group(keys).forEach((bucket, fields) -> {
+            String[] array = fields.keySet().toArray(new String[0]);
+            futures.add(cmd.hdel(bucket, array).toCompletableFuture());
+            if (entryTtl) sidecars.add(zrem(cmd, sidecarKey(bucket), fields.keySet()).toCompletableFuture());
+        });
+        return allOf(sidecars).thenCompose(r -> allOf(futures)).thenApply(counts -> counts.stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * @return 存在（未过期）的数量
+     */
+    <K> CompletableFuture<Long> exists(RedisAsyncCommands<String, Object> cmd, Collection<K> keys) {
+        return this.<K, Object>getAll(cmd, keys).thenApply(map -> (long) map.size());
+    }
+
+    /**
+     * 以新的过期时间重新写入字段，桶的过期时间只会延长，同一个桶中的其他值不受影响
+     *
+     * @param ttl time to live (ms)，小于等于0时与PEXPIRE一致直接删除
+     */
+    CompletableFuture<Boolean> expire(RedisAsyncCommands<String, Object> cmd, String field, long ttl) {
+        return cmd.hget(bucketKey(field), field).toCompletableFuture().thenCompose(current -> {
+            Object value = unwrap(current);
+            if (value == null) return CompletableFuture.completedFuture(false);
+            if (ttl <= 0) return remove(cmd, List.of(field)).thenApply(r -> true);
+            return put(cmd, field, value, ttl).thenApply(r -> true);
+        });
+    }
+
+    /**
+     * 带ttl写入的字段返回字段自己的剩余存活时间，否则返回所在桶的剩余存活时间
+     *
+     * @return 与PTTL一致，不存在返回-2
+     */
+    CompletableFuture<Long> ttl(RedisAsyncCommands<String, Object> cmd, String field) {
+        String bucket = bucketKey(field);
+        var    pttl   = cmd.pttl(bucket).toCompletableFuture();
+        return cmd.hget(bucket, field).toCompletableFuture().thenCombine(pttl, (current, bucketTtl) -> {
+            if (unwrap(current) == null) return -2L;
+            if (!(current instanceof BucketEntry)) return bucketTtl;
+            return Math.max(0, ((BucketEntry) current).getExpiresAt() - System.currentTimeMillis());
+        });
+    }
+
+    CompletableFuture<Long> incrBy(RedisAsyncCommands<String, Object> cmd, String field, long delta) {
+        String bucket = bucketKey(field);
+        var    result = cmd.hincrby(bucket, field, delta).toCompletableFuture();
+        var    touch  = touch(cmd, bucket);
+        return CompletableFuture.allOf(touch.toArray(new CompletableFuture<?>[0])).thenCompose(r -> result);
+    }
+
+    CompletableFuture<Boolean> clear(RedisAsyncCommands<String, Object> cmd) {
+        return cmd.del(allKeys()).toCompletableFuture().thenApply(r -> r > 0);
+    }
+
+    /**
+     * 删除所有桶中已过期的字段，每个桶的查询与删除在一个脚本中原子完成
+     *
+     * @return 删除的数量
+     */
+    CompletableFuture<Long> sweep(RedisAsyncCommands<String, Object> cmd) {
+        if (!entryTtl) return CompletableFuture.completedFuture(0L);
+        long now     = System.currentTimeMillis();
+        var  futures = new ArrayList<CompletableFuture<Long>>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            String bucket = String.join(":", namespace, BUCKET, String.valueOf(i));
+            var    args   = new CommandArgs<>(codec).add(SWEEP_SCRIPT).add(2).addKey(bucket).addKey(sidecarKey(bucket)).add(now);
+            futures.add(cmd.dispatch(CommandType.EVAL, new IntegerOutput<>(codec), args).toCompletableFuture());
+        }
+        return allOf(futures).thenApply(counts -> counts.stream().mapToLong(Long::longValue).sum());
+    }
+
+    private Object wrap(Object value, long ttl) {
+        return ttl > 0 ? new BucketEntry(value, System.currentTimeMillis() + ttl) : value;
+    }
+
+    /**
+     * @return 值，已过期返回null
+     */
+    static Object unwrap(Object stored) {
+        if (!(stored instanceof BucketEntry)) return stored;
+        BucketEntry entry = (BucketEntry) stored;
+        return entry.getExpiresAt() <= System.currentTimeMillis() ? null : entry.getValue();
+    }
+
+    /**
+     * 不按字段过期时带ttl的写入，写入（已包装的值）与延长桶的过期时间在一个脚本中完成
+     *
+     * @return 是否写入
+     */
+    private CompletableFuture<Boolean> putExtending(RedisAsyncCommands<String, Object> cmd, String bucket, String field, Object value, long ttl, boolean ifAbsent) {
+        var args = new CommandArgs<>(codec).add(PUT_SCRIPT).add(1).addKey(bucket).add(field).addValue(value).add(ttl).add(ifAbsent ? "1" : "0");
+        return cmd.dispatch(CommandType.EVAL, new IntegerOutput<>(codec), args).toCompletableFuture().thenApply(r -> r == 1L);
+    }
+
+    /**
+     * 开启 {@code entryTtl} 时记录字段的过期时间，之后按 {@code bucketTtl} 延长桶的过期时间
+     */
+    private List<CompletableFuture<?>> afterWrite(RedisAsyncCommands<String, Object> cmd, String bucket, String field, long ttl) {
+        var futures = new ArrayList<CompletableFuture<?>>(2);
+        if (entryTtl) {
+            String sidecar = sidecarKey(bucket);
+            futures.add((ttl > 0 ? zadd(cmd, sidecar, System.currentTimeMillis() + ttl, field) : zrem(cmd, sidecar, List.of(field))).toCompletableFuture());
+        }
+        futures.addAll(touch(cmd, bucket));
+        return futures;
+    }
+
+    /**
+     * 将桶（及旁路有序集合）的过期时间延长到 {@code bucketTtl}
+     */
+    private List<CompletableFuture<?>> touch(RedisAsyncCommands<String, Object> cmd, String bucket) {
+        if (bucketTtl <= 0) return Collections.emptyList();
+        var args = new CommandArgs<>(codec).add(EXTEND_SCRIPT).add(entryTtl ? 2 : 1).addKey(bucket);
+        if (entryTtl) args.addKey(sidecarKey(bucket));
+        args.add(bucketTtl).add("1");
+        return List.of(cmd.dispatch(CommandType.EVAL, new IntegerOutput<>(codec), args).toCompletableFuture());
+    }
+
+    /**
+     * 旁路有序集合的成员直接写入字段的原始字节，不经过值编解码器，{@link #SWEEP_SCRIPT} 才能用成员删除hash字段
+     */
+    private RedisFuture<Long> zadd(RedisAsyncCommands<String, Object> cmd, String sidecar, long score, String field) {
+        return cmd.dispatch(CommandType.ZADD, new IntegerOutput<>(codec), new CommandArgs<>(codec).addKey(sidecar).add(score).add(field));
+    }
+
+    private RedisFuture<Long> zrem(RedisAsyncCommands<String, Object> cmd, String sidecar, Collection<String> fields) {
+        var args = new CommandArgs<>(codec).addKey(sidecar);
+        fields.forEach(args::add);
+        return cmd.dispatch(CommandType.ZREM, new IntegerOutput<>(codec), args);
+    }
+
+    private String sidecarKey(String bucket) {
+        return String.join(":", bucket, SIDECAR);
+    }
+
+    private static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(r -> {
+            var result = new ArrayList<T>(futures.size());
+            futures.forEach(future -> result.add(future.join()));
+            return result;
+        });
+    }
+}
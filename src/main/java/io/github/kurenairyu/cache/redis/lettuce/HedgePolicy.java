@@ -0,0 +1,106 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 对冲读取的策略与统计
+ * <p>
+ * 读取超过最近读取耗时的p95（且不少于 {@code minDelay}）仍未返回时，在另一个连接上发出相同的读取，先返回的为准。
+ * 单key读取与批量读取分别统计p95，各取最近 {@value #WINDOW} 次，每 {@value #REFRESH} 次重新计算一次；
+ * 样本不足时只按 {@code minDelay} 对冲，{@code minDelay} 为0时不对冲。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:40
+ */
+public class HedgePolicy {
+
+    // 均为2的幂，按位与取下标
+    static final int WINDOW  = 256;
+    static final int REFRESH = 32;
+
+    private final long      minDelay;
+    private final Quantile  single = new Quantile();
+    private final Quantile  bulk   = new Quantile();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder wins   = new LongAdder();
+
+    /**
+     * @param minDelay 最短对冲延迟(ms)
+     */
+    public HedgePolicy(long minDelay) {
+        this.minDelay = TimeUnit.MILLISECONDS.toNanos(minDelay);
+    }
+
+    /**
+     * @param bulk 是否批量读取
+     * @return 对冲延迟(ns)，小于0表示不对冲
+     */
+    long delay(boolean bulk) {
+        long current = quantile(bulk).p95;
+        if (current == 0) return minDelay > 0 ? minDelay : -1;
+        return Math.max(minDelay, current);
+    }
+
+    void record(boolean bulk, long nanos) {
+        quantile(bulk).record(nanos);
+    }
+
+    void onHedge() {
+        hedged.increment();
+    }
+
+    void onHedgeWin() {
+        wins.increment();
+    }
+
+    /**
+     * @param bulk 是否批量读取
+     * @return 当前的p95读取耗时(ns)，样本不足时为0
+     */
+    public long getP95(boolean bulk) {
+        return quantile(bulk).p95;
+    }
+
+    /**
+     * @return 累计发出的对冲读取次数
+     */
+    public long getHedgedCount() {
+        return hedged.sum();
+    }
+
+    /**
+     * @return 对冲读取先于原读取返回的次数
+     */
+    public long getHedgeWinCount() {
+        return wins.sum();
+    }
+
+    private Quantile quantile(boolean bulk) {
+        return bulk ? this.bulk : single;
+    }
+
+    /**
+     * 最近 {@value #WINDOW} 个样本的p95，样本数组不加锁，并发写入时允许少量样本被覆盖
+     */
+    private static final class Quantile {
+
+        private final long[]     samples = new long[WINDOW];
+        private final AtomicLong count   = new AtomicLong();
+        private volatile long    p95;
+
+        void record(long nanos) {
+            //使用long计数，int计数溢出后下标为负会在读取结果的回调中抛出异常
+            long n = count.getAndIncrement();
+            samples[(int) (n & (WINDOW - 1))] = nanos;
+            if (((n + 1) & (REFRESH - 1)) == 0) {
+                long[] copy = Arrays.copyOf(samples, (int) Math.min(n + 1, WINDOW));
+                Arrays.sort(copy);
+                p95 = copy[(int) Math.ceil(copy.length * 0.95) - 1];
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.exception.CacheOverloadException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限制在途异步命令数量的非阻塞信号量
+ * <p>
+ * 许可用尽时调用方以future的形式排队，释放的许可优先交给最早的等待者；排队数达到 {@code maxQueued}
+ * 时直接失败，排队超过 {@code queueTimeout} 的同样失败，均以 {@link CacheOverloadException} 结束。同步命令不经过该限制。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:37
+ */
+public class InFlightLimiter {
+
+    private final String                                         name;
+    private final int                                            maxInFlight;
+    private final int                                            maxQueued;
+    private final long                                           queueTimeout;
+    private final AtomicInteger                                  inFlight = new AtomicInteger();
+    private final AtomicInteger                                  queued   = new AtomicInteger();
+    private final ConcurrentLinkedQueue<CompletableFuture<Void>> waiters  = new ConcurrentLinkedQueue<>();
+    private final LongAdder                                      delayed  = new LongAdder();
+    private final LongAdder                                      rejected = new LongAdder();
+
+    /**
+     * @param name         名称，用于异常信息
+     * @param maxInFlight  最大在途命令数
+     * @param maxQueued    最大排队数，为0时许可用尽即失败
+     * @param queueTimeout 最长排队时间(ms)，小于等于0表示一直等待
+     */
+    public InFlightLimiter(String name, int maxInFlight, int maxQueued, long queueTimeout) {
+        if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be greater than 0");
+        if (maxQueued < 0) throw new IllegalArgumentException("maxQueued must not be negative");
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * 获取许可，获得后必须调用 {@link #release()}
+     *
+     * @return 获得许可时完成，无需排队时返回已完成的future
+     */
+    public CompletableFuture<Void> acquire() {
+        if (tryAcquire()) return CompletableFuture.completedFuture(null);
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(new CacheOverloadException(
+                    "Too many in-flight commands for [" + name + "]: " + maxInFlight + " running, " + maxQueued + " queued"));
+        }
+        delayed.increment();
+        var waiter = new CompletableFuture<Void>();
+        waiters.add(waiter);
+        long timeout = queueTimeout;
+        if (timeout > 0) {
+            CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> {
+                if (!waiters.remove(waiter)) return;
+                queued.decrementAndGet();
+                rejected.increment();
+                waiter.completeExceptionally(new CacheOverloadException("Waited more than " + timeout + "ms for [" + name + "]"));
+            });
+        }
+        //入队前可能已有许可释放，再尝试一次，获得的许可交给队首的等待者
+        if (tryAcquire()) release();
+        return waiter;
+    }
+
+    public void release() {
+        CompletableFuture<Void> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            queued.decrementAndGet();
+            if (waiter.complete(null)) return;
+        }
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return 在途命令数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return 正在排队的数量
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * @return 累计需要排队的次数
+     */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /**
+     * @return 累计因排队已满或排队超时失败的次数
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+}
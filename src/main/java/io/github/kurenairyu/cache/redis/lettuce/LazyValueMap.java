@@ -0,0 +1,161 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import io.lettuce.core.codec.RedisCodec;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * 延迟解码的批量读取结果，只读
+ * <p>
+ * 保存序列化后的原始字节，首次访问某个值时才解码并缓存解码结果，{@link #containsKey(Object)}、{@link #size()}
+ * 与遍历key不会解码。遍历entry时只有调用 {@link Map.Entry#getValue()} 的值才会解码。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:33
+ */
+public class LazyValueMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, Object>        slots;
+    private final RedisCodec<String, ?> codec;
+    private final Set<Entry<K, V>>      entrySet = new EntrySet();
+
+    /**
+     * @param slots 值为 {@link Raw} 的待解码，其余为已解码的值
+     * @param codec 解码使用的编解码器
+     */
+    LazyValueMap(Map<K, Object> slots, RedisCodec<String, ?> codec) {
+        this.slots = slots;
+        this.codec = codec;
+    }
+
+    @Override
+    public synchronized V get(Object key) {
+        return decode(key, slots.get(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slots.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return slots.size();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet;
+    }
+
+    /**
+     * @return 值是否已解码，不存在的key返回false
+     */
+    public synchronized boolean isDecoded(K key) {
+        Object slot = slots.get(key);
+        return slot != null && !(slot instanceof Raw);
+    }
+
+    /**
+     * 只解码值的部分字段，不缓存结果也不解码完整对象，需要编解码器实现 {@link ProjectionCodec}
+     *
+     * @param key    缓存标识/id
+     * @param fields 字段名，按序列化后的名称
+     * @return 字段名与字段值，key不存在时为null
+     * @throws NotSupportOperationException 编解码器不支持按字段解码，或值已被完整解码
+     */
+    public synchronized Map<String, Object> project(K key, Collection<String> fields) {
+        Object slot = slots.get(key);
+        if (slot == null) return null;
+        if (!(codec instanceof ProjectionCodec)) {
+            throw new NotSupportOperationException(codec.getClass().getSimpleName() + " does not support projection");
+        }
+        if (!(slot instanceof Raw raw)) throw new NotSupportOperationException("Value of key [" + key + "] was already decoded");
+        return ((ProjectionCodec) codec).decodeFields(ByteBuffer.wrap(raw.bytes()), fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V decode(Object key, Object slot) {
+        if (!(slot instanceof Raw raw)) return (V) slot;
+        Object value = codec.decodeValue(ByteBuffer.wrap(raw.bytes()));
+        slots.put((K) key, value);
+        return (V) value;
+    }
+
+    /**
+     * 未解码的值
+     */
+    record Raw(byte[] bytes) {
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            Iterator<K> keys = new ArrayList<>(slots.keySet()).iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return keys.hasNext();
+                }
+
+                @Override
+                public Entry<K, V> next() {
+                    return new LazyEntry(keys.next());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+    }
+
+    private class LazyEntry implements Entry<K, V> {
+
+        private final K key;
+
+        LazyEntry(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?, ?> e && Objects.equals(key, e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
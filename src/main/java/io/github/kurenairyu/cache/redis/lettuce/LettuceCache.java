@@ -1,18 +1,43 @@
 package io.github.kurenairyu.cache.redis.lettuce;
 
+import io.github.kurenairyu.cache.CacheWriter;
+import io.github.kurenairyu.cache.ScanOptions;
+import io.github.kurenairyu.cache.bloom.BloomFilter;
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import io.github.kurenairyu.cache.hotkey.HotKeyDetector;
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.metrics.CacheOperation;
+import io.github.kurenairyu.cache.namespace.RawBytesCache;
+import io.github.kurenairyu.cache.writebehind.PendingWrite;
+import io.github.kurenairyu.cache.writebehind.WriteBehindBuffer;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.async.RedisServerAsyncCommands;
 import io.lettuce.core.api.sync.RedisServerCommands;
 import io.lettuce.core.api.sync.RedisTransactionalCommands;
 import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.support.BoundedPoolConfig;
 import lombok.extern.log4j.Log4j2;
+import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Lettuce Cache
@@ -22,7 +47,7 @@ import java.util.stream.Collectors;
  */
 
 @Log4j2
-public class LettuceCache extends LettuceCacheAbstract {
+public class LettuceCache extends LettuceCacheAbstract implements RawBytesCache {
 
     public LettuceCache(String uri) {
         super(uri);
@@ -52,10 +77,26 @@ public class LettuceCache extends LettuceCacheAbstract {
         super(redisURI, redisCodec, poolConfig);
     }
 
+    public LettuceCache(RedisURI redisURI, RedisCodec<String, ?> redisCodec, GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> poolConfig,
+                        ClientResources clientResources) {
+        super(redisURI, redisCodec, poolConfig, clientResources);
+    }
+
+    public LettuceCache(RedisURI redisURI, RedisCodec<String, ?> redisCodec, GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> poolConfig,
+                        BoundedPoolConfig asyncPoolConfig, ClientResources clientResources) {
+        super(redisURI, redisCodec, poolConfig, asyncPoolConfig, clientResources);
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <K, V> V get(String namespace, K key) {
-        return (V) execCmd(cmd -> cmd.get(buildKey(namespace, key)));
+        if (bloomRejects(namespace, key)) return null;
+        Object value = lookup(namespace, buildKey(namespace, key));
+        if (value == null) {
+            LoaderBinding binding = loaders.get(namespace);
+            if (binding != null) return loadAndPut(namespace, key, binding.ttl(), meteredLoader(namespace, binding.single()));
+        }
+        return (V) unwrap(value);
     }
 
     /**
@@ -68,34 +109,116 @@ public class LettuceCache extends LettuceCacheAbstract {
     @Override
     @SuppressWarnings("unchecked")
     public <K, V> CompletableFuture<V> getAsync(String namespace, K key) {
-        return (CompletableFuture<V>) execAsyncCmd(cmd -> cmd.get(buildKey(namespace, key)));
+        if (bloomRejects(namespace, key)) return CompletableFuture.completedFuture(null);
+        return lookupAsync(namespace, buildKey(namespace, key)).thenCompose(value -> {
+            LoaderBinding binding = loaders.get(namespace);
+            if (value != null || binding == null) return CompletableFuture.completedFuture((V) unwrap(value));
+            Function<K, V> loader = meteredLoader(namespace, binding.single());
+            return CompletableFuture.supplyAsync(() -> loadAndPut(namespace, key, binding.ttl(), loader), executor());
+        });
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
-        if (keys.isEmpty()) return Collections.emptyMap();
-        Map<String, K> map = keys.stream().collect(Collectors.toMap(key -> buildKey(namespace, key), key -> key));
-
-        return execCmd(cmd -> cmd.mget(map.keySet().toArray(new String[0]))
-                .stream().collect(Collectors.toMap(map::get, kv -> (V) kv.getValue())));
+    public <K, V> V get(String namespace, K key, long ttl, Function<K, V> func) {
+        if (bloomRejects(namespace, key)) return null;
+        Object value = lookup(namespace, buildKey(namespace, key));
+        if (value != null) return (V) unwrap(value);
+        return loadAndPut(namespace, key, ttl, meteredLoader(namespace, func));
     }
 
     @Override
     @SuppressWarnings("unchecked")
+    public <K, V> CompletableFuture<V> getAsync(String namespace, K key, long ttl, Function<K, V> func) {
+        if (bloomRejects(namespace, key)) return CompletableFuture.completedFuture(null);
+        Function<K, V> loader = meteredLoader(namespace, func);
+        return lookupAsync(namespace, buildKey(namespace, key)).thenCompose(value -> {
+            if (value != null) return CompletableFuture.completedFuture((V) unwrap(value));
+            return CompletableFuture.supplyAsync(() -> loadAndPut(namespace, key, ttl, loader), executor());
+        });
+    }
+
+    @Override
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return Collections.emptyMap();
+        Map<K, V>     cached  = lookupAll(namespace, admitted);
+        LoaderBinding binding = loaders.get(namespace);
+        if (binding == null) return stripNull(cached);
+        return loadMissing(namespace, admitted, cached, binding.ttl(), meteredLoader(namespace, binding.bulk()));
+    }
+
+    @Override
     public <K, V> CompletableFuture<Map<K, V>> getAllAsync(String namespace, Collection<K> keys) {
-        if (keys.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyMap());
-        Map<String, K> map = keys.stream().collect(Collectors.toMap(key -> buildKey(namespace, key), key -> key));
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyMap());
+        LoaderBinding binding = loaders.get(namespace);
+        return this.<K, V>lookupAllAsync(namespace, admitted).thenCompose(cached -> binding == null
+                ? CompletableFuture.completedFuture(stripNull(cached))
+                : loadMissingAsync(namespace, admitted, cached, binding.ttl(), meteredLoader(namespace, binding.bulk())));
+    }
 
-        return execAsyncCmd(cmd ->
-                cmd.mget(map.keySet().toArray(new String[0]))).thenApply(kvList ->
-                kvList.stream().collect(Collectors.toMap(map::get, kv -> (V) kv.getValue()))
-        );
+    @Override
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys, Function<Collection<K>, Map<K, V>> func) {
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return Collections.emptyMap();
+        return loadMissing(namespace, admitted, lookupAll(namespace, admitted), 0, meteredLoader(namespace, func));
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Map<K, V>> getAllAsync(String namespace, Collection<K> keys, Function<Collection<K>, Map<K, V>> func) {
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyMap());
+        Function<Collection<K>, Map<K, V>> loader = meteredLoader(namespace, func);
+        return this.<K, V>lookupAllAsync(namespace, admitted).thenCompose(cached -> loadMissingAsync(namespace, admitted, cached, 0, loader));
+    }
+
+    /**
+     * 批量查找缓存，值保持序列化后的字节，首次访问时才解码，适合只使用部分结果的批量读取。
+     * 不回源；hash分桶的命名空间返回已解码的值
+     *
+     * @param namespace 命名空间
+     * @param keys      缓存标识/id集合
+     * @return 只读的延迟解码结果
+     */
+    public <K, V> LazyValueMap<K, V> getAllLazy(String namespace, Collection<K> keys) {
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return new LazyValueMap<>(new HashMap<>(), codec);
+        Map<String, K> map = keyMap(namespace, admitted);
+        if (hashBuckets.containsKey(namespace)) return lazy(namespace, map, lookupAll(namespace, admitted));
+        String[] redisKeys = map.keySet().toArray(new String[0]);
+        return lazy(namespace, map, raw(map, redisKeys, getRawValues(namespace, redisKeys)));
+    }
+
+    /**
+     * @see #getAllLazy(String, Collection)
+     */
+    public <K, V> CompletableFuture<LazyValueMap<K, V>> getAllLazyAsync(String namespace, Collection<K> keys) {
+        Collection<K> admitted = bloomAdmits(namespace, keys);
+        if (admitted.isEmpty()) return CompletableFuture.completedFuture(new LazyValueMap<>(new HashMap<>(), codec));
+        Map<String, K> map = keyMap(namespace, admitted);
+        if (hashBuckets.containsKey(namespace)) {
+            return this.<K, Object>lookupAllAsync(namespace, admitted).thenApply(values -> lazy(namespace, map, values));
+        }
+        String[] redisKeys = map.keySet().toArray(new String[0]);
+        return getRawValuesAsync(namespace, redisKeys).thenApply(values -> lazy(namespace, map, raw(map, redisKeys, values)));
     }
 
     @Override
     public <K, V> void put(String namespace, K key, V value) {
-        execCmd(cmd -> cmd.set(buildKey(namespace, key), value));
+        writeThrough(namespace, writer -> writer.write(key, value));
+        bloomAdd(namespace, key);
+        try {
+            if (offer(namespace, key, value, 0)) return;
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                execBucketed(namespace, CacheOperation.PUT, cmd -> buckets.put(cmd, buckets.field(key), value, 0));
+                return;
+            }
+            execCmd(namespace, CacheOperation.PUT, cmd -> cmd.set(buildKey(namespace, key), value));
+        } finally {
+            invalidateLocal(namespace, key);
+        }
     }
 
     /**
@@ -108,12 +231,32 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value) {
-        return execAsyncCmd(cmd -> cmd.set(buildKey(namespace, key), value));
+        return writeThroughAsync(namespace, writer -> writer.write(key, value), () -> {
+            bloomAdd(namespace, key);
+            if (offer(namespace, key, value, 0)) return CompletableFuture.completedFuture("OK");
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return this.<Object, String>execAsyncCmd(namespace, CacheOperation.PUT, cmd -> buckets.put(cmd, buckets.field(key), value, 0));
+            }
+            return execAsyncCmd(namespace, CacheOperation.PUT, cmd -> cmd.set(buildKey(namespace, key), value));
+        }).whenComplete((r, e) -> invalidateLocal(namespace, key));
     }
 
     @Override
     public <K, V> void put(String namespace, K key, V value, long ttl) {
-        execCmd(cmd -> cmd.psetex(buildKey(namespace, key), ttl, value));
+        writeThrough(namespace, writer -> writer.write(key, value));
+        bloomAdd(namespace, key);
+        try {
+            if (offer(namespace, key, value, expiresAt(ttl))) return;
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                execBucketed(namespace, CacheOperation.PUT, cmd -> buckets.put(cmd, buckets.field(key), value, ttl));
+                return;
+            }
+            execCmd(namespace, CacheOperation.PUT, cmd -> cmd.psetex(buildKey(namespace, key), ttl, value));
+        } finally {
+            invalidateLocal(namespace, key);
+        }
     }
 
     /**
@@ -127,14 +270,35 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value, long ttl) {
-        return execAsyncCmd(cmd -> cmd.psetex(buildKey(namespace, key), ttl, value));
+        return writeThroughAsync(namespace, writer -> writer.write(key, value), () -> {
+            bloomAdd(namespace, key);
+            if (offer(namespace, key, value, expiresAt(ttl))) return CompletableFuture.completedFuture("OK");
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return this.<Object, String>execAsyncCmd(namespace, CacheOperation.PUT, cmd -> buckets.put(cmd, buckets.field(key), value, ttl));
+            }
+            return execAsyncCmd(namespace, CacheOperation.PUT, cmd -> cmd.psetex(buildKey(namespace, key), ttl, value));
+        }).whenComplete((r, e) -> invalidateLocal(namespace, key));
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <K, V> void putAll(String namespace, Map<K, V> keyValueMap) {
-        var map = new HashMap<String, Object>();
-        keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        execCmd(cmd -> cmd.mset(map));
+        writeThrough(namespace, writer -> writer.writeAll((Map<Object, Object>) keyValueMap));
+        bloomAddAll(namespace, keyValueMap.keySet());
+        try {
+            if (offerAll(namespace, keyValueMap)) return;
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                execBucketed(namespace, CacheOperation.PUT_ALL, cmd -> buckets.putAll(cmd, fields(buckets, keyValueMap)));
+                return;
+            }
+            var map = new HashMap<String, Object>();
+            keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
+            setValues(namespace, map);
+        } finally {
+            invalidateLocal(namespace, keyValueMap.keySet());
+        }
     }
 
     /**
@@ -145,15 +309,30 @@ public class LettuceCache extends LettuceCacheAbstract {
      * @return 执行结果
      */
     @Override
+    @SuppressWarnings("unchecked")
     public <K, V> CompletableFuture<String> putAllAsync(String namespace, Map<K, V> keyValueMap) {
-        var map = new HashMap<String, Object>();
-        keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        return execAsyncCmd(cmd -> cmd.mset(map));
+        return writeThroughAsync(namespace, writer -> writer.writeAll((Map<Object, Object>) keyValueMap), () -> {
+            bloomAddAll(namespace, keyValueMap.keySet());
+            if (offerAll(namespace, keyValueMap)) return CompletableFuture.completedFuture("OK");
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return this.<Object, String>execAsyncCmd(namespace, CacheOperation.PUT_ALL, cmd -> buckets.putAll(cmd, fields(buckets, keyValueMap)));
+            }
+            var map = new HashMap<String, Object>();
+            keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
+            return setValuesAsync(namespace, map);
+        }).whenComplete((r, e) -> invalidateLocal(namespace, keyValueMap.keySet()));
     }
 
     @Override
     public <K, V> boolean putIfAbsent(String namespace, K key, V value) {
-        return execCmd(cmd -> cmd.setnx(buildKey(namespace, key), value));
+        flushPending(namespace, Collections.singleton(key));
+        bloomAdd(namespace, key);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> buckets.putIfAbsent(cmd, buckets.field(key), value, 0));
+        }
+        return execCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> cmd.setnx(buildKey(namespace, key), value));
     }
 
     /**
@@ -166,13 +345,25 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value) {
-        return execAsyncCmd(cmd -> cmd.setnx(buildKey(namespace, key), value));
+        flushPending(namespace, Collections.singleton(key));
+        bloomAdd(namespace, key);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> buckets.putIfAbsent(cmd, buckets.field(key), value, 0));
+        }
+        return execAsyncCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> cmd.setnx(buildKey(namespace, key), value));
     }
 
     @Override
     public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        flushPending(namespace, Collections.singleton(key));
+        bloomAdd(namespace, key);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> buckets.putIfAbsent(cmd, buckets.field(key), value, ttl));
+        }
         final var redisKey = buildKey(namespace, key);
-        return execCmd(cmd -> {
+        return execCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> {
             try {
                 cmd.multi();
                 if (Boolean.FALSE.equals(cmd.setnx(redisKey, value)) || Boolean.FALSE.equals(cmd.expire(redisKey, ttl))) {
@@ -200,8 +391,14 @@ public class LettuceCache extends LettuceCacheAbstract {
     @Override
     @SuppressWarnings("unchecked")
     public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value, long ttl) {
+        flushPending(namespace, Collections.singleton(key));
+        bloomAdd(namespace, key);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd -> buckets.putIfAbsent(cmd, buckets.field(key), value, ttl));
+        }
         final var redisKey = buildKey(namespace, key);
-        return execAsyncCmd(cmd ->
+        return execAsyncCmd(namespace, CacheOperation.PUT_IF_ABSENT, cmd ->
                 (CompletableFuture<Boolean>) cmd.multi().thenCompose(ret ->
                         cmd.setnx(redisKey, value).thenCombine(
                                 cmd.expire(redisKey, ttl),
@@ -224,9 +421,15 @@ public class LettuceCache extends LettuceCacheAbstract {
 
     @Override
     public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap) {
+        flushPending(namespace, keyValueMap.keySet());
+        bloomAddAll(namespace, keyValueMap.keySet());
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> putAllIfAbsent(cmd, buckets, keyValueMap, 0));
+        }
         var map = new HashMap<String, Object>();
         keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        return execCmd(cmd -> cmd.msetnx(map));
+        return execCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> cmd.msetnx(map));
     }
 
     /**
@@ -238,16 +441,28 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap) {
+        flushPending(namespace, keyValueMap.keySet());
+        bloomAddAll(namespace, keyValueMap.keySet());
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> putAllIfAbsent(cmd, buckets, keyValueMap, 0));
+        }
         var map = new HashMap<String, Object>();
         keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        return execAsyncCmd(cmd -> cmd.msetnx(map));
+        return execAsyncCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> cmd.msetnx(map));
     }
 
     @Override
     public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap, long ttl) {
+        flushPending(namespace, keyValueMap.keySet());
+        bloomAddAll(namespace, keyValueMap.keySet());
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> putAllIfAbsent(cmd, buckets, keyValueMap, ttl));
+        }
         var map = new HashMap<String, Object>();
         keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        return execCmd(cmd -> {
+        return execCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> {
             try {
                 cmd.multi();
                 if (!cmd.msetnx(map)) {
@@ -274,12 +489,18 @@ public class LettuceCache extends LettuceCacheAbstract {
     @Override
     @SuppressWarnings("unchecked")
     public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap, long ttl) {
+        flushPending(namespace, keyValueMap.keySet());
+        bloomAddAll(namespace, keyValueMap.keySet());
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> putAllIfAbsent(cmd, buckets, keyValueMap, ttl));
+        }
         var map = new HashMap<String, Object>();
         keyValueMap.forEach((k, v) -> map.put(buildKey(namespace, k), v));
-        return execAsyncCmd(cmd -> (CompletableFuture<Boolean>) cmd.multi().thenCompose(ret -> {
+        return execAsyncCmd(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> (CompletableFuture<Boolean>) cmd.multi().thenCompose(ret -> {
             var futures = new ArrayList<CompletableFuture<Boolean>>();
             map.keySet().forEach(k -> futures.add(cmd.pexpire(k, ttl).toCompletableFuture()));
-            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(r -> true);
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(r -> true);
         }).thenCombine(cmd.msetnx(map), (a, b) -> {
             if (Boolean.FALSE.equals(a) || Boolean.FALSE.equals(b)) {
                 ((RedisTransactionalCommands<?, ?>) cmd).discard();
@@ -298,7 +519,17 @@ public class LettuceCache extends LettuceCacheAbstract {
 
     @Override
     public <K> boolean remove(String namespace, K key) {
-        return execCmd(cmd -> cmd.del(buildKey(namespace, key)) > 0);
+        writeThrough(namespace, writer -> writer.delete(key));
+        discardPending(namespace, Collections.singleton(key));
+        try {
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return execBucketed(namespace, CacheOperation.REMOVE, cmd -> buckets.remove(cmd, List.of(key))) > 0;
+            }
+            return execCmd(namespace, CacheOperation.REMOVE, cmd -> cmd.del(buildKey(namespace, key)) > 0);
+        } finally {
+            invalidateLocal(namespace, key);
+        }
     }
 
     /**
@@ -310,13 +541,31 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K> CompletableFuture<Boolean> removeAsync(String namespace, K key) {
-        return execAsyncCmd(cmd -> cmd.del(buildKey(namespace, key)).thenApply(r -> r > 0));
+        return writeThroughAsync(namespace, writer -> writer.delete(key), () -> {
+            discardPending(namespace, Collections.singleton(key));
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.REMOVE, cmd -> buckets.remove(cmd, List.of(key)).thenApply(r -> r > 0));
+            }
+            return execAsyncCmd(namespace, CacheOperation.REMOVE, cmd -> cmd.del(buildKey(namespace, key)).thenApply(r -> r > 0));
+        }).whenComplete((r, e) -> invalidateLocal(namespace, key));
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public final <K> boolean removeAll(String namespace, Collection<K> keys) {
-        var redisKeys = keys.stream().map(key -> buildKey(namespace, key)).toArray(String[]::new);
-        return execCmd(cmd -> cmd.del(redisKeys) > 0);
+        writeThrough(namespace, writer -> writer.deleteAll((Collection<Object>) keys));
+        discardPending(namespace, keys);
+        try {
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return execBucketed(namespace, CacheOperation.REMOVE_ALL, cmd -> buckets.remove(cmd, keys)) > 0;
+            }
+            var redisKeys = keys.stream().map(key -> buildKey(namespace, key)).toArray(String[]::new);
+            return execCmd(namespace, CacheOperation.REMOVE_ALL, cmd -> cmd.del(redisKeys) > 0);
+        } finally {
+            invalidateLocal(namespace, keys);
+        }
     }
 
     /**
@@ -327,14 +576,27 @@ public class LettuceCache extends LettuceCacheAbstract {
      * @return 执行结果
      */
     @Override
+    @SuppressWarnings("unchecked")
     public <K> CompletableFuture<Boolean> removeAllAsync(String namespace, Collection<K> keys) {
-        var redisKeys = keys.stream().map(key -> buildKey(namespace, key)).toArray(String[]::new);
-        return execAsyncCmd(cmd -> cmd.del(redisKeys).thenApply(r -> r > 0));
+        return writeThroughAsync(namespace, writer -> writer.deleteAll((Collection<Object>) keys), () -> {
+            discardPending(namespace, keys);
+            HashBuckets buckets = hashBuckets.get(namespace);
+            if (buckets != null) {
+                return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.REMOVE_ALL, cmd -> buckets.remove(cmd, keys).thenApply(r -> r > 0));
+            }
+            var redisKeys = keys.stream().map(key -> buildKey(namespace, key)).toArray(String[]::new);
+            return execAsyncCmd(namespace, CacheOperation.REMOVE_ALL, cmd -> cmd.del(redisKeys).thenApply(r -> r > 0));
+        }).whenComplete((r, e) -> invalidateLocal(namespace, keys));
     }
 
     @Override
     public final <K> boolean existsAll(String namespace, Collection<K> keys) {
-        return execCmd(cmd -> cmd.exists(buildKeys(namespace, keys)) > 0);
+        flushPending(namespace, keys);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.EXISTS_ALL, cmd -> buckets.exists(cmd, keys)) > 0;
+        }
+        return execCmd(namespace, CacheOperation.EXISTS_ALL, cmd -> cmd.exists(buildKeys(namespace, keys)) > 0);
     }
 
     /**
@@ -346,12 +608,23 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K> CompletableFuture<Boolean> existsAllAsync(String namespace, Collection<K> keys) {
-        return execAsyncCmd(cmd -> cmd.exists(buildKeys(namespace, keys)).thenApply(r -> r > 0));
+        flushPending(namespace, keys);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.EXISTS_ALL, cmd -> buckets.exists(cmd, keys).thenApply(r -> r > 0));
+        }
+        return execAsyncCmd(namespace, CacheOperation.EXISTS_ALL, cmd -> cmd.exists(buildKeys(namespace, keys)).thenApply(r -> r > 0));
     }
 
     @Override
     public final <K> boolean exists(String namespace, K key) {
-        return execCmd(cmd -> cmd.exists(buildKey(namespace, key)) > 0);
+        PendingWrite pending = pending(namespace, buildKey(namespace, key));
+        if (pending != null) return pending.value() != null;
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.EXISTS, cmd -> buckets.exists(cmd, List.of(key))) > 0;
+        }
+        return execCmd(namespace, CacheOperation.EXISTS, cmd -> cmd.exists(buildKey(namespace, key)) > 0);
     }
 
     /**
@@ -363,7 +636,13 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K> CompletableFuture<Boolean> existsAsync(String namespace, K key) {
-        return execAsyncCmd(cmd -> cmd.exists(buildKey(namespace, key)).thenApply(count -> count > 0));
+        PendingWrite pending = pending(namespace, buildKey(namespace, key));
+        if (pending != null) return CompletableFuture.completedFuture(pending.value() != null);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.EXISTS, cmd -> buckets.exists(cmd, List.of(key)).thenApply(r -> r > 0));
+        }
+        return execAsyncCmd(namespace, CacheOperation.EXISTS, cmd -> cmd.exists(buildKey(namespace, key)).thenApply(count -> count > 0));
     }
 
     /**
@@ -377,7 +656,12 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
-        return execCmd(cmd -> cmd.pexpire(buildKey(namespace, key), timeUnit.toMillis(ttl)));
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.EXPIRE, cmd -> buckets.expire(cmd, buckets.field(key), timeUnit.toMillis(ttl)));
+        }
+        return execCmd(namespace, CacheOperation.EXPIRE, cmd -> cmd.pexpire(buildKey(namespace, key), timeUnit.toMillis(ttl)));
     }
 
     /**
@@ -391,12 +675,54 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public <K> CompletableFuture<Boolean> expireAsync(String namespace, K key, long ttl, TimeUnit timeUnit) {
-        return execAsyncCmd(cmd -> cmd.pexpire(buildKey(namespace, key), timeUnit.toMillis(ttl)));
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.EXPIRE, cmd -> buckets.expire(cmd, buckets.field(key), timeUnit.toMillis(ttl)));
+        }
+        return execAsyncCmd(namespace, CacheOperation.EXPIRE, cmd -> cmd.pexpire(buildKey(namespace, key), timeUnit.toMillis(ttl)));
+    }
+
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.TTL, cmd -> buckets.ttl(cmd, buckets.field(key)));
+        }
+        return execCmd(namespace, CacheOperation.TTL, cmd -> cmd.pttl(buildKey(namespace, key)));
+    }
+
+    @Override
+    public <K> CompletableFuture<Long> ttlAsync(String namespace, K key) {
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Long>execAsyncCmd(namespace, CacheOperation.TTL, cmd -> buckets.ttl(cmd, buckets.field(key)));
+        }
+        return execAsyncCmd(namespace, CacheOperation.TTL, cmd -> cmd.pttl(buildKey(namespace, key)));
     }
 
     @Override
     public boolean clear(String namespace) {
-        return execCmd(cmd -> cmd.del(cmd.keys(buildNamespacePatternKey(namespace)).toArray(new String[0])) > 0);
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) detector.invalidate(namespace);
+        MemoryCache stale = staleCache;
+        if (stale != null) stale.clear(namespace);
+        WriteBehindBuffer buffer = writeBehind;
+        if (buffer != null) buffer.discardNamespace(namespace);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) return execBucketed(namespace, CacheOperation.CLEAR, buckets::clear);
+        return execCmd(namespace, CacheOperation.CLEAR, cmd -> {
+            ScanArgs              args    = ScanArgs.Builder.matches(buildNamespacePatternKey(namespace)).limit(ScanOptions.DEFAULT_COUNT);
+            KeyScanCursor<String> cursor  = cmd.scan(args);
+            long                  removed = 0;
+            while (true) {
+                if (!cursor.getKeys().isEmpty()) removed += cmd.unlink(cursor.getKeys().toArray(new String[0]));
+                if (cursor.isFinished()) return removed > 0;
+                cursor = cmd.scan(cursor, args);
+            }
+        });
     }
 
     /**
@@ -407,9 +733,16 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public CompletableFuture<Boolean> clearAsync(String namespace) {
-        return execAsyncCmd(cmd -> cmd.keys(buildNamespacePatternKey(namespace))
-                .thenCompose(keys -> cmd.del(keys.toArray(new String[0])))
-                .thenApply(r -> r > 0).toCompletableFuture());
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) detector.invalidate(namespace);
+        MemoryCache stale = staleCache;
+        if (stale != null) stale.clear(namespace);
+        WriteBehindBuffer buffer = writeBehind;
+        if (buffer != null) buffer.discardNamespace(namespace);
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) return this.<Object, Boolean>execAsyncCmd(namespace, CacheOperation.CLEAR, buckets::clear);
+        ScanArgs args = ScanArgs.Builder.matches(buildNamespacePatternKey(namespace)).limit(ScanOptions.DEFAULT_COUNT);
+        return execAsyncCmd(namespace, CacheOperation.CLEAR, cmd -> unlinkScanned(cmd, ScanCursor.INITIAL, args).thenApply(r -> r > 0));
     }
 
     /**
@@ -417,7 +750,13 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public boolean clearAll() {
-        execCmd(RedisServerCommands::flushdb);
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) detector.invalidateAll();
+        MemoryCache stale = staleCache;
+        if (stale != null) stale.clearAll();
+        WriteBehindBuffer buffer = writeBehind;
+        if (buffer != null) buffer.discardAll();
+        execCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.CLEAR_ALL, RedisServerCommands::flushdb);
         return true;
     }
 
@@ -428,7 +767,78 @@ public class LettuceCache extends LettuceCacheAbstract {
      */
     @Override
     public CompletableFuture<String> clearAllAsync() {
-        return execAsyncCmd(RedisServerAsyncCommands::flushdb);
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) detector.invalidateAll();
+        MemoryCache stale = staleCache;
+        if (stale != null) stale.clearAll();
+        WriteBehindBuffer buffer = writeBehind;
+        if (buffer != null) buffer.discardAll();
+        return execAsyncCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.CLEAR_ALL, RedisServerAsyncCommands::flushdb);
+    }
+
+    /**
+     * 使用SCAN分页遍历，每页拉取时才占用连接，不会像KEYS一样阻塞redis
+     */
+    @Override
+    public Stream<String> keys(String namespace, ScanOptions options) {
+        checkScannable(namespace);
+        int      prefix = namespace.length() + CONNECTOR.length();
+        ScanArgs args   = ScanArgs.Builder.matches(buildNamespacePatternKey(namespace)).limit(options.getCount());
+        return new ScanIterator<String>(cursor -> execCmd(namespace, CacheOperation.SCAN, cmd -> {
+            KeyScanCursor<String> page = cmd.scan(cursor, args);
+            return new ScanIterator.Page<>(page, page.getKeys().stream().map(key -> key.substring(prefix)).collect(Collectors.toList()));
+        }), options.getPagesPerSecond()).stream();
+    }
+
+    /**
+     * 每页在同一个连接上先SCAN再MGET（MGET的key取决于SCAN的结果，两条命令无法流水线），每页只占用一次连接。
+     * 读取直接访问redis，不合并写回缓冲中未落库的写入，也不使用解码线程池与读取失败时的本地副本
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> Stream<Map.Entry<String, V>> entries(String namespace, ScanOptions options) {
+        checkScannable(namespace);
+        int      prefix = namespace.length() + CONNECTOR.length();
+        ScanArgs args   = ScanArgs.Builder.matches(buildNamespacePatternKey(namespace)).limit(options.getCount());
+        return new ScanIterator<Map.Entry<String, V>>(cursor -> this.<Object, ScanIterator.Page<Map.Entry<String, V>>>execCmd(namespace, CacheOperation.SCAN, cmd -> {
+            KeyScanCursor<String>      page    = cmd.scan(cursor, args);
+            List<Map.Entry<String, V>> entries = new ArrayList<>(page.getKeys().size());
+            if (page.getKeys().isEmpty()) return new ScanIterator.Page<>(page, entries);
+            for (KeyValue<String, Object> kv : cmd.mget(page.getKeys().toArray(new String[0]))) {
+                if (kv.hasValue() && kv.getValue() != NullValue.INSTANCE) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<>(kv.getKey().substring(prefix), (V) kv.getValue()));
+                }
+            }
+            return new ScanIterator.Page<>(page, entries);
+        }), options.getPagesPerSecond()).stream();
+    }
+
+    @Override
+    public <K> long incrBy(String namespace, K key, long delta) {
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return execBucketed(namespace, CacheOperation.INCR, cmd -> buckets.incrBy(cmd, buckets.field(key), delta));
+        }
+        return execCmd(namespace, CacheOperation.INCR, cmd -> cmd.incrby(buildKey(namespace, key), delta));
+    }
+
+    /**
+     * 原子自增（INCRBY）
+     *
+     * @param namespace 命名空间（类似组的概念）
+     * @param key       缓存标识/id
+     * @param delta     增量
+     * @return 自增后的值
+     */
+    @Override
+    public <K> CompletableFuture<Long> incrByAsync(String namespace, K key, long delta) {
+        flushPending(namespace, Collections.singleton(key));
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Long>execAsyncCmd(namespace, CacheOperation.INCR, cmd -> buckets.incrBy(cmd, buckets.field(key), delta));
+        }
+        return execAsyncCmd(namespace, CacheOperation.INCR, cmd -> cmd.incrby(buildKey(namespace, key), delta));
     }
 
     /**
@@ -457,4 +867,454 @@ public class LettuceCache extends LettuceCacheAbstract {
     public boolean isCluster() {
         return false;
     }
+
+    @Override
+    public String keyPrefix(String namespace) {
+        return buildKey(namespace, "");
+    }
+
+    /**
+     * 回源、写穿、写回、哈希桶、布隆过滤器、热点key本地副本与读取失败时的本地副本都需要按对象处理值，启用任一项时不能原样读写
+     */
+    @Override
+    public boolean supportsRaw(String namespace) {
+        return staleCache == null && hotKeyDetector == null && writeBehind(namespace) == null
+                && !loaders.containsKey(namespace) && !writers.containsKey(namespace)
+                && !hashBuckets.containsKey(namespace) && !bloomFilters.containsKey(namespace);
+    }
+
+    @Override
+    public byte[] getRaw(String namespace, String fullKey) {
+        return recordHit(namespace, getRawValue(namespace, fullKey));
+    }
+
+    @Override
+    public CompletableFuture<byte[]> getRawAsync(String namespace, String fullKey) {
+        return getRawValueAsync(namespace, fullKey).thenApply(value -> recordHit(namespace, value));
+    }
+
+    @Override
+    public List<byte[]> getAllRaw(String namespace, String[] fullKeys) {
+        return recordRawHits(namespace, getRawValues(namespace, fullKeys));
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> getAllRawAsync(String namespace, String[] fullKeys) {
+        return getRawValuesAsync(namespace, fullKeys).thenApply(values -> recordRawHits(namespace, values));
+    }
+
+    @Override
+    public void putRaw(String namespace, String fullKey, byte[] value, long ttl) {
+        setRawValue(namespace, fullKey, value, ttl);
+    }
+
+    @Override
+    public CompletableFuture<String> putRawAsync(String namespace, String fullKey, byte[] value, long ttl) {
+        return setRawValueAsync(namespace, fullKey, value, ttl);
+    }
+
+    @Override
+    public void putAllRaw(String namespace, Map<String, byte[]> values) {
+        if (!values.isEmpty()) setRawValues(namespace, values);
+    }
+
+    @Override
+    public boolean putRawIfAbsent(String namespace, String fullKey, byte[] value, long ttl) {
+        return setRawValueIfAbsent(namespace, fullKey, value, ttl);
+    }
+
+    /**
+     * 回源空值标记按字节比较后直接丢弃，其余保持未解码
+     */
+    private <K> Map<K, Object> raw(Map<String, K> keyMap, String[] redisKeys, List<byte[]> values) {
+        var result = new HashMap<K, Object>();
+        for (int i = 0; i < redisKeys.length; i++) {
+            byte[] value = values.get(i);
+            if (value != null && !isNullMarker(value)) result.put(keyMap.get(redisKeys[i]), new LazyValueMap.Raw(value));
+        }
+        return result;
+    }
+
+    private <K, V> LazyValueMap<K, V> lazy(String namespace, Map<String, K> keyMap, Map<K, Object> slots) {
+        return new LazyValueMap<>(recordHits(namespace, keyMap.size(), stripNull(overlayPending(namespace, keyMap, slots))), codec);
+    }
+
+    private <K> Map<String, K> keyMap(String namespace, Collection<K> keys) {
+        return keys.stream().collect(Collectors.toMap(key -> buildKey(namespace, key), key -> key, (a, b) -> a));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> toMap(Map<String, K> keyMap, String[] redisKeys, List<Object> values) {
+        var result = new HashMap<K, V>();
+        for (int i = 0; i < redisKeys.length; i++) {
+            Object value = values.get(i);
+            if (value != null) result.put(keyMap.get(redisKeys[i]), (V) value);
+        }
+        return result;
+    }
+
+    /**
+     * 读取原始缓存值，命中回源空值时返回 {@link NullValue#INSTANCE}
+     */
+    private Object lookup(String namespace, String redisKey) {
+        PendingWrite pending = pending(namespace, redisKey);
+        if (pending != null) return recordHit(namespace, pending.value());
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) {
+            Object local = detector.getLocal(namespace, redisKey);
+            if (local != null) {
+                detector.onRead(namespace, redisKey, null);
+                return recordHit(namespace, local);
+            }
+        }
+        long        stamp   = detector != null ? detector.stamp(namespace, redisKey) : -1;
+        HashBuckets buckets = hashBuckets.get(namespace);
+        Object value = buckets != null
+                ? execBucketed(namespace, CacheOperation.GET, cmd -> buckets.get(cmd, buckets.fieldOf(redisKey)))
+                : getValue(namespace, redisKey);
+        if (detector != null) detector.onRead(namespace, redisKey, value, stamp);
+        return recordHit(namespace, value);
+    }
+
+    private CompletableFuture<Object> lookupAsync(String namespace, String redisKey) {
+        PendingWrite pending = pending(namespace, redisKey);
+        if (pending != null) return CompletableFuture.completedFuture(recordHit(namespace, pending.value()));
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) {
+            Object local = detector.getLocal(namespace, redisKey);
+            if (local != null) {
+                detector.onRead(namespace, redisKey, null);
+                return CompletableFuture.completedFuture(recordHit(namespace, local));
+            }
+        }
+        long        stamp   = detector != null ? detector.stamp(namespace, redisKey) : -1;
+        HashBuckets buckets = hashBuckets.get(namespace);
+        CompletableFuture<Object> future = buckets != null
+                ? this.<Object, Object>execAsyncCmd(namespace, CacheOperation.GET, cmd -> buckets.get(cmd, buckets.fieldOf(redisKey)))
+                : getValueAsync(namespace, redisKey);
+        return future.thenApply(value -> {
+            if (detector != null) detector.onRead(namespace, redisKey, value, stamp);
+            return recordHit(namespace, value);
+        });
+    }
+
+    /**
+     * 读取原始缓存值，结果中可能包含 {@link NullValue#INSTANCE}
+     */
+    private <K, V> Map<K, V> lookupAll(String namespace, Collection<K> keys) {
+        Map<String, K> map     = keyMap(namespace, keys);
+        HashBuckets    buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            Map<K, V> result = execBucketed(namespace, CacheOperation.GET_ALL, cmd -> buckets.getAll(cmd, map.values()));
+            return recordHits(namespace, map.size(), overlayPending(namespace, map, result));
+        }
+        String[] redisKeys = map.keySet().toArray(new String[0]);
+        return recordHits(namespace, map.size(), overlayPending(namespace, map, this.<K, V>toMap(map, redisKeys, getValues(namespace, redisKeys))));
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> lookupAllAsync(String namespace, Collection<K> keys) {
+        Map<String, K> map     = keyMap(namespace, keys);
+        HashBuckets    buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            return this.<Object, Map<K, V>>execAsyncCmd(namespace, CacheOperation.GET_ALL, cmd -> buckets.getAll(cmd, map.values()))
+                    .thenApply(result -> recordHits(namespace, map.size(), overlayPending(namespace, map, result)));
+        }
+        String[] redisKeys = map.keySet().toArray(new String[0]);
+        return getValuesAsync(namespace, redisKeys).thenApply(values ->
+                recordHits(namespace, map.size(), overlayPending(namespace, map, this.<K, V>toMap(map, redisKeys, values)))
+        );
+    }
+
+    private static <K, V> Map<String, Object> fields(HashBuckets buckets, Map<K, V> keyValueMap) {
+        var fields = new HashMap<String, Object>();
+        keyValueMap.forEach((k, v) -> fields.put(buckets.field(k), v));
+        return fields;
+    }
+
+    /**
+     * hash分桶存储下没有跨字段的原子写入，先检查是否全部不存在再逐个 HSETNX，并发写入时可能只写入部分
+     */
+    private static <K, V> CompletableFuture<Boolean> putAllIfAbsent(RedisAsyncCommands<String, Object> cmd, HashBuckets buckets,
+                                                                     Map<K, V> keyValueMap, long ttl) {
+        return buckets.exists(cmd, keyValueMap.keySet()).thenCompose(count -> {
+            if (count > 0) return CompletableFuture.completedFuture(false);
+            var futures = new ArrayList<CompletableFuture<Boolean>>(keyValueMap.size());
+            keyValueMap.forEach((k, v) -> futures.add(buckets.putIfAbsent(cmd, buckets.field(k), v, ttl)));
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(r -> futures.stream().allMatch(CompletableFuture::join));
+        });
+    }
+
+    private static Object unwrap(Object value) {
+        return value == NullValue.INSTANCE ? null : value;
+    }
+
+    private static <K, V> Map<K, V> stripNull(Map<K, V> map) {
+        map.values().removeIf(value -> value == NullValue.INSTANCE);
+        return map;
+    }
+
+    private void writeThrough(String namespace, Consumer<CacheWriter<Object, Object>> op) {
+        CacheWriter<Object, Object> writer = writers.get(namespace);
+        if (writer != null) op.accept(writer);
+    }
+
+    /**
+     * 有写入器时先在线程池中同步到写入器，成功后再执行缓存命令
+     */
+    private <R> CompletableFuture<R> writeThroughAsync(String namespace, Consumer<CacheWriter<Object, Object>> op,
+                                                       Supplier<CompletableFuture<R>> cacheOp) {
+        CacheWriter<Object, Object> writer = writers.get(namespace);
+        if (writer == null) return cacheOp.get();
+        return CompletableFuture.runAsync(() -> op.accept(writer), executor()).thenCompose(r -> cacheOp.get());
+    }
+
+    /**
+     * @return 布隆过滤器判断key一定不存在
+     */
+    private <K> boolean bloomRejects(String namespace, K key) {
+        BloomFilter filter = bloomFilters.get(namespace);
+        if (filter == null || filter.mightContain(String.valueOf(key))) return false;
+        metrics.recordMisses(namespace, 1);
+        return true;
+    }
+
+    private <K> Collection<K> bloomAdmits(String namespace, Collection<K> keys) {
+        BloomFilter filter = bloomFilters.get(namespace);
+        if (filter == null) return keys;
+        List<K>   list     = List.copyOf(keys);
+        boolean[] contains = filter.mightContainAll(list.stream().map(String::valueOf).collect(Collectors.toList()));
+        List<K>   admitted = new ArrayList<>(list.size());
+        for (int i = 0; i < contains.length; i++) {
+            if (contains[i]) admitted.add(list.get(i));
+        }
+        metrics.recordMisses(namespace, keys.size() - admitted.size());
+        return admitted;
+    }
+
+    private <K> void bloomAdd(String namespace, K key) {
+        BloomFilter filter = bloomFilters.get(namespace);
+        if (filter != null) filter.add(String.valueOf(key));
+    }
+
+    private <K> void bloomAddAll(String namespace, Collection<K> keys) {
+        BloomFilter filter = bloomFilters.get(namespace);
+        if (filter != null) keys.forEach(key -> filter.add(String.valueOf(key)));
+    }
+
+    private void bloomFalsePositive(String namespace, int count) {
+        BloomFilter filter = bloomFilters.get(namespace);
+        if (filter == null) return;
+        for (int i = 0; i < count; i++) {
+            filter.recordFalsePositive();
+        }
+    }
+
+    private void checkScannable(String namespace) {
+        if (hashBuckets.containsKey(namespace)) {
+            throw new NotSupportOperationException("Scan does not support hash bucketed namespace: " + namespace);
+        }
+    }
+
+    private static CompletionStage<Long> unlinkScanned(RedisAsyncCommands<String, Object> cmd, ScanCursor cursor, ScanArgs args) {
+        return cmd.scan(cursor, args).thenCompose(page -> {
+            CompletionStage<Long> removed = page.getKeys().isEmpty()
+                    ? CompletableFuture.completedFuture(0L)
+                    : cmd.unlink(page.getKeys().toArray(new String[0]));
+            if (page.isFinished()) return removed;
+            return removed.thenCompose(count -> unlinkScanned(cmd, page, args).thenApply(rest -> count + rest));
+        });
+    }
+
+    private <K> void invalidateLocal(String namespace, K key) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) detector.invalidate(namespace, buildKey(namespace, key));
+        MemoryCache stale = staleCache;
+        if (stale != null) stale.remove(namespace, buildKey(namespace, key));
+    }
+
+    private <K> void invalidateLocal(String namespace, Collection<K> keys) {
+        HotKeyDetector detector = hotKeyDetector;
+        if (detector != null) keys.forEach(key -> detector.invalidate(namespace, buildKey(namespace, key)));
+        MemoryCache stale = staleCache;
+        if (stale != null) keys.forEach(key -> stale.remove(namespace, buildKey(namespace, key)));
+    }
+
+    /**
+     * @return 未写回的写入，已过期的视为值为null
+     */
+    private PendingWrite pending(String namespace, String redisKey) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer == null) return null;
+        PendingWrite pending = buffer.get(redisKey);
+        return pending == null || !pending.isExpired() ? pending : new PendingWrite(namespace, redisKey, null, pending.expiresAt());
+    }
+
+    private <K, V> boolean offer(String namespace, K key, V value, long expiresAt) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer == null) return false;
+        buffer.offer(new PendingWrite(namespace, buildKey(namespace, key), value, expiresAt));
+        return true;
+    }
+
+    /**
+     * @return 写回缓冲使用的过期时间戳，ttl小于等于0表示永不过期
+     */
+    private static long expiresAt(long ttl) {
+        return ttl > 0 ? System.currentTimeMillis() + ttl : 0;
+    }
+
+    private <K, V> boolean offerAll(String namespace, Map<K, V> keyValueMap) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer == null) return false;
+        keyValueMap.forEach((k, v) -> buffer.offer(new PendingWrite(namespace, buildKey(namespace, k), v, 0)));
+        return true;
+    }
+
+    /**
+     * 非覆盖写的命令需要基于redis中的最新值，执行前先写回缓冲
+     */
+    private <K> void flushPending(String namespace, Collection<K> keys) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer == null || buffer.pendingCount() == 0) return;
+        if (keys.stream().anyMatch(key -> buffer.get(buildKey(namespace, key)) != null)) buffer.flush();
+    }
+
+    private <K> void discardPending(String namespace, Collection<K> keys) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer != null) keys.forEach(key -> buffer.discard(buildKey(namespace, key)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <K, V> Map<K, V> overlayPending(String namespace, Map<String, K> keyMap, Map<K, V> result) {
+        WriteBehindBuffer buffer = writeBehind(namespace);
+        if (buffer == null || buffer.pendingCount() == 0) return result;
+        keyMap.forEach((redisKey, key) -> {
+            PendingWrite pending = buffer.get(redisKey);
+            if (pending == null) return;
+            if (pending.isExpired() || pending.value() == null) {
+                result.remove(key);
+            } else {
+                result.put(key, (V) pending.value());
+            }
+        });
+        return result;
+    }
+
+    private <V> V recordHit(String namespace, V value) {
+        if (value == null) {
+            metrics.recordMisses(namespace, 1);
+        } else {
+            metrics.recordHits(namespace, 1);
+        }
+        return value;
+    }
+
+    private List<byte[]> recordRawHits(String namespace, List<byte[]> values) {
+        int hits = 0;
+        for (byte[] value : values) {
+            if (value != null) hits++;
+        }
+        metrics.recordHits(namespace, hits);
+        metrics.recordMisses(namespace, values.size() - hits);
+        return values;
+    }
+
+    private <K, V> Map<K, V> recordHits(String namespace, int requested, Map<K, V> result) {
+        metrics.recordHits(namespace, result.size());
+        metrics.recordMisses(namespace, requested - result.size());
+        return result;
+    }
+
+    private <K, V> V loadAndPut(String namespace, K key, long ttl, Function<K, V> loader) {
+        V result = loader.apply(key);
+        if (result == null) bloomFalsePositive(namespace, 1);
+        writeLoaded(namespace, List.of(loaded(namespace, buildKey(namespace, key), result, ttl, System.currentTimeMillis())));
+        return result;
+    }
+
+    /**
+     * 回源未命中的key：分块（每块最多 loadBatchSize 个）并行加载，加载结果与空值占位在一个流水线中写回
+     */
+    private <K, V> Map<K, V> loadMissing(String namespace, Collection<K> keys, Map<K, V> cached, long ttl,
+                                         Function<Collection<K>, Map<K, V>> loader) {
+        List<List<K>> chunks = missingChunks(keys, cached);
+        if (chunks.isEmpty()) return stripNull(cached);
+        var futures = new ArrayList<CompletableFuture<Map<K, V>>>(chunks.size() - 1);
+        for (int i = 1; i < chunks.size(); i++) {
+            List<K> chunk = chunks.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> loader.apply(chunk), executor()));
+        }
+        var loaded = new ArrayList<Map<K, V>>(chunks.size());
+        loaded.add(loader.apply(chunks.get(0)));
+        try {
+            for (CompletableFuture<Map<K, V>> future : futures) {
+                loaded.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        return putLoaded(namespace, chunks, loaded, cached, ttl);
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> loadMissingAsync(String namespace, Collection<K> keys, Map<K, V> cached, long ttl,
+                                                                 Function<Collection<K>, Map<K, V>> loader) {
+        List<List<K>> chunks = missingChunks(keys, cached);
+        if (chunks.isEmpty()) return CompletableFuture.completedFuture(stripNull(cached));
+        var futures = new ArrayList<CompletableFuture<Map<K, V>>>(chunks.size());
+        for (List<K> chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> loader.apply(chunk), executor()));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApplyAsync(r -> {
+            var loaded = new ArrayList<Map<K, V>>(futures.size());
+            futures.forEach(future -> loaded.add(future.join()));
+            return putLoaded(namespace, chunks, loaded, cached, ttl);
+        }, executor());
+    }
+
+    private <K, V> List<List<K>> missingChunks(Collection<K> keys, Map<K, V> cached) {
+        int     batchSize = loadBatchSize;
+        var     chunks    = new ArrayList<List<K>>();
+        var     seen      = new HashSet<K>();
+        List<K> chunk     = null;
+        for (K key : keys) {
+            if (cached.containsKey(key) || !seen.add(key)) continue;
+            if (chunk == null || chunk.size() == batchSize) {
+                chunk = new ArrayList<>(batchSize);
+                chunks.add(chunk);
+            }
+            chunk.add(key);
+        }
+        return chunks;
+    }
+
+    private <K, V> Map<K, V> putLoaded(String namespace, List<List<K>> chunks, List<Map<K, V>> loaded, Map<K, V> cached, long ttl) {
+        var  writes = new ArrayList<PendingWrite>();
+        long now    = System.currentTimeMillis();
+        int  absent = 0;
+        stripNull(cached);
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<K, V> values = Optional.ofNullable(loaded.get(i)).orElse(Collections.emptyMap());
+            for (K key : chunks.get(i)) {
+                V value = values.get(key);
+                writes.add(loaded(namespace, buildKey(namespace, key), value, ttl, now));
+                if (value != null) cached.put(key, value);
+                else absent++;
+            }
+        }
+        bloomFalsePositive(namespace, absent);
+        writeLoaded(namespace, writes);
+        return cached;
+    }
+
+    /**
+     * 回源结果的写入，空值写入 {@link NullValue#INSTANCE} 并使用随机的短存活时间
+     */
+    private PendingWrite loaded(String namespace, String redisKey, Object value, long ttl, long now) {
+        if (value == null) {
+            return new PendingWrite(namespace, redisKey, NullValue.INSTANCE, now + RandomUtils.nextLong(VOLATILITY_TIME / 10, VOLATILITY_TIME));
+        }
+        return new PendingWrite(namespace, redisKey, value, ttl > 0 ? now + ttl : 0);
+    }
 }
@@ -1,20 +1,52 @@
 package io.github.kurenairyu.cache.redis.lettuce;
 
+import io.github.kurenairyu.cache.CacheLoader;
+import io.github.kurenairyu.cache.CacheWriter;
+import io.github.kurenairyu.cache.ReactiveCache;
+import io.github.kurenairyu.cache.bloom.BloomFilter;
+import io.github.kurenairyu.cache.bloom.BloomFilterStore;
+import io.github.kurenairyu.cache.exception.CacheOverloadException;
+import io.github.kurenairyu.cache.exception.CacheUnavailableException;
+import io.github.kurenairyu.cache.hotkey.HotKeyDetector;
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.metrics.CacheOperation;
 import io.github.kurenairyu.cache.redis.RedisCacheAbstract;
+import io.github.kurenairyu.cache.writebehind.PendingWrite;
+import io.github.kurenairyu.cache.writebehind.WriteBehindBuffer;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.ByteArrayOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.output.ValueListOutput;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.lettuce.core.support.AsyncConnectionPoolSupport;
+import io.lettuce.core.support.BoundedPoolConfig;
 import io.lettuce.core.support.ConnectionPoolSupport;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionStage;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static io.github.kurenairyu.cache.util.StringPool.COLON;
 
@@ -27,8 +59,49 @@ import static io.github.kurenairyu.cache.util.StringPool.COLON;
 @Log4j2
 public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
 
-    protected final GenericObjectPool<StatefulRedisConnection<String, ?>> POOL;
-    protected final String                                                CONNECTOR = COLON;
+    public static final long DEFAULT_ASYNC_ACQUIRE_TIMEOUT = 2000L;
+    public static final int  DEFAULT_DECODE_CHUNK_SIZE     = 64;
+    public static final int  DEFAULT_MIN_BULK_CHUNK        = 100;
+    public static final int  DEFAULT_MAX_BULK_CHUNK        = 1000;
+    public static final long DEFAULT_BULK_CHUNK_MILLIS     = 5L;
+    public static final long DEFAULT_BULK_CHUNK_BYTES      = 1024 * 1024L;
+    public static final int  DEFAULT_BULK_PARALLELISM      = 4;
+
+    private static volatile ClientResources sharedClientResources;
+
+    protected final GenericObjectPool<StatefulRedisConnection<String, ?>>   POOL;
+    protected final RedisClient                                             client;
+    protected final AsyncConnectionPool<StatefulRedisConnection<String, ?>> asyncPool;
+    protected final RedisCodec<String, ?>                                   codec;
+    protected final String                                                  CONNECTOR     = COLON;
+    protected final Map<String, BloomFilter>                                bloomFilters  = new ConcurrentHashMap<>();
+    protected final Map<String, HashBuckets>                                hashBuckets   = new ConcurrentHashMap<>();
+    protected final Map<String, LoaderBinding>                              loaders       = new ConcurrentHashMap<>();
+    protected final Map<String, CacheWriter<Object, Object>>                writers       = new ConcurrentHashMap<>();
+    protected final Map<String, InFlightLimiter>                            limiters      = new ConcurrentHashMap<>();
+    protected volatile InFlightLimiter                                      limiter;
+    protected final Map<String, Long>                                       deadlines     = new ConcurrentHashMap<>();
+    protected volatile long                                                 deadline;
+    protected final Map<String, HedgePolicy>                                hedges        = new ConcurrentHashMap<>();
+    protected volatile CircuitBreaker                                       circuitBreaker;
+    protected volatile MemoryCache                                          staleCache;
+    protected volatile long                                                 staleTtl;
+    protected volatile CacheMetrics                                         metrics       = CacheMetrics.NOOP;
+    protected volatile HotKeyDetector                                       hotKeyDetector;
+    protected volatile WriteBehindBuffer                                    writeBehind;
+    protected volatile int                                                  loadBatchSize = 100;
+    protected volatile Executor                                             decodeExecutor;
+    protected volatile int                                                  decodeChunk   = DEFAULT_DECODE_CHUNK_SIZE;
+    protected volatile AdaptiveChunkSizer                                   chunkSizer    = new AdaptiveChunkSizer(DEFAULT_MIN_BULK_CHUNK, DEFAULT_MAX_BULK_CHUNK,
+            TimeUnit.MILLISECONDS.toNanos(DEFAULT_BULK_CHUNK_MILLIS), DEFAULT_BULK_CHUNK_BYTES);
+    protected volatile int                                                  chunkParallel = DEFAULT_BULK_PARALLELISM;
+    private final RedisCodec<String, byte[]>                                rawCodec;
+    private volatile byte[]                                                 nullMarker;
+    private volatile Executor                                               executor;
+    private ExecutorService                                                 ownedExecutor;
+    private ScheduledExecutorService                                        scheduler;
+    private StatefulRedisConnection<String, ?>                              reactiveConnection;
+    private ReactiveCache                                                   reactive;
 
     public LettuceCacheAbstract(String uri) {
         this(RedisURI.create(uri), new KryoCodec<>());
@@ -64,7 +137,217 @@ public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
     }
 
     public LettuceCacheAbstract(RedisURI redisURI, RedisCodec<String, ?> redisCodec, GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> poolConfig) {
-        this.POOL = ConnectionPoolSupport.createGenericObjectPool(() -> RedisClient.create(redisURI).connect(redisCodec), poolConfig == null ? defaultPoolConfig() : poolConfig);
+        this(redisURI, redisCodec, poolConfig, null);
+    }
+
+    /**
+     * 同步与异步命令的连接池平分 poolConfig 的连接数
+     *
+     * @see #LettuceCacheAbstract(RedisURI, RedisCodec, GenericObjectPoolConfig, BoundedPoolConfig, ClientResources)
+     */
+    public LettuceCacheAbstract(RedisURI redisURI, RedisCodec<String, ?> redisCodec,
+                                GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> poolConfig, ClientResources clientResources) {
+        this(redisURI, redisCodec, poolConfig, null, clientResources);
+    }
+
+    /**
+     * 池中所有连接共用一个 {@link RedisClient}，启动时预先建立 minIdle 个连接
+     *
+     * @param redisURI        redis地址
+     * @param redisCodec      编解码器
+     * @param poolConfig      同步命令的连接池配置，为空则使用 {@link #defaultPoolConfig()}
+     * @param asyncPoolConfig 异步命令的连接池配置，为空则从 poolConfig 中分出一半的连接数（各至少1个），两个池的连接合计不超过 poolConfig
+     * @param clientResources Netty事件循环与定时器等资源，多个缓存传入同一实例即可共用，由调用方负责关闭；
+     *                        为空则由客户端自行创建并在 {@link #shutdown()} 时关闭
+     */
+    public LettuceCacheAbstract(RedisURI redisURI, RedisCodec<String, ?> redisCodec,
+                                GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> poolConfig, BoundedPoolConfig asyncPoolConfig,
+                                ClientResources clientResources) {
+        this.codec = redisCodec;
+        this.rawCodec = RedisCodec.of(redisCodec, ByteArrayCodec.INSTANCE);
+        this.client = clientResources == null ? RedisClient.create(redisURI) : RedisClient.create(clientResources, redisURI);
+        var config = poolConfig == null ? defaultPoolConfig() : poolConfig;
+        if (asyncPoolConfig == null) {
+            config = config.clone();
+            asyncPoolConfig = splitPoolConfig(config);
+        }
+        var meteredCodec = metered(redisCodec);
+        this.POOL = ConnectionPoolSupport.createGenericObjectPool(() -> client.connect(meteredCodec), config);
+        this.asyncPool = new AsyncConnectionPool<>(AsyncConnectionPoolSupport.createBoundedObjectPool(
+                () -> client.connectAsync(meteredCodec, redisURI).thenApply(c -> (StatefulRedisConnection<String, ?>) c),
+                asyncPoolConfig, false),
+                DEFAULT_ASYNC_ACQUIRE_TIMEOUT);
+        try {
+            POOL.preparePool();
+        } catch (Exception e) {
+            log.warn("Warm up redis connections error!", e);
+        }
+    }
+
+    /**
+     * 设置异步命令等待连接的超时时间，超时的调用以 {@link TimeoutException} 失败
+     *
+     * @param acquireTimeout 超时时间(ms)，小于等于0表示一直等待
+     */
+    public void setAsyncAcquireTimeout(long acquireTimeout) {
+        asyncPool.setAcquireTimeout(acquireTimeout);
+    }
+
+    /**
+     * 限制所有异步命令的在途数量，超出的排队，排队已满或超时以 {@link CacheOverloadException} 失败
+     * <p>
+     * 同步命令不获取许可：调用线程本身在等待结果，并发数已由同步连接池的 maxTotal 限制。
+     * 同步方法内部转为异步执行的命令（超过分块大小的批量读写、开启对冲的读取）仍然受限。
+     * </p>
+     *
+     * @param maxInFlight  最大在途命令数，小于等于0表示取消限制
+     * @param maxQueued    最大排队数，为0时超出即失败
+     * @param queueTimeout 最长排队时间(ms)，小于等于0表示一直等待
+     */
+    public void setInFlightLimit(int maxInFlight, int maxQueued, long queueTimeout) {
+        this.limiter = maxInFlight > 0 ? new InFlightLimiter(CacheMetrics.ANY_NAMESPACE, maxInFlight, maxQueued, queueTimeout) : null;
+    }
+
+    /**
+     * 限制命名空间异步命令的在途数量，先于全局限制获取
+     *
+     * @param namespace 命名空间
+     * @see #setInFlightLimit(int, int, long)
+     */
+    public void setInFlightLimit(String namespace, int maxInFlight, int maxQueued, long queueTimeout) {
+        if (maxInFlight > 0) {
+            limiters.put(namespace, new InFlightLimiter(namespace, maxInFlight, maxQueued, queueTimeout));
+        } else {
+            limiters.remove(namespace);
+        }
+    }
+
+    /**
+     * @return 全局在途命令限制，未设置时为null
+     */
+    public InFlightLimiter getInFlightLimiter() {
+        return limiter;
+    }
+
+    /**
+     * @return 命名空间的在途命令限制，未设置时为null
+     */
+    public InFlightLimiter getInFlightLimiter(String namespace) {
+        return limiters.get(namespace);
+    }
+
+    /**
+     * 设置所有命令的默认截止时间，同步命令超时抛出 {@link io.lettuce.core.RedisCommandTimeoutException}，
+     * 异步命令（包含排队与等待连接的时间）超时以 {@link TimeoutException} 失败
+     *
+     * @param deadline 截止时间(ms)，小于等于0表示不限制（同步命令仍受客户端超时限制）
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = Math.max(0, deadline);
+    }
+
+    /**
+     * 设置命名空间命令的截止时间，优先于默认截止时间
+     *
+     * @param namespace 命名空间
+     * @param deadline  截止时间(ms)，小于0表示取消，使用默认截止时间；为0表示该命名空间不限制
+     * @see #setDeadline(long)
+     */
+    public void setDeadline(String namespace, long deadline) {
+        if (deadline >= 0) {
+            deadlines.put(namespace, deadline);
+        } else {
+            deadlines.remove(namespace);
+        }
+    }
+
+    /**
+     * @return 命名空间生效的截止时间(ms)，0表示不限制
+     */
+    public long getDeadline(String namespace) {
+        return deadlines.getOrDefault(namespace, deadline);
+    }
+
+    /**
+     * 开启命名空间的对冲读取：get/getAll 超过近期p95耗时仍未返回时，从连接池另取一个连接发出相同的读取，先返回的为准。
+     * 开启后同步读取也经由异步命令执行
+     *
+     * @param namespace 命名空间
+     * @param minDelay  最短对冲延迟(ms)，避免p95很小时频繁对冲；为0时在p95样本不足前不对冲
+     * @see HedgePolicy
+     */
+    public void enableHedging(String namespace, long minDelay) {
+        hedges.put(namespace, new HedgePolicy(minDelay));
+    }
+
+    public void disableHedging(String namespace) {
+        hedges.remove(namespace);
+    }
+
+    /**
+     * @return 命名空间的对冲读取策略，未开启时为null
+     */
+    public HedgePolicy getHedgePolicy(String namespace) {
+        return hedges.get(namespace);
+    }
+
+    /**
+     * 为所有命名空间命令设置熔断器，打开期间命令直接以 {@link CacheUnavailableException} 失败。
+     * 因在途命令限制被拒绝的命令不计入熔断统计，异步命令的耗时包含排队与等待连接的时间
+     *
+     * @param circuitBreaker 熔断器，为null时取消
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        if (circuitBreaker != null) {
+            circuitBreaker.addListener((from, to) -> {
+                log.warn("Circuit breaker state changed from {} to {}", from, to);
+                metrics.recordCircuitTransition(from.name(), to.name());
+            });
+        }
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 在本地保留最近读到的值，读取失败（包括熔断器打开）时返回本地副本，批量读取需全部命中本地副本，否则照常失败。
+     * 只作用于 get/getAll（不含哈希分桶命名空间与惰性批量读取），本进程的写入、删除与清空会丢弃对应副本，
+     * 其他进程的写入不会，副本最多比redis旧 {@code maxAge}
+     *
+     * @param maximumSize 最多保留的值数量，小于等于0表示关闭
+     * @param maxAge      副本最长保留时间(ms)
+     * @see MemoryCache
+     */
+    public void setStaleIfError(long maximumSize, long maxAge) {
+        this.staleTtl = maxAge;
+        this.staleCache = maximumSize > 0 ? new MemoryCache(maximumSize) : null;
+    }
+
+    /**
+     * @return 异步命令中排队等待连接的数量
+     */
+    public int getAsyncWaiters() {
+        return asyncPool.waiterCount();
+    }
+
+    /**
+     * JVM内共用的客户端资源，首次调用时创建，JVM退出时关闭
+     *
+     * @return 客户端资源
+     */
+    public static ClientResources sharedClientResources() {
+        ClientResources resources = sharedClientResources;
+        if (resources != null) return resources;
+        synchronized (LettuceCacheAbstract.class) {
+            if (sharedClientResources == null) {
+                ClientResources created = DefaultClientResources.create();
+                Runtime.getRuntime().addShutdownHook(new Thread(created::shutdown, "cache-resources-shutdown"));
+                sharedClientResources = created;
+            }
+            return sharedClientResources;
+        }
     }
 
     protected GenericObjectPoolConfig<StatefulRedisConnection<String, ?>> defaultPoolConfig() {
@@ -75,6 +358,335 @@ public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
         return poolConfig;
     }
 
+    /**
+     * 把同步连接池配置中一半的 maxTotal、maxIdle、minIdle 分给异步连接池，负数（不限制）原样保留
+     *
+     * @param config 同步连接池配置，会被改为剩下的一半
+     * @return 异步连接池配置
+     */
+    static BoundedPoolConfig splitPoolConfig(GenericObjectPoolConfig<?> config) {
+        int maxTotal = config.getMaxTotal() < 0 ? config.getMaxTotal() : Math.max(1, config.getMaxTotal() / 2);
+        int maxIdle  = config.getMaxIdle() < 0 ? config.getMaxIdle() : config.getMaxIdle() / 2;
+        int minIdle  = config.getMinIdle() / 2;
+        if (config.getMaxTotal() >= 0) config.setMaxTotal(Math.max(1, config.getMaxTotal() - maxTotal));
+        if (config.getMaxIdle() >= 0) config.setMaxIdle(config.getMaxIdle() - maxIdle);
+        config.setMinIdle(config.getMinIdle() - minIdle);
+        return BoundedPoolConfig.builder().maxTotal(maxTotal).maxIdle(maxIdle).minIdle(minIdle).build();
+    }
+
+    /**
+     * 连接使用的编解码器，按当前指标记录序列化后的值大小
+     */
+    private <V> RedisCodec<String, V> metered(RedisCodec<String, V> redisCodec) {
+        return new MeteredCodec<>(redisCodec, this::getMetrics);
+    }
+
+    @Override
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置指标记录器，如 {@link io.github.kurenairyu.cache.metrics.StripedCacheMetrics}
+     *
+     * @param metrics 指标记录器，为空则不记录
+     */
+    public void setMetrics(CacheMetrics metrics) {
+        this.metrics = metrics == null ? CacheMetrics.NOOP : metrics;
+    }
+
+    public HotKeyDetector getHotKeyDetector() {
+        return hotKeyDetector;
+    }
+
+    /**
+     * 设置热点key探测，热点key的值会短暂保存在本地
+     *
+     * @param hotKeyDetector 热点key探测，为空则关闭
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    public WriteBehindBuffer getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * 设置写回缓冲，启用的命名空间写入先在本地合并，再批量写入redis，只能设置一次。
+     * 缓冲已满时写入（包括异步写入）会在调用线程上同步写回
+     *
+     * @param writeBehind 写回缓冲
+     */
+    public synchronized void setWriteBehind(WriteBehindBuffer writeBehind) {
+        if (this.writeBehind != null) throw new IllegalStateException("Write-behind buffer already set");
+        writeBehind.start(this::writePending);
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * @param namespace 命名空间
+     * @return 该命名空间启用的写回缓冲，未启用返回null
+     */
+    protected WriteBehindBuffer writeBehind(String namespace) {
+        WriteBehindBuffer buffer = writeBehind;
+        return buffer != null && buffer.isBuffered(namespace) ? buffer : null;
+    }
+
+    /**
+     * 在一个连接上流水线写回一批写入，不过期的合并为一条MSET，其余用PSETEX，写回前已过期的直接删除。
+     * 熔断器打开时以 {@link CacheUnavailableException} 失败，该批写入保留在缓冲中等待关闭后写回
+     *
+     * @param writes 写入
+     */
+    protected void writePending(List<PendingWrite> writes) {
+        var plain    = new ArrayList<PendingWrite>(writes.size());
+        var bucketed = new ArrayList<PendingWrite>();
+        for (PendingWrite write : writes) {
+            (hashBuckets.containsKey(write.namespace()) ? bucketed : plain).add(write);
+        }
+        if (!bucketed.isEmpty()) {
+            execBucketed(CacheMetrics.ANY_NAMESPACE, CacheOperation.PUT_ALL, cmd -> {
+                var  futures = new ArrayList<CompletableFuture<?>>(bucketed.size());
+                long now     = System.currentTimeMillis();
+                for (PendingWrite write : bucketed) {
+                    HashBuckets buckets = hashBuckets.get(write.namespace());
+                    String      field   = buckets.fieldOf(write.key());
+                    if (write.expiresAt() <= 0 || write.expiresAt() > now) {
+                        futures.add(buckets.put(cmd, field, write.value(), write.expiresAt() <= 0 ? 0 : write.expiresAt() - now));
+                    } else {
+                        futures.add(buckets.remove(cmd, List.of(field)));
+                    }
+                }
+                return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+            });
+        }
+        if (plain.isEmpty()) return;
+        execPipelined(CacheMetrics.ANY_NAMESPACE, CacheOperation.PUT_ALL, cmd -> {
+            var  futures = new ArrayList<RedisFuture<?>>();
+            var  map     = new HashMap<String, Object>();
+            long now     = System.currentTimeMillis();
+            for (PendingWrite write : plain) {
+                if (write.expiresAt() <= 0) {
+                    map.put(write.key(), write.value());
+                } else if (write.expiresAt() > now) {
+                    futures.add(cmd.psetex(write.key(), write.expiresAt() - now, write.value()));
+                } else {
+                    futures.add(cmd.del(write.key()));
+                }
+            }
+            if (!map.isEmpty()) futures.add(cmd.mset(map));
+            return futures;
+        });
+    }
+
+    /**
+     * 在一个连接上流水线写入回源结果，每条为 SET NX [PX]，不覆盖期间已被写入的值。
+     * 熔断器打开时跳过写入，回源结果照常返回给调用方
+     *
+     * @param namespace 命名空间
+     * @param writes    写入
+     */
+    protected void writeLoaded(String namespace, List<PendingWrite> writes) {
+        if (writes.isEmpty()) return;
+        try {
+            doWriteLoaded(namespace, writes);
+        } catch (CacheUnavailableException e) {
+            log.debug("Skip writing {} loaded values of namespace [{}]: {}", writes.size(), namespace, e.getMessage());
+        }
+    }
+
+    private void doWriteLoaded(String namespace, List<PendingWrite> writes) {
+        HashBuckets buckets = hashBuckets.get(namespace);
+        if (buckets != null) {
+            execBucketed(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> {
+                var  futures = new ArrayList<CompletableFuture<?>>(writes.size());
+                long now     = System.currentTimeMillis();
+                for (PendingWrite write : writes) {
+                    if (write.expiresAt() <= 0 || write.expiresAt() > now) {
+                        futures.add(buckets.putIfAbsent(cmd, buckets.fieldOf(write.key()), write.value(), write.expiresAt() <= 0 ? 0 : write.expiresAt() - now));
+                    }
+                }
+                return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+            });
+            return;
+        }
+        execPipelined(namespace, CacheOperation.PUT_ALL_IF_ABSENT, cmd -> {
+            var  futures = new ArrayList<RedisFuture<?>>(writes.size());
+            long now     = System.currentTimeMillis();
+            for (PendingWrite write : writes) {
+                if (write.expiresAt() <= 0) {
+                    futures.add(cmd.set(write.key(), write.value(), SetArgs.Builder.nx()));
+                } else if (write.expiresAt() > now) {
+                    futures.add(cmd.set(write.key(), write.value(), SetArgs.Builder.nx().px(write.expiresAt() - now)));
+                }
+            }
+            return futures;
+        });
+    }
+
+    /**
+     * 在一个连接上执行hash分桶存储的命令并等待结果
+     *
+     * @param namespace 命名空间
+     * @param operation 操作类型
+     * @param function  执行命令方法
+     * @return 执行方法返回值
+     */
+    protected <R> R execBucketed(String namespace, CacheOperation operation, Function<RedisAsyncCommands<String, Object>, CompletableFuture<R>> function) {
+        return this.<Object, R>execCmd(namespace, operation, cmd -> {
+            StatefulRedisConnection<String, Object> connection = cmd.getStatefulConnection();
+            try {
+                return function.apply(connection.async()).get(connection.getTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * 在一个连接上流水线执行命令，所有命令发送后一次性flush并等待全部完成，与 {@link #execCmd(String, CacheOperation, Function)} 一样经过熔断器
+     *
+     * @param namespace 命名空间
+     * @param operation 操作类型
+     * @param function  发送命令方法，返回各命令的结果
+     */
+    protected void execPipelined(String namespace, CacheOperation operation, Function<RedisAsyncCommands<String, Object>, List<RedisFuture<?>>> function) {
+        CircuitBreaker       breaker  = circuitBreaker;
+        CircuitBreaker.Phase admitted = breaker != null ? breaker.tryAcquire() : null;
+        if (breaker != null && admitted == null) throw circuitOpen();
+        long    start   = System.nanoTime();
+        boolean success = false;
+        try {
+            StatefulRedisConnection<String, Object> connection = connect();
+            try {
+                connection.setAutoFlushCommands(false);
+                List<RedisFuture<?>> futures = function.apply(connection.async());
+                connection.flushCommands();
+                if (!LettuceFutures.awaitAll(connection.getTimeout(), futures.toArray(new RedisFuture<?>[0]))) {
+                    throw new RuntimeException("Execute pipelined commands timeout");
+                }
+                success = true;
+            } finally {
+                connection.setAutoFlushCommands(true);
+                POOL.returnObject(connection);
+            }
+        } finally {
+            long nanos = System.nanoTime() - start;
+            metrics.recordLatency(namespace, operation, nanos);
+            if (breaker != null) breaker.onResult(admitted, nanos, !success);
+        }
+    }
+
+    /**
+     * 注册回源加载器，注册后该命名空间未命中的 get/getAll 会通过加载器读取并写回缓存，不存在的key短时间缓存空值
+     *
+     * @param namespace 命名空间
+     * @param loader    加载器
+     * @param ttl       加载结果的存活时间(ms)，小于等于0则不过期
+     */
+    public <K, V> void registerLoader(String namespace, CacheLoader<K, V> loader, long ttl) {
+        loaders.put(namespace, new LoaderBinding(loader, ttl));
+    }
+
+    public void removeLoader(String namespace) {
+        loaders.remove(namespace);
+    }
+
+    /**
+     * 注册写穿写入器，注册后该命名空间的 put/putAll/remove/removeAll 会先同步到写入器
+     *
+     * @param namespace 命名空间
+     * @param writer    写入器
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> void registerWriter(String namespace, CacheWriter<K, V> writer) {
+        writers.put(namespace, (CacheWriter<Object, Object>) writer);
+    }
+
+    public void removeWriter(String namespace) {
+        writers.remove(namespace);
+    }
+
+    /**
+     * 设置批量回源与异步写穿使用的线程池，未设置时使用内部线程池
+     *
+     * @param executor 线程池
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param loadBatchSize 批量回源时每次调用加载器的最大key数量，超出时分块并行加载
+     */
+    public void setLoadBatchSize(int loadBatchSize) {
+        if (loadBatchSize <= 0) throw new IllegalArgumentException("loadBatchSize must be greater than 0");
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * 设置解码线程池。设置后GET/MGET由连接返回原始字节，不再在Netty I/O线程上反序列化：
+     * 同步调用在调用线程解码，异步调用在该线程池解码，超过 {@link #setDecodeChunkSize(int)} 的批量结果分块并行解码。
+     * hash分桶的命名空间与响应式接口不受影响
+     *
+     * @param decodeExecutor 解码线程池，为空则在I/O线程解码
+     */
+    public void setDecodeExecutor(Executor decodeExecutor) {
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    /**
+     * @param decodeChunkSize 批量结果每块解码的值数量
+     */
+    public void setDecodeChunkSize(int decodeChunkSize) {
+        if (decodeChunkSize <= 0) throw new IllegalArgumentException("decodeChunkSize must be greater than 0");
+        this.decodeChunk = decodeChunkSize;
+    }
+
+    /**
+     * 设置批量读写的分块。超过分块大小的MGET/MSET拆分为多个命令，经异步连接池在多个连接上并行执行后合并结果，
+     * 分块大小根据观测到的单key耗时与返回值大小在 [minChunkSize, maxChunkSize] 内调整。分块后的MSET不再是原子的
+     *
+     * @param minChunkSize      最小分块，与 maxChunkSize 相同时为固定分块
+     * @param maxChunkSize      最大分块
+     * @param targetChunkMillis 每块的目标耗时(ms)
+     * @param targetChunkBytes  每块返回值的目标大小(byte)
+     * @param parallelism       同时执行的分块数
+     */
+    public void setBulkChunking(int minChunkSize, int maxChunkSize, long targetChunkMillis, long targetChunkBytes, int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be greater than 0");
+        this.chunkSizer = new AdaptiveChunkSizer(minChunkSize, maxChunkSize, TimeUnit.MILLISECONDS.toNanos(targetChunkMillis), targetChunkBytes);
+        this.chunkParallel = parallelism;
+    }
+
+    /**
+     * @return 当前的批量读写分块大小
+     */
+    public int getBulkChunkSize() {
+        return chunkSizer.chunkSize();
+    }
+
+    protected Executor executor() {
+        Executor executor = this.executor;
+        if (executor != null) return executor;
+        synchronized (this) {
+            if (this.executor == null) {
+                int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+                ownedExecutor = Executors.newFixedThreadPool(threads, r -> {
+                    Thread thread = new Thread(r, "cache-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                this.executor = ownedExecutor;
+            }
+            return this.executor;
+        }
+    }
+
     /**
      * 从连接池获取一个连接
      *
@@ -84,13 +696,575 @@ public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
 
     @SuppressWarnings("unchecked")
     protected <V> StatefulRedisConnection<String, V> connect() {
+        long start = System.nanoTime();
         try {
             return (StatefulRedisConnection<String, V>) POOL.borrowObject();
         } catch (Exception e) {
             throw new RuntimeException("Borrow connection fail", e);
+        } finally {
+            metrics.recordPoolWait(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 执行同步命令并记录耗时
+     *
+     * @param namespace 命名空间
+     * @param operation 操作类型
+     * @param function  执行命令方法
+     * @return 执行方法返回值
+     */
+    protected <V, R> R execCmd(String namespace, CacheOperation operation, Function<RedisCommands<String, V>, R> function) {
+        CircuitBreaker       breaker  = circuitBreaker;
+        CircuitBreaker.Phase admitted = breaker != null ? breaker.tryAcquire() : null;
+        if (breaker != null && admitted == null) throw circuitOpen();
+        long    start   = System.nanoTime();
+        boolean success = false;
+        try {
+            R result = execCmd(function, getDeadline(namespace));
+            success = true;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            metrics.recordLatency(namespace, operation, nanos);
+            if (breaker != null) breaker.onResult(admitted, nanos, !success);
+        }
+    }
+
+    /**
+     * 执行异步命令并记录耗时
+     *
+     * @param namespace 命名空间
+     * @param operation 操作类型
+     * @param function  执行命令方法
+     * @return 执行方法返回值
+     */
+    protected <V, R> CompletableFuture<R> execAsyncCmd(String namespace, CacheOperation operation, Function<RedisAsyncCommands<String, V>, CompletionStage<R>> function) {
+        CircuitBreaker       breaker  = circuitBreaker;
+        CircuitBreaker.Phase admitted = breaker != null ? breaker.tryAcquire() : null;
+        if (breaker != null && admitted == null) return CompletableFuture.failedFuture(circuitOpen());
+        long                 start  = System.nanoTime();
+        CompletableFuture<R> future = withDeadline(namespace, throttled(namespace, limiters.get(namespace), () -> throttled(namespace, limiter, () -> {
+            long commandStart = System.nanoTime();
+            return this.<V, R>execAsyncCmd(function)
+                    .whenComplete((r, e) -> metrics.recordLatency(namespace, operation, System.nanoTime() - commandStart));
+        })));
+        if (breaker == null) return future;
+        return future.whenComplete((r, e) -> {
+            if (unwrap(e) instanceof CacheOverloadException) {
+                breaker.onIgnored(admitted);
+            } else {
+                breaker.onResult(admitted, System.nanoTime() - start, e != null);
+            }
+        });
+    }
+
+    private static CacheUnavailableException circuitOpen() {
+        return new CacheUnavailableException("Circuit breaker is open, redis command rejected");
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * 超过命名空间截止时间未完成时以 {@link TimeoutException} 失败，命令本身不取消，完成后照常归还连接与许可
+     */
+    private <R> CompletableFuture<R> withDeadline(String namespace, CompletableFuture<R> future) {
+        long timeout = getDeadline(namespace);
+        return timeout > 0 ? future.orTimeout(timeout, TimeUnit.MILLISECONDS) : future;
+    }
+
+    /**
+     * 未开启对冲时直接读取；开启时读取超过对冲延迟仍未返回则再发出一次相同的读取，先成功的为准，全部失败时才失败
+     *
+     * @param namespace 命名空间
+     * @param bulk      是否批量读取
+     * @param read      发出一次读取，每次调用各自获取连接
+     */
+    private <R> CompletableFuture<R> hedged(String namespace, boolean bulk, Supplier<CompletableFuture<R>> read) {
+        HedgePolicy policy = hedges.get(namespace);
+        if (policy == null) return read.get();
+        CompletableFuture<R> result  = new CompletableFuture<>();
+        AtomicInteger        pending = new AtomicInteger(1);
+        AtomicBoolean        settled = new AtomicBoolean();
+        long                 start   = System.nanoTime();
+        long                 delay   = policy.delay(bulk);
+        read.get().whenComplete((r, e) -> {
+            if (e == null) {
+                policy.record(bulk, System.nanoTime() - start);
+                if (settled.compareAndSet(false, true)) result.complete(r);
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(e);
+            }
+        });
+        if (delay >= 0) {
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone() || pending.getAndIncrement() == 0) return;
+                policy.onHedge();
+                read.get().whenComplete((r, e) -> {
+                    if (e == null) {
+                        //先计数再完成，调用方拿到结果时统计已经可见
+                        if (settled.compareAndSet(false, true)) {
+                            policy.onHedgeWin();
+                            result.complete(r);
+                        }
+                    } else if (pending.decrementAndGet() == 0) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            });
         }
+        return withDeadline(namespace, result);
     }
 
+    /**
+     * 获得许可后执行命令，命令结束时释放许可；需要排队或被拒绝时记录到指标
+     */
+    private <R> CompletableFuture<R> throttled(String namespace, InFlightLimiter limiter, Supplier<CompletableFuture<R>> command) {
+        if (limiter == null) return command.get();
+        long                    start   = System.nanoTime();
+        CompletableFuture<Void> permit  = limiter.acquire();
+        boolean                 delayed = !permit.isDone();
+        return permit.handle((r, e) -> {
+            if (delayed || e != null) metrics.recordThrottle(namespace, System.nanoTime() - start, e != null);
+            if (e != null) return CompletableFuture.<R>failedFuture(e);
+            try {
+                return command.get().whenComplete((result, ex) -> limiter.release());
+            } catch (RuntimeException ex) {
+                limiter.release();
+                throw ex;
+            }
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * 包装回源方法，记录回源次数与耗时
+     *
+     * @param namespace 命名空间
+     * @param func      回源方法
+     * @return 包装后的方法
+     */
+    protected <T, R> Function<T, R> meteredLoader(String namespace, Function<T, R> func) {
+        return t -> {
+            long    start   = System.nanoTime();
+            boolean success = false;
+            try {
+                R result = func.apply(t);
+                success = true;
+                return result;
+            } finally {
+                metrics.recordLoad(namespace, System.nanoTime() - start, success);
+            }
+        };
+    }
+
+    /**
+     * 读取单个值，设置了解码线程池时在调用线程解码
+     *
+     * @param namespace 命名空间
+     * @param redisKey  redis键值
+     * @return 缓存值，不存在时为null
+     */
+    protected Object getValue(String namespace, String redisKey) {
+        MemoryCache stale = staleCache;
+        if (stale == null) return readValue(namespace, redisKey);
+        Object value;
+        try {
+            value = readValue(namespace, redisKey);
+        } catch (RuntimeException e) {
+            return staleValue(stale, namespace, redisKey, e);
+        }
+        keepStale(stale, namespace, redisKey, value);
+        return value;
+    }
+
+    /**
+     * 异步读取单个值，设置了解码线程池时在该线程池解码
+     *
+     * @see #getValue(String, String)
+     */
+    protected CompletableFuture<Object> getValueAsync(String namespace, String redisKey) {
+        MemoryCache stale = staleCache;
+        if (stale == null) return readValueAsync(namespace, redisKey);
+        return readValueAsync(namespace, redisKey).handle((value, e) -> {
+            if (e != null) return staleValue(stale, namespace, redisKey, e);
+            keepStale(stale, namespace, redisKey, value);
+            return value;
+        });
+    }
+
+    /**
+     * 批量读取值，设置了解码线程池时在调用线程与解码线程池上分块并行解码。超过分块大小时拆分为多个MGET并行执行
+     *
+     * @param namespace 命名空间
+     * @param redisKeys redis键值
+     * @return 与key顺序一致的值，不存在的为null
+     * @see #setBulkChunking(int, int, long, long, int)
+     */
+    protected List<Object> getValues(String namespace, String[] redisKeys) {
+        MemoryCache stale = staleCache;
+        if (stale == null) return readValues(namespace, redisKeys);
+        List<Object> values;
+        try {
+            values = readValues(namespace, redisKeys);
+        } catch (RuntimeException e) {
+            return staleValues(stale, namespace, redisKeys, e);
+        }
+        keepStale(stale, namespace, redisKeys, values);
+        return values;
+    }
+
+    /**
+     * 异步批量读取值，设置了解码线程池时全部在该线程池上分块并行解码
+     *
+     * @see #getValues(String, String[])
+     */
+    protected CompletableFuture<List<Object>> getValuesAsync(String namespace, String[] redisKeys) {
+        MemoryCache stale = staleCache;
+        if (stale == null) return readValuesAsync(namespace, redisKeys);
+        return readValuesAsync(namespace, redisKeys).handle((values, e) -> {
+            if (e != null) return staleValues(stale, namespace, redisKeys, e);
+            keepStale(stale, namespace, redisKeys, values);
+            return values;
+        });
+    }
+
+    private Object readValue(String namespace, String redisKey) {
+        if (hedges.containsKey(namespace)) return join(readValueAsync(namespace, redisKey));
+        if (decodeExecutor == null) return this.<Object, Object>execCmd(namespace, CacheOperation.GET, cmd -> cmd.get(redisKey));
+        return decode(getRawValue(namespace, redisKey));
+    }
+
+    private CompletableFuture<Object> readValueAsync(String namespace, String redisKey) {
+        Executor decoder = decodeExecutor;
+        if (decoder == null) return hedged(namespace, false, () -> this.<Object, Object>execAsyncCmd(namespace, CacheOperation.GET, cmd -> cmd.get(redisKey)));
+        return getRawValueAsync(namespace, redisKey).thenApplyAsync(this::decode, decoder);
+    }
+
+    private List<Object> readValues(String namespace, String[] redisKeys) {
+        if (redisKeys.length > chunkSizer.chunkSize() || hedges.containsKey(namespace)) return join(readValuesAsync(namespace, redisKeys));
+        if (decodeExecutor != null) return decodeAll(getRawValues(namespace, redisKeys));
+        long         start  = System.nanoTime();
+        List<Object> values = this.<Object, List<Object>>execCmd(namespace, CacheOperation.GET_ALL, cmd -> values(cmd.mget(redisKeys)));
+        chunkSizer.record(redisKeys.length, System.nanoTime() - start, -1);
+        return values;
+    }
+
+    private CompletableFuture<List<Object>> readValuesAsync(String namespace, String[] redisKeys) {
+        return chunked(redisKeys, chunk -> {
+            if (decodeExecutor != null) return mgetRawAsync(namespace, chunk).thenCompose(this::decodeAllAsync);
+            long start = System.nanoTime();
+            return hedged(namespace, true, () -> this.<Object, List<Object>>execAsyncCmd(namespace, CacheOperation.GET_ALL,
+                            cmd -> cmd.mget(chunk).thenApply(LettuceCacheAbstract::values)))
+                    .whenComplete((values, e) -> {
+                        if (e == null) chunkSizer.record(chunk.length, System.nanoTime() - start, -1);
+                    });
+        });
+    }
+
+    private void keepStale(MemoryCache stale, String namespace, String redisKey, Object value) {
+        if (value != null) {
+            stale.put(namespace, redisKey, value, staleTtl);
+        } else {
+            stale.remove(namespace, redisKey);
+        }
+    }
+
+    private void keepStale(MemoryCache stale, String namespace, String[] redisKeys, List<Object> values) {
+        for (int i = 0; i < redisKeys.length; i++) {
+            keepStale(stale, namespace, redisKeys[i], values.get(i));
+        }
+    }
+
+    /**
+     * @return 本地副本，没有时抛出读取时的异常
+     */
+    private Object staleValue(MemoryCache stale, String namespace, String redisKey, Throwable error) {
+        Object value = stale.get(namespace, redisKey);
+        if (value == null) throw rethrow(error);
+        log.debug("Serve stale value of [{}] for redis error: {}", redisKey, unwrap(error).toString());
+        return value;
+    }
+
+    private List<Object> staleValues(MemoryCache stale, String namespace, String[] redisKeys, Throwable error) {
+        Map<String, Object> found = stale.getAll(namespace, Arrays.asList(redisKeys));
+        if (found.size() < new HashSet<>(Arrays.asList(redisKeys)).size()) throw rethrow(error);
+        log.debug("Serve {} stale values for redis error: {}", redisKeys.length, unwrap(error).toString());
+        var values = new ArrayList<Object>(redisKeys.length);
+        for (String redisKey : redisKeys) {
+            values.add(found.get(redisKey));
+        }
+        return values;
+    }
+
+    private static RuntimeException rethrow(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+    }
+
+    /**
+     * 读取未解码的值
+     *
+     * @param namespace 命名空间
+     * @param redisKey  redis键值
+     * @return 原始字节，不存在返回null
+     */
+    protected byte[] getRawValue(String namespace, String redisKey) {
+        if (hedges.containsKey(namespace)) return join(getRawValueAsync(namespace, redisKey));
+        return this.<byte[], byte[]>execCmd(namespace, CacheOperation.GET, cmd -> cmd.dispatch(CommandType.GET, new ByteArrayOutput<>(rawCodec), rawArgs(redisKey)));
+    }
+
+    /**
+     * @see #getRawValue(String, String)
+     */
+    protected CompletableFuture<byte[]> getRawValueAsync(String namespace, String redisKey) {
+        return hedged(namespace, false, () -> this.<byte[], byte[]>execAsyncCmd(namespace, CacheOperation.GET,
+                cmd -> cmd.dispatch(CommandType.GET, new ByteArrayOutput<>(rawCodec), rawArgs(redisKey))));
+    }
+
+    /**
+     * 写入未编码的值，字节数组原样写入而不经过缓存的编解码器
+     *
+     * @param namespace 命名空间
+     * @param redisKey  redis键值
+     * @param value     原始字节
+     * @param ttl       time to live (ms)，小于等于0表示永不过期
+     */
+    protected void setRawValue(String namespace, String redisKey, byte[] value, long ttl) {
+        this.<byte[], String>execCmd(namespace, CacheOperation.PUT,
+                cmd -> cmd.dispatch(CommandType.SET, new StatusOutput<>(rawCodec), rawSetArgs(redisKey, value, ttl, false)));
+    }
+
+    /**
+     * @see #setRawValue(String, String, byte[], long)
+     */
+    protected CompletableFuture<String> setRawValueAsync(String namespace, String redisKey, byte[] value, long ttl) {
+        return this.<byte[], String>execAsyncCmd(namespace, CacheOperation.PUT,
+                cmd -> cmd.dispatch(CommandType.SET, new StatusOutput<>(rawCodec), rawSetArgs(redisKey, value, ttl, false)));
+    }
+
+    /**
+     * 不存在时写入未编码的值，用一条SET NX PX完成
+     *
+     * @return 是否写入
+     * @see #setRawValue(String, String, byte[], long)
+     */
+    protected boolean setRawValueIfAbsent(String namespace, String redisKey, byte[] value, long ttl) {
+        return "OK".equals(this.<byte[], String>execCmd(namespace, CacheOperation.PUT_IF_ABSENT,
+                cmd -> cmd.dispatch(CommandType.SET, new StatusOutput<>(rawCodec), rawSetArgs(redisKey, value, ttl, true))));
+    }
+
+    /**
+     * 用一条MSET批量写入未编码的值，永不过期
+     *
+     * @param namespace 命名空间
+     * @param values    redis键值与原始字节
+     */
+    protected void setRawValues(String namespace, Map<String, byte[]> values) {
+        var args = new CommandArgs<>(rawCodec);
+        values.forEach((redisKey, value) -> args.addKey(redisKey).addValue(value));
+        this.<byte[], String>execCmd(namespace, CacheOperation.PUT_ALL, cmd -> cmd.dispatch(CommandType.MSET, new StatusOutput<>(rawCodec), args));
+    }
+
+    /**
+     * 批量读取未解码的值
+     *
+     * @param namespace 命名空间
+     * @param redisKeys redis键值
+     * @return 与key顺序一致的原始字节，不存在的为null
+     * @see #getValues(String, String[])
+     */
+    protected List<byte[]> getRawValues(String namespace, String[] redisKeys) {
+        if (redisKeys.length > chunkSizer.chunkSize() || hedges.containsKey(namespace)) return join(getRawValuesAsync(namespace, redisKeys));
+        long         start = System.nanoTime();
+        List<byte[]> raw   = this.<byte[], List<byte[]>>execCmd(namespace, CacheOperation.GET_ALL,
+                cmd -> cmd.dispatch(CommandType.MGET, new ValueListOutput<>(rawCodec), rawArgs(redisKeys)));
+        chunkSizer.record(redisKeys.length, System.nanoTime() - start, sizeOf(raw));
+        return raw;
+    }
+
+    /**
+     * @see #getRawValues(String, String[])
+     */
+    protected CompletableFuture<List<byte[]>> getRawValuesAsync(String namespace, String[] redisKeys) {
+        return chunked(redisKeys, chunk -> mgetRawAsync(namespace, chunk));
+    }
+
+    /**
+     * 批量写入，超过分块大小时拆分为多个MSET并行执行
+     *
+     * @param namespace 命名空间
+     * @param values    redis键值与缓存对象
+     * @see #setBulkChunking(int, int, long, long, int)
+     */
+    protected void setValues(String namespace, Map<String, Object> values) {
+        if (values.size() > chunkSizer.chunkSize()) {
+            join(setValuesAsync(namespace, values));
+            return;
+        }
+        long start = System.nanoTime();
+        this.<Object, String>execCmd(namespace, CacheOperation.PUT_ALL, cmd -> cmd.mset(values));
+        chunkSizer.record(values.size(), System.nanoTime() - start, -1);
+    }
+
+    /**
+     * @see #setValues(String, Map)
+     */
+    protected CompletableFuture<String> setValuesAsync(String namespace, Map<String, Object> values) {
+        String[] redisKeys = values.keySet().toArray(new String[0]);
+        return chunked(redisKeys, chunk -> {
+            var part = new HashMap<String, Object>(chunk.length * 2);
+            for (String redisKey : chunk) {
+                part.put(redisKey, values.get(redisKey));
+            }
+            long start = System.nanoTime();
+            return this.<Object, String>execAsyncCmd(namespace, CacheOperation.PUT_ALL, cmd -> cmd.mset(part))
+                    .thenApply(r -> {
+                        chunkSizer.record(chunk.length, System.nanoTime() - start, -1);
+                        return List.of(r);
+                    });
+        }).thenApply(r -> "OK");
+    }
+
+    private CompletableFuture<List<byte[]>> mgetRawAsync(String namespace, String[] redisKeys) {
+        long start = System.nanoTime();
+        return hedged(namespace, true, () -> this.<byte[], List<byte[]>>execAsyncCmd(namespace, CacheOperation.GET_ALL,
+                        cmd -> cmd.dispatch(CommandType.MGET, new ValueListOutput<>(rawCodec), rawArgs(redisKeys))))
+                .whenComplete((raw, e) -> {
+                    if (e == null) chunkSizer.record(redisKeys.length, System.nanoTime() - start, sizeOf(raw));
+                });
+    }
+
+    /**
+     * 按当前分块大小拆分，最多 {@code chunkParallel} 个分块同时执行，结果按key顺序合并
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<List<T>> chunked(String[] redisKeys, Function<String[], CompletableFuture<List<T>>> function) {
+        int chunk = chunkSizer.chunkSize();
+        if (redisKeys.length <= chunk) return function.apply(redisKeys);
+        var chunks = new ArrayList<String[]>(redisKeys.length / chunk + 1);
+        for (int from = 0; from < redisKeys.length; from += chunk) {
+            chunks.add(Arrays.copyOfRange(redisKeys, from, Math.min(from + chunk, redisKeys.length)));
+        }
+        Object[]      results = new Object[chunks.size()];
+        AtomicInteger next    = new AtomicInteger();
+        var           workers = new CompletableFuture<?>[Math.min(chunkParallel, chunks.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = runChunks(chunks, function, results, next);
+        }
+        return CompletableFuture.allOf(workers).thenApply(r -> {
+            var merged = new ArrayList<T>(redisKeys.length);
+            for (Object result : results) {
+                merged.addAll((List<T>) result);
+            }
+            return merged;
+        });
+    }
+
+    private <T> CompletableFuture<Void> runChunks(List<String[]> chunks, Function<String[], CompletableFuture<List<T>>> function,
+                                                  Object[] results, AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= chunks.size()) return CompletableFuture.completedFuture(null);
+        return function.apply(chunks.get(index)).thenCompose(result -> {
+            results[index] = result;
+            return runChunks(chunks, function, results, next);
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private static long sizeOf(List<byte[]> raw) {
+        long size = 0;
+        for (byte[] bytes : raw) {
+            if (bytes != null) size += bytes.length;
+        }
+        return size;
+    }
+
+    /**
+     * 比较序列化后的字节判断是否为回源空值标记，不需要解码
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean isNullMarker(byte[] bytes) {
+        byte[] marker = nullMarker;
+        if (marker == null) {
+            ByteBuffer buffer = ((RedisCodec<String, Object>) codec).encodeValue(NullValue.INSTANCE);
+            marker = new byte[buffer.remaining()];
+            buffer.get(marker);
+            nullMarker = marker;
+        }
+        return Arrays.equals(marker, bytes);
+    }
+
+    private Object decode(byte[] bytes) {
+        if (bytes == null) return null;
+        metrics.recordPayload(CacheMetrics.ANY_NAMESPACE, bytes.length);
+        return codec.decodeValue(ByteBuffer.wrap(bytes));
+    }
+
+    private List<Object> decodeAll(List<byte[]> raw) {
+        int      chunk   = decodeChunk;
+        Object[] decoded = new Object[raw.size()];
+        var      futures = new ArrayList<CompletableFuture<Void>>();
+        for (int from = chunk; from < raw.size(); from += chunk) {
+            int start = from;
+            futures.add(CompletableFuture.runAsync(() -> decodeRange(raw, decoded, start, start + chunk), decodeExecutor));
+        }
+        decodeRange(raw, decoded, 0, chunk);
+        join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+        return Arrays.asList(decoded);
+    }
+
+    private CompletableFuture<List<Object>> decodeAllAsync(List<byte[]> raw) {
+        int      chunk   = decodeChunk;
+        Object[] decoded = new Object[raw.size()];
+        var      futures = new ArrayList<CompletableFuture<Void>>();
+        for (int from = 0; from < raw.size(); from += chunk) {
+            int start = from;
+            futures.add(CompletableFuture.runAsync(() -> decodeRange(raw, decoded, start, start + chunk), decodeExecutor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(r -> Arrays.asList(decoded));
+    }
+
+    private void decodeRange(List<byte[]> raw, Object[] decoded, int from, int to) {
+        for (int i = from; i < Math.min(to, raw.size()); i++) {
+            decoded[i] = decode(raw.get(i));
+        }
+    }
+
+    private static List<Object> values(List<KeyValue<String, Object>> kvList) {
+        var values = new ArrayList<>(kvList.size());
+        kvList.forEach(kv -> values.add(kv.hasValue() ? kv.getValue() : null));
+        return values;
+    }
+
+    /**
+     * key使用缓存的编解码器编码，与普通命令一致；值按原始字节返回
+     */
+    private CommandArgs<String, byte[]> rawArgs(String... redisKeys) {
+        var args = new CommandArgs<>(rawCodec);
+        for (String redisKey : redisKeys) {
+            args.addKey(redisKey);
+        }
+        return args;
+    }
+
+    private CommandArgs<String, byte[]> rawSetArgs(String redisKey, byte[] value, long ttl, boolean ifAbsent) {
+        var args = rawArgs(redisKey).addValue(value);
+        if (ifAbsent) args.add("NX");
+        if (ttl > 0) args.add("PX").add(ttl);
+        return args;
+    }
+
+
     /**
      * 执行同步命令
      *
@@ -98,13 +1272,30 @@ public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
      * @return 执行方法返回值
      */
     protected <V, R> R execCmd(Function<RedisCommands<String, V>, R> function) {
+        return execCmd(function, 0);
+    }
+
+    /**
+     * 执行同步命令，截止时间大于0时临时替换连接的命令超时，归还连接前恢复
+     *
+     * @param function 执行命令方法
+     * @param deadline 截止时间(ms)
+     * @return 执行方法返回值
+     */
+    private <V, R> R execCmd(Function<RedisCommands<String, V>, R> function, long deadline) {
         StatefulRedisConnection<String, V> connection = connect();
+        Duration                           timeout    = null;
         try {
+            if (deadline > 0) {
+                timeout = connection.getTimeout();
+                connection.setTimeout(Duration.ofMillis(deadline));
+            }
             return function.apply(connection.sync());
         } catch (Exception e) {
             log.error("Execute sync command error!", e);
             throw new RuntimeException("Execute sync command error!", e);
         } finally {
+            if (timeout != null) connection.setTimeout(timeout);
             if (connection != null) POOL.returnObject(connection);
         }
     }
@@ -117,19 +1308,257 @@ public abstract class LettuceCacheAbstract extends RedisCacheAbstract {
      */
     @SuppressWarnings("unchecked")
     protected <V, R> CompletableFuture<R> execAsyncCmd(Function<RedisAsyncCommands<String, V>, CompletionStage<R>> function) {
-        StatefulRedisConnection<String, V> connection = connect();
-        return (CompletableFuture<R>) function.apply(connection.async()).handle((r, e) -> {
-            POOL.returnObject(connection);
-            if (e == null) {
-                return CompletableFuture.completedFuture(r);
-            } else {
-                log.error("Execute sync command error!", e);
+        long start = System.nanoTime();
+        return asyncPool.acquire().thenCompose(c -> {
+            metrics.recordPoolWait(System.nanoTime() - start);
+            var                connection = (StatefulRedisConnection<String, V>) c;
+            CompletionStage<R> stage;
+            try {
+                stage = function.apply(connection.async());
+            } catch (Exception e) {
+                asyncPool.release(connection);
+                log.error("Execute async command error!", e);
                 return CompletableFuture.failedFuture(e);
             }
-        }).thenCompose(f -> f);
+            return stage.handle((r, e) -> {
+                asyncPool.release(connection);
+                if (e == null) {
+                    return CompletableFuture.completedFuture(r);
+                } else {
+                    log.error("Execute async command error!", e);
+                    return CompletableFuture.<R>failedFuture(e);
+                }
+            }).thenCompose(f -> f);
+        });
+    }
+
+    /**
+     * 响应式视图，与当前缓存共用客户端、编解码器与监控
+     *
+     * @return 使用默认批大小的 {@link LettuceReactiveCache}
+     */
+    public synchronized ReactiveCache reactive() {
+        if (reactive == null) reactive = new LettuceReactiveCache(this);
+        return reactive;
+    }
+
+    /**
+     * 响应式命令使用的连接，首次调用时建立。响应式命令不独占连接，所有调用共用同一个连接流水线发送
+     *
+     * @return redis连接对象
+     */
+    @SuppressWarnings("unchecked")
+    protected synchronized <V> StatefulRedisConnection<String, V> reactiveConnection() {
+        if (reactiveConnection == null) reactiveConnection = client.connect(metered(codec));
+        return (StatefulRedisConnection<String, V>) reactiveConnection;
+    }
+
+    /**
+     * 注册布隆过滤器，每秒刷新一次
+     *
+     * @see #registerBloomFilter(String, long, double, long)
+     */
+    public BloomFilter registerBloomFilter(String namespace, long expectedInsertions, double fpp) {
+        return registerBloomFilter(namespace, expectedInsertions, fpp, 1000L);
+    }
+
+    /**
+     * 注册布隆过滤器，注册后该命名空间中过滤器判断一定不存在的key在读取时直接返回null，不访问redis也不回源
+     * <p>
+     * 写入缓存的key会自动加入过滤器，已存在于数据源但尚未写入缓存的key需要通过 {@link BloomFilter#addAll} 预先加入。
+     * 位图保存在 {@code __bloom__:命名空间:层} 中，不受 {@link #clear} 影响。判断只查本地副本，每隔 {@code refreshInterval}
+     * 毫秒刷新一次，刷新读取各层的BITCOUNT，其他节点新增了位的层才拉取位图，刷新前其他节点写入的key可能被拦截，
+     * 见 {@link BloomFilter#setConfirmRejects(boolean)}。
+     * </p>
+     *
+     * @param namespace          命名空间
+     * @param expectedInsertions 预期元素数量，超出后自动扩展
+     * @param fpp                误判率
+     * @param refreshInterval    刷新间隔(ms)
+     * @return 布隆过滤器
+     */
+    public BloomFilter registerBloomFilter(String namespace, long expectedInsertions, double fpp, long refreshInterval) {
+        BloomFilter filter = new BloomFilter(String.join(CONNECTOR, "__bloom__", namespace), expectedInsertions, fpp, new RedisBloomFilterStore());
+        filter.load();
+        if (bloomFilters.putIfAbsent(namespace, filter) != null) {
+            throw new IllegalStateException("Bloom filter of namespace [" + namespace + "] already registered");
+        }
+        scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                filter.refresh();
+            } catch (Exception e) {
+                log.error("Refresh bloom filter of namespace [{}] error!", namespace, e);
+            }
+        }, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+        return filter;
+    }
+
+    public BloomFilter getBloomFilter(String namespace) {
+        return bloomFilters.get(namespace);
+    }
+
+    /**
+     * 命名空间改用hash分桶存储，适合大量的小对象，需在写入数据前启用，已有的数据不会迁移
+     * <p>
+     * key按hash分到 {@code buckets} 个redis hash中，每个桶的字段数应保持在 {@code hash-max-listpack-entries}（默认128）以内。
+     * 带ttl的值按字段过期，读取时过滤已过期的值；桶的过期时间只会被写入延长到ttl，不会缩短。
+     * 不开启 {@code entryTtl} 时过期字段要等到被覆盖或整个桶过期才释放，开启后由后台每隔 {@code sweepInterval} 毫秒清理。
+     * </p>
+     *
+     * @param namespace     命名空间
+     * @param buckets       桶数量
+     * @param bucketTtl     每次写入后桶的过期时间至少延长到该值(ms)，小于等于0则不设置
+     * @param entryTtl      是否记录并定期清理过期字段
+     * @param sweepInterval 清理过期字段的间隔(ms)，不按字段过期时忽略
+     */
+    @SuppressWarnings("unchecked")
+    public void enableHashBuckets(String namespace, int buckets, long bucketTtl, boolean entryTtl, long sweepInterval) {
+        HashBuckets hashBuckets = new HashBuckets(namespace, buckets, bucketTtl, entryTtl, (RedisCodec<String, Object>) codec);
+        if (this.hashBuckets.putIfAbsent(namespace, hashBuckets) != null) {
+            throw new IllegalStateException("Hash buckets of namespace [" + namespace + "] already enabled");
+        }
+        if (!entryTtl) return;
+        scheduler().scheduleWithFixedDelay(() -> {
+            try {
+                long removed = execBucketed(namespace, CacheOperation.REMOVE_ALL, hashBuckets::sweep);
+                if (removed > 0) log.debug("Swept {} expired entries of namespace [{}]", removed, namespace);
+            } catch (Exception e) {
+                log.error("Sweep hash buckets of namespace [{}] error!", namespace, e);
+            }
+        }, sweepInterval, sweepInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 命名空间改用hash分桶存储，过期时间作用于整个桶
+     *
+     * @see #enableHashBuckets(String, int, long, boolean, long)
+     */
+    public void enableHashBuckets(String namespace, int buckets) {
+        enableHashBuckets(namespace, buckets, 0, false, 0);
+    }
+
+    protected ScheduledExecutorService scheduler() {
+        synchronized (this) {
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "cache-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * 位图的读写绕过值编解码器，直接按原始字节读写，与其他命令一样经过熔断器
+     */
+    private class RedisBloomFilterStore implements BloomFilterStore {
+
+        @Override
+        public void setBits(String key, long[] offsets, int length) {
+            execPipelined(CacheMetrics.ANY_NAMESPACE, CacheOperation.PUT, cmd -> {
+                var futures = new ArrayList<RedisFuture<?>>(length);
+                for (int i = 0; i < length; i++) {
+                    futures.add(cmd.setbit(key, offsets[i], 1));
+                }
+                return futures;
+            });
+        }
+
+        @Override
+        public boolean[] getBits(String[] keys, long[] offsets) {
+            var futures = new ArrayList<RedisFuture<Long>>(keys.length);
+            execPipelined(CacheMetrics.ANY_NAMESPACE, CacheOperation.EXISTS, cmd -> {
+                for (int i = 0; i < keys.length; i++) {
+                    futures.add(cmd.getbit(keys[i], offsets[i]));
+                }
+                return new ArrayList<>(futures);
+            });
+            var bits = new boolean[keys.length];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = futures.get(i).toCompletableFuture().join() == 1L;
+            }
+            return bits;
+        }
+
+        /**
+         * 先写入临时key，再用BITOP OR合并，合并时读取的是redis中的最新位图
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public void mergeBitmap(String key, byte[] bitmap) {
+            RedisCodec<String, Object> codec = (RedisCodec<String, Object>) LettuceCacheAbstract.this.codec;
+            String                     temp  = String.join(CONNECTOR, key, "merge", UUID.randomUUID().toString());
+            execPipelined(CacheMetrics.ANY_NAMESPACE, CacheOperation.PUT, cmd -> List.of(
+                    cmd.dispatch(CommandType.SET, new StatusOutput<>(codec), new CommandArgs<>(codec).addKey(temp).add(bitmap)),
+                    cmd.bitopOr(key, key, temp),
+                    cmd.del(temp)));
+        }
+
+        @Override
+        public long bitCount(String key) {
+            return LettuceCacheAbstract.this.<Object, Long>execCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.GET, cmd -> cmd.bitcount(key));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public byte[] getBitmap(String key) {
+            RedisCodec<String, Object> codec = (RedisCodec<String, Object>) LettuceCacheAbstract.this.codec;
+            return execCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.GET, cmd -> cmd.dispatch(CommandType.GET, new ByteArrayOutput<>(codec), new CommandArgs<>(codec).addKey(key)));
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return LettuceCacheAbstract.this.<Object, Long>execCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.EXISTS, cmd -> cmd.exists(key)) > 0;
+        }
+
+        @Override
+        public boolean renew(String key, long ttl) {
+            return LettuceCacheAbstract.this.<Object, Boolean>execCmd(CacheMetrics.ANY_NAMESPACE, CacheOperation.EXPIRE, cmd -> {
+                if (cmd.pexpire(key, ttl)) return true;
+                cmd.set(key, 1, SetArgs.Builder.px(ttl));
+                return false;
+            });
+        }
+    }
+
+    /**
+     * 已注册的回源加载器
+     *
+     * @param loader 加载器
+     * @param ttl    加载结果的存活时间(ms)
+     */
+    protected record LoaderBinding(CacheLoader<?, ?> loader, long ttl) {
+
+        @SuppressWarnings("unchecked")
+        <K, V> Function<K, V> single() {
+            return key -> ((CacheLoader<K, V>) loader).load(key);
+        }
+
+        @SuppressWarnings("unchecked")
+        <K, V> Function<Collection<K>, Map<K, V>> bulk() {
+            return keys -> ((CacheLoader<K, V>) loader).loadAll(keys);
+        }
     }
 
     public void shutdown() {
+        WriteBehindBuffer buffer = writeBehind;
+        if (buffer != null) buffer.close();
+        synchronized (this) {
+            if (scheduler != null) scheduler.shutdown();
+            if (ownedExecutor != null) ownedExecutor.shutdown();
+            if (reactiveConnection != null) reactiveConnection.close();
+        }
+        bloomFilters.forEach((namespace, filter) -> {
+            try {
+                filter.refresh();
+            } catch (Exception e) {
+                log.error("Flush bloom filter of namespace [{}] error!", namespace, e);
+            }
+        });
         POOL.close();
+        asyncPool.close();
+        client.shutdown();
     }
 }
@@ -0,0 +1,221 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.ReactiveCache;
+import io.github.kurenairyu.cache.bloom.BloomFilter;
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import io.github.kurenairyu.cache.hotkey.HotKeyDetector;
+import io.github.kurenairyu.cache.metrics.CacheOperation;
+import io.github.kurenairyu.cache.writebehind.WriteBehindBuffer;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanStream;
+import io.lettuce.core.api.reactive.RedisReactiveCommands;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于Lettuce响应式命令的 {@link ReactiveCache}
+ * <p>
+ * 所有命令共用一个连接，命令在连接上流水线发送。读取按 {@code batchSize} 分批MGET，每批解码后逐条发出；
+ * 遍历使用SCAN，下游请求时才拉取下一页；批量写入按批MSET，最多 {@code concurrency} 批同时在途。
+ * </p>
+ * <p>
+ * 读取直接访问redis，不合并写回缓冲中未落库的写入；写入与删除会丢弃对应key未落库的写入并失效热点key的本地副本。
+ * 不支持启用了hash分桶的命名空间。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:24
+ */
+public class LettuceReactiveCache implements ReactiveCache {
+
+    public static final int DEFAULT_BATCH_SIZE  = 512;
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final LettuceCacheAbstract cache;
+    private final int                  batchSize;
+    private final int                  concurrency;
+
+    /**
+     * @param cache       底层缓存，共用其客户端、编解码器与监控
+     * @param batchSize   每批MGET/MSET/UNLINK的key数量，同时也是SCAN每页的COUNT
+     * @param concurrency 批量写入时同时在途的批数
+     */
+    public LettuceReactiveCache(LettuceCacheAbstract cache, int batchSize, int concurrency) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        if (concurrency <= 0) throw new IllegalArgumentException("concurrency must be positive");
+        this.cache = cache;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+    }
+
+    public LettuceReactiveCache(LettuceCacheAbstract cache) {
+        this(cache, DEFAULT_BATCH_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Mono<V> get(String namespace, K key) {
+        checkNamespace(namespace);
+        return metered(namespace, CacheOperation.GET, commands().get(key(namespace, key))
+                .filter(value -> value != NullValue.INSTANCE)
+                .map(value -> (V) value)
+                .doOnSuccess(value -> {
+                    if (value == null) {
+                        cache.metrics.recordMisses(namespace, 1);
+                    } else {
+                        cache.metrics.recordHits(namespace, 1);
+                    }
+                }));
+    }
+
+    @Override
+    public <K, V> Flux<Map.Entry<K, V>> getAll(String namespace, Publisher<K> keys) {
+        checkNamespace(namespace);
+        return Flux.from(keys).buffer(batchSize).concatMap(batch -> {
+            Map<String, K> keyMap = new LinkedHashMap<>();
+            batch.forEach(key -> keyMap.put(key(namespace, key), key));
+            return this.<K, V>mget(namespace, keyMap, keyMap.size());
+        });
+    }
+
+    @Override
+    public Flux<String> keys(String namespace) {
+        checkNamespace(namespace);
+        int prefix = namespace.length() + cache.CONNECTOR.length();
+        return ScanStream.scan(commands(), ScanArgs.Builder.matches(pattern(namespace)).limit(batchSize))
+                .map(key -> key.substring(prefix));
+    }
+
+    @Override
+    public <V> Flux<Map.Entry<String, V>> entries(String namespace) {
+        checkNamespace(namespace);
+        int prefix = namespace.length() + cache.CONNECTOR.length();
+        return ScanStream.scan(commands(), ScanArgs.Builder.matches(pattern(namespace)).limit(batchSize))
+                .buffer(batchSize)
+                .concatMap(batch -> {
+                    Map<String, String> keyMap = new LinkedHashMap<>();
+                    batch.forEach(key -> keyMap.put(key, key.substring(prefix)));
+                    //遍历期间被删除或过期的key不计为未命中
+                    return this.<String, V>mget(namespace, keyMap, 0);
+                });
+    }
+
+    @Override
+    public <K, V> Mono<Void> put(String namespace, K key, V value, long ttl) {
+        checkNamespace(namespace);
+        String redisKey = key(namespace, key);
+        Object stored   = value == null ? NullValue.INSTANCE : value;
+        return Mono.defer(() -> {
+            beforeWrite(namespace, List.of(redisKey));
+            Mono<String> command = ttl > 0 ? commands().psetex(redisKey, ttl, stored) : commands().set(redisKey, stored);
+            return metered(namespace, CacheOperation.PUT, command);
+        }).doOnSuccess(r -> afterWrite(namespace, List.of(String.valueOf(key)))).then();
+    }
+
+    @Override
+    public <K, V> Mono<Long> putAll(String namespace, Publisher<? extends Map.Entry<K, V>> entries, long ttl) {
+        checkNamespace(namespace);
+        return Flux.from(entries).buffer(batchSize).flatMap(batch -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            batch.forEach(entry -> values.put(key(namespace, entry.getKey()), entry.getValue() == null ? NullValue.INSTANCE : entry.getValue()));
+            beforeWrite(namespace, values.keySet());
+            Mono<Long> command = ttl > 0
+                    ? Flux.fromIterable(values.entrySet()).flatMap(e -> commands().psetex(e.getKey(), ttl, e.getValue())).count()
+                    : commands().mset(values).thenReturn((long) values.size());
+            return metered(namespace, CacheOperation.PUT_ALL, command)
+                    .doOnSuccess(r -> afterWrite(namespace, batch.stream().map(e -> String.valueOf(e.getKey())).toList()));
+        }, concurrency).reduce(0L, Long::sum);
+    }
+
+    @Override
+    public <K> Mono<Boolean> remove(String namespace, K key) {
+        checkNamespace(namespace);
+        String redisKey = key(namespace, key);
+        return Mono.defer(() -> {
+            beforeWrite(namespace, List.of(redisKey));
+            return metered(namespace, CacheOperation.REMOVE, commands().unlink(redisKey));
+        }).map(count -> count > 0);
+    }
+
+    @Override
+    public Mono<Long> clear(String namespace) {
+        checkNamespace(namespace);
+        return Mono.defer(() -> {
+            HotKeyDetector detector = cache.hotKeyDetector;
+            if (detector != null) detector.invalidate(namespace);
+            WriteBehindBuffer buffer = cache.writeBehind;
+            if (buffer != null) buffer.discardNamespace(namespace);
+            return ScanStream.scan(commands(), ScanArgs.Builder.matches(pattern(namespace)).limit(batchSize))
+                    .buffer(batchSize)
+                    .concatMap(batch -> commands().unlink(batch.toArray(new String[0])))
+                    .reduce(0L, Long::sum);
+        });
+    }
+
+    private <K, V> Flux<Map.Entry<K, V>> mget(String namespace, Map<String, K> keyMap, int requested) {
+        return Flux.defer(() -> {
+            long  start = System.nanoTime();
+            int[] found = new int[1];
+            return commands().mget(keyMap.keySet().toArray(new String[0]))
+                    .filter(kv -> kv.hasValue() && kv.getValue() != NullValue.INSTANCE)
+                    .doOnNext(kv -> found[0]++)
+                    .<Map.Entry<K, V>>map(kv -> entry(keyMap.get(kv.getKey()), kv.getValue()))
+                    .doFinally(signal -> {
+                        cache.metrics.recordLatency(namespace, CacheOperation.GET_ALL, System.nanoTime() - start);
+                        cache.metrics.recordHits(namespace, found[0]);
+                        if (requested > 0) cache.metrics.recordMisses(namespace, requested - found[0]);
+                    });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map.Entry<K, V> entry(K key, Object value) {
+        return new AbstractMap.SimpleImmutableEntry<>(key, (V) value);
+    }
+
+    private <R> Mono<R> metered(String namespace, CacheOperation operation, Mono<R> command) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return command.doFinally(signal -> cache.metrics.recordLatency(namespace, operation, System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * 丢弃未落库的写入，避免稍后写回覆盖本次写入
+     */
+    private void beforeWrite(String namespace, Iterable<String> redisKeys) {
+        WriteBehindBuffer buffer = cache.writeBehind;
+        if (buffer != null && buffer.isBuffered(namespace)) redisKeys.forEach(buffer::discard);
+        HotKeyDetector detector = cache.hotKeyDetector;
+        if (detector != null) redisKeys.forEach(redisKey -> detector.invalidate(namespace, redisKey));
+    }
+
+    private void afterWrite(String namespace, List<String> keys) {
+        BloomFilter filter = cache.bloomFilters.get(namespace);
+        if (filter != null) filter.addAll(keys);
+    }
+
+    private void checkNamespace(String namespace) {
+        if (cache.hashBuckets.containsKey(namespace)) {
+            throw new NotSupportOperationException("Reactive cache does not support hash bucketed namespace: " + namespace);
+        }
+    }
+
+    private String pattern(String namespace) {
+        return namespace + cache.CONNECTOR + "*";
+    }
+
+    private <K> String key(String namespace, K key) {
+        return namespace + cache.CONNECTOR + key;
+    }
+
+    private RedisReactiveCommands<String, Object> commands() {
+        return cache.<Object>reactiveConnection().reactive();
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.lettuce.core.codec.RedisCodec;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+import static io.github.kurenairyu.cache.util.StringPool.COLON;
+
+/**
+ * 记录序列化后值大小的编解码器包装
+ * <p>
+ * 编码时 Lettuce 按参数顺序在同一线程先编码key再编码value，因此写入的大小按最近一次编码的key所属命名空间记录；
+ * 解码返回值时无法得知key，记录在 {@link CacheMetrics#ANY_NAMESPACE} 下。指标为 {@link CacheMetrics#NOOP} 时不做任何记录。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:32
+ */
+public class MeteredCodec<V> implements RedisCodec<String, V> {
+
+    private static final ThreadLocal<String> LAST_KEY = new ThreadLocal<>();
+
+    private final RedisCodec<String, V>  delegate;
+    private final Supplier<CacheMetrics> metrics;
+
+    public MeteredCodec(RedisCodec<String, V> delegate, CacheMetrics metrics) {
+        this(delegate, () -> metrics);
+    }
+
+    /**
+     * @param delegate 实际的编解码器
+     * @param metrics  每次编解码时获取当前的指标，便于缓存创建后再设置指标
+     */
+    public MeteredCodec(RedisCodec<String, V> delegate, Supplier<CacheMetrics> metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String decodeKey(ByteBuffer bytes) {
+        return delegate.decodeKey(bytes);
+    }
+
+    @Override
+    public V decodeValue(ByteBuffer bytes) {
+        CacheMetrics current = metrics.get();
+        if (current != CacheMetrics.NOOP) current.recordPayload(CacheMetrics.ANY_NAMESPACE, bytes.remaining());
+        return delegate.decodeValue(bytes);
+    }
+
+    @Override
+    public ByteBuffer encodeKey(String key) {
+        if (metrics.get() != CacheMetrics.NOOP) LAST_KEY.set(key);
+        return delegate.encodeKey(key);
+    }
+
+    @Override
+    public ByteBuffer encodeValue(V value) {
+        ByteBuffer   buffer  = delegate.encodeValue(value);
+        CacheMetrics current = metrics.get();
+        if (buffer != null && current != CacheMetrics.NOOP) current.recordPayload(namespaceOf(LAST_KEY.get()), buffer.remaining());
+        return buffer;
+    }
+
+    private static String namespaceOf(String key) {
+        if (key == null) return CacheMetrics.ANY_NAMESPACE;
+        int index = key.indexOf(COLON);
+        return index < 0 ? CacheMetrics.ANY_NAMESPACE : key.substring(0, index);
+    }
+}
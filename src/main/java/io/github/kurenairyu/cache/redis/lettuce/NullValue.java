@@ -0,0 +1,13 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+/**
+ * 空值占位，回源结果为空时写入redis用于防止缓存穿透，读取时转换为null
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:01
+ */
+public enum NullValue {
+
+    INSTANCE
+
+}
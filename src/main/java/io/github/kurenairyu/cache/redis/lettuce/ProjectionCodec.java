@@ -0,0 +1,23 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 支持只解码部分字段的编解码器，用于 {@link LazyValueMap#project(Object, Collection)}
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:33
+ */
+public interface ProjectionCodec {
+
+    /**
+     * 只解码指定字段，不构建完整对象
+     *
+     * @param bytes  序列化后的值
+     * @param fields 字段名，按序列化后的名称
+     * @return 字段名与字段值，值中不存在的字段不返回
+     */
+    Map<String, Object> decodeFields(ByteBuffer bytes, Collection<String> fields);
+}
@@ -0,0 +1,84 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.lettuce.core.ScanCursor;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按SCAN分页的惰性迭代器，当前页消费完才拉取下一页，每页拉取时才占用连接
+ *
+ * @author Kurenai
+ * @since 2026-10-19 13:26
+ */
+final class ScanIterator<T> implements Iterator<T> {
+
+    private final Function<ScanCursor, Page<T>> fetcher;
+    private final long                          pageInterval;
+    private ScanCursor                          cursor = ScanCursor.INITIAL;
+    private Iterator<T>                         page   = Collections.emptyIterator();
+    private long                                lastFetch;
+    private volatile boolean                    closed;
+
+    /**
+     * @param fetcher        从游标处拉取一页
+     * @param pagesPerSecond 每秒最多拉取的页数，小于等于0表示不限制
+     */
+    ScanIterator(Function<ScanCursor, Page<T>> fetcher, double pagesPerSecond) {
+        this.fetcher = fetcher;
+        this.pageInterval = pagesPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / pagesPerSecond) : 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (closed || cursor.isFinished()) return false;
+            throttle();
+            Page<T> next = fetcher.apply(cursor);
+            cursor = next.cursor();
+            page = next.items().iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.next();
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    private void throttle() {
+        if (pageInterval <= 0) return;
+        long wait = lastFetch + pageInterval - System.nanoTime();
+        if (lastFetch != 0 && wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closed = true;
+                throw new RuntimeException("Scan interrupted", e);
+            }
+        }
+        lastFetch = System.nanoTime();
+    }
+
+    record Page<T>(ScanCursor cursor, List<T> items) {
+    }
+}
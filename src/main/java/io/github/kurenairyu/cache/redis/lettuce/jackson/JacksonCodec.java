@@ -6,12 +6,16 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.kurenairyu.cache.redis.lettuce.ProjectionCodec;
 import io.lettuce.core.codec.RedisCodec;
 import lombok.extern.log4j.Log4j2;
 import org.apache.logging.log4j.core.util.Assert;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Kryo Codec
@@ -21,19 +25,22 @@ import java.nio.ByteBuffer;
  */
 
 @Log4j2
-public class JacksonCodec<V> implements RedisCodec<String, V> {
+public class JacksonCodec<V> implements RedisCodec<String, V>, ProjectionCodec {
 
     private static final byte[] EMPTY = new byte[0];
 
     private final ObjectMapper mapper;
+    private final ObjectMapper treeMapper;
 
     public JacksonCodec() {
         this.mapper = defaultMapper();
+        this.treeMapper = treeMapper(mapper);
     }
 
     public JacksonCodec(ObjectMapper mapper) {
         Assert.requireNonEmpty(mapper, "ObjectMapper can not be empty");
         this.mapper = mapper;
+        this.treeMapper = treeMapper(mapper);
     }
 
     @Override
@@ -52,6 +59,27 @@ public class JacksonCodec<V> implements RedisCodec<String, V> {
         }
     }
 
+    /**
+     * 只解析为树再读取所需字段，不绑定完整对象
+     */
+    @Override
+    public Map<String, Object> decodeFields(ByteBuffer byteBuffer, Collection<String> fields) {
+        try {
+            JsonNode root   = treeMapper.readTree(getBytes(byteBuffer));
+            //开启默认类型时对象序列化为 [类型, 值]
+            JsonNode node   = root.isArray() && root.size() == 2 && root.get(0).isTextual() ? root.get(1) : root;
+            var      result = new LinkedHashMap<String, Object>();
+            for (String field : fields) {
+                JsonNode value = node.get(field);
+                if (value != null) result.put(field, mapper.treeToValue(value, Object.class));
+            }
+            return result;
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            return null;
+        }
+    }
+
     @Override
     public ByteBuffer encodeKey(String s) {
         return ByteBuffer.wrap(s.getBytes());
@@ -77,6 +105,13 @@ public class JacksonCodec<V> implements RedisCodec<String, V> {
                 .activateDefaultTyping(BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(), ObjectMapper.DefaultTyping.EVERYTHING);
     }
 
+    /**
+     * 开启默认类型时读取 {@link JsonNode} 也会要求类型信息，树只用不带类型的副本读取
+     */
+    private static ObjectMapper treeMapper(ObjectMapper mapper) {
+        return mapper.copy().deactivateDefaultTyping();
+    }
+
     private static byte[] getBytes(ByteBuffer buffer) {
         int remaining = buffer.remaining();
 
@@ -0,0 +1,536 @@
+package io.github.kurenairyu.cache.shm;
+
+import io.github.kurenairyu.cache.LocalCacheAbstract;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import io.github.kurenairyu.cache.util.HashUtil;
+import io.lettuce.core.codec.RedisCodec;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一主机多个进程共享的缓存
+ * <p>
+ * 数据保存在mmap映射的文件中（默认位于 /dev/shm），所有映射了同一文件的进程看到同一份数据。
+ * 文件由固定大小的桶组成，每个桶有一个锁字和 {@link #SLOTS_PER_BUCKET} 个定长槽位，key的hash决定桶。
+ * </p>
+ * <p>
+ * 锁字低32位为序号，高32位为租约到期时间（毫秒时间戳的低32位）。写入方通过CAS把序号从偶数改为奇数并写入租约来独占该桶，
+ * 写完再加一并清除租约释放；读取方不加锁，按seqlock的方式在读取前后比较锁字，不一致则重试，
+ * 多次重试仍失败按未命中处理，所以读取永远不会阻塞。
+ * </p>
+ * <p>
+ * 持有者不再依据进程号判断存活：不同PID命名空间（如容器）中的进程号无法互相确认，各容器的进程可能都是1号。
+ * 租约使用同一主机共享的系统时间，写入方最多等待 {@link #LEASE_MILLIS} 毫秒，租约过期后抢占并清空该桶（其中可能有写了一半的数据），
+ * 崩溃的写入方不会让其他进程一直阻塞。持有者停顿（如GC）超过租约时可能与抢占者同时写入，
+ * 它释放时发现锁字已变，会重新加锁清空自己写过的槽位；系统时间被向后调整时等待时间会相应变长。
+ * </p>
+ * <p>
+ * 过期时间保存在槽位中，桶满时替换最早过期的槽位。单条数据（key+值+槽位头）不能超过槽位大小，超出的不缓存，
+ * 适合体积较小且各进程都会读取的参考数据。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:50
+ */
+@Log4j2
+public class SharedMemoryCache extends LocalCacheAbstract implements Closeable {
+
+    public static final long DEFAULT_CAPACITY  = 64L * 1024 * 1024;
+    public static final int  DEFAULT_SLOT_SIZE = 256;
+    public static final int  SLOTS_PER_BUCKET  = 8;
+
+    private static final long   MAGIC              = 0x5343534841524544L;
+    private static final int    VERSION            = 3;
+    private static final int    HEADER_SIZE        = 64;
+    private static final int    BUCKET_HEADER_SIZE = 8;
+    private static final int    SLOT_HEADER_SIZE   = 24;
+    private static final int    OFFSET_EXPIRES     = 8;
+    private static final int    OFFSET_KEY_LEN     = 16;
+    private static final int    OFFSET_VAL_LEN     = 20;
+    private static final int    READ_RETRIES       = 64;
+    private static final long   LEASE_MILLIS       = 1000;
+    private static final long   SEQUENCE_MASK      = 0xFFFFFFFFL;
+    private static final byte[] EMPTY              = new byte[0];
+
+    private static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path                       file;
+    private final FileChannel                channel;
+    private final MappedByteBuffer           buffer;
+    private final int                        slotSize;
+    private final int                        bucketSize;
+    private final int                        bucketCount;
+    private final RedisCodec<String, Object> codec;
+
+    /**
+     * @param name 文件名，存在 /dev/shm 时放在该目录下，否则放在临时目录
+     */
+    public SharedMemoryCache(String name) {
+        this(defaultDirectory().resolve(name), DEFAULT_CAPACITY, DEFAULT_SLOT_SIZE, new KryoCodec<>());
+    }
+
+    /**
+     * 文件已存在时沿用文件中记录的布局，忽略 capacity 与 slotSize
+     *
+     * @param file     共享文件
+     * @param capacity 文件大小(byte)
+     * @param slotSize 槽位大小(byte)，必须是8的倍数
+     * @param codec    值的序列化方式，共享同一文件的进程必须一致
+     */
+    public SharedMemoryCache(Path file, long capacity, int slotSize, RedisCodec<String, Object> codec) {
+        if (slotSize <= SLOT_HEADER_SIZE || slotSize % 8 != 0) {
+            throw new IllegalArgumentException("slotSize must be a multiple of 8 and greater than " + SLOT_HEADER_SIZE);
+        }
+        this.file = file;
+        this.codec = Objects.requireNonNull(codec, "codec can not be null");
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            //只在初始化期间使用文件锁，防止多个进程同时创建
+            FileLock fileLock = channel.lock();
+            try {
+                if (channel.size() < HEADER_SIZE) {
+                    int  bucketSize  = BUCKET_HEADER_SIZE + SLOTS_PER_BUCKET * slotSize;
+                    long bucketCount = (capacity - HEADER_SIZE) / bucketSize;
+                    if (bucketCount <= 0 || HEADER_SIZE + bucketCount * bucketSize > Integer.MAX_VALUE) {
+                        throw new IllegalArgumentException("capacity must hold at least one bucket and can't exceed " + Integer.MAX_VALUE);
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bucketCount * bucketSize);
+                    buffer.order(ByteOrder.nativeOrder());
+                    buffer.putInt(8, VERSION);
+                    buffer.putInt(12, slotSize);
+                    buffer.putInt(16, (int) bucketCount);
+                    buffer.putLong(0, MAGIC);
+                } else {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                    buffer.order(ByteOrder.nativeOrder());
+                    if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+                        throw new IllegalStateException("Not a shared cache file: " + file);
+                    }
+                }
+            } finally {
+                fileLock.release();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Open shared memory cache [" + file + "] fail", e);
+        }
+        this.slotSize = buffer.getInt(12);
+        this.bucketCount = buffer.getInt(16);
+        this.bucketSize = BUCKET_HEADER_SIZE + SLOTS_PER_BUCKET * this.slotSize;
+        if (HEADER_SIZE + (long) bucketCount * bucketSize > buffer.capacity()) {
+            throw new IllegalStateException("Corrupted shared cache file: " + file);
+        }
+    }
+
+    //region get
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> V get(String namespace, K key) {
+        byte[] value = read(buildKey(namespace, key));
+        return value == null || value.length == 0 ? null : (V) codec.decodeValue(ByteBuffer.wrap(value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        var result = new HashMap<K, V>();
+        for (K key : keys) {
+            byte[] value = read(buildKey(namespace, key));
+            if (value != null && value.length > 0) result.put(key, (V) codec.decodeValue(ByteBuffer.wrap(value)));
+        }
+        return result;
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value, long ttl) {
+        write(buildKey(namespace, key), encode(value), ttl, false);
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        return write(buildKey(namespace, key), encode(value), ttl, true);
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> boolean remove(String namespace, K key) {
+        return delete(buildKey(namespace, key));
+    }
+
+    //endregion
+
+    //region clear
+
+    /**
+     * 逐个桶加锁扫描，为O(n)
+     */
+    @Override
+    public boolean clear(String namespace) {
+        byte[]  prefix  = (namespace + CONNECTOR).getBytes(StandardCharsets.UTF_8);
+        boolean removed = false;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int  base = bucketOffset(bucket);
+            long held = lock(base);
+            try {
+                for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+                    int slot = slotOffset(base, i);
+                    if (buffer.getInt(slot + OFFSET_KEY_LEN) > 0 && startsWith(slot, prefix)) {
+                        buffer.putInt(slot + OFFSET_KEY_LEN, 0);
+                        removed = true;
+                    }
+                }
+            } finally {
+                unlock(base, held);
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean clearAll() {
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int  base = bucketOffset(bucket);
+            long held = lock(base);
+            try {
+                clearBucket(base);
+            } finally {
+                unlock(base, held);
+            }
+        }
+        return true;
+    }
+
+    //endregion
+
+    //region other
+
+    @Override
+    public <K> boolean exists(String namespace, K key) {
+        return read(buildKey(namespace, key)) != null;
+    }
+
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        int    base = bucketOffset(hash);
+        for (int attempt = 0; attempt < READ_RETRIES; attempt++) {
+            long sequence = (long) SEQUENCE.getAcquire(buffer, base);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int  slot      = find(base, hash, k);
+            long expiresAt = slot < 0 ? 0 : buffer.getLong(slot + OFFSET_EXPIRES);
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE.getVolatile(buffer, base) == sequence) return remainingTtl(expiresAt, System.currentTimeMillis());
+        }
+        return -2;
+    }
+
+    @Override
+    public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        byte[] k    = buildKey(namespace, key);
+        long   hash = HashUtil.hash64(k);
+        int    base = bucketOffset(hash);
+        long   held = lock(base);
+        try {
+            long now  = System.currentTimeMillis();
+            int  slot = find(base, hash, k);
+            if (slot < 0 || buffer.getLong(slot + OFFSET_EXPIRES) <= now) return false;
+            buffer.putLong(slot + OFFSET_EXPIRES, expiresAt(now, timeUnit.toMillis(ttl)));
+            return true;
+        } finally {
+            unlock(base, held);
+        }
+    }
+
+    /**
+     * 不加锁扫描所有槽位，结果为近似值
+     *
+     * @return 未过期的缓存项数量
+     */
+    public long estimatedSize() {
+        long now  = System.currentTimeMillis();
+        long size = 0;
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            int base = bucketOffset(bucket);
+            for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+                int slot = slotOffset(base, i);
+                if (buffer.getInt(slot + OFFSET_KEY_LEN) > 0 && buffer.getLong(slot + OFFSET_EXPIRES) > now) size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 关闭本进程的文件句柄，不删除共享文件
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Close shared memory cache [" + file + "] fail", e);
+        }
+    }
+
+    //endregion
+
+    /**
+     * @return 值的字节，不存在或已过期返回null，值为null时返回空数组
+     */
+    private byte[] read(byte[] key) {
+        long hash = HashUtil.hash64(key);
+        int  base = bucketOffset(hash);
+        for (int attempt = 0; attempt < READ_RETRIES; attempt++) {
+            long sequence = (long) SEQUENCE.getAcquire(buffer, base);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            byte[] value = null;
+            int    slot  = find(base, hash, key);
+            if (slot >= 0 && buffer.getLong(slot + OFFSET_EXPIRES) > System.currentTimeMillis()) {
+                int valueLength = buffer.getInt(slot + OFFSET_VAL_LEN);
+                if (valueLength < 0) {
+                    value = EMPTY;
+                } else {
+                    value = new byte[valueLength];
+                    buffer.get(slot + SLOT_HEADER_SIZE + key.length, value);
+                }
+            }
+            VarHandle.acquireFence();
+            if ((long) SEQUENCE.getVolatile(buffer, base) == sequence) return value;
+        }
+        //写入方长时间占用该桶，按未命中处理
+        return null;
+    }
+
+    private boolean write(byte[] key, byte[] value, long ttl, boolean onlyIfAbsent) {
+        int total = SLOT_HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        if (total > slotSize) {
+            delete(key);
+            return false;
+        }
+        long hash   = HashUtil.hash64(key);
+        int  base   = bucketOffset(hash);
+        long held   = lock(base);
+        int  target = -1;
+        try {
+            long now = System.currentTimeMillis();
+            target = find(base, hash, key);
+            if (target >= 0) {
+                if (onlyIfAbsent && buffer.getLong(target + OFFSET_EXPIRES) > now) return false;
+            } else {
+                target = chooseSlot(base, now);
+            }
+            buffer.putLong(target, hash);
+            buffer.putLong(target + OFFSET_EXPIRES, expiresAt(now, ttl));
+            buffer.putInt(target + OFFSET_KEY_LEN, key.length);
+            buffer.putInt(target + OFFSET_VAL_LEN, value == null ? -1 : value.length);
+            buffer.put(target + SLOT_HEADER_SIZE, key);
+            if (value != null) buffer.put(target + SLOT_HEADER_SIZE + key.length, value);
+            return true;
+        } finally {
+            if (!unlock(base, held) && target >= 0) discardSlot(base, target);
+        }
+    }
+
+    /**
+     * 租约过期被抢占后，本次写入可能与抢占者交错，清空写过的槽位
+     */
+    private void discardSlot(int base, int slot) {
+        log.warn("Lease of bucket at {} in [{}] expired while writing, discard the slot", base, file);
+        long held = lock(base);
+        try {
+            buffer.putInt(slot + OFFSET_KEY_LEN, 0);
+        } finally {
+            unlock(base, held);
+        }
+    }
+
+    private boolean delete(byte[] key) {
+        long hash = HashUtil.hash64(key);
+        int  base = bucketOffset(hash);
+        long held = lock(base);
+        try {
+            int slot = find(base, hash, key);
+            if (slot < 0) return false;
+            buffer.putInt(slot + OFFSET_KEY_LEN, 0);
+            return buffer.getLong(slot + OFFSET_EXPIRES) > System.currentTimeMillis();
+        } finally {
+            unlock(base, held);
+        }
+    }
+
+    /**
+     * 读取方在未加锁的情况下也会调用，槽位中的长度可能是写了一半的值，需要先检查边界
+     *
+     * @return 槽位偏移，不存在返回-1
+     */
+    private int find(int base, long hash, byte[] key) {
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            int slot = slotOffset(base, i);
+            if (buffer.getInt(slot + OFFSET_KEY_LEN) != key.length || buffer.getLong(slot) != hash) continue;
+            int valueLength = buffer.getInt(slot + OFFSET_VAL_LEN);
+            if (valueLength < -1 || valueLength > slotSize - SLOT_HEADER_SIZE - key.length) continue;
+            if (keyEquals(slot, key)) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * 优先使用空槽位或已过期的槽位，否则替换最早过期的槽位（从随机位置开始，过期时间相同时随机替换）
+     */
+    private int chooseSlot(int base, long now) {
+        int  start     = ThreadLocalRandom.current().nextInt(SLOTS_PER_BUCKET);
+        int  victim    = -1;
+        long victimTtl = Long.MAX_VALUE;
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            int  slot      = slotOffset(base, (start + i) % SLOTS_PER_BUCKET);
+            if (buffer.getInt(slot + OFFSET_KEY_LEN) == 0) return slot;
+            long expiresAt = buffer.getLong(slot + OFFSET_EXPIRES);
+            if (expiresAt <= now) return slot;
+            if (victim < 0 || expiresAt < victimTtl) {
+                victim = slot;
+                victimTtl = expiresAt;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * 把序号从偶数CAS为奇数并写入租约以独占该桶；持有者的租约已过期时抢占并清空该桶（其中可能有写了一半的数据）
+     *
+     * @return 持有的锁字，释放时使用
+     */
+    private long lock(int base) {
+        while (true) {
+            long word = (long) SEQUENCE.getVolatile(buffer, base);
+            if ((word & 1) == 0) {
+                long held = nextSequence(word) | lease();
+                if (SEQUENCE.compareAndSet(buffer, base, word, held)) return held;
+            } else if (isLeaseExpired(word)) {
+                long held = nextSequence(nextSequence(word)) | lease();
+                if (SEQUENCE.compareAndSet(buffer, base, word, held)) {
+                    log.warn("Lease of bucket at {} in [{}] expired, take over and clear it", base, file);
+                    clearBucket(base);
+                    return held;
+                }
+            } else {
+                Thread.yield();
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * 用CAS释放，锁已被抢占时不会覆盖新持有者的锁字
+     *
+     * @return 是否仍持有该锁，false表示租约过期后已被抢占
+     */
+    private boolean unlock(int base, long held) {
+        return SEQUENCE.compareAndSet(buffer, base, held, nextSequence(held));
+    }
+
+    /**
+     * @return 序号加一且不带进程号的锁字
+     */
+    private static long nextSequence(long word) {
+        return (word + 1) & SEQUENCE_MASK;
+    }
+
+    /**
+     * @return 放在锁字高32位的租约到期时间
+     */
+    private static long lease() {
+        return (System.currentTimeMillis() + LEASE_MILLIS) << 32;
+    }
+
+    /**
+     * 按32位回绕比较，租约时长远小于回绕周期（约49天）
+     */
+    private static boolean isLeaseExpired(long word) {
+        return (int) (System.currentTimeMillis() - (word >>> 32)) > 0;
+    }
+
+    private void clearBucket(int base) {
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            buffer.putInt(slotOffset(base, i) + OFFSET_KEY_LEN, 0);
+        }
+    }
+
+    private int bucketOffset(long hash) {
+        return bucketOffset((int) Long.remainderUnsigned(hash, bucketCount));
+    }
+
+    private int bucketOffset(int bucket) {
+        return HEADER_SIZE + bucket * bucketSize;
+    }
+
+    private int slotOffset(int base, int index) {
+        return base + BUCKET_HEADER_SIZE + index * slotSize;
+    }
+
+    private boolean keyEquals(int slot, byte[] key) {
+        int start = slot + SLOT_HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private boolean startsWith(int slot, byte[] prefix) {
+        if (buffer.getInt(slot + OFFSET_KEY_LEN) < prefix.length) return false;
+        return keyEquals(slot, prefix);
+    }
+
+    private byte[] encode(Object value) {
+        if (value == null) return null;
+        ByteBuffer buffer = codec.encodeValue(value);
+        byte[]     bytes  = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static long expiresAt(long now, long ttl) {
+        return ttl <= 0 ? Long.MAX_VALUE : now + ttl;
+    }
+
+    private static <K> byte[] buildKey(String namespace, K key) {
+        return joinKey(namespace, key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path defaultDirectory() {
+        Path shm = Paths.get("/dev/shm");
+        return Files.isDirectory(shm) ? shm : Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.kurenairyu.cache.tiered;
+
+import io.github.kurenairyu.cache.Cache;
+
+import java.util.Objects;
+
+/**
+ * {@link TieredCache} 中的一层
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:52
+ */
+public class Tier {
+
+    /**
+     * 写入时对该层的处理方式
+     */
+    public enum WritePolicy {
+
+        /**
+         * 同时写入该层
+         */
+        WRITE_THROUGH,
+
+        /**
+         * 不写入该层，只删除该层中的旧值，由之后的读取回填
+         */
+        WRITE_AROUND
+
+    }
+
+    private final Cache       cache;
+    private final long        ttl;
+    private final WritePolicy writePolicy;
+
+    /**
+     * @param cache       缓存
+     * @param ttl         该层的最大存活时间(ms)，写入和回填时与调用方传入的ttl取较小值，小于等于0表示不限制
+     * @param writePolicy 写入方式
+     */
+    public Tier(Cache cache, long ttl, WritePolicy writePolicy) {
+        this.cache = Objects.requireNonNull(cache, "cache can not be null");
+        this.ttl = ttl;
+        this.writePolicy = Objects.requireNonNull(writePolicy, "writePolicy can not be null");
+    }
+
+    public static Tier of(Cache cache) {
+        return new Tier(cache, -1, WritePolicy.WRITE_THROUGH);
+    }
+
+    public static Tier of(Cache cache, long ttl) {
+        return new Tier(cache, ttl, WritePolicy.WRITE_THROUGH);
+    }
+
+    public static Tier of(Cache cache, long ttl, WritePolicy writePolicy) {
+        return new Tier(cache, ttl, writePolicy);
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public WritePolicy getWritePolicy() {
+        return writePolicy;
+    }
+
+    boolean isWriteThrough() {
+        return writePolicy == WritePolicy.WRITE_THROUGH;
+    }
+
+    /**
+     * @param ttl 调用方传入的ttl(ms)，小于等于0表示不过期
+     * @return 写入该层实际使用的ttl
+     */
+    long ttl(long ttl) {
+        if (this.ttl <= 0) return ttl;
+        return ttl <= 0 ? this.ttl : Math.min(ttl, this.ttl);
+    }
+}
@@ -0,0 +1,577 @@
+package io.github.kurenairyu.cache.tiered;
+
+import io.github.kurenairyu.cache.Cache;
+import io.github.kurenairyu.cache.Lock;
+import io.github.kurenairyu.cache.ScanOptions;
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 多级缓存
+ * <p>
+ * 按顺序组合多层 {@link Cache}，第一层最快（如进程内缓存），最后一层为权威数据（如redis）。
+ * 读取逐层向下查找，命中后回填到上面各层，回填的ttl为命中层中的剩余存活时间与该层ttl的较小值，
+ * 命中层不支持 {@link Cache#ttl} 时只使用该层的ttl；{@code getAll} 每层只查询仍未命中的key。
+ * 写入从最后一层开始逐层向上，按各层的 {@link Tier.WritePolicy} 写入或删除该层的旧值，同步与异步方法顺序一致，
+ * {@code putIfAbsent} 以最后一层的结果为准；删除、清空、过期作用于所有层，同样从最后一层开始逐层向上，
+ * 避免上层已删除、下层还未删除时的读取把旧值回填到上层。异步方法在各层之间只组合future，不阻塞调用线程。
+ * </p>
+ * <p>
+ * 回填失败不影响读取结果，只记录日志。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:52
+ */
+@Log4j2
+public class TieredCache implements Cache {
+
+    private final List<Tier> tiers;
+    private final Tier       last;
+
+    /**
+     * 各层都为 write-through 且不限制ttl
+     *
+     * @param caches 由上到下的各层缓存
+     */
+    public TieredCache(Cache... caches) {
+        this(Arrays.stream(caches).map(Tier::of).collect(Collectors.toList()));
+    }
+
+    /**
+     * @param tiers 由上到下的各层
+     */
+    public TieredCache(List<Tier> tiers) {
+        if (tiers == null || tiers.isEmpty()) throw new IllegalArgumentException("tiers can not be empty");
+        this.tiers = List.copyOf(tiers);
+        this.last = this.tiers.get(this.tiers.size() - 1);
+    }
+
+    public List<Tier> getTiers() {
+        return tiers;
+    }
+
+    //region get
+
+    @Override
+    public <K, V> V get(String namespace, K key) {
+        for (int i = 0; i < tiers.size(); i++) {
+            V value = tiers.get(i).getCache().get(namespace, key);
+            if (value != null) {
+                promote(i, namespace, key, value);
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <K, V> CompletableFuture<V> getAsync(String namespace, K key) {
+        return getAsync(0, namespace, key);
+    }
+
+    @Override
+    public <K, V> Map<K, V> getAll(String namespace, Collection<K> keys) {
+        var     result  = new HashMap<K, V>();
+        List<K> missing = new ArrayList<>(keys);
+        for (int i = 0; i < tiers.size() && !missing.isEmpty(); i++) {
+            Map<K, V> found = tiers.get(i).getCache().getAll(namespace, missing);
+            if (found.isEmpty()) continue;
+            result.putAll(found);
+            promoteAll(i, namespace, found);
+            missing.removeIf(found::containsKey);
+        }
+        return result;
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Map<K, V>> getAllAsync(String namespace, Collection<K> keys) {
+        return getAllAsync(0, namespace, new ArrayList<>(keys), new HashMap<>());
+    }
+
+    //endregion
+
+    //region put
+
+    @Override
+    public <K, V> void put(String namespace, K key, V value) {
+        put(namespace, key, value, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value) {
+        return putAsync(namespace, key, value, -1);
+    }
+
+    /**
+     * 从最后一层开始向上写入
+     */
+    @Override
+    public <K, V> void put(String namespace, K key, V value, long ttl) {
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            write(tiers.get(i), namespace, key, value, ttl);
+        }
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAsync(String namespace, K key, V value, long ttl) {
+        return bottomUp(tiers.size() - 1, tier -> writeAsync(tier, namespace, key, value, ttl)).thenApply(v -> "OK");
+    }
+
+    @Override
+    public <K, V> void putAll(String namespace, Map<K, V> keyValueMap) {
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            writeAll(tiers.get(i), namespace, keyValueMap, -1);
+        }
+    }
+
+    @Override
+    public <K, V> CompletableFuture<String> putAllAsync(String namespace, Map<K, V> keyValueMap) {
+        return bottomUp(tiers.size() - 1, tier -> writeAllAsync(tier, namespace, keyValueMap, -1)).thenApply(v -> "OK");
+    }
+
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value) {
+        return putIfAbsent(namespace, key, value, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value) {
+        return putIfAbsentAsync(namespace, key, value, -1);
+    }
+
+    /**
+     * 由最后一层决定是否写入，写入成功后再按写入方式处理上面各层
+     */
+    @Override
+    public <K, V> boolean putIfAbsent(String namespace, K key, V value, long ttl) {
+        if (!last.getCache().putIfAbsent(namespace, key, value, last.ttl(ttl))) return false;
+        for (int i = tiers.size() - 2; i >= 0; i--) {
+            write(tiers.get(i), namespace, key, value, ttl);
+        }
+        return true;
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putIfAbsentAsync(String namespace, K key, V value, long ttl) {
+        return last.getCache().putIfAbsentAsync(namespace, key, value, last.ttl(ttl)).thenCompose(absent -> {
+            if (!Boolean.TRUE.equals(absent)) return CompletableFuture.completedFuture(false);
+            return bottomUp(tiers.size() - 2, tier -> writeAsync(tier, namespace, key, value, ttl)).thenApply(v -> true);
+        });
+    }
+
+    @Override
+    public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap) {
+        return putAllIfAbsent(namespace, keyValueMap, -1);
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap) {
+        return putAllIfAbsentAsync(namespace, keyValueMap, -1);
+    }
+
+    @Override
+    public <K, V> boolean putAllIfAbsent(String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (!last.getCache().putAllIfAbsent(namespace, keyValueMap, last.ttl(ttl))) return false;
+        for (int i = tiers.size() - 2; i >= 0; i--) {
+            writeAll(tiers.get(i), namespace, keyValueMap, ttl);
+        }
+        return true;
+    }
+
+    @Override
+    public <K, V> CompletableFuture<Boolean> putAllIfAbsentAsync(String namespace, Map<K, V> keyValueMap, long ttl) {
+        return last.getCache().putAllIfAbsentAsync(namespace, keyValueMap, last.ttl(ttl)).thenCompose(absent -> {
+            if (!Boolean.TRUE.equals(absent)) return CompletableFuture.completedFuture(false);
+            return bottomUp(tiers.size() - 2, tier -> writeAllAsync(tier, namespace, keyValueMap, ttl)).thenApply(v -> true);
+        });
+    }
+
+    //endregion
+
+    //region evict
+
+    @Override
+    public <K> boolean remove(String namespace, K key) {
+        boolean removed = false;
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            removed |= tiers.get(i).getCache().remove(namespace, key);
+        }
+        return removed;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> removeAsync(String namespace, K key) {
+        return anyTrue(tier -> tier.getCache().removeAsync(namespace, key));
+    }
+
+    @Override
+    public <K> boolean removeAll(String namespace, Collection<K> keys) {
+        boolean removed = false;
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            removed |= tiers.get(i).getCache().removeAll(namespace, keys);
+        }
+        return removed;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> removeAllAsync(String namespace, Collection<K> keys) {
+        return anyTrue(tier -> tier.getCache().removeAllAsync(namespace, keys));
+    }
+
+    //endregion
+
+    //region clear
+
+    @Override
+    public boolean clear(String namespace) {
+        boolean cleared = false;
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            cleared |= tiers.get(i).getCache().clear(namespace);
+        }
+        return cleared;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> clearAsync(String namespace) {
+        return anyTrue(tier -> tier.getCache().clearAsync(namespace));
+    }
+
+    @Override
+    public boolean clearAll() {
+        boolean cleared = true;
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            cleared &= tiers.get(i).getCache().clearAll();
+        }
+        return cleared;
+    }
+
+    @Override
+    public CompletableFuture<String> clearAllAsync() {
+        return bottomUp(tiers.size() - 1, tier -> CompletableFuture.allOf(tier.getCache().clearAllAsync())).thenApply(v -> "OK");
+    }
+
+    //endregion
+
+    //region other
+
+    /**
+     * 与各层的语义一致，任一key存在即返回true；各层结果按或合并，key分布在不同层时同样为true
+     */
+    @Override
+    public <K> boolean existsAll(String namespace, Collection<K> keys) {
+        for (Tier tier : tiers) {
+            if (tier.getCache().existsAll(namespace, keys)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> existsAllAsync(String namespace, Collection<K> keys) {
+        return firstTrue(0, tier -> tier.getCache().existsAllAsync(namespace, keys));
+    }
+
+    @Override
+    public <K> boolean exists(String namespace, K key) {
+        for (Tier tier : tiers) {
+            if (tier.getCache().exists(namespace, key)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> existsAsync(String namespace, K key) {
+        return firstTrue(0, tier -> tier.getCache().existsAsync(namespace, key));
+    }
+
+    @Override
+    public <K> Boolean expire(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        long    millis  = timeUnit.toMillis(ttl);
+        boolean expired = false;
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            Tier tier = tiers.get(i);
+            expired |= Boolean.TRUE.equals(tier.getCache().expire(namespace, key, tier.ttl(millis), TimeUnit.MILLISECONDS));
+        }
+        return expired;
+    }
+
+    @Override
+    public <K> CompletableFuture<Boolean> expireAsync(String namespace, K key, long ttl, TimeUnit timeUnit) {
+        long millis = timeUnit.toMillis(ttl);
+        return anyTrue(tier -> tier.getCache().expireAsync(namespace, key, tier.ttl(millis), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * @return 第一个存在该key的层中的剩余存活时间
+     */
+    @Override
+    public <K> long ttl(String namespace, K key) {
+        for (Tier tier : tiers) {
+            long ttl = tier.getCache().ttl(namespace, key);
+            if (ttl != -2) return ttl;
+        }
+        return -2;
+    }
+
+    @Override
+    public <K> CompletableFuture<Long> ttlAsync(String namespace, K key) {
+        return ttlAsync(0, namespace, key);
+    }
+
+    /**
+     * @return 最后一层的锁
+     */
+    @Override
+    public Lock getLock(String lockKey, long ttl) throws Exception {
+        return last.getCache().getLock(lockKey, ttl);
+    }
+
+    /**
+     * @return 最后一层的客户端
+     */
+    @Override
+    public <T> T getExec() throws Exception {
+        return last.getCache().getExec();
+    }
+
+    /**
+     * @return 最后一层的异步客户端
+     */
+    @Override
+    public <T> T getExecAsync() throws Exception {
+        return last.getCache().getExecAsync();
+    }
+
+    /**
+     * @return 遍历最后一层，该层不支持时抛出异常
+     */
+    @Override
+    public Stream<String> keys(String namespace, ScanOptions options) {
+        return last.getCache().keys(namespace, options);
+    }
+
+    /**
+     * @return 遍历最后一层，该层不支持时抛出异常
+     */
+    @Override
+    public <V> Stream<Map.Entry<String, V>> entries(String namespace, ScanOptions options) {
+        return last.getCache().entries(namespace, options);
+    }
+
+    //endregion
+
+    private <K, V> CompletableFuture<V> getAsync(int index, String namespace, K key) {
+        if (index == tiers.size()) return CompletableFuture.completedFuture(null);
+        return tiers.get(index).getCache().<K, V>getAsync(namespace, key).thenCompose(value -> {
+            if (value == null) return getAsync(index + 1, namespace, key);
+            promoteAsync(index, namespace, key, value);
+            return CompletableFuture.completedFuture(value);
+        });
+    }
+
+    private <K, V> CompletableFuture<Map<K, V>> getAllAsync(int index, String namespace, List<K> missing, Map<K, V> result) {
+        if (index == tiers.size() || missing.isEmpty()) return CompletableFuture.completedFuture(result);
+        return tiers.get(index).getCache().<K, V>getAllAsync(namespace, missing).thenCompose(found -> {
+            if (!found.isEmpty()) {
+                result.putAll(found);
+                promoteAllAsync(index, namespace, found);
+                missing.removeIf(found::containsKey);
+            }
+            return getAllAsync(index + 1, namespace, missing, result);
+        });
+    }
+
+    private <K> CompletableFuture<Long> ttlAsync(int index, String namespace, K key) {
+        if (index == tiers.size()) return CompletableFuture.completedFuture(-2L);
+        return tiers.get(index).getCache().ttlAsync(namespace, key)
+                .thenCompose(ttl -> ttl != -2 ? CompletableFuture.completedFuture(ttl) : ttlAsync(index + 1, namespace, key));
+    }
+
+    /**
+     * 回填到命中层之上的各层，回填的值不会比命中层中的活得更久
+     */
+    private <K, V> void promote(int hit, String namespace, K key, V value) {
+        if (hit == 0) return;
+        long remaining;
+        try {
+            remaining = remainingTtl(hit, namespace, key).join();
+        } catch (RuntimeException e) {
+            log.warn("Query ttl of [{}] in namespace [{}] from tier {} fail", key, namespace, hit, e);
+            return;
+        }
+        if (isGone(remaining)) return;
+        for (int i = hit - 1; i >= 0; i--) {
+            Tier tier = tiers.get(i);
+            try {
+                tier.getCache().put(namespace, key, value, tier.ttl(remaining));
+            } catch (RuntimeException e) {
+                log.warn("Promote [{}] of namespace [{}] to tier {} fail", key, namespace, i, e);
+            }
+        }
+    }
+
+    /**
+     * 各key的剩余存活时间异步并发查询，全部返回后逐个回填
+     */
+    private <K, V> void promoteAll(int hit, String namespace, Map<K, V> found) {
+        if (hit == 0) return;
+        Map<K, Long> remaining;
+        try {
+            remaining = remainingTtls(hit, namespace, found.keySet()).join();
+        } catch (RuntimeException e) {
+            log.warn("Query ttl of {} entries in namespace [{}] from tier {} fail", found.size(), namespace, hit, e);
+            return;
+        }
+        for (int i = hit - 1; i >= 0; i--) {
+            Tier tier = tiers.get(i);
+            try {
+                remaining.forEach((k, ttl) -> tier.getCache().put(namespace, k, found.get(k), tier.ttl(ttl)));
+            } catch (RuntimeException e) {
+                log.warn("Promote {} entries of namespace [{}] to tier {} fail", found.size(), namespace, i, e);
+            }
+        }
+    }
+
+    private <K, V> void promoteAsync(int hit, String namespace, K key, V value) {
+        if (hit == 0) return;
+        remainingTtl(hit, namespace, key).thenCompose(remaining -> {
+            if (isGone(remaining)) return CompletableFuture.completedFuture(null);
+            return bottomUp(hit - 1, tier -> CompletableFuture.allOf(tier.getCache().putAsync(namespace, key, value, tier.ttl(remaining))));
+        }).whenComplete((r, e) -> {
+            if (e != null) log.warn("Promote [{}] of namespace [{}] from tier {} fail", key, namespace, hit, e);
+        });
+    }
+
+    private <K, V> void promoteAllAsync(int hit, String namespace, Map<K, V> found) {
+        if (hit == 0) return;
+        remainingTtls(hit, namespace, found.keySet()).thenCompose(remaining -> bottomUp(hit - 1, tier -> CompletableFuture.allOf(remaining.entrySet().stream()
+                .map(e -> tier.getCache().putAsync(namespace, e.getKey(), found.get(e.getKey()), tier.ttl(e.getValue())))
+                .toArray(CompletableFuture<?>[]::new)))
+        ).whenComplete((r, e) -> {
+            if (e != null) log.warn("Promote {} entries of namespace [{}] from tier {} fail", found.size(), namespace, hit, e);
+        });
+    }
+
+    /**
+     * 命中层不支持查询ttl时返回-1，回填时只受各层自身的ttl限制
+     */
+    private <K> CompletableFuture<Long> remainingTtl(int hit, String namespace, K key) {
+        CompletableFuture<Long> ttl;
+        try {
+            ttl = tiers.get(hit).getCache().ttlAsync(namespace, key);
+        } catch (NotSupportOperationException e) {
+            return CompletableFuture.completedFuture(-1L);
+        }
+        return ttl.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof NotSupportOperationException) return -1L;
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+        });
+    }
+
+    /**
+     * @return 仍然存活的key及其剩余存活时间
+     */
+    private <K> CompletableFuture<Map<K, Long>> remainingTtls(int hit, String namespace, Collection<K> keys) {
+        var futures = new LinkedHashMap<K, CompletableFuture<Long>>();
+        for (K key : keys) {
+            futures.put(key, remainingTtl(hit, namespace, key));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            var result = new HashMap<K, Long>();
+            futures.forEach((key, ttl) -> {
+                if (!isGone(ttl.join())) result.put(key, ttl.join());
+            });
+            return result;
+        });
+    }
+
+    /**
+     * 从 {@code from} 层开始逐层向上执行，上一层完成后才执行下一层
+     */
+    private CompletableFuture<Void> bottomUp(int from, Function<Tier, CompletableFuture<Void>> operation) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (int i = from; i >= 0; i--) {
+            Tier tier = tiers.get(i);
+            chain = chain.thenCompose(v -> operation.apply(tier));
+        }
+        return chain;
+    }
+
+    /**
+     * @return 已不存在或即将过期，无需回填
+     */
+    private static boolean isGone(long remaining) {
+        return remaining == -2 || remaining == 0;
+    }
+
+    private <K, V> void write(Tier tier, String namespace, K key, V value, long ttl) {
+        if (tier.isWriteThrough()) {
+            tier.getCache().put(namespace, key, value, tier.ttl(ttl));
+        } else {
+            tier.getCache().remove(namespace, key);
+        }
+    }
+
+    private <K, V> CompletableFuture<Void> writeAsync(Tier tier, String namespace, K key, V value, long ttl) {
+        if (tier.isWriteThrough()) return CompletableFuture.allOf(tier.getCache().putAsync(namespace, key, value, tier.ttl(ttl)));
+        return CompletableFuture.allOf(tier.getCache().removeAsync(namespace, key));
+    }
+
+    private <K, V> void writeAll(Tier tier, String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (tier.isWriteThrough()) {
+            putAll(tier, namespace, keyValueMap, tier.ttl(ttl));
+        } else {
+            tier.getCache().removeAll(namespace, keyValueMap.keySet());
+        }
+    }
+
+    private <K, V> CompletableFuture<Void> writeAllAsync(Tier tier, String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (tier.isWriteThrough()) return putAllAsync(tier, namespace, keyValueMap, tier.ttl(ttl));
+        return CompletableFuture.allOf(tier.getCache().removeAllAsync(namespace, keyValueMap.keySet()));
+    }
+
+    /**
+     * putAll 没有ttl参数，需要ttl时逐个写入
+     */
+    private static <K, V> void putAll(Tier tier, String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (ttl <= 0) {
+            tier.getCache().putAll(namespace, keyValueMap);
+        } else {
+            keyValueMap.forEach((k, v) -> tier.getCache().put(namespace, k, v, ttl));
+        }
+    }
+
+    private static <K, V> CompletableFuture<Void> putAllAsync(Tier tier, String namespace, Map<K, V> keyValueMap, long ttl) {
+        if (ttl <= 0) return CompletableFuture.allOf(tier.getCache().putAllAsync(namespace, keyValueMap));
+        return CompletableFuture.allOf(keyValueMap.entrySet().stream()
+                .map(e -> tier.getCache().putAsync(namespace, e.getKey(), e.getValue(), ttl))
+                .toArray(CompletableFuture<?>[]::new));
+    }
+
+    /**
+     * 与 {@link #bottomUp} 顺序一致，从最后一层开始逐层向上执行，任一层返回true即为true
+     */
+    private CompletableFuture<Boolean> anyTrue(Function<Tier, CompletableFuture<Boolean>> operation) {
+        CompletableFuture<Boolean> chain = CompletableFuture.completedFuture(false);
+        for (int i = tiers.size() - 1; i >= 0; i--) {
+            Tier tier = tiers.get(i);
+            chain = chain.thenCompose(any -> operation.apply(tier).thenApply(result -> any || Boolean.TRUE.equals(result)));
+        }
+        return chain;
+    }
+
+    private CompletableFuture<Boolean> firstTrue(int index, Function<Tier, CompletableFuture<Boolean>> operation) {
+        if (index == tiers.size()) return CompletableFuture.completedFuture(false);
+        return operation.apply(tiers.get(index))
+                .thenCompose(found -> Boolean.TRUE.equals(found) ? CompletableFuture.completedFuture(true) : firstTrue(index + 1, operation));
+    }
+}
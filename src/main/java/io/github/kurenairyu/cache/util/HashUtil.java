@@ -0,0 +1,33 @@
+package io.github.kurenairyu.cache.util;
+
+/**
+ * 哈希工具
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:50
+ */
+public class HashUtil {
+
+    private HashUtil() {
+    }
+
+    /**
+     * FNV-1a 64位hash后再做一次 murmur3 的 fmix64，使高低位都足够分散，可以分别用于选择分段与槽位
+     *
+     * @param bytes 数据
+     * @return 64位hash
+     */
+    public static long hash64(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.kurenairyu.cache.util;
+
+import io.github.kurenairyu.cache.redis.RedisCache;
+import lombok.extern.log4j.Log4j2;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段ID分配器
+ * <p>
+ * 通过 Redis INCRBY 在每个序列对应的key上预留一段id，之后在本地无锁分发。
+ * 当前号段使用到 {@code prefetchRatio} 时异步预取下一个号段（双缓冲），正常情况下 {@link #nextId()} 不会等待网络。
+ * 号段长度根据消耗速度自适应：消耗过快则翻倍，过慢则减半，使每个号段大致维持 {@code segmentMillis}。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:27
+ */
+@Log4j2
+public class SegmentIdAllocator {
+
+    public static final String NAMESPACE               = "id_segment";
+    public static final long   DEFAULT_MIN_STEP        = 1000L;
+    public static final long   DEFAULT_MAX_STEP        = 1_000_000L;
+    public static final double DEFAULT_PREFETCH_RATIO  = 0.2;
+    public static final long   DEFAULT_SEGMENT_MILLIS  = TimeUnit.MINUTES.toMillis(10);
+
+    private final RedisCache cache;
+    private final String     sequence;
+    private final long       minStep;
+    private final long       maxStep;
+    private final double     prefetchRatio;
+    private final long       segmentNanos;
+
+    private volatile Segment                    current;
+    private volatile CompletableFuture<Segment> next;
+
+    public SegmentIdAllocator(RedisCache cache, String sequence) {
+        this(cache, sequence, DEFAULT_MIN_STEP, DEFAULT_MAX_STEP, DEFAULT_PREFETCH_RATIO, DEFAULT_SEGMENT_MILLIS);
+    }
+
+    /**
+     * @param cache         redis缓存
+     * @param sequence      序列名
+     * @param minStep       最小号段长度
+     * @param maxStep       最大号段长度
+     * @param prefetchRatio 使用比例达到该值时预取下一个号段 (0, 1)
+     * @param segmentMillis 期望单个号段维持的时间(ms)
+     */
+    public SegmentIdAllocator(RedisCache cache, String sequence, long minStep, long maxStep,
+                              double prefetchRatio, long segmentMillis) {
+        if (minStep <= 0 || maxStep < minStep) {
+            throw new IllegalArgumentException("minStep must be greater than 0 and not greater than maxStep");
+        }
+        if (prefetchRatio <= 0 || prefetchRatio >= 1) {
+            throw new IllegalArgumentException("prefetchRatio must be between 0 and 1");
+        }
+        this.cache = cache;
+        this.sequence = sequence;
+        this.minStep = minStep;
+        this.maxStep = maxStep;
+        this.prefetchRatio = prefetchRatio;
+        this.segmentNanos = TimeUnit.MILLISECONDS.toNanos(segmentMillis);
+    }
+
+    /**
+     * 获取下一个ID
+     *
+     * @return id
+     */
+    public long nextId() {
+        Segment segment = current;
+        while (true) {
+            if (segment == null) {
+                segment = switchSegment(null);
+                continue;
+            }
+            long id = segment.cursor.getAndIncrement();
+            if (id < segment.end) {
+                if (id == segment.prefetchAt) prefetch(segment);
+                return id;
+            }
+            segment = switchSegment(segment);
+        }
+    }
+
+    /**
+     * @return 当前号段长度
+     */
+    public long getStep() {
+        Segment segment = current;
+        return segment == null ? minStep : segment.step;
+    }
+
+    private synchronized void prefetch(Segment segment) {
+        if (current != segment || next != null) return;
+        next = fetch(adjustStep(segment));
+    }
+
+    private synchronized Segment switchSegment(Segment exhausted) {
+        if (current != exhausted) return current;
+        CompletableFuture<Segment> future = next == null ? fetch(exhausted == null ? minStep : exhausted.step) : next;
+        next = null;
+        try {
+            current = future.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Fetch id segment of [" + sequence + "] fail", e.getCause());
+        }
+        return current;
+    }
+
+    private CompletableFuture<Segment> fetch(long step) {
+        return cache.incrByAsync(NAMESPACE, sequence, step)
+                .thenApply(max -> new Segment(max - step + 1, max + 1, step, prefetchRatio))
+                .whenComplete((s, e) -> {
+                    if (e != null) log.error("Fetch id segment of [{}] fail", sequence, e);
+                });
+    }
+
+    /**
+     * 根据当前号段从创建到触发预取的耗时推算整段的消耗时间，调整下一号段长度
+     */
+    private long adjustStep(Segment segment) {
+        long projected = (long) ((System.nanoTime() - segment.createdAt) / prefetchRatio);
+        if (projected < segmentNanos / 2) return Math.min(segment.step << 1, maxStep);
+        if (projected > segmentNanos << 1) return Math.max(segment.step >> 1, minStep);
+        return segment.step;
+    }
+
+    private static final class Segment {
+        private final long       end;
+        private final long       step;
+        private final long       prefetchAt;
+        private final long       createdAt = System.nanoTime();
+        private final AtomicLong cursor;
+
+        private Segment(long start, long end, long step, double prefetchRatio) {
+            this.end = end;
+            this.step = step;
+            this.prefetchAt = start + (long) (step * prefetchRatio);
+            this.cursor = new AtomicLong(start);
+        }
+    }
+}
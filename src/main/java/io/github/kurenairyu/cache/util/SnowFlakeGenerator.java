@@ -1,7 +1,16 @@
 package io.github.kurenairyu.cache.util;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * twitter的snowflake算法 -- java实现
+ * <p>
+ * 时间戳与序列号打包在同一个 {@link AtomicLong} 中，通过 CAS 无锁推进。
+ * 同一毫秒序列号用尽时直接进位到下一毫秒（向未来借时间），时钟回拨时也继续沿用已借的时间，
+ * 只有超前量超过 {@code maxBorrowMillis} 时才短暂等待时钟追上，不再抛出异常。
+ * </p>
  */
 public class SnowFlakeGenerator {
 
@@ -31,75 +40,105 @@ public class SnowFlakeGenerator {
   private final static long DATACENTER_LEFT = SEQUENCE_BIT + MACHINE_BIT;
   private final static long TIMESTMP_LEFT = DATACENTER_LEFT + DATACENTER_BIT;
 
-  private final long datacenterId;  //数据中心
-  private final long machineId;     //机器标识
-  private long sequence = 0L; //序列号
-  private long lastStmp = -1L;//上一次时间戳
+  /**
+   * 默认允许超前系统时钟的最大毫秒数
+   */
+  public final static long DEFAULT_MAX_BORROW_MILLIS = 1000L;
 
-  private static SnowFlakeGenerator instance;
+  private final long workerBits;      //数据中心与机器标识部分
+  private final long maxBorrowMillis; //允许超前的最大毫秒数
+  /**
+   * 高位为相对时间戳，低 {@link #SEQUENCE_BIT} 位为序列号
+   */
+  private final AtomicLong state = new AtomicLong(-1L);
+
+  private static class InstanceHolder {
+    private static final SnowFlakeGenerator INSTANCE = new SnowFlakeGenerator(1, 1);
+  }
 
   public SnowFlakeGenerator(long datacenterId, long machineId) {
+    this(datacenterId, machineId, DEFAULT_MAX_BORROW_MILLIS);
+  }
+
+  public SnowFlakeGenerator(long datacenterId, long machineId, long maxBorrowMillis) {
     if (datacenterId > MAX_DATACENTER_NUM || datacenterId < 0) {
       throw new IllegalArgumentException("datacenterId can't be greater than MAX_DATACENTER_NUM or less than 0");
     }
     if (machineId > MAX_MACHINE_NUM || machineId < 0) {
       throw new IllegalArgumentException("machineId can't be greater than MAX_MACHINE_NUM or less than 0");
     }
-    this.datacenterId = datacenterId;
-    this.machineId = machineId;
+    if (maxBorrowMillis < 0) {
+      throw new IllegalArgumentException("maxBorrowMillis can't be less than 0");
+    }
+    this.workerBits = datacenterId << DATACENTER_LEFT | machineId << MACHINE_LEFT;
+    this.maxBorrowMillis = maxBorrowMillis;
   }
 
   /**
    * 获取实例
    *
-   * @return
+   * @return 全局共享实例
    */
   public static SnowFlakeGenerator getInstance() {
-    if (instance == null) {
-      instance = new SnowFlakeGenerator(1, 1);
-      return instance;
-    } else {
-      return instance;
-    }
+    return InstanceHolder.INSTANCE;
   }
 
   /**
    * 产生下一个ID
    *
-   * @return
+   * @return id
    */
-  public synchronized long nextId() {
-    long currStmp = getNewstmp();
-    if (currStmp < lastStmp) {
-      throw new RuntimeException("Clock moved backwards.  Refusing to generate id");
+  public long nextId() {
+    return toId(reserve(1));
+  }
+
+  /**
+   * 批量产生ID，只需一次 CAS
+   *
+   * @param n 数量
+   * @return 递增的id数组
+   */
+  public long[] nextIds(int n) {
+    if (n <= 0 || n > (maxBorrowMillis + 1) << SEQUENCE_BIT) {
+      throw new IllegalArgumentException("n must be greater than 0 and can't exceed the borrowable sequence range");
     }
+    long last = reserve(n);
+    long[] ids = new long[n];
+    for (int i = 0; i < n; i++) {
+      ids[i] = toId(last - (n - 1 - i));
+    }
+    return ids;
+  }
 
-    if (currStmp == lastStmp) {
-      //相同毫秒内，序列号自增
-      sequence = (sequence + 1) & MAX_SEQUENCE;
-      //同一毫秒的序列数已经达到最大
-      if (sequence == 0L) {
-        currStmp = getNextMill();
+  /**
+   * 预留 n 个连续的 时间戳+序列号 值
+   *
+   * @param n 数量
+   * @return 预留区间的最后一个值
+   */
+  private long reserve(int n) {
+    while (true) {
+      long prev = state.get();
+      long now = getNewstmp() - START_STMP;
+      long first = Math.max(prev + 1, now << SEQUENCE_BIT);
+      long last = first + n - 1;
+      //超前太多（序列号耗尽过快或时钟大幅回拨），等待时钟追上
+      long ahead = (last >>> SEQUENCE_BIT) - now;
+      if (ahead > maxBorrowMillis) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(ahead - maxBorrowMillis, 10L)));
+        continue;
+      }
+      if (state.compareAndSet(prev, last)) {
+        return last;
       }
-    } else {
-      //不同毫秒内，序列号置为0
-      sequence = 0L;
+      Thread.onSpinWait();
     }
-
-    lastStmp = currStmp;
-
-    return (currStmp - START_STMP) << TIMESTMP_LEFT //时间戳部分
-        | datacenterId << DATACENTER_LEFT       //数据中心部分
-        | machineId << MACHINE_LEFT             //机器标识部分
-        | sequence;                             //序列号部分
   }
 
-  private long getNextMill() {
-    long mill = getNewstmp();
-    while (mill <= lastStmp) {
-      mill = getNewstmp();
-    }
-    return mill;
+  private long toId(long packed) {
+    return (packed >>> SEQUENCE_BIT) << TIMESTMP_LEFT //时间戳部分
+        | workerBits                                  //数据中心与机器标识部分
+        | packed & MAX_SEQUENCE;                      //序列号部分
   }
 
   private long getNewstmp() {
@@ -0,0 +1,18 @@
+package io.github.kurenairyu.cache.writebehind;
+
+/**
+ * 等待写回的一次写入
+ *
+ * @param namespace 命名空间
+ * @param key       redis key
+ * @param value     缓存对象
+ * @param expiresAt 过期时间戳(ms)，0表示不过期
+ * @author Kurenai
+ * @since 2026-10-19 12:58
+ */
+public record PendingWrite(String namespace, String key, Object value, long expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt > 0 && expiresAt <= System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.kurenairyu.cache.writebehind;
+
+import io.github.kurenairyu.cache.exception.CacheUnavailableException;
+import lombok.extern.log4j.Log4j2;
+
+import java.io.Closeable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 写回缓冲
+ * <p>
+ * 指定命名空间的写入先按key合并在本地，同一key只保留最后一次写入，由后台线程每隔 {@code flushInterval} 毫秒
+ * 或积累到 {@code batchSize} 个key时按批交给写入方。写入成功后才从缓冲移除，期间本地读取始终能看到未写回的值。
+ * </p>
+ * <p>
+ * 缓冲最多保存 {@code maxPending} 个key，超出时由写入线程同步写回，写回失败则抛出异常。
+ * 写入方以 {@link CacheUnavailableException} 表示暂时不可用（如熔断器打开），定时写回跳过本次，写入保留到下次。
+ * 异步写入方法也在调用线程上执行这次写回，调用方不能在事件循环线程上写入已满的缓冲。
+ * 删除、清除需先调用 {@link #discard}，该操作会等待正在进行的写回完成，避免已删除的值被写回。
+ * </p>
+ *
+ * @author Kurenai
+ * @since 2026-10-19 12:58
+ */
+@Log4j2
+public class WriteBehindBuffer implements Closeable {
+
+    public static final int  DEFAULT_BATCH_SIZE     = 512;
+    public static final int  DEFAULT_MAX_PENDING    = 65536;
+    public static final long DEFAULT_FLUSH_INTERVAL = 100L;
+
+    private final ConcurrentHashMap<String, PendingWrite> pending        = new ConcurrentHashMap<>();
+    private final ReentrantLock                           flushLock      = new ReentrantLock();
+    private final ReentrantLock                           offerLock      = new ReentrantLock();
+    private final AtomicBoolean                           flushScheduled = new AtomicBoolean();
+    private final Set<String>                             namespaces;
+    private final int                                     batchSize;
+    private final int                                     maxPending;
+    private final long                                    flushInterval;
+    private volatile Consumer<List<PendingWrite>>         writer;
+    private volatile ScheduledExecutorService             executor;
+
+    /**
+     * @param namespaces 启用写回的命名空间，为空则所有命名空间都启用
+     */
+    public WriteBehindBuffer(String... namespaces) {
+        this(Arrays.asList(namespaces), DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param namespaces    启用写回的命名空间，为空则所有命名空间都启用
+     * @param batchSize     每批最多写回的key数量，缓冲达到该数量时立即写回
+     * @param maxPending    缓冲最多保存的key数量
+     * @param flushInterval 定时写回间隔(ms)
+     */
+    public WriteBehindBuffer(Collection<String> namespaces, int batchSize, int maxPending, long flushInterval) {
+        if (batchSize <= 0 || maxPending < batchSize || flushInterval <= 0) {
+            throw new IllegalArgumentException("batchSize and flushInterval must be greater than 0, maxPending must not be less than batchSize");
+        }
+        this.namespaces = Set.copyOf(namespaces);
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * 绑定写入方并启动定时写回，由缓存实现调用
+     *
+     * @param writer 批量写入方法，失败时抛出异常，该批写入会保留在缓冲中等待下次写回
+     */
+    public synchronized void start(Consumer<List<PendingWrite>> writer) {
+        if (this.writer != null) throw new IllegalStateException("Write-behind buffer already started");
+        this.writer = writer;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cache-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::scheduledFlush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 该命名空间是否启用写回
+     */
+    public boolean isBuffered(String namespace) {
+        return namespaces.isEmpty() || namespaces.contains(namespace);
+    }
+
+    /**
+     * 缓冲一次写入，覆盖同一key未写回的值
+     * <p>
+     * 检查容量与加入缓冲在同一把锁内完成，缓冲的key数量不会超过 {@code maxPending}。
+     * 缓冲已满时在当前线程同步写回，期间其他写入线程等待。
+     * </p>
+     */
+    public void offer(PendingWrite write) {
+        offerLock.lock();
+        try {
+            if (pending.size() >= maxPending && !pending.containsKey(write.key())) {
+                flush();
+                if (pending.size() >= maxPending) throw new RuntimeException("Write-behind buffer is full");
+            }
+            pending.put(write.key(), write);
+        } finally {
+            offerLock.unlock();
+        }
+        if (pending.size() >= batchSize && executor != null && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(this::scheduledFlush);
+        }
+    }
+
+    /**
+     * @param key redis key
+     * @return 未写回的写入，没有则返回null
+     */
+    public PendingWrite get(String key) {
+        return pending.isEmpty() ? null : pending.get(key);
+    }
+
+    /**
+     * 丢弃key未写回的写入
+     *
+     * @param key redis key
+     */
+    public void discard(String key) {
+        if (pending.isEmpty()) return;
+        flushLock.lock();
+        try {
+            pending.remove(key);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 丢弃命名空间下未写回的写入
+     *
+     * @param namespace 命名空间
+     */
+    public void discardNamespace(String namespace) {
+        flushLock.lock();
+        try {
+            pending.values().removeIf(write -> write.namespace().equals(namespace));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void discardAll() {
+        flushLock.lock();
+        try {
+            pending.clear();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 同步写回当前缓冲的所有写入
+     */
+    public void flush() {
+        Consumer<List<PendingWrite>> writer = this.writer;
+        if (writer == null) throw new IllegalStateException("Write-behind buffer not started");
+        flushLock.lock();
+        try {
+            var batch = new ArrayList<PendingWrite>(Math.min(batchSize, pending.size()));
+            for (PendingWrite write : pending.values()) {
+                batch.add(write);
+                if (batch.size() == batchSize) {
+                    write(writer, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) write(writer, batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止定时写回并写回剩余的写入
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService executor = this.executor;
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(flushInterval * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void write(Consumer<List<PendingWrite>> writer, List<PendingWrite> batch) {
+        writer.accept(batch);
+        //写回期间被覆盖的key保留新值等待下次写回
+        for (PendingWrite write : batch) {
+            pending.remove(write.key(), write);
+        }
+    }
+
+    private void scheduledFlush() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) return;
+        try {
+            flush();
+        } catch (CacheUnavailableException e) {
+            log.debug("Skip flushing write-behind buffer: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Flush write-behind buffer error!", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.kurenairyu.cache.bloom;
+
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void test() throws Exception {
+        try (RespServer server = new RespServer()) {
+            LettuceCache cache = new LettuceCache("127.0.0.1", server.getPort());
+            LettuceCache other = new LettuceCache("127.0.0.1", server.getPort());
+            try {
+                BloomFilter filter = cache.registerBloomFilter("user", 100, 0.01, 60_000);
+                filter.addAll(IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList()));
+
+                //超出容量后扩展新层，已加入的key不会被误判为不存在
+                filter.addAll(IntStream.range(100, 300).mapToObj(String::valueOf).collect(Collectors.toList()));
+                assertTrue(filter.layerCount() > 1);
+                for (int i = 0; i < 300; i++) {
+                    assertTrue(filter.mightContain(String.valueOf(i)));
+                }
+                filter.refresh();
+
+                var loads = new AtomicInteger();
+                assertNull(cache.get("user", 1000, 60_000, key -> {
+                    loads.incrementAndGet();
+                    return "u" + key;
+                }));
+                assertEquals("u1", cache.get("user", 1, 60_000, key -> {
+                    loads.incrementAndGet();
+                    return "u" + key;
+                }));
+                assertEquals(1, loads.get());
+                assertEquals(List.of(1), List.copyOf(cache.getAll("user", List.of(1, 1000, 1001)).keySet()));
+                assertTrue(filter.rejectedCount() >= 3);
+
+                //写入的key自动加入，其他节点刷新后可见，redis中位图丢失后用本地副本恢复
+                cache.put("user", 2000, "u2000");
+                assertEquals("u2000", cache.get("user", 2000));
+                filter.refresh();
+                BloomFilter otherFilter = other.registerBloomFilter("user", 100, 0.01, 60_000);
+                assertEquals(filter.layerCount(), otherFilter.layerCount());
+                assertTrue(otherFilter.mightContain("2000"));
+                assertTrue(otherFilter.mightContain("299"));
+                other.clearAll();
+                filter.refresh();
+                otherFilter.refresh();
+                assertTrue(otherFilter.mightContain("2000"));
+
+                cache.get("user", 3, 60_000, key -> null);
+                assertEquals(1, filter.falsePositiveCount());
+                assertTrue(filter.falsePositiveRate() > 0);
+                assertTrue(filter.expectedFalsePositiveRate() < 0.05);
+            } finally {
+                cache.shutdown();
+                other.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testOtherNode() throws Exception {
+        try (RespServer server = new RespServer()) {
+            LettuceCache cache = new LettuceCache("127.0.0.1", server.getPort());
+            LettuceCache other = new LettuceCache("127.0.0.1", server.getPort());
+            try {
+                BloomFilter filter      = cache.registerBloomFilter("user", 100, 0.01, 60_000);
+                BloomFilter otherFilter = other.registerBloomFilter("user", 100, 0.01, 60_000);
+
+                //默认只查本地副本，拦截不访问redis，其他节点写入的key刷新后可见
+                cache.put("user", 1, "u1");
+                assertNull(other.get("user", 1));
+                assertTrue(server.argCounts("GETBIT").isEmpty());
+                otherFilter.refresh();
+                assertEquals("u1", other.get("user", 1));
+
+                //开启确认后本地判断不存在的key向redis确认，确认存在的合并到本地
+                cache.put("user", 4, "u4");
+                otherFilter.setConfirmRejects(true);
+                assertEquals(Map.of(4, "u4"), other.getAll("user", List.of(4, 2)));
+                int getBits = server.argCounts("GETBIT").size();
+                assertTrue(getBits > 0);
+                assertTrue(otherFilter.mightContain("4"));
+                assertEquals(getBits, server.argCounts("GETBIT").size());
+                assertFalse(otherFilter.mightContain("2"));
+
+                //没有其他节点新增的位时刷新不拉取整个位图；位图丢失时按位或恢复，保留其他节点同时写入的位
+                int gets = server.argCounts("GET").size();
+                filter.refresh();
+                assertEquals(gets, server.argCounts("GET").size());
+                other.clearAll();
+                otherFilter.add("3");
+                filter.refresh();
+                assertTrue(server.argCounts("BITOP").size() > 0);
+                assertTrue(filter.mightContain("3"));
+                LettuceCache third = new LettuceCache("127.0.0.1", server.getPort());
+                try {
+                    BloomFilter thirdFilter = third.registerBloomFilter("user", 100, 0.01, 60_000);
+                    int         restored    = server.argCounts("GETBIT").size();
+                    assertTrue(thirdFilter.mightContain("1"));
+                    assertTrue(thirdFilter.mightContain("3"));
+                    assertEquals(restored, server.argCounts("GETBIT").size());
+                } finally {
+                    third.shutdown();
+                }
+            } finally {
+                cache.shutdown();
+                other.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.kurenairyu.cache.disk;
+
+import io.github.kurenairyu.cache.redis.User;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecover() throws IOException, InterruptedException {
+        Path dir  = folder.newFolder().toPath();
+        User user = new User();
+        user.setAge(20);
+        user.setName("Kurenai");
+        try (DiskCache cache = new DiskCache(dir)) {
+            cache.put(User.class.getName(), user.getName(), user);
+            cache.put("ns", 1, "a");
+            cache.put("ns", 2, "b");
+            cache.put("ns", 2, "c");
+            cache.put("ns", 3, null);
+            cache.put("ttl", 1, "a", 1);
+            cache.remove("ns", 1);
+        }
+        //确保1ms的ttl在重新打开前已经过期
+        TimeUnit.MILLISECONDS.sleep(5);
+        try (DiskCache cache = new DiskCache(dir)) {
+            assertEquals(user.getName(), cache.<String, User>get(User.class.getName(), user.getName()).getName());
+            assertNull(cache.get("ns", 1));
+            assertEquals("c", cache.get("ns", 2));
+            assertTrue(cache.exists("ns", 3));
+            assertFalse(cache.exists("ttl", 1));
+            assertTrue(cache.clear("ns"));
+        }
+        try (DiskCache cache = new DiskCache(dir)) {
+            assertFalse(cache.exists("ns", 2));
+            assertTrue(cache.exists(User.class.getName(), user.getName()));
+        }
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        Path dir = folder.newFolder().toPath();
+        try (DiskCache cache = new DiskCache(dir, 4096, 0.5, 0, new KryoCodec<>())) {
+            for (int i = 0; i < 1000; i++) {
+                cache.put("compact", i % 10, i);
+            }
+            cache.remove("compact", 0);
+            int before = cache.segmentCount();
+            assertTrue(before > 1);
+            assertTrue(cache.compact() > 0);
+            assertTrue(cache.segmentCount() < before);
+            for (int i = 1; i < 10; i++) {
+                assertEquals(990 + i, (int) cache.get("compact", i));
+            }
+        }
+        try (DiskCache cache = new DiskCache(dir, 4096, 0.5, 0, new KryoCodec<>())) {
+            assertNull(cache.get("compact", 0));
+            assertEquals(999, (int) cache.get("compact", 9));
+            assertEquals(9, cache.estimatedSize());
+        }
+    }
+
+    @Test
+    public void testCompactExpired() throws IOException, InterruptedException {
+        Path   dir     = folder.newFolder().toPath();
+        String padding = "x".repeat(100);
+        try (DiskCache cache = new DiskCache(dir, 4096, 0.5, 0, new KryoCodec<>())) {
+            //第一个段中是被覆盖的旧值和仍然有效的记录，不会被压缩
+            cache.put("ns", 1, "old");
+            for (int i = 0; cache.segmentCount() == 1; i++) {
+                cache.put("fill", i, padding);
+            }
+            //第二个段中是很快过期的新值和被反复覆盖的记录，会被压缩
+            cache.put("ns", 1, "new", 1);
+            while (cache.segmentCount() == 2) {
+                cache.put("churn", 0, padding);
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+            assertNull(cache.get("ns", 1));
+            assertEquals(1, cache.compact());
+        }
+        //压缩丢弃过期记录时写入了删除标记，旧值不会在重启后恢复
+        try (DiskCache cache = new DiskCache(dir, 4096, 0.5, 0, new KryoCodec<>())) {
+            assertNull(cache.get("ns", 1));
+            assertEquals(padding, cache.get("churn", 0));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.kurenairyu.cache.hotkey;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HotKeyDetectorTest {
+
+    @Test
+    public void test() {
+        HotKeyDetector detector = new HotKeyDetector(1, 8, 2, 60_000, 60_000);
+
+        for (int i = 0; i < 7; i++) {
+            detector.onRead("ns", "ns:hot", "v");
+        }
+        assertNull(detector.getLocal("ns", "ns:hot"));
+        assertTrue(detector.hotKeys("ns").isEmpty());
+
+        //达到阈值后成为热点，之后读到的值保存在本地
+        detector.onRead("ns", "ns:hot", "v");
+        detector.onRead("ns", "ns:hot", "v");
+        assertEquals("v", detector.getLocal("ns", "ns:hot"));
+        List<HotKey> hotKeys = detector.hotKeys("ns");
+        assertEquals(1, hotKeys.size());
+        assertEquals("ns:hot", hotKeys.get(0).key());
+        assertTrue(hotKeys.get(0).local());
+
+        //写入失效本地副本，但仍是热点
+        detector.invalidate("ns", "ns:hot");
+        assertNull(detector.getLocal("ns", "ns:hot"));
+        assertEquals(1, detector.hotKeys("ns").size());
+        detector.onRead("ns", "ns:hot", "v2");
+        assertEquals("v2", detector.getLocal("ns", "ns:hot"));
+        detector.invalidateAll();
+        assertNull(detector.getLocal("ns", "ns:hot"));
+
+        //读取redis期间发生写入，读到的旧值不会成为本地副本
+        long stamp = detector.stamp("ns", "ns:hot");
+        detector.invalidate("ns", "ns:hot");
+        detector.onRead("ns", "ns:hot", "stale", stamp);
+        assertNull(detector.getLocal("ns", "ns:hot"));
+        assertEquals(-1, detector.stamp("ns", "ns:cold"));
+
+        //热点满时替换估算值最小的
+        for (int i = 0; i < 12; i++) {
+            detector.onRead("ns", "ns:a", null);
+        }
+        for (int i = 0; i < 20; i++) {
+            detector.onRead("ns", "ns:b", null);
+        }
+        hotKeys = detector.hotKeys("ns");
+        assertEquals(2, hotKeys.size());
+        assertEquals("ns:b", hotKeys.get(0).key());
+        assertEquals("ns:a", hotKeys.get(1).key());
+        assertNull(detector.getLocal("ns", "ns:hot"));
+        assertTrue(detector.hotKeys().containsKey("ns"));
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.kurenairyu.cache.memory;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemoryCache 与 ConcurrentHashMap 在偏斜访问下的读写吞吐量对比
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class MemoryCacheBenchmark {
+
+    private static final String NAMESPACE = "bench";
+    private static final int    SIZE      = 1 << 16;
+    private static final int    KEY_SPACE = SIZE * 2;
+
+    @Param({"memory", "chm"})
+    private String impl;
+
+    private MemoryCache                        cache;
+    private ConcurrentHashMap<Integer, Integer> map;
+
+    @Setup
+    public void setup() {
+        cache = new MemoryCache(SIZE);
+        map = new ConcurrentHashMap<>();
+        for (int i = 0; i < SIZE; i++) {
+            cache.put(NAMESPACE, i, i);
+            map.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer read() {
+        Integer key = nextKey();
+        return "memory".equals(impl) ? cache.get(NAMESPACE, key) : map.get(key);
+    }
+
+    @Benchmark
+    public void write() {
+        Integer key = nextKey();
+        if ("memory".equals(impl)) {
+            cache.put(NAMESPACE, key, key);
+        } else {
+            map.put(key, key);
+        }
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(6)
+    public Integer readWriteRead() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public void readWriteWrite() {
+        write();
+    }
+
+    /**
+     * 近似Zipf分布：小key被访问得更频繁
+     */
+    private static Integer nextKey() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        return (int) (r * r * r * KEY_SPACE);
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.kurenairyu.cache.memory;
+
+import io.github.kurenairyu.cache.Cache;
+import io.github.kurenairyu.cache.CacheFactory;
+import io.github.kurenairyu.cache.CacheType;
+import io.github.kurenairyu.cache.redis.User;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MemoryCacheTest {
+
+    @Test
+    public void test() {
+        Cache cache = CacheFactory.create(CacheType.MEMORY);
+        User  user  = new User();
+        user.setAge(20);
+        user.setName("Kurenai");
+        cache.put(User.class.getName(), user.getName(), user);
+        User user1 = cache.get(User.class.getName(), user.getName());
+        assertEquals(user.getName(), user1.getName());
+
+        User other = new User();
+        other.setName("NatsuSai");
+        assertFalse(cache.putIfAbsent(User.class.getName(), user.getName(), other));
+        assertEquals(user.getName(), cache.<String, User>get(User.class.getName(), user.getName()).getName());
+
+        assertTrue(cache.clear(User.class.getName()));
+        assertNull(cache.get(User.class.getName(), user.getName()));
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        MemoryCache cache = new MemoryCache();
+        cache.put("ttl", 1, "a", 50);
+        cache.put("ttl", 2, "b");
+        assertEquals("a", cache.get("ttl", 1));
+        Thread.sleep(80);
+        assertNull(cache.get("ttl", 1));
+        assertFalse(cache.exists("ttl", 1));
+        assertTrue(cache.putIfAbsent("ttl", 1, "c", 1000));
+        assertEquals("c", cache.get("ttl", 1));
+        assertEquals("b", cache.get("ttl", 2));
+    }
+
+    @Test
+    public void testExpiredReclaimed() throws InterruptedException {
+        MemoryCache cache = new MemoryCache();
+        for (int i = 0; i < 100; i++) {
+            cache.put("ttl", i, i, 10);
+        }
+        cache.cleanUp();
+        assertEquals(100, cache.weightedSize());
+        //时间轮最细一层的跨度约为1.07秒
+        Thread.sleep(1200);
+        cache.cleanUp();
+        assertEquals(0, cache.weightedSize());
+        assertEquals(0, cache.estimatedSize());
+    }
+
+    @Test
+    public void testNullValueAndLoader() {
+        MemoryCache cache = new MemoryCache();
+        assertNull(cache.get("user", 1L, 1000, k -> null));
+        assertTrue(cache.exists("user", 1L));
+        assertEquals("2", cache.get("user", 2L, 1000, String::valueOf));
+
+        Map<Long, String> all = cache.getAll("user", List.of(2L, 3L), keys -> Map.of(3L, "3"));
+        assertEquals(Map.of(2L, "2", 3L, "3"), all);
+    }
+
+    @Test
+    public void testEvictionBound() {
+        MemoryCache cache = new MemoryCache(1000);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("bound", i, i);
+            //制造热点，热点应当在淘汰中存活
+            cache.get("bound", 1);
+        }
+        cache.cleanUp();
+        assertEquals(1000, cache.weightedSize());
+        assertTrue(cache.estimatedSize() <= 1000);
+        assertEquals(Integer.valueOf(1), cache.get("bound", 1));
+    }
+
+    @Test
+    public void testWeigher() {
+        MemoryCache cache = new MemoryCache(100, (namespace, key, value) -> ((String) value).length());
+        for (int i = 0; i < 100; i++) {
+            cache.put("weight", i, "0123456789");
+        }
+        cache.cleanUp();
+        assertTrue(cache.weightedSize() <= 100);
+        assertTrue(cache.estimatedSize() <= 10);
+    }
+
+    @Test
+    public void testScan() throws InterruptedException {
+        MemoryCache cache = new MemoryCache();
+        cache.put("user", 1, "u1");
+        cache.put("user", 2, null);
+        cache.put("user", 3, "u3", 10);
+        cache.put("other", 4, "u4");
+        Thread.sleep(20);
+
+        //过期的不出现，null值只出现在key中
+        assertEquals(Set.of("1", "2"), cache.keys("user").collect(Collectors.toSet()));
+        assertEquals(Map.of("1", "u1"), cache.<String>entries("user").collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        assertEquals(0, cache.keys("none").count());
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.kurenairyu.cache.metrics;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次记录的开销，目标在100ns以内
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class StripedCacheMetricsBenchmark {
+
+    private final StripedCacheMetrics metrics = new StripedCacheMetrics();
+
+    @Benchmark
+    public void recordLatency() {
+        metrics.recordLatency("user", CacheOperation.GET, ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    public void recordHit() {
+        metrics.recordHits("user", 1);
+    }
+
+    @Benchmark
+    public void recordGet() {
+        metrics.recordLatency("user", CacheOperation.GET, ThreadLocalRandom.current().nextLong(1_000_000));
+        metrics.recordHits("user", 1);
+        metrics.recordPayload("user", 256);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StripedCacheMetricsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
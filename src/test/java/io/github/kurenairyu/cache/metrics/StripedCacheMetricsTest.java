@@ -0,0 +1,88 @@
+package io.github.kurenairyu.cache.metrics;
+
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class StripedCacheMetricsTest {
+
+    @Test
+    public void testSnapshot() {
+        StripedCacheMetrics metrics = new StripedCacheMetrics();
+        metrics.recordHits("user", 3);
+        metrics.recordMisses("user", 1);
+        metrics.recordLoad("user", TimeUnit.MILLISECONDS.toNanos(5), true);
+        for (int i = 1; i <= 1000; i++) {
+            metrics.recordLatency("user", CacheOperation.GET, TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        NamespaceStats stats = metrics.snapshot("user");
+        assertEquals(3, stats.hits());
+        assertEquals(0.75, stats.hitRatio(), 0.0001);
+        assertEquals(1, stats.loadSuccesses());
+
+        HistogramSnapshot get = stats.commandLatencies().get(CacheOperation.GET);
+        assertEquals(1000, get.count());
+        assertEquals(500_000, get.p50(), 500_000 * 0.07);
+        assertEquals(990_000, get.p99(), 990_000 * 0.07);
+        assertEquals(1_000_000, get.max());
+        assertFalse(stats.commandLatencies().containsKey(CacheOperation.PUT));
+        assertNull(metrics.snapshot("order"));
+    }
+
+    @Test
+    public void testThrottle() {
+        StripedCacheMetrics metrics = new StripedCacheMetrics();
+        metrics.recordThrottle("user", TimeUnit.MILLISECONDS.toNanos(2), false);
+        metrics.recordThrottle("user", TimeUnit.MILLISECONDS.toNanos(3), false);
+        metrics.recordThrottle("user", TimeUnit.MILLISECONDS.toNanos(50), true);
+
+        NamespaceStats stats = metrics.snapshot("user");
+        assertEquals(2, stats.throttleDelayed().count());
+        assertEquals(1, stats.throttleRejected().count());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), stats.throttleRejected().max());
+    }
+
+    @Test
+    public void testCircuitTransition() {
+        StripedCacheMetrics metrics = new StripedCacheMetrics();
+        assertNull(metrics.circuitState());
+        metrics.recordCircuitTransition("CLOSED", "OPEN");
+        metrics.recordCircuitTransition("OPEN", "HALF_OPEN");
+        metrics.recordCircuitTransition("HALF_OPEN", "OPEN");
+        metrics.recordCircuitTransition("OPEN", "HALF_OPEN");
+
+        assertEquals("HALF_OPEN", metrics.circuitState());
+        assertEquals(Map.of("CLOSED->OPEN", 1L, "OPEN->HALF_OPEN", 2L, "HALF_OPEN->OPEN", 1L), metrics.circuitTransitions());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try (StripedCacheMetrics metrics = new StripedCacheMetrics("jmx-test")) {
+            metrics.recordThrottle("user", 1_000, false);
+            metrics.recordThrottle("user", 1_000, true);
+            metrics.recordCircuitTransition("CLOSED", "OPEN");
+
+            ObjectName cache = new ObjectName("io.github.kurenairyu.cache:type=CacheMetrics,name=\"jmx-test\"");
+            ObjectName user  = new ObjectName("io.github.kurenairyu.cache:type=NamespaceStats,name=\"jmx-test\",namespace=\"user\"");
+            assertEquals("OPEN", server.getAttribute(cache, "CircuitState"));
+            assertEquals(1L, server.getAttribute(user, "ThrottleDelayedCount"));
+            assertEquals(1L, server.getAttribute(user, "ThrottleRejectedCount"));
+        }
+    }
+
+    @Test
+    public void testHistogramIndex() {
+        for (long v = 0; v < 1 << 20; v += 7) {
+            long represent = StripedHistogram.valueOf(StripedHistogram.indexOf(v));
+            assertEquals(v, represent, Math.max(1, v * 0.07));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.kurenairyu.cache.namespace;
+
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import io.lettuce.core.RedisURI;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class NamespaceCacheTest {
+
+    @Test
+    public void test() {
+        MemoryCache                  cache = new MemoryCache();
+        NamespaceCache<Long, String> users = cache.namespace("user", Long.class, String.class)
+                .codec(ValueCodec.kryo(String.class))
+                .compressThreshold(64)
+                .defaultTtl(60_000, 1_000);
+
+        users.put(1L, "u1");
+        users.put(2L, "x".repeat(1024));
+        assertEquals("u1", users.get(1L));
+        assertEquals("x".repeat(1024), users.get(2L));
+
+        //底层保存的是带格式头的字节，超过阈值的被压缩
+        byte[] raw        = cache.get("user", 1L);
+        byte[] compressed = cache.get("user", 2L);
+        assertEquals(DefaultNamespaceCache.VERSION, raw[2]);
+        assertEquals(DefaultNamespaceCache.RAW, raw[3]);
+        assertEquals(DefaultNamespaceCache.DEFLATED, compressed[3]);
+        assertTrue(compressed.length < 100);
+
+        //其他方式写入的值直接返回
+        cache.put("user", 3L, "plain");
+        assertEquals(Map.of(1L, "u1", 3L, "plain"), users.getAll(List.of(1L, 3L, 4L)));
+
+        assertEquals("u5", users.get(5L, key -> "u" + key));
+        assertEquals(Map.of(5L, "u5", 6L, "u6"), users.getAll(List.of(5L, 6L), keys -> Map.of(6L, "u6")));
+        assertEquals("u6", users.get(6L));
+
+        assertTrue(users.remove(1L));
+        assertNull(users.get(1L));
+        assertTrue(users.clear());
+        assertFalse(users.exists(2L));
+    }
+
+    @Test
+    public void testRaw() throws Exception {
+        try (RespServer server = new RespServer()) {
+            LettuceCache cache = new LettuceCache(RedisURI.create("127.0.0.1", server.getPort()), new KryoCodec<>());
+            try {
+                var users = (DefaultNamespaceCache<Long, String>) cache.namespace("user", Long.class, String.class)
+                        .codec(ValueCodec.kryo(String.class));
+                users.put(1L, "u1");
+                users.putAll(Map.of(2L, "u2"));
+                assertTrue(users.putIfAbsent(3L, "u3"));
+                assertFalse(users.putIfAbsent(3L, "u3-2"));
+
+                //编码结果原样写入，不再经过缓存的编解码器
+                assertArrayEquals((byte[]) users.encode("u1"), server.rawValue("user:1"));
+                assertArrayEquals((byte[]) users.encode("u3"), server.rawValue("user:3"));
+                assertEquals("u1", users.get(1L));
+                assertEquals("u2", users.getAsync(2L).get(1, TimeUnit.SECONDS));
+                assertEquals(Map.of(1L, "u1", 2L, "u2", 3L, "u3"), users.getAll(List.of(1L, 2L, 3L, 4L)));
+
+                //其他方式写入的值改用缓存的编解码器读取
+                cache.put("user", 5L, "plain");
+                cache.put("user", 6L, users.encode("u6"));
+                assertEquals("plain", users.get(5L));
+                assertEquals("u6", users.getAsync(6L).get(1, TimeUnit.SECONDS));
+                assertEquals(Map.of(1L, "u1", 5L, "plain", 6L, "u6"), users.getAllAsync(List.of(1L, 5L, 6L)).get(1, TimeUnit.SECONDS));
+
+                //有格式头但版本未知的值直接报错，不当作其他方式写入的值
+                byte[] future = (byte[]) users.encode("u9");
+                future[2] = DefaultNamespaceCache.VERSION + 1;
+                cache.put("user", 9L, future);
+                try {
+                    users.get(9L);
+                    fail();
+                } catch (IllegalStateException ignored) {
+                }
+
+                assertEquals("u7", users.get(7L, key -> "u" + key));
+                assertArrayEquals((byte[]) users.encode("u7"), server.rawValue("user:7"));
+                assertEquals(Map.of(7L, "u7", 8L, "u8"), users.getAll(List.of(7L, 8L), keys -> Map.of(8L, "u8")));
+                assertArrayEquals((byte[]) users.encode("u8"), server.rawValue("user:8"));
+            } finally {
+                cache.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testNearCache() {
+        MemoryCache                  cache = new MemoryCache();
+        NamespaceCache<Long, String> users = cache.namespace("user", Long.class, String.class).nearCache(100, 60_000);
+
+        users.put(1L, "u1");
+        assertEquals("u1", users.get(1L));
+        //绕过句柄的写入在近端缓存过期前不可见
+        cache.put("user", 1L, "changed");
+        assertEquals("u1", users.get(1L));
+        //经过句柄的写入失效近端缓存
+        users.put(1L, "u1-2");
+        assertEquals("u1-2", users.get(1L));
+    }
+
+    @Test
+    public void testNearCacheExpire() {
+        MemoryCache                  cache = new MemoryCache();
+        NamespaceCache<Long, String> users = cache.namespace("user", Long.class, String.class).nearCache(100, 60_000);
+
+        users.put(1L, "u1");
+        assertEquals("u1", users.get(1L));
+        //过期失效近端缓存，之后读取以底层缓存为准
+        assertTrue(users.expire(1L, 1, TimeUnit.MILLISECONDS));
+        cache.put("user", 1L, "changed");
+        assertEquals("changed", users.get(1L));
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.kurenairyu.cache.offheap;
+
+import io.github.kurenairyu.cache.Cache;
+import io.github.kurenairyu.cache.CacheFactory;
+import io.github.kurenairyu.cache.CacheType;
+import io.github.kurenairyu.cache.redis.User;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class OffHeapCacheTest {
+
+    @Test
+    public void test() {
+        Cache cache = CacheFactory.create(CacheType.OFF_HEAP);
+        User  user  = new User();
+        user.setAge(20);
+        user.setName("Kurenai");
+        cache.put(User.class.getName(), user.getName(), user);
+        User user1 = cache.get(User.class.getName(), user.getName());
+        assertEquals(user.getName(), user1.getName());
+
+        User other = new User();
+        other.setName("NatsuSai");
+        assertFalse(cache.putIfAbsent(User.class.getName(), user.getName(), other));
+        cache.put(User.class.getName(), user.getName(), other);
+        assertEquals(other.getName(), cache.<String, User>get(User.class.getName(), user.getName()).getName());
+
+        cache.put("other", user.getName(), user);
+        assertTrue(cache.clear(User.class.getName()));
+        assertNull(cache.get(User.class.getName(), user.getName()));
+        assertTrue(cache.exists("other", user.getName()));
+    }
+
+    @Test
+    public void testTtl() throws InterruptedException {
+        OffHeapCache cache = new OffHeapCache();
+        cache.put("ttl", 1, "a", 50);
+        cache.put("ttl", 2, null);
+        assertEquals("a", cache.get("ttl", 1));
+        assertTrue(cache.exists("ttl", 2));
+        assertNull(cache.get("ttl", 2));
+        Thread.sleep(80);
+        assertNull(cache.get("ttl", 1));
+        assertFalse(cache.exists("ttl", 1));
+        assertTrue(cache.putIfAbsent("ttl", 1, "c", 1000));
+        assertEquals("c", cache.get("ttl", 1));
+    }
+
+    @Test
+    public void testEviction() {
+        OffHeapCache cache = new OffHeapCache(64 * 1024, 4, new KryoCodec<>());
+        byte[]       value = new byte[1000];
+        for (int i = 0; i < 1000; i++) {
+            cache.put("evict", i, value);
+        }
+        assertTrue(cache.usedBytes() <= 64 * 1024);
+        assertTrue(cache.estimatedSize() < 1000);
+        //最新写入的数据一定还在
+        assertArrayEquals(value, cache.get("evict", 999));
+        Map<Integer, byte[]> all = cache.getAll("evict", List.of(0, 1, 998, 999));
+        assertFalse(all.containsKey(0));
+        assertTrue(all.containsKey(999));
+        for (int i = 0; i < 1000; i++) {
+            cache.remove("evict", i);
+        }
+        assertEquals(0, cache.estimatedSize());
+    }
+}
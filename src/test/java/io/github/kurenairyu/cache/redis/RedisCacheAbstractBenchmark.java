@@ -0,0 +1,47 @@
+package io.github.kurenairyu.cache.redis;
+
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * redis键值拼接耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCacheAbstractBenchmark {
+
+    private RedisCacheAbstract cache;
+    private List<Long>         keys;
+    private long               key = 1234567890L;
+
+    @Setup
+    public void setup() {
+        //连接池惰性创建连接，这里不会连接redis
+        cache = new LettuceCache("localhost", 6379);
+        keys = LongStream.range(0, 100).boxed().collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((LettuceCache) cache).shutdown();
+    }
+
+    @Benchmark
+    public String buildKey() {
+        return cache.buildKey("user", key);
+    }
+
+    @Benchmark
+    public String[] buildKeys() {
+        return cache.buildKeys("user", keys);
+    }
+}
@@ -0,0 +1,548 @@
+package io.github.kurenairyu.cache.redis;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 进程内的最小RESP服务，仅供测试与基准使用
+ * <p>
+ * 支持本库用到的字符串、位图、hash与有序集合命令、SCAN、MULTI/EXEC 以及本库用到的几个脚本：锁释放用的“比较后删除”、
+ * hash分桶的清理、续期与写入（EVAL 不解析lua，按脚本中的命令识别后直接执行对应语义）。
+ * </p>
+ */
+public class RespServer implements Closeable {
+
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ServerSocket               serverSocket;
+    private final Map<String, Entry>         store       = new ConcurrentHashMap<>();
+    private final List<Socket>               clients     = Collections.synchronizedList(new ArrayList<>());
+    private final Map<Integer, String>       scanCursors = new ConcurrentHashMap<>();
+    private final Map<String, List<Integer>> argCounts   = new ConcurrentHashMap<>();
+    private final Map<String, Stall>         stalls      = new ConcurrentHashMap<>();
+    private final AtomicInteger              cursorSeq   = new AtomicInteger();
+    private volatile boolean                 running     = true;
+
+    public RespServer() throws IOException {
+        serverSocket = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "resp-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return 已执行的指定命令每次的参数个数
+     */
+    public List<Integer> argCounts(String command) {
+        return List.copyOf(argCounts.getOrDefault(command, List.of()));
+    }
+
+    /**
+     * @return 未过期的字符串值的原始字节，不存在返回null
+     */
+    public byte[] rawValue(String key) {
+        return value(key);
+    }
+
+    /**
+     * 之后的 {@code times} 次指定命令各延迟 {@code millis} 再执行，只阻塞发出该命令的连接
+     */
+    public void stall(String command, int times, long millis) {
+        stalls.put(command, new Stall(new AtomicInteger(times), millis));
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        synchronized (clients) {
+            for (Socket client : clients) client.close();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                clients.add(socket);
+                Thread worker = new Thread(() -> serve(socket), "resp-server-worker");
+                worker.setDaemon(true);
+                worker.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             var out = new BufferedOutputStream(socket.getOutputStream())) {
+            List<List<byte[]>> queued = null;
+            while (running) {
+                List<byte[]> args = readCommand(in);
+                if (args == null) return;
+                String name = str(args.get(0)).toUpperCase(Locale.ROOT);
+                Object reply;
+                if ("MULTI".equals(name)) {
+                    queued = new ArrayList<>();
+                    reply = "OK";
+                } else if ("DISCARD".equals(name)) {
+                    queued = null;
+                    reply = "OK";
+                } else if ("EXEC".equals(name)) {
+                    var replies = new ArrayList<>();
+                    if (queued != null) for (List<byte[]> cmd : queued) replies.add(execute(cmd));
+                    queued = null;
+                    reply = replies;
+                } else if (queued != null) {
+                    queued.add(args);
+                    reply = "QUEUED";
+                } else {
+                    reply = execute(args);
+                }
+                write(out, reply);
+                if (in.available() == 0) out.flush();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private Object execute(List<byte[]> args) {
+        String name = str(args.get(0)).toUpperCase(Locale.ROOT);
+        argCounts.computeIfAbsent(name, k -> Collections.synchronizedList(new ArrayList<>())).add(args.size() - 1);
+        Stall stall = stalls.get(name);
+        if (stall != null && stall.times().getAndDecrement() > 0) {
+            try {
+                Thread.sleep(stall.millis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        switch (name) {
+            case "PING":
+                return "PONG";
+            case "SELECT":
+            case "CLIENT":
+                return "OK";
+            case "GET":
+                return value(str(args.get(1)));
+            case "SET":
+                return set(args);
+            case "PSETEX":
+                store.put(str(args.get(1)), new Entry(args.get(3), expireAt(Long.parseLong(str(args.get(2))))));
+                return "OK";
+            case "SETNX":
+                return value(str(args.get(1))) == null && store.put(str(args.get(1)), new Entry(args.get(2), 0)) == null ? 1L : 0L;
+            case "MGET": {
+                var values = new ArrayList<>();
+                for (int i = 1; i < args.size(); i++) values.add(value(str(args.get(i))));
+                return values;
+            }
+            case "MSET":
+                for (int i = 1; i < args.size(); i += 2) store.put(str(args.get(i)), new Entry(args.get(i + 1), 0));
+                return "OK";
+            case "MSETNX":
+                for (int i = 1; i < args.size(); i += 2) if (value(str(args.get(i))) != null) return 0L;
+                for (int i = 1; i < args.size(); i += 2) store.put(str(args.get(i)), new Entry(args.get(i + 1), 0));
+                return 1L;
+            case "DEL":
+            case "UNLINK": {
+                long count = 0;
+                for (int i = 1; i < args.size(); i++) if (live(str(args.get(i))) != null && store.remove(str(args.get(i))) != null) count++;
+                return count;
+            }
+            case "EXISTS": {
+                long count = 0;
+                for (int i = 1; i < args.size(); i++) if (live(str(args.get(i))) != null) count++;
+                return count;
+            }
+            case "HGET":
+            case "HSET":
+            case "HMSET":
+            case "HSETNX":
+            case "HMGET":
+            case "HDEL":
+            case "HLEN":
+            case "HEXISTS":
+            case "HINCRBY":
+                synchronized (store) {
+                    return hash(name, args);
+                }
+            case "ZADD":
+            case "ZREM":
+            case "ZRANGEBYSCORE":
+            case "ZREMRANGEBYSCORE":
+                synchronized (store) {
+                    return zset(name, args);
+                }
+            case "PEXPIRE":
+            case "EXPIRE": {
+                Entry entry = live(str(args.get(1)));
+                if (entry == null) return 0L;
+                long ttl = Long.parseLong(str(args.get(2)));
+                store.put(str(args.get(1)), new Entry(entry.value, expireAt("EXPIRE".equals(name) ? ttl * 1000 : ttl)));
+                return 1L;
+            }
+            case "PTTL": {
+                Entry entry = live(str(args.get(1)));
+                if (entry == null) return -2L;
+                return entry.expireAt == 0 ? -1L : Math.max(0, entry.expireAt - System.currentTimeMillis());
+            }
+            case "SETBIT": {
+                synchronized (store) {
+                    long   offset  = Long.parseLong(str(args.get(2)));
+                    byte[] current = value(str(args.get(1)));
+                    byte[] bitmap  = Arrays.copyOf(current == null ? new byte[0] : current, Math.max(current == null ? 0 : current.length, (int) (offset >>> 3) + 1));
+                    int    mask    = 0x80 >>> (offset & 7);
+                    long   old     = (bitmap[(int) (offset >>> 3)] & mask) == 0 ? 0L : 1L;
+                    if ("1".equals(str(args.get(3)))) bitmap[(int) (offset >>> 3)] |= (byte) mask;
+                    else bitmap[(int) (offset >>> 3)] &= (byte) ~mask;
+                    store.put(str(args.get(1)), new Entry(bitmap, 0));
+                    return old;
+                }
+            }
+            case "GETBIT": {
+                long   offset = Long.parseLong(str(args.get(2)));
+                byte[] bitmap = value(str(args.get(1)));
+                if (bitmap == null || bitmap.length <= offset >>> 3) return 0L;
+                return (bitmap[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) == 0 ? 0L : 1L;
+            }
+            case "BITCOUNT": {
+                byte[] bitmap = value(str(args.get(1)));
+                long   count  = 0;
+                if (bitmap != null) for (byte b : bitmap) count += Integer.bitCount(b & 0xff);
+                return count;
+            }
+            case "BITOP": {
+                //只支持OR
+                synchronized (store) {
+                    byte[] result = new byte[0];
+                    for (int i = 3; i < args.size(); i++) {
+                        byte[] src = value(str(args.get(i)));
+                        if (src == null) continue;
+                        if (src.length > result.length) result = Arrays.copyOf(result, src.length);
+                        for (int j = 0; j < src.length; j++) result[j] |= src[j];
+                    }
+                    store.put(str(args.get(2)), new Entry(result, 0));
+                    return (long) result.length;
+                }
+            }
+            case "INCRBY": {
+                synchronized (store) {
+                    byte[] current = value(str(args.get(1)));
+                    long   result  = (current == null ? 0 : Long.parseLong(str(current))) + Long.parseLong(str(args.get(2)));
+                    store.put(str(args.get(1)), new Entry(String.valueOf(result).getBytes(StandardCharsets.US_ASCII), 0));
+                    return result;
+                }
+            }
+            case "KEYS": {
+                Pattern pattern = glob(str(args.get(1)));
+                var keys = new ArrayList<>();
+                store.keySet().forEach(k -> {
+                    if (live(k) != null && pattern.matcher(k).matches()) keys.add(k.getBytes(StandardCharsets.UTF_8));
+                });
+                return keys;
+            }
+            case "SCAN": {
+                int     cursor  = Integer.parseInt(str(args.get(1)));
+                Pattern pattern = null;
+                int     count   = 10;
+                for (int i = 2; i + 1 < args.size(); i += 2) {
+                    String option = str(args.get(i)).toUpperCase(Locale.ROOT);
+                    if ("MATCH".equals(option)) pattern = glob(str(args.get(i + 1)));
+                    if ("COUNT".equals(option)) count = Integer.parseInt(str(args.get(i + 1)));
+                }
+                //游标对应上一页的最后一个key，遍历期间删除key不会跳过其余key
+                String from = cursor == 0 ? null : scanCursors.remove(cursor);
+                var    all  = new TreeSet<>(store.keySet());
+                var    keys = new ArrayList<>();
+                var    rest = from == null ? all : all.tailSet(from, false);
+                String last = null;
+                for (String k : rest) {
+                    if (count-- <= 0) break;
+                    last = k;
+                    if (live(k) != null && (pattern == null || pattern.matcher(k).matches())) keys.add(k.getBytes(StandardCharsets.UTF_8));
+                }
+                int next = 0;
+                if (last != null && !last.equals(all.last())) {
+                    next = cursorSeq.incrementAndGet();
+                    scanCursors.put(next, last);
+                }
+                return List.of(String.valueOf(next).getBytes(StandardCharsets.US_ASCII), keys);
+            }
+            case "FLUSHDB":
+            case "FLUSHALL":
+                store.clear();
+                return "OK";
+            case "EVAL":
+                synchronized (store) {
+                    return eval(args);
+                }
+            default:
+                return new IllegalStateException("ERR unknown command '" + name + "'");
+        }
+    }
+
+    private Object eval(List<byte[]> args) {
+        String script = str(args.get(1));
+        int    keys   = Integer.parseInt(str(args.get(2)));
+        if (script.contains("ZRANGEBYSCORE")) {
+            //hash分桶清理：删除旁路有序集合中分数不超过ARGV[1]的成员及桶中同名字段
+            String bucket  = str(args.get(3));
+            String sidecar = str(args.get(4));
+            byte[] now     = args.get(5);
+            var expired = (List<?>) zset("ZRANGEBYSCORE", List.of(args.get(0), sidecar.getBytes(StandardCharsets.UTF_8), "-inf".getBytes(StandardCharsets.UTF_8), now));
+            if (expired.isEmpty()) return 0L;
+            var members = new ArrayList<byte[]>();
+            members.add(args.get(0));
+            members.add(sidecar.getBytes(StandardCharsets.UTF_8));
+            expired.forEach(member -> members.add((byte[]) member));
+            zset("ZREM", members);
+            members.set(1, bucket.getBytes(StandardCharsets.UTF_8));
+            return hash("HDEL", members);
+        }
+        if (script.contains("HSETNX")) {
+            //hash分桶写入：写入字段，桶由本次写入创建或剩余时间更短时延长过期时间
+            String  bucket  = str(args.get(3));
+            boolean created = live(bucket) == null;
+            boolean nx      = "1".equals(str(args.get(7)));
+            if (nx && (long) hash("HEXISTS", List.of(args.get(0), args.get(3), args.get(4))) == 1L) return 0L;
+            hash("HSET", List.of(args.get(0), args.get(3), args.get(4), args.get(5)));
+            extend(bucket, Long.parseLong(str(args.get(6))), created);
+            return 1L;
+        }
+        if (script.contains("PEXPIRE")) {
+            //续期：剩余时间更短的key延长到ARGV[1]
+            long    ttl        = Long.parseLong(str(args.get(3 + keys)));
+            boolean persistent = "1".equals(str(args.get(4 + keys)));
+            for (int i = 0; i < keys; i++) extend(str(args.get(3 + i)), ttl, persistent);
+            return 0L;
+        }
+        //锁释放：if get(KEYS[1]) == ARGV[1] then del(KEYS[1])
+        String key   = str(args.get(3));
+        byte[] value = value(key);
+        return value != null && Arrays.equals(value, args.get(4)) && store.remove(key) != null ? 1L : 0L;
+    }
+
+    private void extend(String key, long ttl, boolean persistent) {
+        Entry entry = live(key);
+        if (entry == null) return;
+        long remaining = entry.expireAt == 0 ? -1 : entry.expireAt - System.currentTimeMillis();
+        if ((remaining == -1 && persistent) || (remaining >= 0 && remaining < ttl)) store.put(key, new Entry(entry.value, expireAt(ttl)));
+    }
+
+    private Object set(List<byte[]> args) {
+        String  key      = str(args.get(1));
+        boolean nx       = false;
+        long    expireAt = 0;
+        for (int i = 3; i < args.size(); i++) {
+            String option = str(args.get(i)).toUpperCase(Locale.ROOT);
+            if ("NX".equals(option)) nx = true;
+            else if ("PX".equals(option)) expireAt = expireAt(Long.parseLong(str(args.get(++i))));
+            else if ("EX".equals(option)) expireAt = expireAt(Long.parseLong(str(args.get(++i))) * 1000);
+        }
+        Entry entry = new Entry(args.get(2), expireAt);
+        if (nx) {
+            synchronized (store) {
+                if (value(key) != null) return null;
+                store.put(key, entry);
+            }
+        } else {
+            store.put(key, entry);
+        }
+        return "OK";
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object hash(String name, List<byte[]> args) {
+        String              key   = str(args.get(1));
+        Entry               entry = live(key);
+        Map<String, byte[]> hash  = entry != null && entry.value instanceof Map ? (Map<String, byte[]>) entry.value : new HashMap<>();
+        switch (name) {
+            case "HGET":
+                return hash.get(str(args.get(2)));
+            case "HMGET": {
+                var values = new ArrayList<>();
+                for (int i = 2; i < args.size(); i++) values.add(hash.get(str(args.get(i))));
+                return values;
+            }
+            case "HEXISTS":
+                return hash.containsKey(str(args.get(2))) ? 1L : 0L;
+            case "HLEN":
+                return (long) hash.size();
+            case "HSET":
+            case "HMSET": {
+                long count = 0;
+                for (int i = 2; i < args.size(); i += 2) if (hash.put(str(args.get(i)), args.get(i + 1)) == null) count++;
+                store.put(key, new Entry(hash, entry == null ? 0 : entry.expireAt));
+                return "HMSET".equals(name) ? "OK" : count;
+            }
+            case "HSETNX":
+                if (hash.putIfAbsent(str(args.get(2)), args.get(3)) != null) return 0L;
+                store.put(key, new Entry(hash, entry == null ? 0 : entry.expireAt));
+                return 1L;
+            case "HINCRBY": {
+                byte[] current = hash.get(str(args.get(2)));
+                long   result  = (current == null ? 0 : Long.parseLong(str(current))) + Long.parseLong(str(args.get(3)));
+                hash.put(str(args.get(2)), String.valueOf(result).getBytes(StandardCharsets.US_ASCII));
+                store.put(key, new Entry(hash, entry == null ? 0 : entry.expireAt));
+                return result;
+            }
+            default: {
+                long count = 0;
+                for (int i = 2; i < args.size(); i++) if (hash.remove(str(args.get(i))) != null) count++;
+                if (hash.isEmpty()) store.remove(key);
+                return count;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object zset(String name, List<byte[]> args) {
+        String              key   = str(args.get(1));
+        Entry               entry = live(key);
+        Map<String, Double> zset  = entry != null && entry.value instanceof Map ? (Map<String, Double>) entry.value : new HashMap<>();
+        switch (name) {
+            case "ZADD": {
+                long count = 0;
+                for (int i = 2; i < args.size(); i += 2) if (zset.put(member(args.get(i + 1)), Double.parseDouble(str(args.get(i)))) == null) count++;
+                store.put(key, new Entry(zset, entry == null ? 0 : entry.expireAt));
+                return count;
+            }
+            case "ZREM": {
+                long count = 0;
+                for (int i = 2; i < args.size(); i++) if (zset.remove(member(args.get(i))) != null) count++;
+                if (zset.isEmpty()) store.remove(key);
+                return count;
+            }
+            default: {
+                String min     = str(args.get(2));
+                String max     = str(args.get(3));
+                var    members = new ArrayList<>();
+                zset.forEach((member, score) -> {
+                    if (inRange(score, min, true) && inRange(score, max, false)) members.add(member.getBytes(StandardCharsets.ISO_8859_1));
+                });
+                if ("ZRANGEBYSCORE".equals(name)) return members;
+                members.forEach(member -> zset.remove(member((byte[]) member)));
+                if (zset.isEmpty()) store.remove(key);
+                return (long) members.size();
+            }
+        }
+    }
+
+    /**
+     * 有序集合成员按字节保存，成员通常是编码后的二进制值
+     */
+    private static String member(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static Pattern glob(String pattern) {
+        return Pattern.compile(Pattern.quote(pattern).replace("*", "\\E.*\\Q"));
+    }
+
+    private static boolean inRange(double score, String bound, boolean lower) {
+        boolean exclusive = bound.startsWith("(");
+        String  value     = exclusive ? bound.substring(1) : bound;
+        double  limit     = value.endsWith("inf") ? (value.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY) : Double.parseDouble(value);
+        if (lower) return exclusive ? score > limit : score >= limit;
+        return exclusive ? score < limit : score <= limit;
+    }
+
+    private byte[] value(String key) {
+        Entry entry = live(key);
+        return entry == null || !(entry.value instanceof byte[]) ? null : (byte[]) entry.value;
+    }
+
+    private Entry live(String key) {
+        Entry entry = store.get(key);
+        if (entry != null && entry.expireAt != 0 && entry.expireAt <= System.currentTimeMillis()) {
+            store.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private static long expireAt(long ttl) {
+        return System.currentTimeMillis() + ttl;
+    }
+
+    private static String str(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<byte[]> readCommand(DataInputStream in) throws IOException {
+        int prefix = in.read();
+        if (prefix == -1) return null;
+        if (prefix != '*') throw new IOException("Inline commands are not supported");
+        int count = Integer.parseInt(readLine(in));
+        var args  = new ArrayList<byte[]>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') throw new IOException("Bulk string expected");
+            byte[] arg = new byte[Integer.parseInt(readLine(in))];
+            in.readFully(arg);
+            in.skipBytes(2);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        var sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c == -1) throw new EOFException();
+            sb.append((char) c);
+        }
+        in.read();
+        return sb.toString();
+    }
+
+    private static void write(OutputStream out, Object reply) throws IOException {
+        if (reply == null) {
+            out.write(NIL);
+        } else if (reply instanceof String) {
+            out.write(("+" + reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        } else if (reply instanceof Long) {
+            out.write((":" + reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        } else if (reply instanceof byte[]) {
+            byte[] bytes = (byte[]) reply;
+            out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write('\r');
+            out.write('\n');
+        } else if (reply instanceof List) {
+            List<?> list = (List<?>) reply;
+            out.write(("*" + list.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (Object o : list) write(out, o);
+        } else if (reply instanceof Exception) {
+            out.write(("-" + ((Exception) reply).getMessage() + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long   expireAt;
+
+        private Entry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+
+    private record Stall(AtomicInteger times, long millis) {
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class AsyncConnectionPoolTest extends LettuceCacheTestBase {
+
+    private LettuceCache                                            single;
+    private AsyncConnectionPool<StatefulRedisConnection<String, ?>> pool;
+
+    @Before
+    public void setUp() {
+        var poolConfig = new GenericObjectPoolConfig<StatefulRedisConnection<String, ?>>();
+        poolConfig.setMaxTotal(1);
+        single = track(new LettuceCache(redisURI(), new KryoCodec<>(), poolConfig));
+        pool = single.asyncPool;
+    }
+
+    @Test
+    public void testQueue() throws Exception {
+        var held = pool.acquire().get(1, TimeUnit.SECONDS);
+
+        //池耗尽时排队而不是阻塞或失败
+        var put = single.putAsync("user", 1, "u1");
+        assertFalse(put.isDone());
+        assertEquals(1, single.getAsyncWaiters());
+
+        pool.release(held);
+        assertEquals("OK", put.get(1, TimeUnit.SECONDS));
+        assertEquals("u1", single.<Integer, String>getAsync("user", 1).get(1, TimeUnit.SECONDS));
+        assertEquals(0, single.getAsyncWaiters());
+    }
+
+    @Test
+    public void testAcquireTimeout() throws Exception {
+        single.put("user", 1, "u1");
+        //超过等待时间的以TimeoutException失败
+        single.setAsyncAcquireTimeout(100);
+        var held = pool.acquire().get(1, TimeUnit.SECONDS);
+        try {
+            single.getAsync("user", 1).join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertEquals(0, single.getAsyncWaiters());
+        pool.release(held);
+        assertEquals("u1", single.<Integer, String>getAsync("user", 1).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSplitPoolConfig() {
+        var config = new GenericObjectPoolConfig<StatefulRedisConnection<String, ?>>();
+        config.setMaxTotal(20);
+        config.setMaxIdle(8);
+        config.setMinIdle(3);
+        var async = LettuceCacheAbstract.splitPoolConfig(config);
+        //两个池的连接合计不超过原配置
+        assertEquals(10, async.getMaxTotal());
+        assertEquals(4, async.getMaxIdle());
+        assertEquals(1, async.getMinIdle());
+        assertEquals(10, config.getMaxTotal());
+        assertEquals(4, config.getMaxIdle());
+        assertEquals(2, config.getMinIdle());
+
+        //不限制的保持不限制
+        config.setMaxTotal(-1);
+        assertEquals(-1, LettuceCacheAbstract.splitPoolConfig(config).getMaxTotal());
+        assertEquals(-1, config.getMaxTotal());
+    }
+}
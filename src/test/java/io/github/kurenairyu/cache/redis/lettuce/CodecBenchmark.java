@@ -0,0 +1,58 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.redis.User;
+import io.github.kurenairyu.cache.redis.lettuce.jackson.JacksonCodec;
+import io.lettuce.core.codec.RedisCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KryoCodec 与 JacksonCodec 在不同大小值上的编解码耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"kryo", "jackson"})
+    private String codecName;
+
+    /**
+     * 值中包含的User数量
+     */
+    @Param({"1", "10", "100", "1000"})
+    private int size;
+
+    private RedisCodec<String, Object> codec;
+    private ArrayList<User>            value;
+    private ByteBuffer                 encoded;
+
+    @Setup
+    public void setup() {
+        codec = "kryo".equals(codecName) ? new KryoCodec<>() : new JacksonCodec<>();
+        value = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User user = new User();
+            user.setName("user-" + i);
+            user.setAge(i);
+            value.add(user);
+        }
+        encoded = codec.encodeValue(value);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return codec.encodeValue(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decodeValue(encoded.duplicate());
+    }
+}
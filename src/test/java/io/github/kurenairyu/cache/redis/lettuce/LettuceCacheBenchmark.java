@@ -0,0 +1,87 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.github.kurenairyu.cache.redis.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * LettuceCache 端到端耗时
+ * <p>
+ * 指定 {@code -Dredis.uri=redis://host:port} 时使用真实redis，否则使用进程内的 {@link RespServer}。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LettuceCacheBenchmark {
+
+    private static final String NAMESPACE = "bench";
+    private static final int    KEY_COUNT = 1000;
+
+    private RespServer   server;
+    private LettuceCache cache;
+    private User         user;
+    private List<Long>   bulkKeys;
+
+    @Setup
+    public void setup() throws IOException {
+        String uri = System.getProperty("redis.uri");
+        if (uri == null || uri.isEmpty()) {
+            server = new RespServer();
+            uri = "redis://127.0.0.1:" + server.getPort();
+        }
+        cache = new LettuceCache(uri);
+        user = new User();
+        user.setName("Kurenai");
+        user.setAge(20);
+        for (long i = 0; i < KEY_COUNT; i++) cache.put(NAMESPACE, i, user);
+        bulkKeys = LongStream.range(0, 100).boxed().collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cache.clear(NAMESPACE);
+        cache.shutdown();
+        if (server != null) server.close();
+    }
+
+    @Benchmark
+    public User get() {
+        return cache.get(NAMESPACE, ThreadLocalRandom.current().nextLong(KEY_COUNT));
+    }
+
+    @Benchmark
+    public Map<Long, User> getAll() {
+        return cache.getAll(NAMESPACE, bulkKeys);
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(NAMESPACE, ThreadLocalRandom.current().nextLong(KEY_COUNT), user);
+    }
+
+    /**
+     * 现有 {@link LettuceLock} 的一次加锁与释放。基类不会初始化 {@code locked}，这里由子类补上；
+     * SETNX在MULTI中执行，同步接口拿到的是null，因此加锁总是失败，测得的是一次加锁尝试（MULTI/SETNX/DISCARD/GET）与释放的耗时
+     */
+    @Benchmark
+    public boolean lockAndRelease() throws Exception {
+        LettuceLock lock = new LettuceLock("bench-lock:" + Thread.currentThread().getId(), 10_000, cache) {{
+            locked = new AtomicBoolean();
+        }};
+        boolean acquired = lock.tryLockOnce();
+        return lock.releaseLock() && acquired;
+    }
+}
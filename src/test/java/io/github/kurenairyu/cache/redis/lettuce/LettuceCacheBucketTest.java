@@ -0,0 +1,122 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheBucketTest extends LettuceCacheTestBase {
+
+    @Test
+    public void testBuckets() {
+        cache.enableHashBuckets("user", 4);
+        cache.put("user", 1, "u1");
+        cache.putAll("user", Map.of(2, "u2", 3, "u3"));
+        assertEquals("u1", cache.get("user", 1));
+        assertEquals("u2", cache.<Integer, String>getAsync("user", 2).join());
+        assertEquals(Map.of(1, "u1", 3, "u3"), cache.getAll("user", List.of(1, 3, 4)));
+        assertTrue(cache.exists("user", 3));
+        assertFalse(cache.putIfAbsent("user", 1, "x"));
+        assertTrue(cache.putIfAbsent("user", 4, "u4"));
+        assertFalse(cache.putAllIfAbsent("user", Map.of(4, "x", 5, "x")));
+
+        //值保存在桶中，不再有单独的key
+        RedisCommands<String, Object> redis = cache.getExec();
+        List<String>                  keys  = redis.keys("*");
+        assertTrue(keys.stream().allMatch(key -> key.startsWith("user:__bucket__:")));
+        assertTrue(keys.size() <= 4);
+
+        assertTrue(cache.remove("user", 1));
+        assertNull(cache.get("user", 1));
+        assertTrue(cache.clear("user"));
+        assertTrue(redis.keys("*").isEmpty());
+        assertFalse(cache.exists("user", 2));
+    }
+
+    @Test
+    public void testEntryTtl() throws Exception {
+        cache.enableHashBuckets("session", 2, 0, true, 50);
+        cache.put("session", "a", "short", 500);
+        cache.put("session", "b", "long");
+        assertTrue(cache.putIfAbsent("session", "c", "short", 500));
+        assertEquals(Map.of("a", "short", "b", "long", "c", "short"), cache.getAll("session", List.of("a", "b", "c")));
+
+        Thread.sleep(800);
+        //过期字段读取时被过滤，并由后台清理
+        assertNull(cache.get("session", "a"));
+        assertEquals("long", cache.get("session", "b"));
+        assertTrue(cache.putIfAbsent("session", "c", "again"));
+        assertEquals(Set.of("b", "c"), cache.getAll("session", List.of("a", "b", "c")).keySet());
+        assertFalse(cache.remove("session", "a"));
+    }
+
+    @Test
+    public void testBucketTtl() {
+        RedisCommands<String, Object> redis = cache.getExec();
+        cache.enableHashBuckets("user", 1);
+        cache.put("user", 1, "u1", 60_000);
+        assertTrue(redis.pttl("user:__bucket__:0") > 30_000);
+
+        //较短的ttl不会缩短整个桶的过期时间，较长的会延长，字段保留自己的过期时间
+        cache.put("user", 2, "u2", 100);
+        assertTrue(cache.putIfAbsent("user", 3, "u3", 100));
+        assertTrue(redis.pttl("user:__bucket__:0") > 30_000);
+        cache.put("user", 4, "u4", 120_000);
+        assertTrue(redis.pttl("user:__bucket__:0") > 90_000);
+        assertTrue(cache.ttl("user", 1) <= 60_000);
+
+        //已有的永不过期的桶不会被设置过期时间
+        cache.enableHashBuckets("config", 1);
+        cache.put("config", 1, "c1");
+        cache.put("config", 2, "c2", 100);
+        assertEquals(-1, cache.ttl("config", 1));
+    }
+
+    @Test
+    public void testShortTtl() throws Exception {
+        cache.enableHashBuckets("user", 1);
+        cache.put("user", 1, "u1");
+        cache.put("user", 2, "u2", 100);
+        assertTrue(cache.putIfAbsent("user", 3, "u3", 100));
+        Thread.sleep(200);
+
+        //永不过期的桶中的短ttl值同样按自己的过期时间失效
+        assertNull(cache.get("user", 2));
+        assertEquals(Map.of(1, "u1"), cache.getAll("user", List.of(1, 2, 3)));
+        assertTrue(cache.putIfAbsent("user", 3, "again", 60_000));
+        assertEquals("again", cache.get("user", 3));
+
+        //expire只改写字段自己的过期时间，不缩短整个桶
+        cache.put("user", 4, "u4");
+        assertTrue(cache.expire("user", 1, 100, TimeUnit.MILLISECONDS));
+        assertTrue(cache.ttl("user", 1) <= 100);
+        assertEquals(-1, cache.ttl("user", 4));
+        Thread.sleep(200);
+        assertNull(cache.get("user", 1));
+        assertEquals("u4", cache.get("user", 4));
+        assertTrue(server.argCounts("PEXPIRE").isEmpty());
+    }
+
+    @Test
+    public void testSweep() throws Exception {
+        cache.enableHashBuckets("session", 1, 60_000, true, 50);
+        cache.put("session", "a", "short", 100);
+        cache.put("session", "b", "rewritten", 100);
+        cache.put("session", "b", "fresh", 60_000);
+        cache.put("session", "c", "forever");
+        Thread.sleep(300);
+
+        //过期字段由脚本清理，重新写入的字段保留
+        RedisCommands<String, Object> redis = cache.getExec();
+        assertEquals(2L, (long) redis.hlen("session:__bucket__:0"));
+        assertEquals("fresh", cache.get("session", "b"));
+        assertEquals("forever", cache.get("session", "c"));
+        assertTrue(server.argCounts("EVAL").size() > 0);
+        assertTrue(server.argCounts("HDEL").isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheChunkTest extends LettuceCacheTestBase {
+
+    private final Map<Integer, String> values = IntStream.range(0, 1050).boxed().collect(Collectors.toMap(i -> i, i -> "u" + i));
+
+    @Test
+    public void testSplit() {
+        cache.setBulkChunking(100, 100, 5, 1024 * 1024, 3);
+        //超过分块大小的MSET/MGET拆分执行，结果合并
+        cache.putAll("user", values);
+        assertEquals(11, server.argCounts("MSET").size());
+        assertTrue(server.argCounts("MSET").stream().allMatch(count -> count <= 200));
+        assertEquals(values, cache.getAll("user", values.keySet()));
+        assertEquals(11, server.argCounts("MGET").size());
+        assertTrue(server.argCounts("MGET").stream().allMatch(count -> count <= 100));
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        cache.setBulkChunking(100, 100, 5, 1024 * 1024, 3);
+        cache.putAllAsync("user", values).get(1, TimeUnit.SECONDS);
+        assertEquals(11, server.argCounts("MSET").size());
+        assertEquals(values, cache.<Integer, String>getAllAsync("user", values.keySet()).get(1, TimeUnit.SECONDS));
+        assertEquals(values, cache.getAllLazy("user", values.keySet()));
+    }
+
+    @Test
+    public void testAdaptive() {
+        cache.putAll("user", values);
+        //单key耗时超过目标时分块缩小，但不小于最小分块
+        cache.setBulkChunking(10, 1000, 0, 1024 * 1024, 2);
+        assertEquals(1000, cache.getBulkChunkSize());
+        cache.getAll("user", values.keySet());
+        assertEquals(10, cache.getBulkChunkSize());
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.exception.CacheUnavailableException;
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.writebehind.PendingWrite;
+import io.github.kurenairyu.cache.writebehind.WriteBehindBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheCircuitTest extends LettuceCacheTestBase {
+
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        cache.setMetrics(new CacheMetrics() {
+            @Override
+            public void recordCircuitTransition(String from, String to) {
+                transitions.add(to);
+            }
+        });
+        cache.setStaleIfError(100, 60_000);
+    }
+
+    @Test
+    public void testOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5d, 0, 0, 60_000, 1);
+        cache.setCircuitBreaker(breaker);
+        cache.put("user", 1, "u1");
+        assertEquals("u1", cache.get("user", 1));
+
+        //读取失败时返回本地副本，失败率达到阈值后打开（前两次调用成功，第三次失败后达到50%）
+        cache.setDeadline("user", 50);
+        server.stall("GET", 3, 200);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("u1", cache.get("user", 1));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(List.of("OPEN"), transitions);
+
+        //打开期间不发送命令，有副本的返回副本（超时的命令仍在服务端排队，先等它们全部到达）
+        awaitCommands("GET", 4);
+        assertEquals("u1", cache.get("user", 1));
+        assertEquals("u1", cache.getAsync("user", 1).get(1, TimeUnit.SECONDS));
+        assertEquals(Map.of(1, "u1"), cache.getAll("user", List.of(1)));
+        try {
+            cache.get("user", 2);
+            fail();
+        } catch (CacheUnavailableException ignored) {
+        }
+        try {
+            cache.getAsync("user", 2).get(1, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CacheUnavailableException);
+        }
+        assertEquals(4, server.argCounts("GET").size());
+        assertTrue(server.argCounts("MGET").isEmpty());
+        assertEquals(5, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void testHalfOpen() {
+        //打开时间为0，打开后的下一次调用即为半开探测
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5d, 0, 0, 0, 1);
+        cache.setCircuitBreaker(breaker);
+        trip(breaker);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        cache.put("user", 1, "u1-new");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("u1-new", cache.get("user", 1));
+        assertEquals(List.of("OPEN", "HALF_OPEN", "CLOSED"), transitions);
+    }
+
+    @Test
+    public void testAdmittedPhase() {
+        CircuitBreaker       breaker = new CircuitBreaker(10, 5, 0.5d, 0, 0, 0, 1);
+        CircuitBreaker.Phase closed  = breaker.tryAcquire();
+        trip(breaker);
+
+        //关闭时放行、半开时才结束的调用不算探测结果
+        CircuitBreaker.Phase probe = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, probe.getState());
+        assertNull(breaker.tryAcquire());
+        breaker.onResult(closed, 0, true);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        //归还的探测名额可以再次放行
+        breaker.onIgnored(probe);
+        probe = breaker.tryAcquire();
+        assertNotNull(probe);
+        breaker.onResult(probe, 0, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        //已经结束的半开阶段的结果不再影响新的关闭阶段
+        breaker.onResult(probe, 0, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(100, 100, 1d, 0, 0, 60_000, 1);
+        Thread[]       threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    breaker.onResult(breaker.tryAcquire(), 0, j % 2 == 0);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        //并发写入后计数与窗口一致：成功填满窗口后需要整整一个窗口的失败才打开
+        for (int i = 0; i < 100; i++) {
+            breaker.onResult(breaker.tryAcquire(), 0, false);
+        }
+        for (int i = 0; i < 99; i++) {
+            breaker.onResult(breaker.tryAcquire(), 0, true);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(breaker.tryAcquire(), 0, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testWriteDropsStale() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5d, 0, 0, 60_000, 1);
+        cache.setCircuitBreaker(breaker);
+        cache.put("user", 1, "u1");
+        cache.put("user", 2, "u2");
+        assertEquals("u1", cache.get("user", 1));
+        assertEquals("u2", cache.get("user", 2));
+
+        //本进程的写入与删除丢弃副本，打开后不再返回旧值
+        cache.put("user", 1, "u1-new");
+        cache.remove("user", 2);
+        trip(breaker);
+        for (int key : List.of(1, 2)) {
+            try {
+                cache.get("user", key);
+                fail();
+            } catch (CacheUnavailableException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void testWriteBackWhileOpen() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5d, 0, 0, 60_000, 1);
+        cache.setCircuitBreaker(breaker);
+        cache.setWriteBehind(new WriteBehindBuffer("wb"));
+        cache.enableHashBuckets("bucket", 4);
+        cache.put("wb", 1, "v1");
+        trip(breaker);
+
+        //打开期间写回直接失败，写入保留在缓冲中
+        try {
+            cache.getWriteBehind().flush();
+            fail();
+        } catch (CacheUnavailableException ignored) {
+        }
+        assertEquals(1, cache.getWriteBehind().pendingCount());
+
+        //回源结果跳过写入，分桶命令同样被拒绝
+        cache.writeLoaded("user", List.of(new PendingWrite("user", "user:1", "u1", 0)));
+        try {
+            cache.put("bucket", 1, "b1");
+            fail();
+        } catch (CacheUnavailableException ignored) {
+        }
+        assertTrue(server.argCounts("MSET").isEmpty());
+        assertTrue(server.argCounts("SET").isEmpty());
+        assertTrue(server.argCounts("HSET").isEmpty());
+
+        cache.setCircuitBreaker(null);
+        cache.getWriteBehind().flush();
+        assertEquals(0, cache.getWriteBehind().pendingCount());
+        assertEquals("v1", cache.get("wb", 1));
+    }
+
+    private void awaitCommands(String command, int count) throws InterruptedException {
+        for (int i = 0; i < 500 && server.argCounts(command).size() < count; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(count, server.argCounts(command).size());
+    }
+
+    /**
+     * 直接记录失败直到打开
+     */
+    private static void trip(CircuitBreaker breaker) {
+        while (breaker.getState() == CircuitBreaker.State.CLOSED) {
+            breaker.onResult(breaker.tryAcquire(), 0, true);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheDecodeTest extends LettuceCacheTestBase {
+
+    private final Set<String>          threads = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, String> values  = IntStream.range(0, 100).boxed().collect(Collectors.toMap(i -> i, i -> "u" + i));
+    private       ExecutorService      decoder;
+    private       LettuceCache         recording;
+
+    @Before
+    public void setUp() {
+        recording = newCache(new KryoCodec<>() {
+            @Override
+            public Object decodeValue(ByteBuffer bytes) {
+                threads.add(Thread.currentThread().getName());
+                return super.decodeValue(bytes);
+            }
+        });
+        recording.putAll("user", values);
+        decoder = Executors.newFixedThreadPool(2, r -> new Thread(r, "decoder"));
+    }
+
+    @After
+    public void tearDown() {
+        decoder.shutdown();
+    }
+
+    @Test
+    public void testIoThread() {
+        assertEquals("u1", recording.get("user", 1));
+        assertTrue(threads.stream().anyMatch(name -> name.contains("nioEventLoop")));
+    }
+
+    @Test
+    public void testSync() {
+        recording.setDecodeExecutor(decoder);
+        recording.setDecodeChunkSize(16);
+        //同步调用在调用线程解码，批量结果分块交给解码线程池
+        assertEquals("u1", recording.get("user", 1));
+        assertEquals(Set.of(Thread.currentThread().getName()), threads);
+        assertEquals(values, recording.getAll("user", values.keySet()));
+        assertEquals(Set.of(Thread.currentThread().getName(), "decoder"), threads);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        recording.setDecodeExecutor(decoder);
+        recording.setDecodeChunkSize(16);
+        assertEquals("u2", recording.<Integer, String>getAsync("user", 2).get(1, TimeUnit.SECONDS));
+        assertEquals(values, recording.<Integer, String>getAllAsync("user", values.keySet()).get(1, TimeUnit.SECONDS));
+        assertNull(recording.getAsync("user", 200).get(1, TimeUnit.SECONDS));
+        assertEquals(Set.of("decoder"), threads);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheHedgeTest extends LettuceCacheTestBase {
+
+    private static final long STALL = 5000;
+
+    @Before
+    public void setUp() {
+        cache.put("user", 1, "u1");
+        cache.put("user", 2, "u2");
+    }
+
+    @Test
+    public void testAsyncDeadline() throws Exception {
+        cache.setDeadline("user", 100);
+        server.stall("GET", 1, STALL);
+        try {
+            cache.getAsync("user", 1).get(STALL / 2, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSyncDeadline() {
+        cache.setDeadline("user", 100);
+        server.stall("GET", 1, STALL);
+        cache.get("user", 1);
+    }
+
+    @Test
+    public void testDeadlineFallback() {
+        //命名空间截止时间优先于默认截止时间
+        cache.setDeadline(5000);
+        cache.setDeadline("user", 100);
+        assertEquals(100, cache.getDeadline("user"));
+        cache.setDeadline("user", -1);
+        assertEquals(5000, cache.getDeadline("user"));
+        assertEquals("u1", cache.get("user", 1));
+    }
+
+    @Test
+    public void testHedgeSingle() throws Exception {
+        //读取慢于对冲延迟时在另一连接上重发，先返回的为准
+        cache.enableHedging("user", 50);
+        server.stall("GET", 1, STALL);
+        assertEquals("u1", cache.getAsync("user", 1).get(STALL / 2, TimeUnit.MILLISECONDS));
+        assertEquals(2, server.argCounts("GET").size());
+
+        HedgePolicy policy = cache.getHedgePolicy("user");
+        assertEquals(1, policy.getHedgedCount());
+        assertEquals(1, policy.getHedgeWinCount());
+    }
+
+    @Test
+    public void testHedgeBulk() {
+        cache.enableHedging("user", 50);
+        server.stall("MGET", 1, STALL);
+        assertEquals(Map.of(1, "u1", 2, "u2"), cache.getAll("user", List.of(1, 2)));
+        assertEquals(2, server.argCounts("MGET").size());
+
+        HedgePolicy policy = cache.getHedgePolicy("user");
+        assertEquals(1, policy.getHedgedCount());
+        assertEquals(1, policy.getHedgeWinCount());
+    }
+
+    @Test
+    public void testNoHedgeWhenFast() {
+        cache.enableHedging("user", 1000);
+        assertEquals("u1", cache.get("user", 1));
+        assertEquals(1, server.argCounts("GET").size());
+        assertEquals(0, cache.getHedgePolicy("user").getHedgedCount());
+    }
+}
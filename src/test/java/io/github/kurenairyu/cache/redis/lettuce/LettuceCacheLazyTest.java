@@ -0,0 +1,55 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.exception.NotSupportOperationException;
+import io.github.kurenairyu.cache.redis.lettuce.jackson.JacksonCodec;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheLazyTest extends LettuceCacheTestBase {
+
+    @Test
+    public void testDecodeOnAccess() {
+        cache.putAll("user", Map.of(1, "u1", 2, "u2", 3, "u3"));
+        cache.get("user", 4, key -> null);
+
+        LazyValueMap<Integer, String> users = cache.getAllLazy("user", List.of(1, 2, 3, 4, 5));
+        //回源空值与不存在的key都不在结果中，判断存在不需要解码
+        assertEquals(3, users.size());
+        assertTrue(users.containsKey(1));
+        assertFalse(users.containsKey(4));
+        assertFalse(users.isDecoded(1));
+
+        assertEquals("u1", users.get(1));
+        assertTrue(users.isDecoded(1));
+        assertFalse(users.isDecoded(2));
+        assertEquals(Map.of(1, "u1", 2, "u2", 3, "u3"), users);
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        cache.putAll("user", Map.of(1, "u1", 2, "u2"));
+        assertEquals(Map.of(2, "u2"), cache.<Integer, String>getAllLazyAsync("user", List.of(2, 5)).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = NotSupportOperationException.class)
+    public void testProjectionUnsupported() {
+        cache.put("user", 3, "u3");
+        cache.getAllLazy("user", List.of(3)).project(3, List.of("name"));
+    }
+
+    @Test
+    public void testProjection() {
+        LettuceCache json = newCache(new JacksonCodec<>());
+        json.put("user", 1, Map.of("name", "u1", "age", 18, "tags", List.of("a", "b")));
+
+        LazyValueMap<Integer, Map<String, Object>> users = json.getAllLazy("user", List.of(1));
+        assertEquals(Map.of("name", "u1", "age", 18), users.project(1, List.of("name", "age", "missing")));
+        assertFalse(users.isDecoded(1));
+        assertEquals(List.of("a", "b"), users.get(1).get("tags"));
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.CacheLoader;
+import io.github.kurenairyu.cache.CacheWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheLoaderTest extends LettuceCacheTestBase {
+
+    private final AtomicInteger loadAllCalls = new AtomicInteger();
+    private final Set<Integer>  loaded       = ConcurrentHashMap.newKeySet();
+    private final List<Integer> keys         = IntStream.range(0, 250).boxed().collect(Collectors.toList());
+
+    @Before
+    public void setUp() {
+        cache.setLoadBatchSize(100);
+        cache.registerLoader("user", new CacheLoader<Integer, String>() {
+            @Override
+            public String load(Integer key) {
+                loaded.add(key);
+                return key % 2 == 0 ? "u" + key : null;
+            }
+
+            @Override
+            public Map<Integer, String> loadAll(Collection<Integer> keys) {
+                loadAllCalls.incrementAndGet();
+                loaded.addAll(keys);
+                return keys.stream().filter(k -> k % 2 == 0).collect(Collectors.toMap(k -> k, k -> "u" + k));
+            }
+        }, 60_000);
+    }
+
+    @Test
+    public void testLoadAll() {
+        Map<Integer, String> users = cache.getAll("user", keys);
+        assertEquals(125, users.size());
+        assertEquals("u10", users.get(10));
+        assertEquals(3, loadAllCalls.get());
+        assertEquals(250, loaded.size());
+
+        //命中与空值占位都不再回源
+        loaded.clear();
+        assertEquals(users, cache.getAll("user", keys));
+        assertEquals(users, cache.<Integer, String>getAllAsync("user", keys).join());
+        assertNull(cache.get("user", 11));
+        assertEquals("u12", cache.get("user", 12));
+        assertTrue(loaded.isEmpty());
+        assertTrue(cache.exists("user", 11));
+    }
+
+    @Test
+    public void testLoad() {
+        assertEquals("u300", cache.get("user", 300));
+        assertEquals("u302", cache.<Integer, String>getAsync("user", 302).join());
+        assertEquals(Set.of(300, 302), loaded);
+    }
+
+    @Test
+    public void testLoaderThread() {
+        //回源在缓存的线程池中执行，不占用lettuce的io线程
+        assertEquals("cache-loader", cache.<Integer, String>getAsync("user", 304, 60_000, k -> Thread.currentThread().getName()).join());
+    }
+
+    @Test
+    public void testNoMiss() {
+        cache.put("user", 10, "u10");
+        //没有未命中的key时不调用回调
+        assertEquals(Map.of(10, "u10"), cache.getAll("user", List.of(10), missKeys -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    @Test
+    public void testWriter() {
+        var store = new ConcurrentHashMap<Integer, String>();
+        cache.registerWriter("user", new CacheWriter<Integer, String>() {
+            @Override
+            public void write(Integer key, String value) {
+                store.put(key, value);
+            }
+
+            @Override
+            public void delete(Integer key) {
+                store.remove(key);
+            }
+        });
+        cache.put("user", 1, "a");
+        cache.putAllAsync("user", Map.of(2, "b", 3, "c")).join();
+        assertEquals(Map.of(1, "a", 2, "b", 3, "c"), store);
+        assertEquals("b", cache.get("user", 2));
+        cache.removeAll("user", List.of(1, 2));
+        assertEquals(Map.of(3, "c"), store);
+    }
+}
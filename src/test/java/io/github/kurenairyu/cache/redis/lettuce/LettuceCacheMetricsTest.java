@@ -0,0 +1,27 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.metrics.CacheMetrics;
+import io.github.kurenairyu.cache.metrics.CacheOperation;
+import io.github.kurenairyu.cache.metrics.NamespaceStats;
+import io.github.kurenairyu.cache.metrics.StripedCacheMetrics;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheMetricsTest extends LettuceCacheTestBase {
+
+    @Test
+    public void testPayload() {
+        try (StripedCacheMetrics metrics = new StripedCacheMetrics()) {
+            cache.setMetrics(metrics);
+            cache.put("user", 1, "u1");
+            assertEquals("u1", cache.get("user", 1));
+
+            NamespaceStats stats = metrics.snapshot("user");
+            assertEquals(1, stats.payload().count());
+            assertTrue(stats.payload().max() > 0);
+            assertEquals(1, stats.commandLatencies().get(CacheOperation.GET).count());
+            assertEquals(1, metrics.snapshot(CacheMetrics.ANY_NAMESPACE).payload().count());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheResourcesTest extends LettuceCacheTestBase {
+
+    private ClientResources resources;
+
+    @Before
+    public void setUp() {
+        resources = DefaultClientResources.create();
+    }
+
+    @After
+    public void tearDown() {
+        resources.shutdown();
+    }
+
+    @Test
+    public void testSharedResources() {
+        var poolConfig = new GenericObjectPoolConfig<StatefulRedisConnection<String, ?>>();
+        poolConfig.setMinIdle(4);
+        LettuceCache first  = new LettuceCache(redisURI(), new KryoCodec<>(), poolConfig, resources);
+        LettuceCache second = new LettuceCache(redisURI(), new KryoCodec<>(), null, resources);
+
+        //启动时预先建立minIdle个连接，同步与异步连接池各占一半，传入的配置不会被修改
+        assertEquals(2, first.POOL.getNumIdle());
+        assertEquals(4, poolConfig.getMinIdle());
+        assertSame(resources, first.client.getResources());
+        assertSame(resources, second.client.getResources());
+
+        first.put("user", 1, "u1");
+        assertEquals("u1", second.get("user", 1));
+
+        //关闭缓存不会关闭调用方传入的资源
+        first.shutdown();
+        assertEquals("u1", second.get("user", 1));
+        second.shutdown();
+        assertFalse(resources.eventExecutorGroup().isShuttingDown());
+    }
+}
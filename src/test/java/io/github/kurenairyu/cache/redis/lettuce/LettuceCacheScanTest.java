@@ -0,0 +1,70 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.ScanOptions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheScanTest extends LettuceCacheTestBase {
+
+    @Before
+    public void setUp() {
+        cache.putAll("user", IntStream.range(0, 50).boxed().collect(Collectors.toMap(i -> i, i -> "u" + i)));
+        cache.get("user", 50, key -> null);
+        cache.put("other", 1, "o1");
+    }
+
+    @Test
+    public void testKeys() {
+        try (Stream<String> keys = cache.keys("user", ScanOptions.defaults().count(7))) {
+            assertEquals(IntStream.rangeClosed(0, 50).mapToObj(String::valueOf).collect(Collectors.toSet()), keys.collect(Collectors.toSet()));
+        }
+    }
+
+    @Test
+    public void testEntries() {
+        //空值标记不会出现
+        try (Stream<Map.Entry<String, String>> entries = cache.entries("user", ScanOptions.defaults().count(7))) {
+            Map<String, String> all = entries.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            assertEquals(50, all.size());
+            assertEquals("u7", all.get("7"));
+        }
+    }
+
+    @Test
+    public void testShortCircuit() {
+        //短路操作不会拉取剩余的页
+        try (Stream<String> keys = cache.keys("user", ScanOptions.defaults().count(5))) {
+            assertEquals(3, keys.limit(3).count());
+        }
+        assertEquals(1, server.argCounts("SCAN").size());
+    }
+
+    @Test
+    public void testRateLimit() {
+        //11页至少间隔10个周期
+        long start = System.nanoTime();
+        try (Stream<String> keys = cache.keys("user", ScanOptions.defaults().count(5).rateLimit(100))) {
+            assertEquals(51, keys.count());
+        }
+        assertTrue(System.nanoTime() - start >= 90_000_000L);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        assertTrue(cache.clear("user"));
+        assertEquals(0, cache.keys("user").count());
+        assertEquals(Set.of("1"), cache.keys("other").collect(Collectors.toSet()));
+        cache.put("user", 1, "u1");
+        assertTrue(cache.clearAsync("user").get());
+        assertFalse(cache.exists("user", 1));
+        assertEquals("o1", cache.get("other", 1));
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.codec.RedisCodec;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 每个测试方法启动一个 {@link RespServer} 并连接一个使用 {@link KryoCodec} 的 {@link LettuceCache}，结束后全部关闭
+ */
+public abstract class LettuceCacheTestBase {
+
+    protected RespServer   server;
+    protected LettuceCache cache;
+
+    private final List<LettuceCache> caches = new ArrayList<>();
+
+    @Before
+    public void startServer() throws Exception {
+        server = new RespServer();
+        cache = newCache(new KryoCodec<>());
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        try {
+            caches.forEach(LettuceCache::shutdown);
+        } finally {
+            server.close();
+        }
+    }
+
+    protected RedisURI redisURI() {
+        return RedisURI.create("127.0.0.1", server.getPort());
+    }
+
+    /**
+     * @return 连接同一服务端的新缓存，测试结束时关闭
+     */
+    protected LettuceCache newCache(RedisCodec<String, ?> codec) {
+        return track(new LettuceCache(redisURI(), codec));
+    }
+
+    /**
+     * @return 传入的缓存，测试结束时关闭
+     */
+    protected LettuceCache track(LettuceCache cache) {
+        caches.add(cache);
+        return cache;
+    }
+}
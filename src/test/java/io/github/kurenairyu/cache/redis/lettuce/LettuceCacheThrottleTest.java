@@ -0,0 +1,75 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.exception.CacheOverloadException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LettuceCacheThrottleTest extends LettuceCacheTestBase {
+
+    @Before
+    public void setUp() {
+        cache.put("user", 1, "u1");
+    }
+
+    @Test
+    public void testQueueFull() throws Exception {
+        cache.setInFlightLimit(1, 1, 0);
+        InFlightLimiter limiter = cache.getInFlightLimiter();
+        limiter.acquire().join();
+
+        //许可用尽时排队，排队已满时直接失败
+        var queued = cache.<Integer, String>getAsync("user", 1);
+        assertFalse(queued.isDone());
+        assertEquals(1, limiter.getQueued());
+        assertOverload(() -> cache.getAsync("user", 1).join());
+
+        limiter.release();
+        assertEquals("u1", queued.get(1, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.getDelayedCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void testQueueTimeout() {
+        cache.setInFlightLimit(1, 1, 50);
+        InFlightLimiter limiter = cache.getInFlightLimiter();
+        limiter.acquire().join();
+        assertOverload(() -> cache.getAsync("user", 1).join());
+        limiter.release();
+        assertEquals(0, limiter.getQueued());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void testNamespace() throws Exception {
+        //命名空间限制互不影响
+        cache.setInFlightLimit("user", 1, 0, 0);
+        cache.getInFlightLimiter("user").acquire().join();
+        assertOverload(() -> cache.getAsync("user", 1).join());
+        assertNull(cache.getAsync("other", 1).get(1, TimeUnit.SECONDS));
+        cache.getInFlightLimiter("user").release();
+        assertEquals("u1", cache.getAsync("user", 1).get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSyncNotThrottled() {
+        cache.setInFlightLimit(1, 0, 0);
+        cache.getInFlightLimiter().acquire().join();
+        assertEquals("u1", cache.get("user", 1));
+    }
+
+    private static void assertOverload(Runnable runnable) {
+        try {
+            runnable.run();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof CacheOverloadException);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.github.kurenairyu.cache.redis.lettuce;
+
+import io.github.kurenairyu.cache.ReactiveCache;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.AbstractMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class LettuceReactiveCacheTest extends LettuceCacheTestBase {
+
+    private ReactiveCache reactive;
+
+    @Before
+    public void setUp() {
+        reactive = new LettuceReactiveCache(cache, 16, 2);
+        //上游分多批写入
+        Flux<Map.Entry<Integer, String>> entries = Flux.range(0, 100).map(i -> new AbstractMap.SimpleEntry<>(i, "u" + i));
+        assertEquals(Long.valueOf(100), reactive.putAll("user", entries, 0).block());
+        reactive.put("user", 100, null, 0).block();
+    }
+
+    @Test
+    public void testGet() {
+        assertEquals("u42", cache.get("user", 42));
+        assertNull(reactive.get("user", 100).block());
+        assertEquals("u1", reactive.<Integer, String>get("user", 1).block());
+    }
+
+    @Test
+    public void testGetAll() {
+        //不存在与空值标记都不会发出
+        List<Map.Entry<Integer, String>> found = reactive.<Integer, String>getAll("user", Flux.just(1, 2, 100, 200)).collectList().block();
+        assertEquals(Map.of(1, "u1", 2, "u2"), found.stream().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    @Test
+    public void testScan() {
+        //SCAN分页遍历，只返回当前命名空间
+        cache.put("other", 1, "o1");
+        Set<String> keys = new HashSet<>(reactive.keys("user").collectList().block());
+        assertEquals(IntStream.rangeClosed(0, 100).mapToObj(String::valueOf).collect(Collectors.toSet()), keys);
+        Map<String, String> all = reactive.<String>entries("user").collectMap(Map.Entry::getKey, Map.Entry::getValue).block();
+        assertEquals(100, all.size());
+        assertEquals("u7", all.get("7"));
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put("other", 1, "o1");
+        assertTrue(reactive.remove("user", 1).block());
+        assertFalse(reactive.remove("user", 1).block());
+        assertEquals(Long.valueOf(100), reactive.clear("user").block());
+        assertFalse(cache.exists("user", 2));
+        assertEquals("o1", cache.get("other", 1));
+    }
+
+    @Test
+    public void testShared() {
+        assertSame(cache.reactive(), cache.reactive());
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.kurenairyu.cache.shm;
+
+import io.github.kurenairyu.cache.redis.User;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SharedMemoryCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testShared() throws IOException, InterruptedException {
+        Path file = folder.newFile().toPath();
+        User user = new User();
+        user.setAge(20);
+        user.setName("Kurenai");
+        //两个实例分别映射同一文件，模拟两个进程
+        try (SharedMemoryCache a = new SharedMemoryCache(file, 1024 * 1024, 256, new KryoCodec<>());
+             SharedMemoryCache b = new SharedMemoryCache(file, 0, 256, new KryoCodec<>())) {
+            a.put(User.class.getName(), user.getName(), user);
+            assertEquals(user.getName(), b.<String, User>get(User.class.getName(), user.getName()).getName());
+            assertFalse(b.putIfAbsent(User.class.getName(), user.getName(), new User()));
+
+            b.put("ttl", 1, "a", 30);
+            a.put("ttl", 2, null);
+            assertEquals("a", a.get("ttl", 1));
+            assertTrue(a.exists("ttl", 2));
+            Thread.sleep(50);
+            assertFalse(a.exists("ttl", 1));
+
+            assertTrue(b.clear("ttl"));
+            assertFalse(a.exists("ttl", 2));
+            assertTrue(a.remove(User.class.getName(), user.getName()));
+            assertNull(b.get(User.class.getName(), user.getName()));
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws IOException, InterruptedException {
+        Path file = folder.newFile().toPath();
+        try (SharedMemoryCache cache = new SharedMemoryCache(file, 64 * 1024, 64, new KryoCodec<>())) {
+            AtomicReference<Throwable> error   = new AtomicReference<>();
+            Thread[]                   threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 20_000; i++) {
+                            int key = ThreadLocalRandom.current().nextInt(200);
+                            if ((i & 1) == 0) {
+                                cache.put("c", key, "v" + key);
+                            } else {
+                                String value = cache.get("c", key);
+                                if (value != null) assertEquals("v" + key, value);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+            assertNull(error.get());
+        }
+    }
+
+    @Test
+    public void testLockLease() throws Exception {
+        Path file = folder.newFile().toPath();
+        //只有一个桶，便于直接修改锁字
+        try (SharedMemoryCache cache = new SharedMemoryCache(file, 64 + 8 + 8 * 64, 64, new KryoCodec<>());
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer lockWord = channel.map(FileChannel.MapMode.READ_WRITE, 64, 8);
+            lockWord.order(ByteOrder.nativeOrder());
+            cache.put("lock", 1, "a");
+
+            //租约未过期时即使停顿也不抢占
+            lockWord.putLong(0, (System.currentTimeMillis() + 60_000) << 32 | 1);
+            CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> cache.put("lock", 2, "b"));
+            try {
+                blocked.get(300, TimeUnit.MILLISECONDS);
+                fail();
+            } catch (TimeoutException ignored) {
+            }
+            lockWord.putLong(0, 2);
+            blocked.get(5, TimeUnit.SECONDS);
+            assertEquals("b", cache.get("lock", 2));
+
+            //持有者崩溃后等到租约过期即抢占并清空该桶，等待有上限
+            lockWord.putLong(0, (System.currentTimeMillis() + 200) << 32 | 3);
+            long start = System.nanoTime();
+            cache.put("lock", 3, "c");
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals("c", cache.get("lock", 3));
+            assertNull(cache.get("lock", 1));
+            assertEquals(0, lockWord.getLong(0) & 1);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.kurenairyu.cache.tiered;
+
+import io.github.kurenairyu.cache.memory.MemoryCache;
+import io.github.kurenairyu.cache.offheap.OffHeapCache;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TieredCacheTest {
+
+    @Test
+    public void test() {
+        MemoryCache  l1    = new MemoryCache();
+        OffHeapCache l2    = new OffHeapCache();
+        MemoryCache  l3    = new MemoryCache();
+        TieredCache  cache = new TieredCache(List.of(Tier.of(l1, 1000), Tier.of(l2, -1, Tier.WritePolicy.WRITE_AROUND), Tier.of(l3)));
+
+        cache.put("ns", 1, "a");
+        assertEquals("a", l1.get("ns", 1));
+        assertNull(l2.get("ns", 1));
+        assertEquals("a", l3.get("ns", 1));
+
+        //只在最后一层的数据读取后回填到上面各层
+        l3.put("ns", 2, "b");
+        l1.put("ns", 3, "c");
+        assertEquals("b", cache.get("ns", 2));
+        assertEquals("b", l1.get("ns", 2));
+        assertEquals("b", l2.get("ns", 2));
+
+        l3.put("ns", 4, "d");
+        Map<Integer, String> all = cache.getAll("ns", List.of(1, 2, 3, 4, 5));
+        assertEquals(Map.of(1, "a", 2, "b", 3, "c", 4, "d"), all);
+        assertEquals("d", l2.get("ns", 4));
+
+        //write-around 的层在写入时删除旧值
+        cache.put("ns", 2, "b2");
+        assertNull(l2.get("ns", 2));
+        assertEquals("b2", cache.get("ns", 2));
+
+        assertFalse(cache.putIfAbsent("ns", 4, "x"));
+        assertTrue(cache.remove("ns", 4));
+        assertFalse(l1.exists("ns", 4) || l2.exists("ns", 4) || l3.exists("ns", 4));
+
+        assertTrue(cache.clear("ns"));
+        assertTrue(cache.getAll("ns", List.of(1, 2, 3)).isEmpty());
+    }
+
+    @Test
+    public void testAsync() {
+        MemoryCache l1    = new MemoryCache();
+        MemoryCache l2    = new MemoryCache();
+        TieredCache cache = new TieredCache(l1, l2);
+
+        l2.put("ns", 1, "a");
+        assertEquals("a", cache.getAsync("ns", 1).join());
+        assertEquals("a", l1.get("ns", 1));
+        assertTrue(cache.putIfAbsentAsync("ns", 2, "b").join());
+        assertEquals("b", l1.get("ns", 2));
+        l2.put("ns", 3, "c");
+        assertEquals(Map.of(1, "a", 2, "b", 3, "c"), cache.getAllAsync("ns", List.of(1, 2, 3)).join());
+        assertTrue(cache.existsAsync("ns", 3).join());
+        assertTrue(cache.removeAsync("ns", 3).join());
+        assertFalse(cache.existsAsync("ns", 3).join());
+    }
+
+    @Test
+    public void testPromoteTtl() {
+        MemoryCache l1    = new MemoryCache();
+        MemoryCache l2    = new MemoryCache();
+        TieredCache cache = new TieredCache(l1, l2);
+
+        //回填的值不会比下层活得更久
+        l2.put("ns", 1, "a", 60_000);
+        l2.put("ns", 2, "b");
+        assertEquals("a", cache.get("ns", 1));
+        long ttl = l1.ttl("ns", 1);
+        assertTrue(ttl > 0 && ttl <= 60_000);
+        assertEquals(Map.of(2, "b"), cache.getAll("ns", List.of(2)));
+        assertEquals(-1, l1.ttl("ns", 2));
+
+        l2.put("ns", 3, "c", 60_000);
+        assertEquals("c", cache.getAsync("ns", 3).join());
+        ttl = l1.ttl("ns", 3);
+        assertTrue(ttl > 0 && ttl <= 60_000);
+        assertEquals(-2, cache.ttl("ns", 4));
+    }
+
+    @Test
+    public void testExistsAll() {
+        MemoryCache l1    = new MemoryCache();
+        MemoryCache l2    = new MemoryCache();
+        TieredCache cache = new TieredCache(l1, l2);
+
+        l1.put("ns", 1, "a");
+        l2.put("ns", 2, "b");
+        assertTrue(cache.existsAll("ns", List.of(1, 2)));
+        assertTrue(cache.existsAll("ns", List.of(2, 3)));
+        assertTrue(cache.existsAllAsync("ns", List.of(2, 3)).join());
+        assertFalse(cache.existsAll("ns", List.of(3, 4)));
+    }
+
+    @Test
+    public void testWriteOrder() {
+        List<String> writes = new CopyOnWriteArrayList<>();
+        TieredCache  cache  = new TieredCache(new RecordingCache("l1", writes), new RecordingCache("l2", writes), new RecordingCache("l3", writes));
+
+        //同步与异步都从最后一层开始向上写入
+        cache.put("ns", 1, "a");
+        assertEquals(List.of("l3", "l2", "l1"), writes);
+        writes.clear();
+        cache.putAsync("ns", 1, "a").join();
+        assertEquals(List.of("l3", "l2", "l1"), writes);
+        writes.clear();
+        cache.putAllAsync("ns", Map.of(1, "a")).join();
+        assertEquals(List.of("l3", "l2", "l1"), writes);
+    }
+
+    @Test
+    public void testInvalidateOrder() {
+        List<String> writes = new CopyOnWriteArrayList<>();
+        TieredCache  cache  = new TieredCache(new RecordingCache("l1", writes), new RecordingCache("l2", writes), new RecordingCache("l3", writes));
+        cache.put("ns", 1, "a");
+
+        //删除与清空同样从最后一层开始，上层删除后的读取不会再从下层回填旧值
+        writes.clear();
+        assertTrue(cache.remove("ns", 1));
+        assertEquals(List.of("l3", "l2", "l1"), writes);
+        writes.clear();
+        cache.removeAsync("ns", 1).join();
+        cache.removeAllAsync("ns", List.of(1)).join();
+        assertEquals(List.of("l3", "l2", "l1", "l3", "l2", "l1"), writes);
+        writes.clear();
+        cache.clear("ns");
+        cache.clearAsync("ns").join();
+        cache.clearAllAsync().join();
+        assertEquals(List.of("l3", "l2", "l1", "l3", "l2", "l1", "l3", "l2", "l1"), writes);
+    }
+
+    private static class RecordingCache extends MemoryCache {
+
+        private final String       name;
+        private final List<String> writes;
+
+        private RecordingCache(String name, List<String> writes) {
+            this.name = name;
+            this.writes = writes;
+        }
+
+        @Override
+        public <K, V> void put(String namespace, K key, V value, long ttl) {
+            writes.add(name);
+            super.put(namespace, key, value, ttl);
+        }
+
+        @Override
+        public <K> boolean remove(String namespace, K key) {
+            writes.add(name);
+            return super.remove(namespace, key);
+        }
+
+        @Override
+        public boolean clear(String namespace) {
+            writes.add(name);
+            return super.clear(namespace);
+        }
+
+        @Override
+        public boolean clearAll() {
+            writes.add(name);
+            return super.clearAll();
+        }
+    }
+
+    @Test
+    public void testScan() {
+        MemoryCache l1    = new MemoryCache();
+        MemoryCache l2    = new MemoryCache();
+        TieredCache cache = new TieredCache(l1, l2);
+
+        //遍历最后一层
+        l1.put("ns", 1, "a");
+        l2.put("ns", 2, "b");
+        assertEquals(List.of("2"), cache.keys("ns").collect(Collectors.toList()));
+        assertEquals(List.of(Map.entry("2", "b")), cache.<String>entries("ns").collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.kurenairyu.cache.util;
+
+import io.github.kurenairyu.cache.redis.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KryoUtil 在多线程争用 Kryo 池时的序列化耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KryoUtilBenchmark {
+
+    private User   user;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        user = new User();
+        user.setName("Kurenai");
+        user.setAge(20);
+        bytes = KryoUtil.writeToByteArray(user);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public byte[] writeSingleThread() {
+        return KryoUtil.writeToByteArray(user);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public byte[] writeContended() {
+        return KryoUtil.writeToByteArray(user);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public User readContended() {
+        return KryoUtil.readFromByteArray(bytes);
+    }
+}
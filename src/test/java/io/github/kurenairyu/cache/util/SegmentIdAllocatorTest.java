@@ -0,0 +1,96 @@
+package io.github.kurenairyu.cache.util;
+
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.github.kurenairyu.cache.redis.lettuce.KryoCodec;
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import io.lettuce.core.RedisURI;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class SegmentIdAllocatorTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private RespServer   server;
+    private LettuceCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new RespServer();
+        cache = new LettuceCache(RedisURI.create("127.0.0.1", server.getPort()), new KryoCodec<>());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.shutdown();
+        server.close();
+    }
+
+    @Test
+    public void testRollover() {
+        var allocator = new SegmentIdAllocator(cache, "order", 10, 10, 0.5, HOUR);
+        for (long expected = 1; expected <= 25; expected++) {
+            assertEquals(expected, allocator.nextId());
+        }
+        //第一个号段同步获取，之后的号段都在使用过半时预取
+        assertEquals(3, server.argCounts("INCRBY").size());
+    }
+
+    @Test
+    public void testPrefetch() throws Exception {
+        var allocator = new SegmentIdAllocator(cache, "order", 10, 40, 0.5, HOUR);
+        for (int i = 0; i < 5; i++) allocator.nextId();
+        assertEquals(1, server.argCounts("INCRBY").size());
+
+        //第6个id达到预取比例，下一个号段在后台获取
+        assertEquals(6, allocator.nextId());
+        awaitIncrBy(2);
+        for (long expected = 7; expected <= 10; expected++) {
+            assertEquals(expected, allocator.nextId());
+        }
+        //切换到预取的号段不再访问redis，消耗很快因此号段翻倍
+        assertEquals(11, allocator.nextId());
+        assertEquals(2, server.argCounts("INCRBY").size());
+        assertEquals(20, allocator.getStep());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        var       allocator = new SegmentIdAllocator(cache, "order", 100, 1000, 0.2, HOUR);
+        Set<Long> ids       = ConcurrentHashMap.newKeySet();
+        int       threads   = 8;
+        int       perThread = 5000;
+        var       pool      = Executors.newFixedThreadPool(threads);
+        try {
+            var start   = new CountDownLatch(1);
+            var futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < perThread; j++) {
+                        assertTrue(ids.add(allocator.nextId()));
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    private void awaitIncrBy(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && server.argCounts("INCRBY").size() < count; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals(count, server.argCounts("INCRBY").size());
+    }
+}
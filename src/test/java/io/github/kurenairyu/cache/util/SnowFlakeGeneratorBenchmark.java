@@ -0,0 +1,38 @@
+package io.github.kurenairyu.cache.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnowFlakeGenerator 32线程争用下的吞吐量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowFlakeGeneratorBenchmark {
+
+  private final SnowFlakeGenerator generator = new SnowFlakeGenerator(1, 1);
+
+  @Benchmark
+  @Threads(32)
+  public long nextId() {
+    return generator.nextId();
+  }
+
+  @Benchmark
+  @Threads(32)
+  public long[] nextIds() {
+    return generator.nextIds(16);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SnowFlakeGeneratorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,39 @@
+package io.github.kurenairyu.cache.util;
+
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SnowFlakeGeneratorTest {
+
+  @Test
+  public void testUniqueUnderContention() throws InterruptedException {
+    SnowFlakeGenerator generator = new SnowFlakeGenerator(1, 1);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    int threads = 8, perThread = 50_000;
+    CountDownLatch latch = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      new Thread(() -> {
+        for (int j = 0; j < perThread; j++) ids.add(generator.nextId());
+        latch.countDown();
+      }).start();
+    }
+    latch.await();
+    assertEquals(threads * perThread, ids.size());
+  }
+
+  @Test
+  public void testNextIdsIncreasing() {
+    SnowFlakeGenerator generator = new SnowFlakeGenerator(1, 1);
+    long[] ids = generator.nextIds(10_000);
+    for (int i = 1; i < ids.length; i++) {
+      assertTrue(ids[i] > ids[i - 1]);
+    }
+    assertTrue(generator.nextId() > ids[ids.length - 1]);
+  }
+}
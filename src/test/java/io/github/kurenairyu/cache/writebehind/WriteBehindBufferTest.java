@@ -0,0 +1,122 @@
+package io.github.kurenairyu.cache.writebehind;
+
+import io.github.kurenairyu.cache.redis.RespServer;
+import io.github.kurenairyu.cache.redis.lettuce.LettuceCache;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindBufferTest {
+
+    @Test
+    public void test() {
+        var               batches = Collections.synchronizedList(new ArrayList<List<PendingWrite>>());
+        WriteBehindBuffer buffer  = new WriteBehindBuffer(List.of("ns"), 2, 3, 60_000);
+        buffer.start(batch -> batches.add(List.copyOf(batch)));
+        assertTrue(buffer.isBuffered("ns"));
+        assertFalse(buffer.isBuffered("other"));
+
+        //同一key只保留最后一次写入
+        buffer.offer(new PendingWrite("ns", "ns:1", "a", 0));
+        buffer.offer(new PendingWrite("ns", "ns:1", "b", 0));
+        assertEquals(1, buffer.pendingCount());
+        assertEquals("b", buffer.get("ns:1").value());
+
+        buffer.discard("ns:1");
+        assertNull(buffer.get("ns:1"));
+
+        buffer.offer(new PendingWrite("ns", "ns:1", "c", 0));
+        buffer.flush();
+        assertEquals(0, buffer.pendingCount());
+        assertEquals("c", batches.get(batches.size() - 1).get(0).value());
+
+        //超出上限时写入线程同步写回
+        batches.clear();
+        buffer.close();
+        WriteBehindBuffer full = new WriteBehindBuffer(List.of(), 2, 2, 60_000);
+        full.start(batch -> batches.add(List.copyOf(batch)));
+        full.offer(new PendingWrite("ns", "ns:1", 1, 0));
+        full.offer(new PendingWrite("ns", "ns:2", 2, 0));
+        full.offer(new PendingWrite("ns", "ns:3", 3, 0));
+        assertEquals(1, full.pendingCount());
+        full.close();
+        assertEquals(0, full.pendingCount());
+        assertEquals(3, batches.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    public void testMaxPending() throws Exception {
+        int               maxPending = 4;
+        WriteBehindBuffer buffer     = new WriteBehindBuffer(List.of(), 2, maxPending, 60_000);
+        buffer.start(batch -> {
+        });
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        buffer.offer(new PendingWrite("ns", "ns:" + thread + ":" + i, i, 0));
+                        assertTrue(buffer.pendingCount() <= maxPending);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+            buffer.close();
+        }
+    }
+
+    @Test
+    public void testLettuce() throws Exception {
+        try (RespServer server = new RespServer()) {
+            LettuceCache cache = new LettuceCache("127.0.0.1", server.getPort());
+            cache.setWriteBehind(new WriteBehindBuffer("wb"));
+            try {
+                for (int i = 0; i < 10; i++) {
+                    cache.put("wb", 1, i);
+                }
+                cache.put("wb", 2, "ttl", 60_000);
+                cache.putAll("wb", Map.of(3, "c", 4, "d"));
+                assertEquals(9, (int) cache.get("wb", 1));
+                assertEquals(Map.of(1, 9, 3, "c"), cache.getAll("wb", List.of(1, 3, 5)));
+                assertTrue(cache.exists("wb", 2));
+
+                cache.remove("wb", 4);
+                assertEquals(1L, cache.incrBy("wb", 5, 1));
+                cache.getWriteBehind().flush();
+                assertEquals(0, cache.getWriteBehind().pendingCount());
+                assertEquals(9, (int) cache.get("wb", 1));
+                assertEquals("ttl", cache.get("wb", 2));
+                assertFalse(cache.exists("wb", 4));
+
+                //ttl小于等于0表示永不过期，已过期的未写回写入视为不存在
+                cache.put("wb", 7, "forever", 0);
+                assertTrue(cache.exists("wb", 7));
+                assertEquals("forever", cache.get("wb", 7));
+                cache.put("wb", 8, "short", 1);
+                TimeUnit.MILLISECONDS.sleep(5);
+                assertFalse(cache.exists("wb", 8));
+                assertFalse(cache.existsAsync("wb", 8).get());
+
+                cache.put("wb", 6, "shutdown");
+            } finally {
+                cache.shutdown();
+            }
+            LettuceCache reader = new LettuceCache("127.0.0.1", server.getPort());
+            try {
+                assertEquals("shutdown", reader.get("wb", 6));
+            } finally {
+                reader.shutdown();
+            }
+        }
+    }
+}